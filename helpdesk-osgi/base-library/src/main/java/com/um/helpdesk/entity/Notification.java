@@ -4,7 +4,12 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    // Inbox and unread badge: recipient + read
+    @Index(name = "idx_notification_recipient_read", columnList = "user_id, is_read, createdAt"),
+    // Retry sweep: status + retryCount (the status prefix also serves findByStatus)
+    @Index(name = "idx_notification_status_retry", columnList = "status, retryCount")
+})
 public class Notification extends BaseEntity {
 
     @ManyToOne(optional = false)
@@ -4,7 +4,19 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+    // Listing and status filters, newest first
+    @Index(name = "idx_ticket_created", columnList = "createdAt"),
+    @Index(name = "idx_ticket_status_created", columnList = "status, createdAt"),
+    // Unassigned queue: department + assignedTo IS NULL + status lead the key, so the index
+    // behaves like a partial index on the open, unassigned slice; the department_id prefix
+    // also serves findByDepartment and countByDepartment
+    @Index(name = "idx_ticket_dept_queue",
+           columnList = "department_id, assigned_to_id, status, priority, createdAt"),
+    // Technician workload and "my tickets" filters
+    @Index(name = "idx_ticket_assignee_status", columnList = "assigned_to_id, status"),
+    @Index(name = "idx_ticket_submitter_created", columnList = "submitted_by_id, createdAt")
+})
 public class Ticket extends BaseEntity {
 
     @Column(nullable = false)
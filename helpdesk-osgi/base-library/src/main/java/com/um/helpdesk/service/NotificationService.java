@@ -14,7 +14,8 @@ public interface NotificationService {
     List<Notification> getNotificationsByUser(Long userId);
     List<Notification> getUnreadNotifications(Long userId);
     void markAsRead(Long notificationId);
-    void markAllAsRead(Long userId);
+    int markAllAsRead(Long userId);
+    int markAsReadUpTo(Long userId, Long notificationId);
     Notification updateNotification(Long id, Notification notification);
     void deleteNotification(Long id);
     long getUnreadCount(Long userId);
@@ -472,8 +472,8 @@ public class Activator implements BundleActivator {
 
     private void markAllAsRead(NotificationService service) {
         try {
-            service.markAllAsRead(currentUserId);
-            System.out.println("✅ All notifications marked as read!\n");
+            int count = service.markAllAsRead(currentUserId);
+            System.out.println("✅ " + count + " notification(s) marked as read!\n");
         } catch (RuntimeException e) {
             System.out.println("❌ " + e.getMessage() + "\n");
         }
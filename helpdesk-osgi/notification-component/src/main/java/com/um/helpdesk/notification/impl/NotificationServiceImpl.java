@@ -8,6 +8,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class NotificationServiceImpl implements NotificationService {
 
@@ -67,17 +68,21 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    public void markAllAsRead(Long userId) {
+    public int markAllAsRead(Long userId) {
         em.getTransaction().begin();
-        User user = findUserById(userId);
-        List<Notification> unread = notificationRepository.findUnreadByRecipient(user);
-        for (Notification n : unread) {
-            n.setRead(true);
-            n.setReadAt(LocalDateTime.now());
-            n.setStatus(NotificationStatus.READ);
-            notificationRepository.save(n);
-        }
+        int updated = notificationRepository.markAllReadByRecipient(userId, LocalDateTime.now());
         em.getTransaction().commit();
+        em.clear();    // the bulk UPDATE bypassed this long-lived context; drop its stale copies
+        return updated;
+    }
+
+    @Override
+    public int markAsReadUpTo(Long userId, Long notificationId) {
+        em.getTransaction().begin();
+        int updated = notificationRepository.markReadByRecipientUpTo(userId, notificationId, LocalDateTime.now());
+        em.getTransaction().commit();
+        em.clear();    // the bulk UPDATE bypassed this long-lived context; drop its stale copies
+        return updated;
     }
 
     @Override
@@ -342,15 +347,14 @@ public class NotificationServiceImpl implements NotificationService {
 
     @Override
     public String getDeliveryStatistics() {
-        List<Notification> all = notificationRepository.findAll();
-
-        long total = all.size();
-        long sent = all.stream().filter(n -> n.getStatus() == NotificationStatus.SENT).count();
-        long delivered = all.stream().filter(n -> n.getStatus() == NotificationStatus.DELIVERED).count();
-        long read = all.stream().filter(n -> n.getStatus() == NotificationStatus.READ).count();
-        long failed = all.stream().filter(n ->
-                n.getStatus() == NotificationStatus.FAILED ||
-                        n.getStatus() == NotificationStatus.PERMANENTLY_FAILED).count();
+        Map<NotificationStatus, Long> counts = notificationRepository.countByStatus();
+
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        long sent = counts.getOrDefault(NotificationStatus.SENT, 0L);
+        long delivered = counts.getOrDefault(NotificationStatus.DELIVERED, 0L);
+        long read = counts.getOrDefault(NotificationStatus.READ, 0L);
+        long failed = counts.getOrDefault(NotificationStatus.FAILED, 0L)
+                + counts.getOrDefault(NotificationStatus.PERMANENTLY_FAILED, 0L);
 
         StringBuilder sb = new StringBuilder();
         sb.append("=== NOTIFICATION DELIVERY STATISTICS (OSGi) ===\n");
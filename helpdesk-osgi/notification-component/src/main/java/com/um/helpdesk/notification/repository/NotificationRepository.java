@@ -6,7 +6,10 @@ import com.um.helpdesk.entity.User;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class NotificationRepository {
 
@@ -66,6 +69,45 @@ public class NotificationRepository {
         return q.getSingleResult();
     }
 
+    // One UPDATE for a recipient's whole unread backlog; bypasses @PreUpdate, so updatedAt is set here,
+    // and the persistence context, so callers clear it once the transaction commits
+    public int markAllReadByRecipient(Long recipientId, LocalDateTime readAt) {
+        return em.createQuery(
+                "UPDATE Notification n SET n.read = true, n.readAt = :readAt, n.updatedAt = :readAt, n.status = :status " +
+                "WHERE n.recipient.id = :recipientId AND n.read = false")
+                .setParameter("readAt", readAt)
+                .setParameter("status", NotificationStatus.READ)
+                .setParameter("recipientId", recipientId)
+                .executeUpdate();
+    }
+
+    // As markAllReadByRecipient, bounded to ids up to the newest one an inbox page has shown
+    public int markReadByRecipientUpTo(Long recipientId, Long upToId, LocalDateTime readAt) {
+        return em.createQuery(
+                "UPDATE Notification n SET n.read = true, n.readAt = :readAt, n.updatedAt = :readAt, n.status = :status " +
+                "WHERE n.recipient.id = :recipientId AND n.read = false AND n.id <= :upToId")
+                .setParameter("readAt", readAt)
+                .setParameter("status", NotificationStatus.READ)
+                .setParameter("recipientId", recipientId)
+                .setParameter("upToId", upToId)
+                .executeUpdate();
+    }
+
+    // Notifications per status, every status present; one GROUP BY instead of loading every row
+    public Map<NotificationStatus, Long> countByStatus() {
+        Map<NotificationStatus, Long> counts = new EnumMap<>(NotificationStatus.class);
+        for (NotificationStatus status : NotificationStatus.values()) {
+            counts.put(status, 0L);
+        }
+        List<Object[]> rows = em.createQuery(
+                "SELECT n.status, COUNT(n) FROM Notification n GROUP BY n.status", Object[].class)
+                .getResultList();
+        for (Object[] row : rows) {
+            counts.put((NotificationStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
     public List<Notification> findByStatus(NotificationStatus status) {
         TypedQuery<Notification> q = em.createQuery(
                 "SELECT n FROM Notification n WHERE n.status = :status",
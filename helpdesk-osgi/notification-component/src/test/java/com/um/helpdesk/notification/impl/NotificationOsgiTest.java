@@ -16,7 +16,7 @@ import javax.persistence.TypedQuery;
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
 import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -130,17 +130,30 @@ class NotificationOsgiTest {
                         notif.getType() == NotificationType.ESCALATION));
     }
 
+    // =================================================================
+    // 🧪 TEST: MARK ALL READ (One bulk update, no per-row saves)
+    // =================================================================
+    @Test
+    void testMarkAllAsRead_ShouldUseBulkUpdate() {
+        when(notificationRepository.markAllReadByRecipient(eq(2L), any())).thenReturn(12);
+        when(notificationRepository.markReadByRecipientUpTo(eq(2L), eq(40L), any())).thenReturn(4);
+
+        assertEquals(12, notificationService.markAllAsRead(2L));
+        assertEquals(4, notificationService.markAsReadUpTo(2L, 40L));
+
+        verify(notificationRepository, never()).save(any(Notification.class));
+        verify(em, never()).find(eq(User.class), any());
+        verify(transaction, times(2)).commit();
+        verify(em, times(2)).clear();
+    }
+
     // =================================================================
     // 🧪 TEST 4: DELIVERY STATS (Math Check)
     // =================================================================
     @Test
     void testDeliveryStats_ShouldFormatString() {
-        Notification n1 = new Notification();
-        n1.setStatus(NotificationStatus.SENT);
-        Notification n2 = new Notification();
-        n2.setStatus(NotificationStatus.FAILED);
-
-        when(notificationRepository.findAll()).thenReturn(List.of(n1, n2));
+        when(notificationRepository.countByStatus())
+                .thenReturn(Map.of(NotificationStatus.SENT, 1L, NotificationStatus.FAILED, 1L));
 
         String stats = notificationService.getDeliveryStatistics();
 
@@ -148,5 +161,6 @@ class NotificationOsgiTest {
         assertTrue(stats.contains("Sent: 1"));
         assertTrue(stats.contains("Failed: 1"));
         assertTrue(stats.contains("(OSGi)")); // Check for specific OSGi label
+        verify(notificationRepository, never()).findAll();
     }
 }
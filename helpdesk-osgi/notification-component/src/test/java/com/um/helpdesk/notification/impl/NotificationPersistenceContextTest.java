@@ -0,0 +1,83 @@
+package com.um.helpdesk.notification.impl;
+
+import com.um.helpdesk.entity.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: notifications read back through the service's own long-lived EntityManager
+ * reflect the bulk mark-read UPDATEs instead of the copies it already had loaded
+ */
+@DisplayName("OSGi Notification Persistence Context Tests")
+class NotificationPersistenceContextTest {
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private NotificationServiceImpl notificationService;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        emf = Persistence.createEntityManagerFactory("helpdesk-pu");
+        em = emf.createEntityManager();
+        notificationService = new NotificationServiceImpl(em);
+
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        em.getTransaction().begin();
+        em.persist(student);
+        em.getTransaction().commit();
+    }
+
+    @AfterEach
+    void tearDown() {
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Notification").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Should read bulk-marked notifications back as read through the same EntityManager")
+    void testBulkMarkReadIsVisibleThroughSameEntityManager() {
+        Notification first = notificationService.createNotification(notification("First"));
+        Notification second = notificationService.createNotification(notification("Second"));
+        Notification third = notificationService.createNotification(notification("Third"));
+        // All three are now managed by the service's EntityManager, still unread
+        assertEquals(3, notificationService.getUnreadNotifications(student.getId()).size());
+
+        assertEquals(2, notificationService.markAsReadUpTo(student.getId(), second.getId()));
+        Notification read = notificationService.getNotificationById(first.getId());
+        assertTrue(read.isRead());
+        assertEquals(NotificationStatus.READ, read.getStatus());
+        assertNotNull(read.getReadAt());
+        assertFalse(notificationService.getNotificationById(third.getId()).isRead());
+
+        assertEquals(1, notificationService.markAllAsRead(student.getId()));
+        Notification last = notificationService.getNotificationById(third.getId());
+        assertTrue(last.isRead());
+        assertEquals(NotificationStatus.READ, last.getStatus());
+        assertTrue(notificationService.getUnreadNotifications(student.getId()).isEmpty());
+        assertEquals(0, notificationService.getUnreadCount(student.getId()));
+    }
+
+    private Notification notification(String title) {
+        Notification notification = new Notification();
+        notification.setRecipient(student);
+        notification.setTitle(title);
+        notification.setMessage("Your ticket was updated");
+        notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+        return notification;
+    }
+}
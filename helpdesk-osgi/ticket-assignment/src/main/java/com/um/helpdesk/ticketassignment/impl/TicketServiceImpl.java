@@ -1,6 +1,7 @@
 package com.um.helpdesk.ticketassignment.impl;
 
 import com.um.helpdesk.entity.*;
+import com.um.helpdesk.routing.KeywordRoutingEngine;
 import com.um.helpdesk.service.TicketService;
 import com.um.helpdesk.ticketassignment.repository.TicketRepository;
 
@@ -14,8 +15,8 @@ public class TicketServiceImpl implements TicketService {
     private final TicketRepository ticketRepository;
     private final EntityManager entityManager;
 
-    // Simple keyword-to-department mapping for routing
-    private final Map<String, String> departmentKeywords;
+    // Keyword-to-department routing, compiled once into a single-pass matcher
+    private final KeywordRoutingEngine routingEngine;
 
     // Maximum reassignment allowed before requiring escalation
     private static final int MAX_REASSIGNMENT_COUNT = 3;
@@ -23,46 +24,52 @@ public class TicketServiceImpl implements TicketService {
     public TicketServiceImpl(EntityManager entityManager) {
         this.entityManager = entityManager;
         this.ticketRepository = new TicketRepository(entityManager);
-        this.departmentKeywords = initializeDepartmentKeywords();
+        this.routingEngine = initializeRoutingEngine();
     }
 
-    private Map<String, String> initializeDepartmentKeywords() {
-        Map<String, String> keywords = new HashMap<>();
-        // IT Department keywords
-        keywords.put("network", "IT");
-        keywords.put("computer", "IT");
-        keywords.put("software", "IT");
-        keywords.put("hardware", "IT");
-        keywords.put("login", "IT");
-        keywords.put("password", "IT");
-        keywords.put("internet", "IT");
-        keywords.put("wifi", "IT");
-        keywords.put("email", "IT");
-
-        // Facilities keywords
-        keywords.put("room", "FACILITIES");
-        keywords.put("building", "FACILITIES");
-        keywords.put("maintenance", "FACILITIES");
-        keywords.put("air conditioning", "FACILITIES");
-        keywords.put("lighting", "FACILITIES");
-        keywords.put("cleaning", "FACILITIES");
-        keywords.put("projector", "FACILITIES");
-
-        // Finance keywords
-        keywords.put("payment", "FINANCE");
-        keywords.put("tuition", "FINANCE");
-        keywords.put("fees", "FINANCE");
-        keywords.put("refund", "FINANCE");
-        keywords.put("invoice", "FINANCE");
-
-        // Academic keywords
-        keywords.put("enrollment", "ACADEMIC");
-        keywords.put("course", "ACADEMIC");
-        keywords.put("grade", "ACADEMIC");
-        keywords.put("exam", "ACADEMIC");
-        keywords.put("registration", "ACADEMIC");
-
-        return keywords;
+    private KeywordRoutingEngine initializeRoutingEngine() {
+        return KeywordRoutingEngine.builder()
+            // Registration order breaks ties between equally scored departments
+            .department("IT", 1.0)
+            .department("FACILITIES", 1.0)
+            .department("FINANCE", 1.0)
+            .department("ACADEMIC", 1.0)
+
+            // IT Department keywords
+            .keyword("network", "IT")
+            .keyword("computer", "IT")
+            .keyword("software", "IT")
+            .keyword("hardware", "IT")
+            .keyword("login", "IT")
+            .keyword("password", "IT")
+            .keyword("internet", "IT")
+            .keyword("wifi", "IT")
+            .keyword("email", "IT")
+
+            // Facilities keywords
+            .keyword("room", "FACILITIES")
+            .keyword("building", "FACILITIES")
+            .keyword("maintenance", "FACILITIES")
+            .keyword("air conditioning", "FACILITIES")
+            .keyword("lighting", "FACILITIES")
+            .keyword("cleaning", "FACILITIES")
+            .keyword("projector", "FACILITIES")
+
+            // Finance keywords
+            .keyword("payment", "FINANCE")
+            .keyword("tuition", "FINANCE")
+            .keyword("fees", "FINANCE")
+            .keyword("refund", "FINANCE")
+            .keyword("invoice", "FINANCE")
+
+            // Academic keywords
+            .keyword("enrollment", "ACADEMIC")
+            .keyword("course", "ACADEMIC")
+            .keyword("grade", "ACADEMIC")
+            .keyword("exam", "ACADEMIC")
+            .keyword("registration", "ACADEMIC")
+
+            .build();
     }
 
     // ========== BASIC TICKET OPERATIONS ==========
@@ -170,17 +177,9 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     public Department analyzeDepartmentFromTicket(Ticket ticket) {
-        String searchText = (ticket.getTitle() + " " + ticket.getDescription() + " " +
-                           (ticket.getCategory() != null ? ticket.getCategory() : "")).toLowerCase();
-
-        // Match keywords to find appropriate department
-        String matchedDeptCode = null;
-        for (Map.Entry<String, String> entry : departmentKeywords.entrySet()) {
-            if (searchText.contains(entry.getKey())) {
-                matchedDeptCode = entry.getValue();
-                break;
-            }
-        }
+        // Score every department whose keywords appear in the ticket, highest score wins
+        String matchedDeptCode = routingEngine.route(
+            ticket.getTitle(), ticket.getDescription(), ticket.getCategory());
 
         // Find department by code
         if (matchedDeptCode != null) {
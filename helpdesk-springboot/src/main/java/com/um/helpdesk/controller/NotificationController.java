@@ -1,12 +1,27 @@
 package com.um.helpdesk.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.dto.BroadcastProgress;
+import com.um.helpdesk.dto.BroadcastRequest;
 import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DeliveryBreakdown;
+import com.um.helpdesk.service.DeliveryStatisticsTracker;
+import com.um.helpdesk.service.EscalationScheduler;
+import com.um.helpdesk.service.NotificationPipeline;
+import com.um.helpdesk.service.NotificationRetryEngine;
 import com.um.helpdesk.service.NotificationService;
+import com.um.helpdesk.service.NotificationStreamHub;
+import com.um.helpdesk.service.TicketEventRelay;
+import com.um.helpdesk.service.UnreadCountTracker;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -14,9 +29,33 @@ import com.um.helpdesk.service.NotificationService;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationPipeline notificationPipeline;
+    private final TicketEventRelay ticketEventRelay;
+    private final EscalationScheduler escalationScheduler;
+    private final NotificationRetryEngine retryEngine;
+    private final UnreadCountTracker unreadCounts;
+    private final NotificationStreamHub notificationStreams;
+    private final DeliveryGateway deliveryGateway;
+    private final DeliveryStatisticsTracker deliveryStatistics;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService,
+                                  NotificationPipeline notificationPipeline,
+                                  TicketEventRelay ticketEventRelay,
+                                  EscalationScheduler escalationScheduler,
+                                  NotificationRetryEngine retryEngine,
+                                  UnreadCountTracker unreadCounts,
+                                  NotificationStreamHub notificationStreams,
+                                  DeliveryGateway deliveryGateway,
+                                  DeliveryStatisticsTracker deliveryStatistics) {
         this.notificationService = notificationService;
+        this.notificationPipeline = notificationPipeline;
+        this.ticketEventRelay = ticketEventRelay;
+        this.escalationScheduler = escalationScheduler;
+        this.retryEngine = retryEngine;
+        this.unreadCounts = unreadCounts;
+        this.notificationStreams = notificationStreams;
+        this.deliveryGateway = deliveryGateway;
+        this.deliveryStatistics = deliveryStatistics;
     }
 
     // ========== FUNCTIONALITY 1: Notification Management (CRUD) ==========
@@ -61,6 +100,16 @@ public class NotificationController {
         return ResponseEntity.ok(count);
     }
 
+    // Live notifications as Server-Sent Events; a reconnecting EventSource sends Last-Event-ID and is replayed what it missed
+    @GetMapping(path = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(
+            @PathVariable Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        System.out.println("GET /api/notifications/user/" + userId + "/stream"
+            + (lastEventId != null ? " - resuming after " + lastEventId : ""));
+        return notificationStreams.subscribe(userId, lastEventId);
+    }
+
     @PostMapping
     public ResponseEntity<Notification> createNotification(@RequestBody Notification notification) {
         System.out.println("POST /api/notifications - Creating notification");
@@ -95,6 +144,20 @@ public class NotificationController {
         return ResponseEntity.ok().build();
     }
 
+    // upToId limits it to notifications the inbox has already shown
+    @PostMapping("/user/{userId}/read-all")
+    public ResponseEntity<Integer> readAll(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long upToId) {
+        System.out.println("POST /api/notifications/user/" + userId + "/read-all" +
+            (upToId != null ? "?upToId=" + upToId : ""));
+        int count = upToId != null
+            ? notificationService.markAsReadUpTo(userId, upToId)
+            : notificationService.markAllAsRead(userId);
+        System.out.println("✓ " + count + " notification(s) marked as read\n");
+        return ResponseEntity.ok(count);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteNotification(@PathVariable Long id) {
         System.out.println("DELETE /api/notifications/" + id);
@@ -214,4 +277,90 @@ public class NotificationController {
         System.out.println("✓ Statistics retrieved\n");
         return ResponseEntity.ok(stats);
     }
+
+    // Notifications created in [from, to) per channel, type and status; the last 7 days by default
+    @GetMapping("/statistics/breakdown")
+    public ResponseEntity<List<DeliveryBreakdown>> getDeliveryBreakdown(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        System.out.println("GET /api/notifications/statistics/breakdown");
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        List<DeliveryBreakdown> breakdown = notificationService.getDeliveryBreakdown(start, end);
+        System.out.println("✓ Breakdown retrieved: " + breakdown.size() + " group(s)\n");
+        return ResponseEntity.ok(breakdown);
+    }
+
+    // Status counters behind /statistics: reads served from memory, recounts, and drift found by reconciliation
+    @GetMapping("/statistics/metrics")
+    public ResponseEntity<DeliveryStatisticsTracker.Metrics> getStatisticsMetrics() {
+        System.out.println("GET /api/notifications/statistics/metrics");
+        return ResponseEntity.ok(deliveryStatistics.metrics());
+    }
+
+    // Queue depth, rejections, batch sizes and per-channel delivery counts of the fan-out pipeline
+    @GetMapping("/pipeline/metrics")
+    public ResponseEntity<NotificationPipeline.Metrics> getPipelineMetrics() {
+        System.out.println("GET /api/notifications/pipeline/metrics");
+        return ResponseEntity.ok(notificationPipeline.metrics());
+    }
+
+    // Throughput, batch size and lag of the ticket_events outbox relay
+    @GetMapping("/relay/metrics")
+    public ResponseEntity<TicketEventRelay.Metrics> getRelayMetrics() {
+        System.out.println("GET /api/notifications/relay/metrics");
+        return ResponseEntity.ok(ticketEventRelay.metrics());
+    }
+
+    // Scheduled and due escalations, levels fired and firing lag of the escalation scheduler
+    @GetMapping("/escalation/metrics")
+    public ResponseEntity<EscalationScheduler.Metrics> getEscalationMetrics() {
+        System.out.println("GET /api/notifications/escalation/metrics");
+        return ResponseEntity.ok(escalationScheduler.metrics());
+    }
+
+    // Due retries, outcomes per channel and batch sizes of the retry engine
+    @GetMapping("/retry/metrics")
+    public ResponseEntity<NotificationRetryEngine.Metrics> getRetryMetrics() {
+        System.out.println("GET /api/notifications/retry/metrics");
+        return ResponseEntity.ok(retryEngine.metrics());
+    }
+
+    // Unread badge counters: how often they were served from memory, and drift found by reconciliation
+    @GetMapping("/unread/metrics")
+    public ResponseEntity<UnreadCountTracker.Metrics> getUnreadMetrics() {
+        System.out.println("GET /api/notifications/unread/metrics");
+        return ResponseEntity.ok(unreadCounts.metrics());
+    }
+
+    // Open SSE streams, events sent and replayed, and streams dropped on a failed write
+    @GetMapping("/stream/metrics")
+    public ResponseEntity<NotificationStreamHub.Metrics> getStreamMetrics() {
+        System.out.println("GET /api/notifications/stream/metrics");
+        return ResponseEntity.ok(notificationStreams.metrics());
+    }
+
+    // Per external channel: circuit state, bulkhead occupancy, outcomes, throughput and send latency
+    @GetMapping("/delivery/metrics")
+    public ResponseEntity<DeliveryGateway.Metrics> getDeliveryMetrics() {
+        System.out.println("GET /api/notifications/delivery/metrics");
+        return ResponseEntity.ok(deliveryGateway.metrics());
+    }
+
+    // ========== FUNCTIONALITY 5: Broadcast to an Audience ==========
+
+    // Accepted and run in the background; poll GET /broadcast/{id} for progress
+    @PostMapping("/broadcast")
+    public ResponseEntity<BroadcastProgress> broadcast(@RequestBody BroadcastRequest request) {
+        System.out.println("POST /api/notifications/broadcast - Broadcasting: " + request.getTitle());
+        BroadcastProgress progress = notificationService.broadcast(request);
+        System.out.println("✓ Broadcast " + progress.getId() + " queued for " + progress.getAudience() + "\n");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+    }
+
+    @GetMapping("/broadcast/{id}")
+    public ResponseEntity<BroadcastProgress> getBroadcastProgress(@PathVariable String id) {
+        System.out.println("GET /api/notifications/broadcast/" + id);
+        return ResponseEntity.ok(notificationService.getBroadcastProgress(id));
+    }
 }
@@ -1,11 +1,16 @@
 package com.um.helpdesk.controller;
 
 import com.um.helpdesk.entity.SavedReportArchive;
+import com.um.helpdesk.service.ReportJobService;
+import com.um.helpdesk.service.ReportQueueFullException;
 import com.um.helpdesk.service.ReportingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
@@ -16,13 +21,18 @@ public class ReportingController {
     @Autowired
     private ReportingService reportingService;
 
-    // 1. Generate Report
+    @Autowired
+    private ReportJobService reportJobService;
+
+    // 1. Generate Report (runs as a background job)
     // Usage: POST /api/reports/generate?type=Monthly&format=CSV
+    // Returns 202 with the QUEUED job at once; poll GET /api/reports/jobs/{id} until DONE.
+    // 503 with Retry-After while the job queue is full
     @PostMapping("/generate")
     public ResponseEntity<SavedReportArchive> generateReport(
             @RequestParam String type,
             @RequestParam String format) {
-        return ResponseEntity.ok(reportingService.generateReport(type, format));
+        return ResponseEntity.accepted().body(reportJobService.submit(type, format));
     }
 
     // 2. Get All Reports
@@ -38,15 +48,49 @@ public class ReportingController {
     }
 
     // 4. Trend Forecast
+    // Usage: GET /api/reports/analysis/trends?periods=4&granularity=WEEKS (HOURS, DAYS or WEEKS)
     @GetMapping("/analysis/trends")
-    public ResponseEntity<Map<String, Integer>> getTrends() {
-        return ResponseEntity.ok(reportingService.getTicketTrendForecast());
+    public ResponseEntity<Map<String, Integer>> getTrends(
+            @RequestParam(defaultValue = "4") int periods,
+            @RequestParam(defaultValue = "WEEKS") ChronoUnit granularity) {
+        return ResponseEntity.ok(reportingService.getTicketTrendForecast(periods, granularity));
+    }
+
+    // 4b. Capacity Forecast: backtested models (MAPE per model), overall and per department
+    // Usage: GET /api/reports/analysis/forecast?periods=720&granularity=HOURS&horizon=24&byDepartment=true
+    @GetMapping("/analysis/forecast")
+    public ResponseEntity<Map<String, Object>> getForecast(
+            @RequestParam(defaultValue = "90") int periods,
+            @RequestParam(defaultValue = "DAYS") ChronoUnit granularity,
+            @RequestParam(defaultValue = "7") int horizon,
+            @RequestParam(defaultValue = "false") boolean byDepartment) {
+        return ResponseEntity.ok(reportingService.getTicketForecast(periods, granularity, horizon, byDepartment));
+    }
+
+    // 5. Job status: status, progress (%), row count, duration
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<SavedReportArchive> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+
+    // 6. Cancel a queued or running job
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<SavedReportArchive> cancelJob(@PathVariable Long id) {
+        return ResponseEntity.ok(reportJobService.cancel(id));
     }
 
-    // 5. Delete
+    // 7. Delete
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteReport(@PathVariable Long id) {
         reportingService.deleteReport(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Full job queue: the client backs off and submits again
+    @ExceptionHandler(ReportQueueFullException.class)
+    public ResponseEntity<Map<String, String>> queueFull(ReportQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+            .body(Map.of("error", e.getMessage()));
+    }
 }
\ No newline at end of file
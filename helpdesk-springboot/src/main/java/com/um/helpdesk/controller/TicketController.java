@@ -1,14 +1,30 @@
 package com.um.helpdesk.controller;
 
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.helpdesk.dto.CursorPage;
+import com.um.helpdesk.dto.TicketIntakeRequest;
+import com.um.helpdesk.dto.TicketIntakeResult;
 import com.um.helpdesk.entity.Department;
 import com.um.helpdesk.entity.Ticket;
 import com.um.helpdesk.entity.TechnicianSupportStaff;
 import com.um.helpdesk.entity.TicketStatus;
 import com.um.helpdesk.service.TicketService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -16,20 +32,34 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class TicketController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    // ?view=summary returns TicketSummary rows instead of full tickets
+    private static final String SUMMARY_VIEW = "summary";
+
+    // Tickets persisted per transaction; matches hibernate.jdbc.batch_size
+    private static final int BATCH_CHUNK_SIZE = 50;
+
     private final TicketService ticketService;
+    private final ObjectMapper objectMapper;
 
-    public TicketController(TicketService ticketService) {
+    public TicketController(TicketService ticketService, ObjectMapper objectMapper) {
         this.ticketService = ticketService;
+        this.objectMapper = objectMapper;
     }
 
     // ========== BASIC TICKET OPERATIONS ==========
 
     @GetMapping
-    public ResponseEntity<List<Ticket>> getAllTickets() {
-        System.out.println("GET /api/tickets - Fetching all tickets");
-        List<Ticket> tickets = ticketService.getAllTickets();
-        System.out.println("✓ Found " + tickets.size() + " ticket(s)\n");
-        return ResponseEntity.ok(tickets);
+    public ResponseEntity<CursorPage<?>> getAllTickets(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "50") int size,
+                                                       @RequestParam(defaultValue = "full") String view) {
+        System.out.println("GET /api/tickets - Fetching tickets page");
+        CursorPage<?> page = SUMMARY_VIEW.equalsIgnoreCase(view)
+            ? ticketService.getTicketSummariesPage(cursor, size)
+            : ticketService.getTicketsPage(cursor, size);
+        System.out.println("✓ Found " + page.getSize() + " ticket(s)\n");
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/{id}")
@@ -48,6 +78,103 @@ public class TicketController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    /**
+     * Bulk intake: accepts a JSON array or an NDJSON stream of tickets.
+     * The body is read BATCH_CHUNK_SIZE items at a time; each chunk is saved, routed and assigned in
+     * one transaction and its NDJSON result lines (one per item) are streamed back as soon as it commits.
+     * A malformed item in the first chunk is a 400 and nothing is saved; later, or when a chunk fails,
+     * the stream ends with an "aborted" line for the first item not processed.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON}, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> createTicketBatch(InputStream body) throws IOException {
+        System.out.println("POST /api/tickets/batch - Bulk ticket intake");
+        MappingIterator<TicketIntakeRequest> items;
+        try {
+            items = objectMapper.readerFor(TicketIntakeRequest.class).readValues(body);
+        } catch (JsonProcessingException e) {
+            return malformedBatch(TicketIntakeResult.aborted(0, malformed(e)));
+        }
+        Chunk first = nextChunk(items);
+        if (first.malformed() != null) {
+            items.close();
+            return malformedBatch(TicketIntakeResult.aborted(first.items().size(), first.malformed()));
+        }
+
+        StreamingResponseBody stream = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            int start = 0;
+            int created = 0;
+            Chunk chunk = first;
+            try (items) {
+                while (!chunk.items().isEmpty()) {
+                    for (TicketIntakeResult result : ticketService.createTicketBatch(chunk.items(), start)) {
+                        writeLine(writer, result);
+                        if (result.isCreated()) {
+                            created++;
+                        }
+                    }
+                    writer.flush();
+                    start += chunk.items().size();
+                    if (chunk.malformed() != null) {
+                        break;
+                    }
+                    chunk = nextChunk(items);
+                }
+                if (chunk.malformed() != null) {
+                    writeLine(writer, TicketIntakeResult.aborted(start, chunk.malformed()));
+                }
+            } catch (RuntimeException e) {
+                // This chunk rolled back; the ones before it stay committed
+                writeLine(writer, TicketIntakeResult.aborted(start, "Batch stopped: " + e.getMessage()));
+                System.out.println("❌ Batch stopped at item " + start + ": " + e.getMessage());
+            }
+            writer.flush();
+            System.out.println("✓ Batch processed: " + created + " of " + start + " ticket(s) created\n");
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(stream);
+    }
+
+    // Up to BATCH_CHUNK_SIZE items read from the body; malformed is set when reading stopped at an item
+    // that did not parse
+    private record Chunk(List<TicketIntakeRequest> items, String malformed) {
+    }
+
+    private static Chunk nextChunk(MappingIterator<TicketIntakeRequest> items) {
+        List<TicketIntakeRequest> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        try {
+            while (chunk.size() < BATCH_CHUNK_SIZE && items.hasNextValue()) {
+                chunk.add(items.nextValue());
+            }
+        } catch (IOException e) {
+            return new Chunk(chunk, malformed(e));
+        }
+        return new Chunk(chunk, null);
+    }
+
+    private static String malformed(IOException e) {
+        if (!(e instanceof JsonProcessingException json)) {
+            return "Request body could not be read: " + e.getMessage();
+        }
+        JsonLocation location = json.getLocation();
+        return "Malformed item" + (location != null ? " at line " + location.getLineNr() : "") + ": "
+            + json.getOriginalMessage();
+    }
+
+    private ResponseEntity<StreamingResponseBody> malformedBatch(TicketIntakeResult result) {
+        System.out.println("❌ Batch rejected: " + result.getError() + "\n");
+        return ResponseEntity.badRequest().contentType(MediaType.parseMediaType(NDJSON))
+            .body(out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writeLine(writer, result);
+                writer.flush();
+            });
+    }
+
+    private void writeLine(Writer writer, TicketIntakeResult result) throws IOException {
+        writer.write(objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Ticket> updateTicket(@PathVariable Long id, @RequestBody Ticket ticket) {
         System.out.println("PUT /api/tickets/" + id + " - Updating ticket");
@@ -85,11 +212,16 @@ public class TicketController {
     // ========== FUNCTIONALITY 2: Ticket Claiming and Self-Assignment ==========
 
     @GetMapping("/department/{deptId}/unassigned")
-    public ResponseEntity<List<Ticket>> getUnassignedTickets(@PathVariable Long deptId) {
+    public ResponseEntity<CursorPage<?>> getUnassignedTickets(@PathVariable Long deptId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "50") int size,
+                                                              @RequestParam(defaultValue = "full") String view) {
         System.out.println("GET /api/tickets/department/" + deptId + "/unassigned - Fetching unassigned tickets");
-        List<Ticket> tickets = ticketService.getUnassignedTicketsForDepartment(deptId);
-        System.out.println("✓ Found " + tickets.size() + " unassigned ticket(s)\n");
-        return ResponseEntity.ok(tickets);
+        CursorPage<?> page = SUMMARY_VIEW.equalsIgnoreCase(view)
+            ? ticketService.getUnassignedTicketSummariesForDepartmentPage(deptId, cursor, size)
+            : ticketService.getUnassignedTicketsForDepartmentPage(deptId, cursor, size);
+        System.out.println("✓ Found " + page.getSize() + " unassigned ticket(s)\n");
+        return ResponseEntity.ok(page);
     }
 
     @PostMapping("/{ticketId}/claim/{technicianId}")
@@ -101,11 +233,16 @@ public class TicketController {
     }
 
     @GetMapping("/technician/{techId}/claimable")
-    public ResponseEntity<List<Ticket>> getClaimableTickets(@PathVariable Long techId) {
+    public ResponseEntity<CursorPage<?>> getClaimableTickets(@PathVariable Long techId,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "50") int size,
+                                                             @RequestParam(defaultValue = "full") String view) {
         System.out.println("GET /api/tickets/technician/" + techId + "/claimable - Fetching claimable tickets");
-        List<Ticket> tickets = ticketService.getClaimableTickets(techId);
-        System.out.println("✓ Found " + tickets.size() + " claimable ticket(s)\n");
-        return ResponseEntity.ok(tickets);
+        CursorPage<?> page = SUMMARY_VIEW.equalsIgnoreCase(view)
+            ? ticketService.getClaimableTicketSummariesPage(techId, cursor, size)
+            : ticketService.getClaimableTicketsPage(techId, cursor, size);
+        System.out.println("✓ Found " + page.getSize() + " claimable ticket(s)\n");
+        return ResponseEntity.ok(page);
     }
 
     // ========== FUNCTIONALITY 3: Internal Re-assignment and Chaining ==========
@@ -170,10 +307,15 @@ public class TicketController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Ticket>> getTicketsByStatus(@PathVariable TicketStatus status) {
+    public ResponseEntity<CursorPage<?>> getTicketsByStatus(@PathVariable TicketStatus status,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "50") int size,
+                                                            @RequestParam(defaultValue = "full") String view) {
         System.out.println("GET /api/tickets/status/" + status + " - Fetching tickets by status");
-        List<Ticket> tickets = ticketService.getTicketsByStatus(status);
-        System.out.println("✓ Found " + tickets.size() + " ticket(s)\n");
-        return ResponseEntity.ok(tickets);
+        CursorPage<?> page = SUMMARY_VIEW.equalsIgnoreCase(view)
+            ? ticketService.getTicketSummariesByStatusPage(status, cursor, size)
+            : ticketService.getTicketsByStatusPage(status, cursor, size);
+        System.out.println("✓ Found " + page.getSize() + " ticket(s)\n");
+        return ResponseEntity.ok(page);
     }
 }
@@ -0,0 +1,76 @@
+package com.um.helpdesk.delivery;
+
+import com.um.helpdesk.entity.DeliveryChannel;
+
+import java.time.Duration;
+
+/**
+ * Limits for one channel's lane in {@link DeliveryGateway}.
+ *
+ *  - concurrency and queueCapacity size the bulkhead: that many sends at once, that many messages waiting,
+ *    and anything beyond is refused at once instead of queueing behind a slow gateway
+ *  - ratePerSecond and burst size the token bucket; a send waits for a token at most its timeout
+ *  - timeout bounds one send, including the wait for a token
+ *  - failureThreshold consecutive failures open the circuit for openDuration, then one trial send decides
+ */
+public final class ChannelPolicy {
+
+    private final int concurrency;
+    private final int queueCapacity;
+    private final double ratePerSecond;    // 0 = unlimited
+    private final int burst;
+    private final Duration timeout;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    public ChannelPolicy(int concurrency, int queueCapacity, double ratePerSecond, int burst, Duration timeout,
+                         int failureThreshold, Duration openDuration) {
+        if (concurrency < 1 || queueCapacity < 0 || ratePerSecond < 0 || burst < 1 || failureThreshold < 1) {
+            throw new IllegalArgumentException("Invalid channel policy");
+        }
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.timeout = timeout;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    // SMS gateways are the slowest and bill per message; push services take bursts
+    public static ChannelPolicy defaults(DeliveryChannel channel) {
+        switch (channel) {
+            case SMS: return new ChannelPolicy(2, 1_000, 5, 10, Duration.ofSeconds(5), 5, Duration.ofSeconds(60));
+            case PUSH_NOTIFICATION: return new ChannelPolicy(8, 5_000, 100, 200, Duration.ofSeconds(3), 5, Duration.ofSeconds(15));
+            case EMAIL: default: return new ChannelPolicy(4, 2_000, 20, 40, Duration.ofSeconds(10), 5, Duration.ofSeconds(30));
+        }
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+}
@@ -0,0 +1,80 @@
+package com.um.helpdesk.delivery;
+
+import java.time.Duration;
+
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * CLOSED lets every send through. After failureThreshold failures in a row it goes OPEN and refuses sends
+ * until openDuration has passed; the next send is then let through alone as a trial (HALF_OPEN). A trial
+ * that succeeds closes the circuit, one that fails opens it again.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long opened;    // times the circuit has opened
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    // False while open, and in half-open while the trial is out
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            case HALF_OPEN: default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        // Sends already in flight when it opened do not push the reopening back
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trialInFlight = false;
+            opened++;
+        }
+    }
+
+    // An acquired send that never reached the transport, or was refused for its recipient; frees the
+    // half-open trial for the next one
+    synchronized void release() {
+        trialInFlight = false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    synchronized long getOpened() {
+        return opened;
+    }
+}
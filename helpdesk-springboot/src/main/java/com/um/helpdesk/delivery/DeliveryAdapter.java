@@ -0,0 +1,27 @@
+package com.um.helpdesk.delivery;
+
+import com.um.helpdesk.entity.DeliveryChannel;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Transport for one external delivery channel (SMTP for EMAIL, an HTTP gateway for SMS or PUSH_NOTIFICATION).
+ *
+ * {@link DeliveryGateway} calls {@link #send} on the channel's own executor, so an implementation may block
+ * on I/O, but it must give up within the timeout it is passed (connect and read timeouts) and must be safe to
+ * call from several threads at once. Register one as a Spring bean and the gateway picks it up; a channel
+ * without an adapter keeps being recorded as sent without a transport.
+ */
+public interface DeliveryAdapter {
+
+    DeliveryChannel getChannel();
+
+    /**
+     * Hands one message to the transport; returning means the transport accepted it.
+     *
+     * @throws java.net.SocketTimeoutException or {@link java.net.http.HttpTimeoutException} when the timeout passes
+     * @throws RecipientRejectedException when the transport refuses this recipient rather than failing itself
+     */
+    void send(DeliveryMessage message, Duration timeout) throws IOException;
+}
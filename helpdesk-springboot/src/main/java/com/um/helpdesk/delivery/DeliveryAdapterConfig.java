@@ -0,0 +1,38 @@
+package com.um.helpdesk.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.helpdesk.entity.DeliveryChannel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+
+/**
+ * Registers a {@link DeliveryAdapter} for each external channel whose transport is configured
+ * (helpdesk.delivery.*, see application.properties). Unconfigured channels keep being recorded as sent.
+ */
+@Configuration
+public class DeliveryAdapterConfig {
+
+    @Bean
+    @ConditionalOnProperty("helpdesk.delivery.email.smtp-host")
+    public DeliveryAdapter smtpDeliveryAdapter(@Value("${helpdesk.delivery.email.smtp-host}") String host,
+                                               @Value("${helpdesk.delivery.email.smtp-port:25}") int port,
+                                               @Value("${helpdesk.delivery.email.from:helpdesk@um.edu.my}") String from) {
+        return new SmtpDeliveryAdapter(host, port, from);
+    }
+
+    @Bean
+    @ConditionalOnProperty("helpdesk.delivery.sms.url")
+    public DeliveryAdapter smsDeliveryAdapter(@Value("${helpdesk.delivery.sms.url}") URI url) {
+        return new HttpDeliveryAdapter(DeliveryChannel.SMS, url, new ObjectMapper());
+    }
+
+    @Bean
+    @ConditionalOnProperty("helpdesk.delivery.push.url")
+    public DeliveryAdapter pushDeliveryAdapter(@Value("${helpdesk.delivery.push.url}") URI url) {
+        return new HttpDeliveryAdapter(DeliveryChannel.PUSH_NOTIFICATION, url, new ObjectMapper());
+    }
+}
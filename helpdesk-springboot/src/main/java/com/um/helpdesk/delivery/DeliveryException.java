@@ -0,0 +1,23 @@
+package com.um.helpdesk.delivery;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Some notifications of a batch were not accepted by their transport; the others were.
+ */
+public class DeliveryException extends RuntimeException {
+
+    private final Map<Long, String> failures;
+
+    public DeliveryException(Map<Long, String> failures) {
+        super(failures.size() + " notification(s) not delivered"
+            + (failures.isEmpty() ? "" : ": " + failures.values().iterator().next()));
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    // Notification id -> failure reason
+    public Map<Long, String> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,449 @@
+package com.um.helpdesk.delivery;
+
+import com.um.helpdesk.entity.DeliveryChannel;
+import com.um.helpdesk.entity.Notification;
+import com.um.helpdesk.entity.NotificationPriority;
+import com.um.helpdesk.repository.RecipientContact;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends notifications through the registered {@link DeliveryAdapter}s, one isolated lane per channel.
+ *
+ * {@link #deliver} never blocks on a transport: it resolves the recipients' addresses (one query per batch)
+ * and queues a send per message on the channel's own executor. Each lane has, from its {@link ChannelPolicy}:
+ *  - a bulkhead: a fixed number of sending threads and a bounded queue; a message that finds the queue full
+ *    fails at once and goes to the retry engine, so a stalled gateway holds its own threads and nobody else's
+ *  - a {@link WeightedPriorityQueue} as that queue, so an urgent message is not sent after a backlog of low ones
+ *  - a token bucket that paces sends to the gateway's rate limit
+ *  - a timeout per send, passed down to the adapter
+ *  - a circuit breaker that fails sends fast while the gateway keeps failing, then lets one trial through
+ *
+ * The returned future completes once every message of the batch has been sent or has failed. A batch may be
+ * given a deadline: callers holding a lease on the rows use it so every message is settled, and the outcome
+ * can be written back, before the lease runs out and another node claims them. Channels without an adapter
+ * are not handled here; see {@link #supports}.
+ */
+@Service
+public class DeliveryGateway {
+
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    private final UserRepository userRepository;
+    private final Map<DeliveryChannel, Lane> lanes = new EnumMap<>(DeliveryChannel.class);
+
+    @Autowired
+    public DeliveryGateway(ObjectProvider<DeliveryAdapter> adapters, UserRepository userRepository) {
+        this(adapters.orderedStream().collect(Collectors.toList()), ChannelPolicy::defaults, userRepository);
+    }
+
+    public DeliveryGateway(List<DeliveryAdapter> adapters, Function<DeliveryChannel, ChannelPolicy> policies,
+                           UserRepository userRepository) {
+        this.userRepository = userRepository;
+        for (DeliveryAdapter adapter : adapters) {
+            DeliveryChannel channel = adapter.getChannel();
+            if (channel == DeliveryChannel.IN_APP) {
+                throw new IllegalArgumentException("IN_APP notifications are delivered by storing them");
+            }
+            if (lanes.containsKey(channel)) {
+                throw new IllegalStateException("More than one delivery adapter for " + channel);
+            }
+            lanes.put(channel, new Lane(channel, adapter, policies.apply(channel)));
+            System.out.println(">>> Delivery adapter for " + channel + ": " + adapter.getClass().getSimpleName());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.executor.shutdownNow());
+    }
+
+    // Whether the channel has a transport; without one a notification is recorded as sent
+    public boolean supports(DeliveryChannel channel) {
+        return lanes.containsKey(channel);
+    }
+
+    /**
+     * Queues a send per notification on the channel's lane and returns at once.
+     *
+     * @throws IllegalStateException if the channel has no adapter
+     */
+    public CompletableFuture<DeliveryOutcome> deliver(DeliveryChannel channel, List<Notification> notifications) {
+        return deliver(channel, notifications, NO_DEADLINE);
+    }
+
+    /**
+     * As {@link #deliver(DeliveryChannel, List)}, but every message is settled within the given time: one still
+     * queued when it runs out fails without being sent, and a send is cut short to fit in what is left.
+     */
+    public CompletableFuture<DeliveryOutcome> deliver(DeliveryChannel channel, List<Notification> notifications,
+                                                      Duration within) {
+        return deliver(channel, notifications, System.nanoTime() + within.toNanos());
+    }
+
+    private CompletableFuture<DeliveryOutcome> deliver(DeliveryChannel channel, List<Notification> notifications,
+                                                       long deadlineNanos) {
+        Lane lane = lanes.get(channel);
+        if (lane == null) {
+            throw new IllegalStateException("No delivery adapter for " + channel);
+        }
+        List<DeliveryMessage> messages;
+        try {
+            messages = messages(channel, notifications);
+        } catch (RuntimeException e) {
+            Map<Long, String> failures = new LinkedHashMap<>();
+            notifications.forEach(n -> failures.put(n.getId(), "Recipient lookup failed: " + e.getMessage()));
+            return CompletableFuture.completedFuture(new DeliveryOutcome(new ArrayList<>(), failures));
+        }
+
+        List<CompletableFuture<String>> sends = new ArrayList<>(messages.size());
+        for (DeliveryMessage message : messages) {
+            sends.add(lane.submit(message, deadlineNanos));
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).thenApply(done -> {
+            List<Long> delivered = new ArrayList<>();
+            Map<Long, String> failures = new LinkedHashMap<>();
+            for (int i = 0; i < messages.size(); i++) {
+                String failure = sends.get(i).join();
+                if (failure == null) {
+                    delivered.add(messages.get(i).getNotificationId());
+                } else {
+                    failures.put(messages.get(i).getNotificationId(), failure);
+                }
+            }
+            return new DeliveryOutcome(delivered, failures);
+        });
+    }
+
+    // EMAIL and SMS need the recipient's address; push gateways address devices by recipient id
+    private List<DeliveryMessage> messages(DeliveryChannel channel, List<Notification> notifications) {
+        Map<Long, RecipientContact> contacts = new HashMap<>();
+        if (channel == DeliveryChannel.EMAIL || channel == DeliveryChannel.SMS) {
+            Set<Long> recipientIds = new HashSet<>();
+            notifications.forEach(n -> recipientIds.add(n.getRecipient().getId()));
+            userRepository.findContactsByIdIn(recipientIds).forEach(c -> contacts.put(c.getId(), c));
+        }
+        List<DeliveryMessage> messages = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            Long recipientId = notification.getRecipient().getId();
+            RecipientContact contact = contacts.get(recipientId);
+            String address = null;
+            if (contact != null) {
+                address = channel == DeliveryChannel.EMAIL ? contact.getEmail() : contact.getPhoneNumber();
+            }
+            messages.add(new DeliveryMessage(notification.getId(), recipientId, address, notification.getTitle(),
+                notification.getMessage(), notification.getPriority()));
+        }
+        return messages;
+    }
+
+    // ========== LANE ==========
+
+    private static final class Lane {
+        private final DeliveryChannel channel;
+        private final DeliveryAdapter adapter;
+        private final long timeoutNanos;
+        private final ThreadPoolExecutor executor;
+        private final WeightedPriorityQueue<Runnable> queue;    // null without a queue
+        private final TokenBucket rateLimiter;
+        private final CircuitBreaker breaker;
+
+        // Metrics
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder expired = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder shortCircuited = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder noAddress = new LongAdder();
+        private final LongAdder recipientRejected = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final ThroughputMeter throughput = new ThroughputMeter();
+
+        Lane(DeliveryChannel channel, DeliveryAdapter adapter, ChannelPolicy policy) {
+            this.channel = channel;
+            this.adapter = adapter;
+            this.timeoutNanos = policy.getTimeout().toNanos();
+            this.rateLimiter = new TokenBucket(policy.getRatePerSecond(), policy.getBurst());
+            this.breaker = new CircuitBreaker(policy.getFailureThreshold(), policy.getOpenDuration());
+            String prefix = "delivery-" + channel.name().toLowerCase(Locale.ROOT).replace('_', '-') + "-";
+            AtomicInteger threads = new AtomicInteger();
+            this.queue = policy.getQueueCapacity() == 0 ? null
+                : WeightedPriorityQueue.forTasks(policy.getQueueCapacity(), WeightedPriorityQueue.DEFAULT_AGING_AFTER);
+            this.executor = new ThreadPoolExecutor(policy.getConcurrency(), policy.getConcurrency(),
+                60L, TimeUnit.SECONDS, queue == null ? new SynchronousQueue<>() : queue, r -> {
+                    Thread thread = new Thread(r, prefix + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        // Completes with null once sent, or with the reason it was not
+        CompletableFuture<String> submit(DeliveryMessage message, long deadlineNanos) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            try {
+                executor.execute(WeightedPriorityQueue.task(message.getPriority(),
+                    () -> result.complete(send(message, deadlineNanos))));
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                failed.increment();
+                result.complete(channel + " delivery queue full");
+            }
+            return result;
+        }
+
+        private String send(DeliveryMessage message, long deadlineNanos) {
+            // The recipient's fault, not the gateway's: the circuit never sees it
+            if (channel != DeliveryChannel.PUSH_NOTIFICATION && (message.getAddress() == null || message.getAddress().isBlank())) {
+                noAddress.increment();
+                failed.increment();
+                return "Recipient " + message.getRecipientId() + " has no "
+                    + (channel == DeliveryChannel.EMAIL ? "email address" : "phone number");
+            }
+            long start = System.nanoTime();
+            // The send timeout, or less when the batch's deadline is nearer
+            long budget = deadlineNanos == NO_DEADLINE ? timeoutNanos : Math.min(timeoutNanos, deadlineNanos - start);
+            if (budget <= 0) {
+                expired.increment();
+                failed.increment();
+                return channel + " not sent before the batch deadline";
+            }
+            if (!breaker.tryAcquire()) {
+                shortCircuited.increment();
+                failed.increment();
+                return channel + " circuit open";
+            }
+            if (!rateLimiter.tryAcquire(budget)) {
+                breaker.release();
+                rateLimited.increment();
+                failed.increment();
+                return channel + " rate limit: no send slot within " + budget / 1_000_000 + " ms";
+            }
+            long sendStart = System.nanoTime();
+            long remaining = Math.max(budget - (sendStart - start), 1_000_000);
+            try {
+                adapter.send(message, Duration.ofNanos(remaining));
+                latency.record(System.nanoTime() - sendStart);
+                breaker.onSuccess();
+                sent.increment();
+                throughput.record(1);
+                return null;
+            } catch (SocketTimeoutException | HttpTimeoutException e) {
+                latency.record(System.nanoTime() - sendStart);
+                breaker.onFailure();
+                timedOut.increment();
+                failed.increment();
+                return channel + " timed out after " + remaining / 1_000_000 + " ms";
+            } catch (RecipientRejectedException e) {
+                // Also the recipient's fault: the transport answered, so the circuit stays as it was
+                latency.record(System.nanoTime() - sendStart);
+                breaker.release();
+                recipientRejected.increment();
+                failed.increment();
+                return e.getMessage();
+            } catch (IOException | RuntimeException e) {
+                latency.record(System.nanoTime() - sendStart);
+                breaker.onFailure();
+                failed.increment();
+                return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+        }
+
+        ChannelMetrics metrics() {
+            return new ChannelMetrics(adapter.getClass().getSimpleName(), breaker.getState().name(),
+                breaker.getOpened(), executor.getActiveCount(), executor.getQueue().size(), sent.sum(), failed.sum(),
+                timedOut.sum(), expired.sum(), rateLimited.sum(), shortCircuited.sum(), rejected.sum(), noAddress.sum(),
+                recipientRejected.sum(), throughput.perSecond(), latency.meanMillis(), latency.percentileMillis(0.5),
+                latency.percentileMillis(0.99), latency.maxMillis(),
+                queue == null ? Collections.emptyMap() : queue.metrics());
+        }
+    }
+
+    // ========== MONITORING ==========
+
+    public Metrics metrics() {
+        Map<DeliveryChannel, ChannelMetrics> channels = new EnumMap<>(DeliveryChannel.class);
+        lanes.forEach((channel, lane) -> channels.put(channel, lane.metrics()));
+        return new Metrics(channels);
+    }
+
+    /**
+     * Point-in-time counters of every channel with an adapter.
+     */
+    public static final class Metrics {
+        private final Map<DeliveryChannel, ChannelMetrics> channels;
+
+        private Metrics(Map<DeliveryChannel, ChannelMetrics> channels) {
+            this.channels = Collections.unmodifiableMap(channels);
+        }
+
+        public Map<DeliveryChannel, ChannelMetrics> getChannels() {
+            return channels;
+        }
+    }
+
+    /**
+     * One channel's lane: its circuit, bulkhead occupancy, outcomes, throughput and send latency.
+     */
+    public static final class ChannelMetrics {
+        private final String adapter;
+        private final String circuitState;
+        private final long circuitOpened;
+        private final int active;
+        private final int queued;
+        private final long sent;
+        private final long failed;
+        private final long timedOut;
+        private final long expired;
+        private final long rateLimited;
+        private final long shortCircuited;
+        private final long rejected;
+        private final long noAddress;
+        private final long recipientRejected;
+        private final double throughputPerSecond;
+        private final double latencyMeanMillis;
+        private final double latencyP50Millis;
+        private final double latencyP99Millis;
+        private final double latencyMaxMillis;
+        private final Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics> queueByPriority;
+
+        private ChannelMetrics(String adapter, String circuitState, long circuitOpened, int active, int queued,
+                               long sent, long failed, long timedOut, long expired, long rateLimited,
+                               long shortCircuited, long rejected, long noAddress, long recipientRejected,
+                               double throughputPerSecond,
+                               double latencyMeanMillis, double latencyP50Millis, double latencyP99Millis,
+                               double latencyMaxMillis,
+                               Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics> queueByPriority) {
+            this.adapter = adapter;
+            this.circuitState = circuitState;
+            this.circuitOpened = circuitOpened;
+            this.active = active;
+            this.queued = queued;
+            this.sent = sent;
+            this.failed = failed;
+            this.timedOut = timedOut;
+            this.expired = expired;
+            this.rateLimited = rateLimited;
+            this.shortCircuited = shortCircuited;
+            this.rejected = rejected;
+            this.noAddress = noAddress;
+            this.recipientRejected = recipientRejected;
+            this.throughputPerSecond = throughputPerSecond;
+            this.latencyMeanMillis = latencyMeanMillis;
+            this.latencyP50Millis = latencyP50Millis;
+            this.latencyP99Millis = latencyP99Millis;
+            this.latencyMaxMillis = latencyMaxMillis;
+            this.queueByPriority = Collections.unmodifiableMap(queueByPriority);
+        }
+
+        public String getAdapter() {
+            return adapter;
+        }
+
+        /** CLOSED, OPEN or HALF_OPEN */
+        public String getCircuitState() {
+            return circuitState;
+        }
+
+        /** Times the circuit has opened */
+        public long getCircuitOpened() {
+            return circuitOpened;
+        }
+
+        /** Sends in progress */
+        public int getActive() {
+            return active;
+        }
+
+        /** Messages waiting for a sending thread */
+        public int getQueued() {
+            return queued;
+        }
+
+        /** Accepted by the transport */
+        public long getSent() {
+            return sent;
+        }
+
+        /** Not sent for any reason below, or refused by the transport */
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getTimedOut() {
+            return timedOut;
+        }
+
+        /** Still queued when their batch's deadline passed; never sent */
+        public long getExpired() {
+            return expired;
+        }
+
+        /** Would have waited longer than the timeout for a token */
+        public long getRateLimited() {
+            return rateLimited;
+        }
+
+        /** Failed fast while the circuit was open */
+        public long getShortCircuited() {
+            return shortCircuited;
+        }
+
+        /** Refused by a full bulkhead queue */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /** Recipient has no email address or phone number */
+        public long getNoAddress() {
+            return noAddress;
+        }
+
+        /** Recipient refused by the transport: an unusable address or a rejected mailbox */
+        public long getRecipientRejected() {
+            return recipientRejected;
+        }
+
+        /** Sent per second over the last 10 s */
+        public double getThroughputPerSecond() {
+            return throughputPerSecond;
+        }
+
+        public double getLatencyMeanMillis() {
+            return latencyMeanMillis;
+        }
+
+        public double getLatencyP50Millis() {
+            return latencyP50Millis;
+        }
+
+        public double getLatencyP99Millis() {
+            return latencyP99Millis;
+        }
+
+        public double getLatencyMaxMillis() {
+            return latencyMaxMillis;
+        }
+
+        /** Depth of the bulkhead queue and time spent in it, per priority */
+        public Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics> getQueueByPriority() {
+            return queueByPriority;
+        }
+    }
+}
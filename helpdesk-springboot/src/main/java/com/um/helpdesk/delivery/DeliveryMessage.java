@@ -0,0 +1,51 @@
+package com.um.helpdesk.delivery;
+
+import com.um.helpdesk.entity.NotificationPriority;
+
+/**
+ * What an adapter needs to send one notification, resolved before it leaves the delivery stage so adapters
+ * never touch entities or the database.
+ */
+public final class DeliveryMessage {
+
+    private final Long notificationId;
+    private final Long recipientId;
+    private final String address;    // email address or phone number; null when the recipient has none
+    private final String title;
+    private final String body;
+    private final NotificationPriority priority;
+
+    public DeliveryMessage(Long notificationId, Long recipientId, String address, String title, String body,
+                           NotificationPriority priority) {
+        this.notificationId = notificationId;
+        this.recipientId = recipientId;
+        this.address = address;
+        this.title = title;
+        this.body = body;
+        this.priority = priority;
+    }
+
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,34 @@
+package com.um.helpdesk.delivery;
+
+import java.util.*;
+
+/**
+ * Result of one batch handed to {@link DeliveryGateway}: the notifications the transport accepted and, for
+ * the rest, why not.
+ */
+public final class DeliveryOutcome {
+
+    private final List<Long> delivered;
+    private final Map<Long, String> failures;
+
+    DeliveryOutcome(List<Long> delivered, Map<Long, String> failures) {
+        this.delivered = Collections.unmodifiableList(delivered);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public List<Long> getDelivered() {
+        return delivered;
+    }
+
+    // Notification id -> failure reason
+    public Map<Long, String> getFailures() {
+        return failures;
+    }
+
+    // Failed ids grouped by reason, so each reason can be written back with one UPDATE
+    public Map<String, List<Long>> failuresByReason() {
+        Map<String, List<Long>> byReason = new LinkedHashMap<>();
+        failures.forEach((id, reason) -> byReason.computeIfAbsent(reason, r -> new ArrayList<>()).add(id));
+        return byReason;
+    }
+}
@@ -0,0 +1,76 @@
+package com.um.helpdesk.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.helpdesk.entity.DeliveryChannel;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PUSH_NOTIFICATION or SMS through an HTTP gateway: one JSON POST per message, and any 2xx reply means the
+ * gateway accepted it.
+ *
+ * The body carries notificationId, recipientId, to (the phone number for SMS; unused by push gateways,
+ * which address devices by recipientId), title, body and priority.
+ */
+public class HttpDeliveryAdapter implements DeliveryAdapter {
+
+    private final DeliveryChannel channel;
+    private final URI endpoint;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+
+    public HttpDeliveryAdapter(DeliveryChannel channel, URI endpoint, ObjectMapper objectMapper) {
+        this(channel, endpoint, objectMapper, HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build());
+    }
+
+    HttpDeliveryAdapter(DeliveryChannel channel, URI endpoint, ObjectMapper objectMapper, HttpClient client) {
+        this.channel = channel;
+        this.endpoint = endpoint;
+        this.client = client;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public DeliveryChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public void send(DeliveryMessage message, Duration timeout) throws IOException {
+        if (channel == DeliveryChannel.SMS && (message.getAddress() == null || message.getAddress().isBlank())) {
+            throw new IOException("Recipient " + message.getRecipientId() + " has no phone number");
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("notificationId", message.getNotificationId());
+        payload.put("recipientId", message.getRecipientId());
+        payload.put("to", message.getAddress());
+        payload.put("title", message.getTitle());
+        payload.put("body", message.getBody());
+        payload.put("priority", message.getPriority() != null ? message.getPriority().name() : null);
+
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+            .timeout(timeout)    // until the response headers arrive
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload)))
+            .build();
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted sending to " + endpoint, e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(channel + " gateway replied HTTP " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.um.helpdesk.delivery;
+
+import java.io.IOException;
+
+/**
+ * The transport refused one recipient (an unusable address, a mailbox the relay rejects) while itself
+ * working normally; {@link DeliveryGateway} fails the message without counting it against the circuit.
+ */
+public class RecipientRejectedException extends IOException {
+
+    public RecipientRejectedException(String message) {
+        super(message);
+    }
+}
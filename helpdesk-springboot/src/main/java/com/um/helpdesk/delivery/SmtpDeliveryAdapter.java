@@ -0,0 +1,167 @@
+package com.um.helpdesk.delivery;
+
+import com.um.helpdesk.entity.DeliveryChannel;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * EMAIL over plain SMTP: one session per message (HELO, MAIL FROM, RCPT TO, DATA, QUIT) to a relay that
+ * accepts mail from this host without authentication, such as the campus relay or a local MTA.
+ *
+ * The timeout applies to the connect, and each reply is read with whatever is left of it, so the whole
+ * session finishes within it. Addresses go into SMTP commands and headers verbatim, so anything that is
+ * not a single plain addr-spec (CR, LF, other control characters, spaces, angle brackets) is refused.
+ * Such addresses, and mailboxes the relay refuses at RCPT TO, fail with {@link RecipientRejectedException}.
+ */
+public class SmtpDeliveryAdapter implements DeliveryAdapter {
+
+    private static final Pattern ADDRESS = Pattern.compile("[^\\p{Cntrl}\\s<>@]+@[^\\p{Cntrl}\\s<>@]+");
+    // RCPT TO replies that refuse this mailbox only: unavailable, not local, name not allowed
+    private static final Set<Integer> RECIPIENT_REJECTED = Set.of(550, 551, 553);
+
+    private final String host;
+    private final int port;
+    private final String from;
+    private final String heloName;
+
+    public SmtpDeliveryAdapter(String host, int port, String from) {
+        if (!ADDRESS.matcher(from).matches()) {
+            throw new IllegalArgumentException("Invalid sender address: " + from);
+        }
+        this.host = host;
+        this.port = port;
+        this.from = from;
+        this.heloName = from.contains("@") ? from.substring(from.indexOf('@') + 1) : "localhost";
+    }
+
+    @Override
+    public DeliveryChannel getChannel() {
+        return DeliveryChannel.EMAIL;
+    }
+
+    @Override
+    public void send(DeliveryMessage message, Duration timeout) throws IOException {
+        String to = message.getAddress();
+        if (to == null || to.isBlank()) {
+            throw new IOException("Recipient " + message.getRecipientId() + " has no email address");
+        }
+        if (!ADDRESS.matcher(to).matches()) {
+            throw new RecipientRejectedException(
+                "Recipient " + message.getRecipientId() + " has an invalid email address");
+        }
+        int timeoutMillis = (int) Math.max(1, Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            expect(socket, in, 220, deadline);
+            command(socket, out, in, "HELO " + heloName, 250, deadline);
+            command(socket, out, in, "MAIL FROM:<" + from + ">", 250, deadline);
+            out.write("RCPT TO:<" + to + ">\r\n");
+            out.flush();
+            String accepted = reply(socket, in, deadline);
+            if (RECIPIENT_REJECTED.contains(code(accepted))) {
+                throw new RecipientRejectedException(
+                    "Recipient " + message.getRecipientId() + " refused: SMTP " + accepted);
+            }
+            check(accepted, 250);
+            command(socket, out, in, "DATA", 354, deadline);
+            out.write("From: " + from + "\r\n");
+            out.write("To: " + to + "\r\n");
+            out.write("Subject: " + encodeHeader(message.getTitle()) + "\r\n");
+            if (message.getPriority() != null) {
+                out.write("X-Helpdesk-Priority: " + message.getPriority() + "\r\n");
+            }
+            out.write("X-Helpdesk-Notification-Id: " + message.getNotificationId() + "\r\n");
+            out.write("MIME-Version: 1.0\r\n");
+            out.write("Content-Type: text/plain; charset=UTF-8\r\n");
+            out.write("Content-Transfer-Encoding: 8bit\r\n");
+            out.write("\r\n");
+            writeBody(out, message.getBody());
+            command(socket, out, in, ".", 250, deadline);
+            out.write("QUIT\r\n");
+            out.flush();
+        }
+    }
+
+    private static void command(Socket socket, Writer out, BufferedReader in, String line, int expected,
+                                long deadline) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+        expect(socket, in, expected, deadline);
+    }
+
+    private static void expect(Socket socket, BufferedReader in, int expected, long deadline) throws IOException {
+        check(reply(socket, in, deadline), expected);
+    }
+
+    // Reads one (possibly multi-line) reply and returns its last line. Every read may only wait for what
+    // is left of the session's deadline
+    private static String reply(Socket socket, BufferedReader in, long deadline) throws IOException {
+        String line;
+        do {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                throw new SocketTimeoutException("SMTP session timed out");
+            }
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remainingMillis));
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("SMTP server closed the connection");
+            }
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        return line;
+    }
+
+    // 251 counts as 250
+    private static void check(String line, int expected) throws IOException {
+        int code = code(line);
+        if (code != expected && !(expected == 250 && code == 251)) {
+            throw new IOException("SMTP " + line);
+        }
+    }
+
+    private static int code(String line) throws IOException {
+        try {
+            return Integer.parseInt(line.substring(0, Math.min(3, line.length())));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected SMTP reply: " + line);
+        }
+    }
+
+    // CRLF line endings, and a leading dot doubled so it does not end the DATA section
+    private static void writeBody(Writer out, String body) throws IOException {
+        if (body == null) {
+            body = "";
+        }
+        for (String line : body.split("\r?\n", -1)) {
+            if (line.startsWith(".")) {
+                out.write('.');
+            }
+            out.write(line);
+            out.write("\r\n");
+        }
+    }
+
+    // RFC 2047 encoded-word for subjects outside ASCII (titles carry emoji)
+    private static String encodeHeader(String value) {
+        if (value == null) {
+            return "";
+        }
+        String single = value.replace('\r', ' ').replace('\n', ' ');
+        if (single.chars().allMatch(c -> c >= 0x20 && c < 0x7f)) {
+            return single;
+        }
+        return "=?UTF-8?B?" + Base64.getEncoder().encodeToString(single.getBytes(StandardCharsets.UTF_8)) + "?=";
+    }
+}
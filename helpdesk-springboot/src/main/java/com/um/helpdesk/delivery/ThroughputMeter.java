@@ -0,0 +1,42 @@
+package com.um.helpdesk.delivery;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Events per second over the last few whole seconds, from a ring of per-second counters.
+ */
+final class ThroughputMeter {
+
+    private static final int WINDOW_SECONDS = 10;
+    private static final int SLOTS = WINDOW_SECONDS + 1;    // plus the second in progress
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray slotSecond = new AtomicLongArray(SLOTS);
+
+    void record(int events) {
+        long second = currentSecond();
+        int slot = (int) Math.floorMod(second, (long) SLOTS);
+        long owner = slotSecond.get(slot);
+        // The first recorder in a new second takes the slot over from the one a window ago
+        if (owner != second && slotSecond.compareAndSet(slot, owner, second)) {
+            counts.set(slot, 0);
+        }
+        counts.addAndGet(slot, events);
+    }
+
+    double perSecond() {
+        long current = currentSecond();
+        long total = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            long second = slotSecond.get(slot);
+            if (second < current && second >= current - WINDOW_SECONDS) {
+                total += counts.get(slot);
+            }
+        }
+        return (double) total / WINDOW_SECONDS;
+    }
+
+    private static long currentSecond() {
+        return System.nanoTime() / 1_000_000_000L;
+    }
+}
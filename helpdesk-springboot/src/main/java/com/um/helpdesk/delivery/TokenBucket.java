@@ -0,0 +1,60 @@
+package com.um.helpdesk.delivery;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket rate limiter: refills at a fixed rate up to its burst size.
+ *
+ * A caller that finds no token reserves the next one (the balance goes negative) and sleeps until it is due,
+ * so waiting callers are served in order and the rate holds under contention. A caller that would have to
+ * wait longer than it is willing to takes nothing.
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting for it at most maxWaitNanos.
+     *
+     * @return false if none would be available in time
+     */
+    boolean tryAcquire(long maxWaitNanos) {
+        if (tokensPerNano <= 0) {
+            return true;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            if (waitNanos > maxWaitNanos) {
+                return false;
+            }
+            tokens -= 1;
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        for (long left = waitNanos; left > 0; left = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
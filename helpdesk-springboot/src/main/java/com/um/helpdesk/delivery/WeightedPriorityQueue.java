@@ -0,0 +1,461 @@
+package com.um.helpdesk.delivery;
+
+import com.um.helpdesk.entity.NotificationPriority;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded blocking queue with one FIFO level per {@link NotificationPriority}, served by weighted rounds.
+ *
+ * In each round a level may hand out as many elements as its weight (URGENT 8, HIGH 4, NORMAL 2, LOW 1),
+ * higher levels first; the round ends when no waiting level has credit left. An urgent element thus waits
+ * behind at most one round's share of the lower levels however deep they are, and every waiting level is
+ * served at least once a round, so none starves. Aging bounds the wait further: a level whose head has
+ * waited longer than the aging threshold when a round starts gets the weight of the level above it.
+ *
+ * Wait time (enqueue to dequeue) and depth are tracked per level. Usable as the work queue of a
+ * {@link java.util.concurrent.ThreadPoolExecutor}, see {@link #forTasks} and {@link #task}.
+ */
+public final class WeightedPriorityQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    public static final Duration DEFAULT_AGING_AFTER = Duration.ofSeconds(5);
+
+    // Serving order within a round, and each level's share of it
+    private static final NotificationPriority[] ORDER = {
+        NotificationPriority.URGENT, NotificationPriority.HIGH, NotificationPriority.NORMAL, NotificationPriority.LOW};
+    private static final int[] WEIGHTS = {8, 4, 2, 1};
+
+    private final int capacity;
+    private final Function<? super E, NotificationPriority> priorityOf;
+    private final long agingAfterNanos;
+    private final List<Level> levels = new ArrayList<>(ORDER.length);
+    private final Map<NotificationPriority, Level> byPriority = new EnumMap<>(NotificationPriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int count;
+
+    public WeightedPriorityQueue(int capacity, Function<? super E, NotificationPriority> priorityOf) {
+        this(capacity, priorityOf, DEFAULT_AGING_AFTER);
+    }
+
+    public WeightedPriorityQueue(int capacity, Function<? super E, NotificationPriority> priorityOf,
+                                 Duration agingAfter) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.priorityOf = priorityOf;
+        this.agingAfterNanos = agingAfter.toNanos();
+        for (int i = 0; i < ORDER.length; i++) {
+            Level level = new Level(WEIGHTS[i], i == 0 ? WEIGHTS[i] : WEIGHTS[i - 1]);
+            levels.add(level);
+            byPriority.put(ORDER[i], level);
+        }
+    }
+
+    /**
+     * A work queue for an executor; tasks wrapped with {@link #task} are queued at their priority,
+     * anything else at NORMAL.
+     */
+    public static WeightedPriorityQueue<Runnable> forTasks(int capacity, Duration agingAfter) {
+        return new WeightedPriorityQueue<>(capacity,
+            r -> r instanceof Task ? ((Task) r).priority : NotificationPriority.NORMAL, agingAfter);
+    }
+
+    public static Runnable task(NotificationPriority priority, Runnable action) {
+        return new Task(priority, action);
+    }
+
+    // ========== QUEUE ==========
+
+    @Override
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+        lock.lock();
+        try {
+            if (count == capacity) {
+                return false;
+            }
+            enqueue(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(element);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(E element) throws InterruptedException {
+        Objects.requireNonNull(element);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            enqueue(element);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The element poll() would return
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            Level first = null;
+            for (Level level : levels) {
+                if (!level.entries.isEmpty()) {
+                    if (level.credit > 0) {
+                        return level.entries.peekFirst().element;
+                    }
+                    if (first == null) {
+                        first = level;    // served first once a new round starts
+                    }
+                }
+            }
+            return first == null ? null : first.entries.peekFirst().element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> sink) {
+        return drainTo(sink, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> sink, int maxElements) {
+        if (sink == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && count > 0) {
+                sink.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        if (element == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            for (Level level : levels) {
+                for (Iterator<Entry<E>> it = level.entries.iterator(); it.hasNext(); ) {
+                    if (element.equals(it.next().element)) {
+                        it.remove();
+                        count--;
+                        notFull.signal();
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            levels.forEach(level -> level.entries.clear());
+            count = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    // A snapshot, highest level first; remove() takes the element out of the queue
+    @Override
+    public Iterator<E> iterator() {
+        List<E> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            levels.forEach(level -> level.entries.forEach(entry -> snapshot.add(entry.element)));
+        } finally {
+            lock.unlock();
+        }
+        Iterator<E> it = snapshot.iterator();
+        return new Iterator<>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                last = it.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                WeightedPriorityQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    // ========== SCHEDULING ==========
+
+    private void enqueue(E element) {
+        NotificationPriority priority = priorityOf.apply(element);
+        Level level = byPriority.get(priority == null ? NotificationPriority.NORMAL : priority);
+        level.entries.addLast(new Entry<>(element, System.nanoTime()));
+        level.enqueued.increment();
+        count++;
+        notEmpty.signal();
+    }
+
+    // Lock held, count > 0
+    private E dequeue() {
+        Level level = next();
+        Entry<E> entry = level.entries.pollFirst();
+        level.credit--;
+        level.dequeued.increment();
+        level.wait.record(System.nanoTime() - entry.enqueuedNanos);
+        count--;
+        notFull.signal();
+        return entry.element;
+    }
+
+    private Level next() {
+        while (true) {
+            for (Level level : levels) {
+                if (level.credit > 0 && !level.entries.isEmpty()) {
+                    return level;
+                }
+            }
+            startRound();
+        }
+    }
+
+    private void startRound() {
+        long now = System.nanoTime();
+        for (Level level : levels) {
+            Entry<E> head = level.entries.peekFirst();
+            if (head != null && now - head.enqueuedNanos > agingAfterNanos && level.agedWeight > level.weight) {
+                level.credit = level.agedWeight;
+                level.promoted.increment();
+            } else {
+                level.credit = level.weight;
+            }
+        }
+    }
+
+    private static final class Entry<E> {
+        private final E element;
+        private final long enqueuedNanos;
+
+        Entry(E element, long enqueuedNanos) {
+            this.element = element;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private final class Level {
+        private final int weight;
+        private final int agedWeight;
+        private final ArrayDeque<Entry<E>> entries = new ArrayDeque<>();
+        private int credit;
+
+        // Metrics
+        private final LongAdder enqueued = new LongAdder();
+        private final LongAdder dequeued = new LongAdder();
+        private final LongAdder promoted = new LongAdder();
+        private final LatencyHistogram wait = new LatencyHistogram();
+
+        Level(int weight, int agedWeight) {
+            this.weight = weight;
+            this.agedWeight = agedWeight;
+        }
+    }
+
+    private static final class Task implements Runnable {
+        private final NotificationPriority priority;
+        private final Runnable action;
+
+        Task(NotificationPriority priority, Runnable action) {
+            this.priority = priority;
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            action.run();
+        }
+    }
+
+    // ========== MONITORING ==========
+
+    public Map<NotificationPriority, LevelMetrics> metrics() {
+        Map<NotificationPriority, LevelMetrics> metrics = new EnumMap<>(NotificationPriority.class);
+        lock.lock();
+        try {
+            byPriority.forEach((priority, level) -> metrics.put(priority, new LevelMetrics(level.entries.size(),
+                level.enqueued.sum(), level.dequeued.sum(), level.promoted.sum(), level.wait.meanMillis(),
+                level.wait.percentileMillis(0.5), level.wait.percentileMillis(0.99), level.wait.maxMillis())));
+        } finally {
+            lock.unlock();
+        }
+        return metrics;
+    }
+
+    /**
+     * One priority level: its depth, throughput and how long its elements waited to be taken.
+     */
+    public static final class LevelMetrics {
+        private final int depth;
+        private final long enqueued;
+        private final long dequeued;
+        private final long promoted;
+        private final double waitMeanMillis;
+        private final double waitP50Millis;
+        private final double waitP99Millis;
+        private final double waitMaxMillis;
+
+        private LevelMetrics(int depth, long enqueued, long dequeued, long promoted, double waitMeanMillis,
+                             double waitP50Millis, double waitP99Millis, double waitMaxMillis) {
+            this.depth = depth;
+            this.enqueued = enqueued;
+            this.dequeued = dequeued;
+            this.promoted = promoted;
+            this.waitMeanMillis = waitMeanMillis;
+            this.waitP50Millis = waitP50Millis;
+            this.waitP99Millis = waitP99Millis;
+            this.waitMaxMillis = waitMaxMillis;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getEnqueued() {
+            return enqueued;
+        }
+
+        public long getDequeued() {
+            return dequeued;
+        }
+
+        /** Rounds in which the level got the weight of the one above because its head had aged */
+        public long getPromoted() {
+            return promoted;
+        }
+
+        public double getWaitMeanMillis() {
+            return waitMeanMillis;
+        }
+
+        public double getWaitP50Millis() {
+            return waitP50Millis;
+        }
+
+        public double getWaitP99Millis() {
+            return waitP99Millis;
+        }
+
+        public double getWaitMaxMillis() {
+            return waitMaxMillis;
+        }
+    }
+}
@@ -142,15 +142,6 @@ public class DataInitializer implements CommandLineRunner {
         System.out.println("✓ Data initialization complete with Historical Reporting Data!");
     }
 
-    private void createTicket(String title, String desc, TicketPriority prio, User user) {
-        Ticket t = new Ticket();
-        t.setTitle(title);
-        t.setDescription(desc);
-        t.setPriority(prio);
-        t.setSubmittedBy(user);
-        ticketService.createTicket(t);
-    }
-
     private void createClaimableTicket(String title, String desc, TicketPriority prio, User user, Department dept) {
         Ticket t = new Ticket();
         t.setTitle(title);
@@ -164,7 +155,7 @@ public class DataInitializer implements CommandLineRunner {
         ticketRepository.save(t);
     }
 
-    private void createHistoricalData(User student, User staff, TechnicianSupportStaff tech) {
+    private void createHistoricalData(User student, User staff, TechnicianSupportStaff tech1) {
         // --- 4. CREATE HISTORICAL DATA (FOR REPORTING DEMO) ---
         // This is the part you were missing!
         System.out.println("--- Generating Historical Data... ---");
@@ -193,8 +193,8 @@ public class NotificationConsoleRunner {
 
     private void markAllAsRead(User user) {
         try {
-            notificationService.markAllAsRead(user.getId());
-            System.out.println("✅ All notifications marked as read!\n");
+            int count = notificationService.markAllAsRead(user.getId());
+            System.out.println("✅ " + count + " notification(s) marked as read!\n");
         } catch (RuntimeException e) {
             System.out.println("❌ " + e.getMessage() + "\n");
         }
@@ -214,7 +214,7 @@ public class TicketAssignmentConsoleRunner {
 
         // Show technicians in same department
         System.out.println("\nTechnicians in " + technician.getDepartment().getName() + ":");
-        List<User> allUsers = userRepository.findAll();
+        List<User> allUsers = userRepository.findAllWithDepartment();
         int count = 1;
         for (User user : allUsers) {
             if (user instanceof TechnicianSupportStaff) {
@@ -398,7 +398,7 @@ public class TicketAssignmentConsoleRunner {
 
     public void viewAllTechnicians(Scanner sc, User currentUser) {
         System.out.println("\n--- ALL TECHNICIANS ---");
-        List<User> allUsers = userRepository.findAll();
+        List<User> allUsers = userRepository.findAllWithDepartment();
         List<TechnicianSupportStaff> technicians = allUsers.stream()
             .filter(u -> u instanceof TechnicianSupportStaff)
             .map(u -> (TechnicianSupportStaff) u)
@@ -0,0 +1,88 @@
+package com.um.helpdesk.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point-in-time state of a broadcast, as returned by POST /broadcast and polled at GET /broadcast/{id}
+ */
+public class BroadcastProgress {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final String audience;
+    private final Status status;
+    private final long total;
+    private final long sent;
+    private final int chunks;
+    private final LocalDateTime submittedAt;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final String error;
+
+    public BroadcastProgress(String id, String audience, Status status, long total, long sent, int chunks,
+                             LocalDateTime submittedAt, LocalDateTime startedAt, LocalDateTime finishedAt,
+                             String error) {
+        this.id = id;
+        this.audience = audience;
+        this.status = status;
+        this.total = total;
+        this.sent = sent;
+        this.chunks = chunks;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getAudience() {
+        return audience;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /** Audience size when the broadcast started */
+    public long getTotal() {
+        return total;
+    }
+
+    /** Notifications inserted so far */
+    public long getSent() {
+        return sent;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getPercent() {
+        if (status == Status.DONE) {
+            return 100;
+        }
+        return total == 0 ? 0 : (int) Math.min(99, sent * 100 / total);
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
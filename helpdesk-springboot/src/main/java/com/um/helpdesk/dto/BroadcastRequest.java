@@ -0,0 +1,105 @@
+package com.um.helpdesk.dto;
+
+import com.um.helpdesk.entity.NotificationPriority;
+import com.um.helpdesk.entity.NotificationType;
+import com.um.helpdesk.entity.UserRole;
+
+/**
+ * POST /api/notifications/broadcast payload: the message, and exactly one audience
+ * (every active user with a role, the staff and technicians of a department, or a faculty's students)
+ */
+public class BroadcastRequest {
+
+    private String title;
+    private String message;
+    private NotificationType type;
+    private NotificationPriority priority;
+
+    // Audience: set exactly one
+    private UserRole role;
+    private Long departmentId;
+    private String faculty;
+
+    public BroadcastRequest() {
+    }
+
+    public static BroadcastRequest toRole(UserRole role, String title, String message) {
+        BroadcastRequest request = new BroadcastRequest();
+        request.setRole(role);
+        request.setTitle(title);
+        request.setMessage(message);
+        return request;
+    }
+
+    public static BroadcastRequest toDepartment(Long departmentId, String title, String message) {
+        BroadcastRequest request = new BroadcastRequest();
+        request.setDepartmentId(departmentId);
+        request.setTitle(title);
+        request.setMessage(message);
+        return request;
+    }
+
+    public static BroadcastRequest toFaculty(String faculty, String title, String message) {
+        BroadcastRequest request = new BroadcastRequest();
+        request.setFaculty(faculty);
+        request.setTitle(title);
+        request.setMessage(message);
+        return request;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public NotificationType getType() {
+        return type;
+    }
+
+    public void setType(NotificationType type) {
+        this.type = type;
+    }
+
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(NotificationPriority priority) {
+        this.priority = priority;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+
+    public void setRole(UserRole role) {
+        this.role = role;
+    }
+
+    public Long getDepartmentId() {
+        return departmentId;
+    }
+
+    public void setDepartmentId(Long departmentId) {
+        this.departmentId = departmentId;
+    }
+
+    public String getFaculty() {
+        return faculty;
+    }
+
+    public void setFaculty(String faculty) {
+        this.faculty = faculty;
+    }
+}
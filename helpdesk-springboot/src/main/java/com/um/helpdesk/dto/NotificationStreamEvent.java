@@ -0,0 +1,35 @@
+package com.um.helpdesk.dto;
+
+import com.um.helpdesk.entity.Notification;
+import com.um.helpdesk.entity.NotificationPriority;
+import com.um.helpdesk.entity.NotificationStatus;
+import com.um.helpdesk.entity.NotificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload of one notification on the SSE stream. Its "created" event's id is a cursor made of
+ * createdAt and id, which a reconnecting client sends back as Last-Event-ID; the id here is the
+ * one clients dedupe on, since a resumed stream repeats a short window before the cursor.
+ */
+public record NotificationStreamEvent(
+    Long id,
+    NotificationType type,
+    NotificationPriority priority,
+    NotificationStatus status,
+    String title,
+    String message,
+    Long relatedTicketId,
+    LocalDateTime createdAt
+) {
+
+    public static NotificationStreamEvent of(Notification notification) {
+        return of(notification, notification.getStatus());
+    }
+
+    public static NotificationStreamEvent of(Notification notification, NotificationStatus status) {
+        return new NotificationStreamEvent(notification.getId(), notification.getType(), notification.getPriority(),
+            status, notification.getTitle(), notification.getMessage(), notification.getRelatedTicketId(),
+            notification.getCreatedAt());
+    }
+}
@@ -0,0 +1,62 @@
+package com.um.helpdesk.dto;
+
+import com.um.helpdesk.entity.Ticket;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last ticket on a page: (createdAt, id), plus the priority rank
+ * for queue orderings. Encoded as an opaque URL-safe token.
+ */
+public final class TicketCursor {
+
+    private final Integer priorityRank;
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private TicketCursor(Integer priorityRank, LocalDateTime createdAt, Long id) {
+        this.priorityRank = priorityRank;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static TicketCursor after(Ticket ticket, boolean byPriority) {
+        return new TicketCursor(byPriority ? ticket.getPriority().ordinal() : null, ticket.getCreatedAt(), ticket.getId());
+    }
+
+    public static TicketCursor after(TicketSummary summary, boolean byPriority) {
+        return new TicketCursor(byPriority ? summary.priority().ordinal() : null, summary.createdAt(), summary.id());
+    }
+
+    public static TicketCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            Integer rank = parts[0].isEmpty() ? null : Integer.valueOf(parts[0]);
+            return new TicketCursor(rank, LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid page cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = (priorityRank != null ? priorityRank.toString() : "") + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getPriorityRank() {
+        if (priorityRank == null) {
+            throw new RuntimeException("Page cursor does not belong to a priority-ordered listing");
+        }
+        return priorityRank;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
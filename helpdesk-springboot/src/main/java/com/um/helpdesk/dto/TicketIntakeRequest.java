@@ -0,0 +1,65 @@
+package com.um.helpdesk.dto;
+
+import com.um.helpdesk.entity.TicketPriority;
+
+/**
+ * One ticket in a POST /api/tickets/batch payload
+ */
+public class TicketIntakeRequest {
+
+    private String title;
+    private String description;
+    private String category;
+    private TicketPriority priority;
+    private Long submittedById;
+
+    public TicketIntakeRequest() {
+    }
+
+    public TicketIntakeRequest(String title, String description, String category, Long submittedById) {
+        this.title = title;
+        this.description = description;
+        this.category = category;
+        this.submittedById = submittedById;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public TicketPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(TicketPriority priority) {
+        this.priority = priority;
+    }
+
+    public Long getSubmittedById() {
+        return submittedById;
+    }
+
+    public void setSubmittedById(Long submittedById) {
+        this.submittedById = submittedById;
+    }
+}
@@ -0,0 +1,67 @@
+package com.um.helpdesk.dto;
+
+/**
+ * Outcome of one item of a batch intake, streamed back as one NDJSON line
+ */
+public class TicketIntakeResult {
+
+    private final int index;
+    private final boolean created;
+    private final Long ticketId;
+    private final String departmentCode;
+    private final Long assignedToId;
+    private final String error;
+    private final boolean aborted;
+
+    private TicketIntakeResult(int index, boolean created, Long ticketId,
+                               String departmentCode, Long assignedToId, String error, boolean aborted) {
+        this.index = index;
+        this.created = created;
+        this.ticketId = ticketId;
+        this.departmentCode = departmentCode;
+        this.assignedToId = assignedToId;
+        this.error = error;
+        this.aborted = aborted;
+    }
+
+    public static TicketIntakeResult created(int index, Long ticketId, String departmentCode, Long assignedToId) {
+        return new TicketIntakeResult(index, true, ticketId, departmentCode, assignedToId, null, false);
+    }
+
+    public static TicketIntakeResult rejected(int index, String error) {
+        return new TicketIntakeResult(index, false, null, null, null, error, false);
+    }
+
+    // Terminal line: the batch stopped at this item; it and everything after it were not processed
+    public static TicketIntakeResult aborted(int index, String error) {
+        return new TicketIntakeResult(index, false, null, null, null, error, true);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public String getDepartmentCode() {
+        return departmentCode;
+    }
+
+    public Long getAssignedToId() {
+        return assignedToId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+}
@@ -0,0 +1,22 @@
+package com.um.helpdesk.dto;
+
+import com.um.helpdesk.entity.TicketPriority;
+import com.um.helpdesk.entity.TicketStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Narrow row for ticket list views (?view=summary), selected directly with a JPQL
+ * constructor expression: no TEXT columns and no user/department entities.
+ */
+public record TicketSummary(
+    Long id,
+    String title,
+    TicketStatus status,
+    TicketPriority priority,
+    String departmentCode,
+    String assigneeName,
+    LocalDateTime submittedAt,
+    LocalDateTime createdAt
+) {
+}
@@ -1,13 +1,17 @@
 package com.um.helpdesk.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @MappedSuperclass
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})  // serializable as lazy proxies
 public abstract class BaseEntity {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "helpdesk_seq")
+    @SequenceGenerator(name = "helpdesk_seq", sequenceName = "helpdesk_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -4,10 +4,29 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+// Fetch profile for NotificationRepository; recipient is LAZY
+@NamedEntityGraph(name = "Notification.list", attributeNodes = @NamedAttributeNode("recipient"))
+@Table(name = "notifications", indexes = {
+    // Inbox and unread badge: recipient + isRead
+    @Index(name = "idx_notification_recipient_read", columnList = "user_id, is_read, created_at"),
+    // Retry claims: due QUEUED_FOR_RETRY rows in nextAttemptAt order (the status prefix also serves findByStatus)
+    @Index(name = "idx_notification_retry_due", columnList = "status, next_attempt_at"),
+    // Held digests, in release order
+    @Index(name = "idx_notification_digest_due", columnList = "digest_until"),
+    // Delivery statistics breakdown over a time range
+    @Index(name = "idx_notification_created", columnList = "created_at"),
+    // Stream replay: one recipient's notifications from a createdAt onwards
+    @Index(name = "idx_notification_recipient_created", columnList = "user_id, created_at, id")
+}, uniqueConstraints = {
+    // Replayed ticket events (eventType + ticket + recipient + outbox id) map to the same key
+    @UniqueConstraint(name = "uk_notification_idempotency_key", columnNames = "idempotency_key")
+})
 public class Notification extends BaseEntity {
 
-    @ManyToOne
+    // Failure reasons carry transport messages (SMTP replies, exception text) of any length
+    public static final int FAILURE_REASON_LENGTH = 255;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User recipient;
 
@@ -46,11 +65,25 @@ public class Notification extends BaseEntity {
     private int maxRetries = 3;
 
     private String deliveryStatus;
+    @Column(length = FAILURE_REASON_LENGTH)
     private String failureReason;
 
+    // When a QUEUED_FOR_RETRY notification is next due; pushed ahead by a lease while a retry holds it
+    private LocalDateTime nextAttemptAt;
+
     private int escalationLevel = 0;
     private LocalDateTime nextEscalationTime;
 
+    // Null for notifications that may repeat
+    private String idempotencyKey;
+
+    // Digest of coalesced notifications: the tickets merged in (",12,15,..."), how many notifications,
+    // and while it is held, when it is released
+    @Column(columnDefinition = "TEXT")
+    private String relatedTicketIds;
+    private int digestCount = 0;
+    private LocalDateTime digestUntil;
+
     public Notification() {
         this.status = NotificationStatus.PENDING;
         this.priority = NotificationPriority.NORMAL;
@@ -193,7 +226,21 @@ public class Notification extends BaseEntity {
     }
 
     public void setFailureReason(String failureReason) {
-        this.failureReason = failureReason;
+        this.failureReason = truncateFailureReason(failureReason);
+    }
+
+    // For bulk UPDATEs that write the reason without going through the setter
+    public static String truncateFailureReason(String reason) {
+        return reason == null || reason.length() <= FAILURE_REASON_LENGTH
+            ? reason : reason.substring(0, FAILURE_REASON_LENGTH);
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
     }
 
     public int getEscalationLevel() {
@@ -211,4 +258,36 @@ public class Notification extends BaseEntity {
     public void setNextEscalationTime(LocalDateTime nextEscalationTime) {
         this.nextEscalationTime = nextEscalationTime;
     }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRelatedTicketIds() {
+        return relatedTicketIds;
+    }
+
+    public void setRelatedTicketIds(String relatedTicketIds) {
+        this.relatedTicketIds = relatedTicketIds;
+    }
+
+    public int getDigestCount() {
+        return digestCount;
+    }
+
+    public void setDigestCount(int digestCount) {
+        this.digestCount = digestCount;
+    }
+
+    public LocalDateTime getDigestUntil() {
+        return digestUntil;
+    }
+
+    public void setDigestUntil(LocalDateTime digestUntil) {
+        this.digestUntil = digestUntil;
+    }
 }
\ No newline at end of file
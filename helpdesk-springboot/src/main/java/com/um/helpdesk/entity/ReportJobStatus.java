@@ -0,0 +1,9 @@
+package com.um.helpdesk.entity;
+
+public enum ReportJobStatus {
+    QUEUED,     // Accepted, waiting for a worker (or for a slot of its report type)
+    RUNNING,    // Export in progress
+    DONE,       // File written
+    FAILED,     // Export threw; see failureReason
+    CANCELLED   // Cancelled by the client before it finished
+}
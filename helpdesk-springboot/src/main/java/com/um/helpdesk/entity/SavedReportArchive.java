@@ -15,6 +15,14 @@ public class SavedReportArchive extends BaseEntity {
     @Column(name = "generated_date")
     private LocalDateTime generatedDate = LocalDateTime.now();
 
+    // Job state (see ReportJobService); reports generated synchronously are saved as DONE
+    @Enumerated(EnumType.STRING)
+    private ReportJobStatus status = ReportJobStatus.DONE;
+    private Integer progress;      // percent of rows written
+    private Long rowCount;
+    private Long durationMillis;
+    private String failureReason;
+
     public SavedReportArchive() {}
 
     // Getters and Setters
@@ -32,4 +40,19 @@ public class SavedReportArchive extends BaseEntity {
 
     public LocalDateTime getGeneratedDate() { return generatedDate; }
     public void setGeneratedDate(LocalDateTime generatedDate) { this.generatedDate = generatedDate; }
+
+    public ReportJobStatus getStatus() { return status; }
+    public void setStatus(ReportJobStatus status) { this.status = status; }
+
+    public Integer getProgress() { return progress; }
+    public void setProgress(Integer progress) { this.progress = progress; }
+
+    public Long getRowCount() { return rowCount; }
+    public void setRowCount(Long rowCount) { this.rowCount = rowCount; }
+
+    public Long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(Long durationMillis) { this.durationMillis = durationMillis; }
+
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ public class TechnicianSupportStaff extends User {
     
     private String staffId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department department;
 
@@ -4,7 +4,41 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tickets")
+// Fetch profiles for TicketRepository; every association below is LAZY
+@NamedEntityGraph(name = "Ticket.list", attributeNodes = {
+    @NamedAttributeNode("submittedBy"),
+    @NamedAttributeNode("assignedDepartment"),
+    @NamedAttributeNode("assignedTo"),
+    @NamedAttributeNode("previousAssignee")
+})
+@NamedEntityGraph(name = "Ticket.detail", attributeNodes = {
+    @NamedAttributeNode("submittedBy"),
+    @NamedAttributeNode("assignedDepartment"),
+    @NamedAttributeNode(value = "assignedTo", subgraph = "technician"),
+    @NamedAttributeNode(value = "previousAssignee", subgraph = "technician")
+}, subgraphs = @NamedSubgraph(name = "technician", attributeNodes = @NamedAttributeNode("department")))
+@NamedEntityGraph(name = "Ticket.routing", attributeNodes = {
+    @NamedAttributeNode("assignedDepartment"),
+    @NamedAttributeNode("assignedTo"),
+    @NamedAttributeNode(value = "previousAssignee", subgraph = "technician")
+}, subgraphs = @NamedSubgraph(name = "technician", attributeNodes = @NamedAttributeNode("department")))
+@Table(name = "tickets", indexes = {
+    // Keyset pagination: (createdAt, id) and (priorityRank, createdAt, id) orderings
+    @Index(name = "idx_ticket_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_ticket_status_created_id", columnList = "status, created_at, id"),
+    // Unassigned queue: department + assignedTo IS NULL + status lead the key, so the index
+    // behaves like a partial index on the open, unassigned slice and is read in priority order.
+    // The department_id prefix also serves the per-department filters and counts.
+    @Index(name = "idx_ticket_dept_queue",
+           columnList = "department_id, assigned_to_id, status, priority_rank, created_at, id"),
+    // Technician workload and "my tickets" filters
+    @Index(name = "idx_ticket_assignee_status", columnList = "assigned_to_id, status"),
+    @Index(name = "idx_ticket_submitter_created", columnList = "submitted_by_id, created_at"),
+    // Trend analysis: submissions inside a recent submittedAt range
+    @Index(name = "idx_ticket_submitted", columnList = "submitted_at"),
+    // Escalation schedule: the scheduler's rebuild and due-ticket reads are range scans on this
+    @Index(name = "idx_ticket_next_escalation", columnList = "next_escalation_time")
+})
 public class Ticket extends BaseEntity {
 
     @Column(nullable = false)
@@ -21,17 +55,21 @@ public class Ticket extends BaseEntity {
     @Column(nullable = false)
     private TicketPriority priority = TicketPriority.MEDIUM;
 
+    // Ordinal of priority, kept in sync by setPriority so queues can sort and seek by it
+    @Column(name = "priority_rank", nullable = false)
+    private int priorityRank = TicketPriority.MEDIUM.ordinal();
+
     private String category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "submitted_by_id", nullable = false)
     private User submittedBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_to_id")
     private TechnicianSupportStaff assignedTo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department assignedDepartment;
 
@@ -44,12 +82,17 @@ public class Ticket extends BaseEntity {
     private String resolutionNotes;
 
     // For tracking assignment history and chaining
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "previous_assignee_id")
     private TechnicianSupportStaff previousAssignee;
 
     private int reassignmentCount = 0;
 
+    // Escalation progress: 0 none, 1 reminder sent, 2 supervisor, 3 administrator.
+    // nextEscalationTime is when the next level fires; null once the ticket is inactive or fully escalated.
+    private int escalationLevel = 0;
+    private LocalDateTime nextEscalationTime;
+
     // Constructors
     public Ticket() {
     }
@@ -93,6 +136,7 @@ public class Ticket extends BaseEntity {
 
     public void setPriority(TicketPriority priority) {
         this.priority = priority;
+        this.priorityRank = priority != null ? priority.ordinal() : TicketPriority.MEDIUM.ordinal();
     }
 
     public String getCategory() {
@@ -182,4 +226,20 @@ public class Ticket extends BaseEntity {
     public void setReassignmentCount(int reassignmentCount) {
         this.reassignmentCount = reassignmentCount;
     }
+
+    public int getEscalationLevel() {
+        return escalationLevel;
+    }
+
+    public void setEscalationLevel(int escalationLevel) {
+        this.escalationLevel = escalationLevel;
+    }
+
+    public LocalDateTime getNextEscalationTime() {
+        return nextEscalationTime;
+    }
+
+    public void setNextEscalationTime(LocalDateTime nextEscalationTime) {
+        this.nextEscalationTime = nextEscalationTime;
+    }
 }
@@ -0,0 +1,58 @@
+package com.um.helpdesk.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Outbox row for a ticket lifecycle change, written in the same transaction as the ticket.
+ * TicketEventRelay turns pending rows into notifications and deletes them; createdAt is when
+ * the change happened.
+ */
+@Entity
+@Table(name = "ticket_events")
+public class TicketEvent extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TicketEventType eventType;
+
+    @Column(nullable = false)
+    private Long ticketId;
+
+    @Column(nullable = false)
+    private Long recipientId;
+
+    // Status or department names before and after the change, where the message needs them
+    private String fromValue;
+    private String toValue;
+
+    public TicketEvent() {}
+
+    public TicketEvent(TicketEventType eventType, Long ticketId, Long recipientId) {
+        this(eventType, ticketId, recipientId, null, null);
+    }
+
+    public TicketEvent(TicketEventType eventType, Long ticketId, Long recipientId,
+                       String fromValue, String toValue) {
+        this.eventType = eventType;
+        this.ticketId = ticketId;
+        this.recipientId = recipientId;
+        this.fromValue = fromValue;
+        this.toValue = toValue;
+    }
+
+    // Getters and Setters
+    public TicketEventType getEventType() { return eventType; }
+    public void setEventType(TicketEventType eventType) { this.eventType = eventType; }
+
+    public Long getTicketId() { return ticketId; }
+    public void setTicketId(Long ticketId) { this.ticketId = ticketId; }
+
+    public Long getRecipientId() { return recipientId; }
+    public void setRecipientId(Long recipientId) { this.recipientId = recipientId; }
+
+    public String getFromValue() { return fromValue; }
+    public void setFromValue(String fromValue) { this.fromValue = fromValue; }
+
+    public String getToValue() { return toValue; }
+    public void setToValue(String toValue) { this.toValue = toValue; }
+}
@@ -0,0 +1,12 @@
+package com.um.helpdesk.entity;
+
+public enum TicketEventType {
+    SUBMITTED,      // Ticket created; notifies the submitter
+    ASSIGNED,       // A technician now carries the ticket; notifies the technician
+    STATUS_CHANGED, // Any other status change; notifies the submitter
+    RESOLVED,       // Ticket resolved; notifies the submitter
+    REOPENED,       // Resolved/closed ticket active again; notifies the technician
+    TRANSFERRED,    // Moved to another department; notifies the submitter
+    REMINDER,       // SLA deadline passed; reminds the technician (or supervisors if unassigned)
+    ESCALATED       // Still overdue; notifies supervisors (toValue "2") or administrators ("3")
+}
@@ -0,0 +1,35 @@
+package com.um.helpdesk.forecast;
+
+/**
+ * Backtesting harness: replays a model over history, one bucket at a time, and scores
+ * its one-step-ahead forecasts with the mean absolute percentage error (MAPE).
+ *
+ * Buckets with an actual value of 0 have no percentage error and are skipped, as are
+ * buckets the model could not forecast yet.
+ */
+public final class Backtest {
+
+    private Backtest() {
+    }
+
+    /**
+     * @param fitted scratch array of at least `length` entries; holds the one-step forecasts afterwards
+     * @return MAPE in percent over buckets [from, length), or NaN if none could be scored
+     */
+    public static double mape(ForecastModel model, double[] series, int length, int from, double[] fitted) {
+        model.oneStepAhead(series, length, fitted);
+        return mape(series, fitted, from, length);
+    }
+
+    public static double mape(double[] actual, double[] fitted, int from, int length) {
+        double sum = 0;
+        int scored = 0;
+        for (int t = Math.max(0, from); t < length; t++) {
+            if (actual[t] != 0 && !Double.isNaN(fitted[t])) {
+                sum += Math.abs((actual[t] - fitted[t]) / actual[t]);
+                scored++;
+            }
+        }
+        return scored == 0 ? Double.NaN : sum / scored * 100;
+    }
+}
@@ -0,0 +1,51 @@
+package com.um.helpdesk.forecast;
+
+/**
+ * Simple exponential smoothing: a level that moves `alpha` of the way towards each new bucket.
+ * Forecasts are flat at the last level.
+ */
+public final class ExponentialSmoothingModel implements ForecastModel {
+
+    private final double alpha;
+
+    public ExponentialSmoothingModel(double alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]");
+        }
+        this.alpha = alpha;
+    }
+
+    @Override
+    public String name() {
+        return "Exponential Smoothing";
+    }
+
+    @Override
+    public int minimumHistory() {
+        return 1;
+    }
+
+    @Override
+    public void forecast(double[] series, int length, double[] out) {
+        double level = length == 0 ? 0 : series[0];
+        for (int t = 1; t < length; t++) {
+            level += alpha * (series[t] - level);
+        }
+        for (int h = 0; h < out.length; h++) {
+            out[h] = level;
+        }
+    }
+
+    @Override
+    public void oneStepAhead(double[] series, int length, double[] fitted) {
+        if (length == 0) {
+            return;
+        }
+        fitted[0] = Double.NaN;
+        double level = series[0];
+        for (int t = 1; t < length; t++) {
+            fitted[t] = level;
+            level += alpha * (series[t] - level);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.um.helpdesk.forecast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a fixed set of models over one series: each model is backtested over the same
+ * buckets (after the longest warm-up among them) and then forecasts the horizon.
+ * Models with too little history for the series are left out of the results.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class ForecastEngine {
+
+    private final List<ForecastModel> models;
+
+    public ForecastEngine(List<ForecastModel> models) {
+        this.models = List.copyOf(models);
+    }
+
+    /**
+     * The standard model set for a series with the given season length (24 for hourly buckets,
+     * 7 for daily, 52 for weekly): regression over all history and over the last two seasons,
+     * exponential smoothing and Holt-Winters.
+     */
+    public static ForecastEngine standard(int seasonPeriod) {
+        return new ForecastEngine(List.of(
+            new LinearTrendModel(0),
+            new LinearTrendModel(2 * seasonPeriod),
+            new ExponentialSmoothingModel(0.3),
+            new HoltWintersModel(0.3, 0.05, 0.2, seasonPeriod)));
+    }
+
+    public List<ForecastModel> getModels() {
+        return models;
+    }
+
+    public List<Result> run(double[] series, int length, int horizon) {
+        int from = 1;
+        for (ForecastModel model : models) {
+            if (length >= model.minimumHistory()) {
+                from = Math.max(from, model.minimumHistory());
+            }
+        }
+
+        double[] fitted = new double[length];
+        List<Result> results = new ArrayList<>(models.size());
+        for (ForecastModel model : models) {
+            if (length < model.minimumHistory()) {
+                continue;
+            }
+            double mape = Backtest.mape(model, series, length, from, fitted);
+            double[] forecast = new double[horizon];
+            model.forecast(series, length, forecast);
+            results.add(new Result(model.name(), mape, forecast));
+        }
+        return results;
+    }
+
+    /**
+     * @return the result with the lowest MAPE (results that could not be scored lose), or null
+     */
+    public static Result best(List<Result> results) {
+        Result best = null;
+        for (Result result : results) {
+            if (best == null || Double.isNaN(best.mape) && !Double.isNaN(result.mape)
+                    || result.mape < best.mape) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    public static final class Result {
+        private final String model;
+        private final double mape;
+        private final double[] forecast;
+
+        private Result(String model, double mape, double[] forecast) {
+            this.model = model;
+            this.mape = mape;
+            this.forecast = forecast;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        // Backtest MAPE in percent; NaN if no bucket could be scored
+        public double getMape() {
+            return mape;
+        }
+
+        public double[] getForecast() {
+            return forecast;
+        }
+    }
+}
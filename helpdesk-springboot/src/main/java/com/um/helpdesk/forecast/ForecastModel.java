@@ -0,0 +1,27 @@
+package com.um.helpdesk.forecast;
+
+/**
+ * A forecasting model over a series of equally spaced buckets (ticket counts per hour, day, ...).
+ *
+ * Implementations are immutable and safe to share between threads. Both methods read
+ * series[0..length) and write only into the caller's output array, without allocating,
+ * so one set of buffers can be reused across models and calls.
+ */
+public interface ForecastModel {
+
+    String name();
+
+    // Fewest buckets of history the model needs before it can forecast
+    int minimumHistory();
+
+    /**
+     * Fits series[0..length) and writes the next out.length buckets into out.
+     */
+    void forecast(double[] series, int length, double[] out);
+
+    /**
+     * Backtesting pass: for every t in [0, length) writes into fitted[t] the forecast of series[t]
+     * made from series[0..t) alone, or NaN while there is too little history. Runs in O(length).
+     */
+    void oneStepAhead(double[] series, int length, double[] fitted);
+}
@@ -0,0 +1,113 @@
+package com.um.helpdesk.forecast;
+
+/**
+ * Additive Holt-Winters: level, trend and one seasonal offset per position in the season
+ * (e.g. period 24 for hourly buckets, 7 for daily ones).
+ *
+ * The first season sets the initial level and offsets and the second the initial trend, so the
+ * model needs two full seasons of history and its backtest starts at the third. The seasonal
+ * offsets live in a per-thread scratch array, so neither method allocates.
+ */
+public final class HoltWintersModel implements ForecastModel {
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final int period;
+    private final ThreadLocal<double[]> seasonal;
+
+    public HoltWintersModel(double alpha, double beta, double gamma, int period) {
+        if (alpha <= 0 || alpha > 1 || beta < 0 || beta > 1 || gamma < 0 || gamma > 1) {
+            throw new IllegalArgumentException("Smoothing factors must be in [0, 1] (alpha above 0)");
+        }
+        if (period < 2) {
+            throw new IllegalArgumentException("Season period must be at least 2");
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.period = period;
+        this.seasonal = ThreadLocal.withInitial(() -> new double[period]);
+    }
+
+    @Override
+    public String name() {
+        return "Holt-Winters (" + period + ")";
+    }
+
+    @Override
+    public int minimumHistory() {
+        return 2 * period;
+    }
+
+    @Override
+    public void forecast(double[] series, int length, double[] out) {
+        if (length < minimumHistory()) {
+            throw new IllegalArgumentException("Holt-Winters needs at least " + minimumHistory() + " buckets");
+        }
+        double[] season = seasonal.get();
+        double level = initialLevel(series);
+        double trend = initialTrend(series, level);
+        initSeason(series, level, season);
+
+        for (int t = period; t < length; t++) {
+            int s = t % period;
+            double previousLevel = level;
+            level = alpha * (series[t] - season[s]) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            season[s] = gamma * (series[t] - level) + (1 - gamma) * season[s];
+        }
+        for (int h = 0; h < out.length; h++) {
+            out[h] = level + (h + 1) * trend + season[(length + h) % period];
+        }
+    }
+
+    @Override
+    public void oneStepAhead(double[] series, int length, double[] fitted) {
+        int warmup = Math.min(length, minimumHistory());
+        for (int t = 0; t < warmup; t++) {
+            fitted[t] = Double.NaN;
+        }
+        if (length < minimumHistory()) {
+            return;
+        }
+        double[] season = seasonal.get();
+        double level = initialLevel(series);
+        double trend = initialTrend(series, level);
+        initSeason(series, level, season);
+
+        for (int t = period; t < length; t++) {
+            int s = t % period;
+            if (t >= warmup) {
+                fitted[t] = level + trend + season[s];
+            }
+            double previousLevel = level;
+            level = alpha * (series[t] - season[s]) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            season[s] = gamma * (series[t] - level) + (1 - gamma) * season[s];
+        }
+    }
+
+    private double initialLevel(double[] series) {
+        double sum = 0;
+        for (int t = 0; t < period; t++) {
+            sum += series[t];
+        }
+        return sum / period;
+    }
+
+    // Average change per bucket between the first two seasons
+    private double initialTrend(double[] series, double firstSeasonMean) {
+        double sum = 0;
+        for (int t = period; t < 2 * period; t++) {
+            sum += series[t];
+        }
+        return (sum / period - firstSeasonMean) / period;
+    }
+
+    private void initSeason(double[] series, double level, double[] season) {
+        for (int s = 0; s < period; s++) {
+            season[s] = series[s] - level;
+        }
+    }
+}
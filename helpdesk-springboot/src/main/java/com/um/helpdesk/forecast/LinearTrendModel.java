@@ -0,0 +1,88 @@
+package com.um.helpdesk.forecast;
+
+/**
+ * Least-squares straight line through the history, extrapolated forward.
+ *
+ * With a window of 0 the line is fitted to the whole history; otherwise only the last
+ * `window` buckets are used (a moving-window regression). The backtesting pass keeps running
+ * sums of y and x*y, sliding them one bucket at a time instead of refitting.
+ */
+public final class LinearTrendModel implements ForecastModel {
+
+    private final int window;
+    private final String name;
+
+    public LinearTrendModel(int window) {
+        if (window < 0 || window == 1) {
+            throw new IllegalArgumentException("Regression window must be 0 (all history) or at least 2");
+        }
+        this.window = window;
+        this.name = window == 0 ? "Linear Regression" : "Moving-Window Regression (" + window + ")";
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int minimumHistory() {
+        return 2;
+    }
+
+    @Override
+    public void forecast(double[] series, int length, double[] out) {
+        int n = window == 0 ? length : Math.min(window, length);
+        int start = length - n;
+        double sumY = 0, sumXY = 0;
+        for (int x = 0; x < n; x++) {
+            sumY += series[start + x];
+            sumXY += x * series[start + x];
+        }
+        double slope = slope(n, sumY, sumXY);
+        double intercept = n == 0 ? 0 : (sumY - slope * sumX(n)) / n;
+        for (int h = 0; h < out.length; h++) {
+            out[h] = intercept + slope * (n + h);
+        }
+    }
+
+    @Override
+    public void oneStepAhead(double[] series, int length, double[] fitted) {
+        // x runs 0..n-1 over the buckets currently in the window
+        double sumY = 0, sumXY = 0;
+        int n = 0;
+        for (int t = 0; t < length; t++) {
+            if (n == 0) {
+                fitted[t] = Double.NaN;
+            } else {
+                double slope = slope(n, sumY, sumXY);
+                fitted[t] = (sumY - slope * sumX(n)) / n + slope * n;
+            }
+
+            double y = series[t];
+            if (window == 0 || n < window) {
+                sumXY += n * y;
+                sumY += y;
+                n++;
+            } else {
+                // Every remaining bucket moves one x to the left; the oldest (x = 0) leaves
+                double oldest = series[t - window];
+                sumXY = sumXY - (sumY - oldest) + (window - 1) * y;
+                sumY = sumY - oldest + y;
+            }
+        }
+    }
+
+    private static double sumX(int n) {
+        return n * (n - 1) / 2.0;
+    }
+
+    // n*sum(x^2) - sum(x)^2 in closed form, so it stays exact for long series
+    private static double slope(int n, double sumY, double sumXY) {
+        if (n < 2) {
+            return 0;
+        }
+        double denominator = (double) n * n * ((double) n * n - 1) / 12.0;
+        return (n * sumXY - sumX(n) * sumY) / denominator;
+    }
+}
@@ -0,0 +1,20 @@
+package com.um.helpdesk.repository;
+
+import com.um.helpdesk.entity.DeliveryChannel;
+import com.um.helpdesk.entity.NotificationStatus;
+import com.um.helpdesk.entity.NotificationType;
+
+/**
+ * Projection: notifications of one channel, type and status created in a time range
+ * (see NotificationRepository.countByChannelAndType)
+ */
+public interface DeliveryBreakdown {
+
+    DeliveryChannel getChannel();
+
+    NotificationType getType();
+
+    NotificationStatus getStatus();
+
+    long getCount();
+}
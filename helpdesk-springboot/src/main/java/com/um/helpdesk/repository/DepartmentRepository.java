@@ -4,6 +4,11 @@ import com.um.helpdesk.entity.Department;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
-}
\ No newline at end of file
+
+    // Fallback for DepartmentCache misses
+    Optional<Department> findByCode(String code);
+}
@@ -0,0 +1,11 @@
+package com.um.helpdesk.repository;
+
+/**
+ * Projection: tickets submitted to one department in one calendar day, or one hour of it
+ * (see TicketRepository.countSubmittedPerDayByDepartment / countSubmittedPerHourByDepartment)
+ */
+public interface DepartmentSubmissionCount extends SubmissionCount {
+
+    // Null for tickets without a department
+    Long getDepartmentId();
+}
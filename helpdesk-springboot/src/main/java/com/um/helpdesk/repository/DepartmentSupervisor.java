@@ -0,0 +1,11 @@
+package com.um.helpdesk.repository;
+
+/**
+ * Projection: a staff member who supervises one department (see UserRepository.findSupervisors)
+ */
+public interface DepartmentSupervisor {
+
+    Long getUserId();
+
+    Long getDepartmentId();
+}
@@ -1,31 +1,199 @@
 package com.um.helpdesk.repository;
 
+import com.um.helpdesk.entity.DeliveryChannel;
 import com.um.helpdesk.entity.Notification;
 import com.um.helpdesk.entity.NotificationStatus;
 import com.um.helpdesk.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
+    @Override
+    @EntityGraph("Notification.list")
+    List<Notification> findAll();
+
+    @Override
+    @EntityGraph("Notification.list")
+    Optional<Notification> findById(Long id);
+
     // Find all notifications for a specific user
+    @EntityGraph("Notification.list")
     List<Notification> findByRecipient(User recipient);
 
     // Find unread notifications for a specific user
+    @EntityGraph("Notification.list")
     List<Notification> findByRecipientAndIsReadFalse(User recipient);
 
     // Find notifications by status
+    @EntityGraph("Notification.list")
     List<Notification> findByStatus(NotificationStatus status);
 
     // Find notifications by recipient and status
+    @EntityGraph("Notification.list")
     List<Notification> findByRecipientAndStatus(User recipient, NotificationStatus status);
 
     // Count unread notifications for a user
     long countByRecipientAndIsReadFalse(User recipient);
 
-    // Find failed notifications (for retry)
-    List<Notification> findByStatusAndRetryCountLessThan(NotificationStatus status, int maxRetries);
+    // Unread badge straight from the recipient id, without loading the user
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = false")
+    long countUnreadByRecipientId(@Param("recipientId") Long recipientId);
+
+    // Seeds and reconciles UnreadCountTracker: one row per recipient with unread notifications
+    @Query("SELECT n.recipient.id AS recipientId, COUNT(n) AS unread FROM Notification n " +
+           "WHERE n.isRead = false GROUP BY n.recipient.id")
+    List<UnreadCount> countUnreadByRecipient();
+
+    // ========== PIPELINE DELIVERY ==========
+
+    // Keys already stored, so a replayed batch skips them (uk_notification_idempotency_key)
+    @Query("SELECT n.idempotencyKey FROM Notification n WHERE n.idempotencyKey IN :keys")
+    List<String> findIdempotencyKeysIn(@Param("keys") Collection<String> keys);
+
+    // One UPDATE per delivered batch instead of a read and a save per notification
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.deliveryStatus = :deliveryStatus, " +
+           "n.sentAt = :sentAt, n.deliveredAt = :deliveredAt, n.updatedAt = :sentAt WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("status") NotificationStatus status,
+                 @Param("deliveryStatus") String deliveryStatus,
+                 @Param("sentAt") LocalDateTime sentAt,
+                 @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    // Leases rows handed to an external gateway: unless their outcome is written back first, the
+    // retry engine claims them once nextAttemptAt passes (a node that died, a failed write-back)
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.um.helpdesk.entity.NotificationStatus.QUEUED_FOR_RETRY, " +
+           "n.deliveryStatus = 'Sending', n.nextAttemptAt = :leaseUntil, n.updatedAt = :now WHERE n.id IN :ids")
+    int leaseForSending(@Param("ids") Collection<Long> ids,
+                        @Param("leaseUntil") LocalDateTime leaseUntil,
+                        @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.retryCount = n.retryCount + 1, n.deliveryStatus = 'Failed', " +
+           "n.failureReason = :reason, n.updatedAt = :now, n.nextAttemptAt = :nextAttemptAt, n.status = CASE " +
+           "WHEN n.retryCount + 1 < n.maxRetries THEN com.um.helpdesk.entity.NotificationStatus.QUEUED_FOR_RETRY " +
+           "ELSE com.um.helpdesk.entity.NotificationStatus.PERMANENTLY_FAILED END WHERE n.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids,
+                   @Param("reason") String reason,
+                   @Param("now") LocalDateTime now,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    // ========== READ STATE ==========
+
+    // One UPDATE for a recipient's whole unread backlog; bypasses @PreUpdate, so updatedAt is set here
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt, n.updatedAt = :readAt, " +
+           "n.status = com.um.helpdesk.entity.NotificationStatus.READ " +
+           "WHERE n.recipient.id = :recipientId AND n.isRead = false")
+    int markAllRead(@Param("recipientId") Long recipientId, @Param("readAt") LocalDateTime readAt);
+
+    // As markAllRead, bounded to ids up to the newest one an inbox page has shown
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt, n.updatedAt = :readAt, " +
+           "n.status = com.um.helpdesk.entity.NotificationStatus.READ " +
+           "WHERE n.recipient.id = :recipientId AND n.isRead = false AND n.id <= :upToId")
+    int markReadUpTo(@Param("recipientId") Long recipientId,
+                     @Param("upToId") Long upToId,
+                     @Param("readAt") LocalDateTime readAt);
+
+    // ========== STREAM ==========
+
+    // What a reconnecting stream may have missed, in (createdAt, id) order, from idx_notification_recipient_created
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.createdAt >= :from " +
+           "ORDER BY n.createdAt, n.id")
+    List<Notification> findCreatedSince(@Param("recipientId") Long recipientId, @Param("from") LocalDateTime from,
+                                        Limit limit);
+
+    // ========== DIGESTS ==========
+
+    // Merges more notifications into a held digest; 0 if it was released meanwhile (or never committed)
+    @Modifying
+    @Query("UPDATE Notification n SET n.digestCount = n.digestCount + :count, " +
+           "n.relatedTicketIds = CONCAT(n.relatedTicketIds, :ticketIds), n.updatedAt = :now " +
+           "WHERE n.id = :id AND n.digestUntil IS NOT NULL")
+    int appendToDigest(@Param("id") Long id,
+                       @Param("count") int count,
+                       @Param("ticketIds") String ticketIds,
+                       @Param("now") LocalDateTime now);
+
+    // Held digests whose window has closed, oldest first, from idx_notification_digest_due
+    @Query("SELECT n FROM Notification n WHERE n.digestUntil <= :now ORDER BY n.digestUntil")
+    List<Notification> findDueDigests(@Param("now") LocalDateTime now, Limit limit);
+
+    // ========== BROADCAST ==========
+
+    // One notification per audience member in a single INSERT ... SELECT. Native because Hibernate runs an
+    // HQL insert through a temporary table with an UPDATE per row to hand out pooled ids. Each row takes its
+    // own NEXT VALUE FOR helpdesk_seq: Hibernate only uses ids up to the values it fetched itself, so these
+    // never collide with its pooled blocks. Enums are passed by name; timestamps and defaults are set here.
+    @Modifying
+    @Query(value = "INSERT INTO notifications (id, user_id, title, message, type, status, priority, delivery_channel, " +
+                   "event_type, delivery_status, sent_at, delivered_at, is_read, retry_count, max_retries, " +
+                   "escalation_level, digest_count, created_at, updated_at) " +
+                   "SELECT NEXT VALUE FOR helpdesk_seq, u.id, :title, :message, :type, 'DELIVERED', :priority, 'IN_APP', " +
+                   ":eventType, 'Delivered', :now, :now, FALSE, 0, 3, 0, 0, :now, :now FROM users u WHERE u.id IN (:recipientIds)",
+           nativeQuery = true)
+    int insertBroadcast(@Param("recipientIds") Collection<Long> recipientIds,
+                        @Param("title") String title,
+                        @Param("message") String message,
+                        @Param("type") String type,
+                        @Param("priority") String priority,
+                        @Param("eventType") String eventType,
+                        @Param("now") LocalDateTime now);
+
+    // A broadcast's notifications for the given recipients (those with an open stream)
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id IN :recipientIds AND n.eventType = :eventType")
+    List<Notification> findByEventTypeForRecipients(@Param("eventType") String eventType,
+                                                    @Param("recipientIds") Collection<Long> recipientIds);
+
+    // ========== RETRY ENGINE ==========
+
+    // Due retries on the given channels, oldest first, read from idx_notification_retry_due without locking
+    @Query("SELECT n.id FROM Notification n WHERE n.status = com.um.helpdesk.entity.NotificationStatus.QUEUED_FOR_RETRY " +
+           "AND n.nextAttemptAt <= :now AND n.deliveryChannel IN :channels ORDER BY n.nextAttemptAt")
+    List<Long> findDueRetryIds(@Param("now") LocalDateTime now, @Param("channels") Collection<DeliveryChannel> channels,
+                               Limit limit);
+
+    // Locks those of the given rows that are still due, skipping rows another node is claiming.
+    // Native because Hibernate's H2 dialect renders PESSIMISTIC_WRITE without SKIP LOCKED, and
+    // by id because H2 applies ORDER BY ... FETCH FIRST before skipping locked rows.
+    @Query(value = "SELECT * FROM notifications WHERE id IN (:ids) AND status = 'QUEUED_FOR_RETRY' " +
+                   "AND next_attempt_at <= :now FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Notification> claimDueRetries(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.status = com.um.helpdesk.entity.NotificationStatus.QUEUED_FOR_RETRY " +
+           "AND n.nextAttemptAt <= :now")
+    long countDueRetries(@Param("now") LocalDateTime now);
+
+    // Rows queued before nextAttemptAt existed become due now
+    @Modifying
+    @Query("UPDATE Notification n SET n.nextAttemptAt = :now WHERE " +
+           "n.status = com.um.helpdesk.entity.NotificationStatus.QUEUED_FOR_RETRY AND n.nextAttemptAt IS NULL")
+    int scheduleUnscheduledRetries(@Param("now") LocalDateTime now);
+
+    // ========== DELIVERY STATISTICS ==========
+
+    // Seeds and reconciles DeliveryStatisticsTracker: one row per status in use
+    @Query("SELECT n.status AS status, COUNT(n) AS count FROM Notification n GROUP BY n.status")
+    List<NotificationStatusCount> countByStatus();
+
+    // Notifications created in [from, to), per channel, type and status (idx_notification_created)
+    @Query("SELECT n.deliveryChannel AS channel, n.type AS type, n.status AS status, COUNT(n) AS count " +
+           "FROM Notification n WHERE n.createdAt >= :from AND n.createdAt < :to " +
+           "GROUP BY n.deliveryChannel, n.type, n.status")
+    List<DeliveryBreakdown> countByChannelAndType(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
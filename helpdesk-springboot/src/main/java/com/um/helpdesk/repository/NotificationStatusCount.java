@@ -0,0 +1,13 @@
+package com.um.helpdesk.repository;
+
+import com.um.helpdesk.entity.NotificationStatus;
+
+/**
+ * Projection: number of notifications in one status (see NotificationRepository.countByStatus)
+ */
+public interface NotificationStatusCount {
+
+    NotificationStatus getStatus();
+
+    long getCount();
+}
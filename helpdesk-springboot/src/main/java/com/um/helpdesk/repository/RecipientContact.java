@@ -0,0 +1,13 @@
+package com.um.helpdesk.repository;
+
+/**
+ * Projection: where to reach a notification recipient outside the app (see UserRepository.findContactsByIdIn)
+ */
+public interface RecipientContact {
+
+    Long getId();
+
+    String getEmail();
+
+    String getPhoneNumber();
+}
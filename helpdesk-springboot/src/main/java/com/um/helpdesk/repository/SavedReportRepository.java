@@ -1,10 +1,32 @@
 package com.um.helpdesk.repository;
 
+import com.um.helpdesk.entity.ReportJobStatus;
 import com.um.helpdesk.entity.SavedReportArchive;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface SavedReportRepository extends JpaRepository<SavedReportArchive, Long> {
     // Basic CRUD is auto-generated
-}
\ No newline at end of file
+
+    // Job records in the given states, see ReportJobService.failInterruptedJobs
+    @Query("SELECT r.id FROM SavedReportArchive r WHERE r.status IN :statuses")
+    List<Long> findIdsByStatusIn(@Param("statuses") Collection<ReportJobStatus> statuses);
+
+    // Only rows still in one of the `from` states change, so a job that finished meanwhile keeps its outcome
+    @Modifying
+    @Transactional
+    @Query("UPDATE SavedReportArchive r SET r.status = :status, r.failureReason = :reason " +
+           "WHERE r.id IN :ids AND r.status IN :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") Collection<ReportJobStatus> from,
+                     @Param("status") ReportJobStatus status,
+                     @Param("reason") String reason);
+}
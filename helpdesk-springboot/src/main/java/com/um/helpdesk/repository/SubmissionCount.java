@@ -0,0 +1,17 @@
+package com.um.helpdesk.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection: tickets submitted in one calendar day, or one hour of it
+ * (see TicketRepository.countSubmittedPerDay / countSubmittedPerHour)
+ */
+public interface SubmissionCount {
+
+    LocalDate getDay();
+
+    // Hour of day; always 0 in per-day rows
+    int getHour();
+
+    long getCount();
+}
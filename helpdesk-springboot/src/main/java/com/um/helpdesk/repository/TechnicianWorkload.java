@@ -0,0 +1,15 @@
+package com.um.helpdesk.repository;
+
+/**
+ * Projection: active ticket count for one technician (see TicketRepository.findTechnicianWorkloads)
+ */
+public interface TechnicianWorkload {
+
+    Long getTechnicianId();
+
+    Long getDepartmentId();
+
+    boolean isActive();
+
+    long getActiveTickets();
+}
@@ -0,0 +1,13 @@
+package com.um.helpdesk.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection: one scheduled escalation (see TicketRepository.streamEscalationSchedule)
+ */
+public interface TicketEscalationRow {
+
+    Long getId();
+
+    LocalDateTime getNextEscalationTime();
+}
@@ -0,0 +1,21 @@
+package com.um.helpdesk.repository;
+
+import com.um.helpdesk.entity.TicketEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TicketEventRepository extends JpaRepository<TicketEvent, Long> {
+
+    // Oldest pending events first; relayed rows are deleted, so the whole table is pending
+    @Query("SELECT e FROM TicketEvent e ORDER BY e.id")
+    List<TicketEvent> findPending(Limit limit);
+
+    // Oldest pending event, for the relay lag
+    Optional<TicketEvent> findFirstByOrderByIdAsc();
+}
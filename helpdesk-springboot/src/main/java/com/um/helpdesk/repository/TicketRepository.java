@@ -1,35 +1,242 @@
 package com.um.helpdesk.repository;
 
+import com.um.helpdesk.dto.TicketSummary;
 import com.um.helpdesk.entity.Ticket;
 import com.um.helpdesk.entity.TicketStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
+    // Shared select for TicketSummary rows: two joins, no TEXT columns
+    String SUMMARY_SELECT = "SELECT new com.um.helpdesk.dto.TicketSummary(t.id, t.title, t.status, t.priority, " +
+                            "d.code, a.fullName, t.submittedAt, t.createdAt) " +
+                            "FROM Ticket t LEFT JOIN Department d ON d.id = t.assignedDepartment.id " +
+                            "LEFT JOIN User a ON a.id = t.assignedTo.id ";
+    // Entity joins rather than path joins: with t.assignedDepartment joined as a path, the WHERE filters
+    // below would be rendered against the joined row and could no longer seek into the tickets indexes.
+
+    // Entity-returning queries declare a fetch profile (see Ticket): "list" for listings,
+    // "detail" for single-ticket loads, "routing" for transfer/department views
+
+    @Override
+    @EntityGraph("Ticket.list")
+    List<Ticket> findAll();
+
+    @Override
+    @EntityGraph("Ticket.detail")
+    Optional<Ticket> findById(Long id);
+
+    @EntityGraph("Ticket.list")
     List<Ticket> findByStatus(TicketStatus status);
 
-    List<Ticket> findByAssignedDepartmentId(Long departmentId);
+    // The foreign-key filters are spelled out so they compare the FK column itself; derived
+    // queries combined with an entity graph filter on the joined row and cannot use an index.
+    @EntityGraph("Ticket.routing")
+    @Query("SELECT t FROM Ticket t WHERE t.assignedDepartment.id = :deptId")
+    List<Ticket> findByAssignedDepartmentId(@Param("deptId") Long departmentId);
 
-    List<Ticket> findByAssignedToId(Long technicianId);
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t WHERE t.assignedTo.id = :techId")
+    List<Ticket> findByAssignedToId(@Param("techId") Long technicianId);
 
-    List<Ticket> findBySubmittedById(Long userId);
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t WHERE t.submittedBy.id = :userId")
+    List<Ticket> findBySubmittedById(@Param("userId") Long userId);
 
+    @EntityGraph("Ticket.list")
     @Query("SELECT t FROM Ticket t WHERE t.assignedDepartment.id = :deptId " +
            "AND t.assignedTo IS NULL AND t.status = 'OPEN' " +
-           "ORDER BY t.priority DESC, t.createdAt ASC")
+           "ORDER BY t.priorityRank DESC, t.createdAt ASC, t.id ASC")
     List<Ticket> findUnassignedByDepartment(@Param("deptId") Long departmentId);
 
+    // ========== KEYSET PAGINATION ==========
+    // Each listing has a first-page query and an "after cursor" query. The cursor predicate
+    // seeks straight into the matching index, so page N costs the same as page 1.
+
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t ORDER BY t.createdAt ASC, t.id ASC")
+    List<Ticket> findPage(Limit limit);
+
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t " +
+           "WHERE t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id) " +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<Ticket> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t WHERE t.status = :status ORDER BY t.createdAt ASC, t.id ASC")
+    List<Ticket> findPageByStatus(@Param("status") TicketStatus status, Limit limit);
+
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t WHERE t.status = :status " +
+           "AND (t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id)) " +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<Ticket> findPageByStatusAfter(@Param("status") TicketStatus status,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Limit limit);
+
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t WHERE t.assignedDepartment.id = :deptId " +
+           "AND t.assignedTo IS NULL AND t.status = 'OPEN' " +
+           "ORDER BY t.priorityRank DESC, t.createdAt ASC, t.id ASC")
+    List<Ticket> findUnassignedPageByDepartment(@Param("deptId") Long departmentId, Limit limit);
+
+    @EntityGraph("Ticket.list")
+    @Query("SELECT t FROM Ticket t WHERE t.assignedDepartment.id = :deptId " +
+           "AND t.assignedTo IS NULL AND t.status = 'OPEN' " +
+           "AND (t.priorityRank < :rank OR (t.priorityRank = :rank AND " +
+           "(t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id)))) " +
+           "ORDER BY t.priorityRank DESC, t.createdAt ASC, t.id ASC")
+    List<Ticket> findUnassignedPageByDepartmentAfter(@Param("deptId") Long departmentId,
+                                                     @Param("rank") int priorityRank,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id, Limit limit);
+
+    // Same listings as above, as TicketSummary rows
+
+    @Query(SUMMARY_SELECT + "ORDER BY t.createdAt ASC, t.id ASC")
+    List<TicketSummary> findSummaryPage(Limit limit);
+
+    @Query(SUMMARY_SELECT +
+           "WHERE t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id) " +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<TicketSummary> findSummaryPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE t.status = :status ORDER BY t.createdAt ASC, t.id ASC")
+    List<TicketSummary> findSummaryPageByStatus(@Param("status") TicketStatus status, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE t.status = :status " +
+           "AND (t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id)) " +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<TicketSummary> findSummaryPageByStatusAfter(@Param("status") TicketStatus status,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE t.assignedDepartment.id = :deptId " +
+           "AND t.assignedTo IS NULL AND t.status = 'OPEN' " +
+           "ORDER BY t.priorityRank DESC, t.createdAt ASC, t.id ASC")
+    List<TicketSummary> findUnassignedSummaryPageByDepartment(@Param("deptId") Long departmentId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE t.assignedDepartment.id = :deptId " +
+           "AND t.assignedTo IS NULL AND t.status = 'OPEN' " +
+           "AND (t.priorityRank < :rank OR (t.priorityRank = :rank AND " +
+           "(t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id)))) " +
+           "ORDER BY t.priorityRank DESC, t.createdAt ASC, t.id ASC")
+    List<TicketSummary> findUnassignedSummaryPageByDepartmentAfter(@Param("deptId") Long departmentId,
+                                                                   @Param("rank") int priorityRank,
+                                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                                   @Param("id") Long id, Limit limit);
+
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.assignedTo.id = :techId " +
            "AND t.status NOT IN ('CLOSED', 'RESOLVED')")
     long countActiveTicketsByTechnician(@Param("techId") Long technicianId);
 
+    // One row per technician, including those with no active tickets (single GROUP BY at startup)
+    @Query("SELECT tech.id AS technicianId, d.id AS departmentId, tech.active AS active, " +
+           "COUNT(t.id) AS activeTickets " +
+           "FROM TechnicianSupportStaff tech LEFT JOIN tech.department d " +
+           "LEFT JOIN Ticket t ON t.assignedTo = tech AND t.status NOT IN ('CLOSED', 'RESOLVED') " +
+           "GROUP BY tech.id, d.id, tech.active")
+    List<TechnicianWorkload> findTechnicianWorkloads();
+
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.assignedDepartment.id = :deptId " +
            "AND t.status NOT IN ('CLOSED', 'RESOLVED')")
     long countActiveTicketsByDepartment(@Param("deptId") Long departmentId);
+
+    // ========== REPORT EXPORT ==========
+    // Exports read through a forward-only cursor, REPORT_FETCH_SIZE rows per round trip, as
+    // read-only entities (no snapshots kept for dirty checking). Callers must close the stream
+    // and run inside a transaction.
+
+    String REPORT_FETCH_SIZE = "500";
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Ticket t WHERE t.status IN :statuses ORDER BY t.id ASC")
+    Stream<Ticket> streamByStatusIn(@Param("statuses") Collection<TicketStatus> statuses);
+
+    @Query("SELECT t.status AS status, COUNT(t) AS count FROM Ticket t " +
+           "WHERE t.status IN :statuses GROUP BY t.status")
+    List<TicketStatusCount> countByStatusIn(@Param("statuses") Collection<TicketStatus> statuses);
+
+    // ========== TREND ANALYSIS ==========
+    // Submissions per calendar day (or hour) in [from, to). The submittedAt range reads
+    // idx_ticket_submitted, so only the horizon's rows are touched however long the history is.
+
+    @Query("SELECT CAST(t.submittedAt AS LocalDate) AS day, 0 AS hour, COUNT(t) AS count FROM Ticket t " +
+           "WHERE t.submittedAt >= :from AND t.submittedAt < :to " +
+           "GROUP BY CAST(t.submittedAt AS LocalDate)")
+    List<SubmissionCount> countSubmittedPerDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT CAST(t.submittedAt AS LocalDate) AS day, EXTRACT(HOUR FROM t.submittedAt) AS hour, " +
+           "COUNT(t) AS count FROM Ticket t WHERE t.submittedAt >= :from AND t.submittedAt < :to " +
+           "GROUP BY CAST(t.submittedAt AS LocalDate), EXTRACT(HOUR FROM t.submittedAt)")
+    List<SubmissionCount> countSubmittedPerHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT t.assignedDepartment.id AS departmentId, CAST(t.submittedAt AS LocalDate) AS day, 0 AS hour, " +
+           "COUNT(t) AS count FROM Ticket t WHERE t.submittedAt >= :from AND t.submittedAt < :to " +
+           "GROUP BY t.assignedDepartment.id, CAST(t.submittedAt AS LocalDate)")
+    List<DepartmentSubmissionCount> countSubmittedPerDayByDepartment(@Param("from") LocalDateTime from,
+                                                                     @Param("to") LocalDateTime to);
+
+    @Query("SELECT t.assignedDepartment.id AS departmentId, CAST(t.submittedAt AS LocalDate) AS day, " +
+           "EXTRACT(HOUR FROM t.submittedAt) AS hour, COUNT(t) AS count FROM Ticket t " +
+           "WHERE t.submittedAt >= :from AND t.submittedAt < :to " +
+           "GROUP BY t.assignedDepartment.id, CAST(t.submittedAt AS LocalDate), EXTRACT(HOUR FROM t.submittedAt)")
+    List<DepartmentSubmissionCount> countSubmittedPerHourByDepartment(@Param("from") LocalDateTime from,
+                                                                      @Param("to") LocalDateTime to);
+
+    long countBySubmittedAtGreaterThanEqual(LocalDateTime from);
+
+    // ========== SLA TRACKING ==========
+    // One pass over the SLA fields of every ticket, used to rebuild SlaTracker.
+    // Same cursor rules as the report export: close the stream, run inside a transaction.
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query("SELECT t.id AS id, t.priority AS priority, t.assignedDepartment.id AS departmentId, " +
+           "t.submittedAt AS submittedAt, t.resolvedAt AS resolvedAt FROM Ticket t")
+    Stream<TicketSlaRow> streamSlaRows();
+
+    // ========== ESCALATION SCHEDULE ==========
+    // Every scheduled escalation, read from idx_ticket_next_escalation to rebuild EscalationScheduler.
+    // Same cursor rules as above.
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = REPORT_FETCH_SIZE))
+    @Query("SELECT t.id AS id, t.nextEscalationTime AS nextEscalationTime FROM Ticket t " +
+           "WHERE t.nextEscalationTime IS NOT NULL")
+    Stream<TicketEscalationRow> streamEscalationSchedule();
+
+    // Moves due tickets from one level to the next, touching only the escalation columns. Guarded on
+    // the level read and on still being due, so a ticket changed since (resolved, rescheduled) is
+    // left alone and the returned count comes up short.
+    @Modifying
+    @Query("UPDATE Ticket t SET t.escalationLevel = :toLevel, t.nextEscalationTime = :next, t.updatedAt = :now " +
+           "WHERE t.id IN :ids AND t.escalationLevel = :fromLevel AND t.nextEscalationTime <= :now")
+    int escalate(@Param("ids") Collection<Long> ids, @Param("fromLevel") int fromLevel,
+                 @Param("toLevel") int toLevel, @Param("next") LocalDateTime next, @Param("now") LocalDateTime now);
+
+    // Unschedules due tickets that are closed or at the top level; same guard as escalate
+    @Modifying
+    @Query("UPDATE Ticket t SET t.nextEscalationTime = NULL, t.updatedAt = :now " +
+           "WHERE t.id IN :ids AND t.nextEscalationTime <= :now")
+    int clearDueEscalations(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,21 @@
+package com.um.helpdesk.repository;
+
+import com.um.helpdesk.entity.TicketPriority;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection: the fields SLA tracking reads from a ticket (see TicketRepository.streamSlaRows)
+ */
+public interface TicketSlaRow {
+
+    Long getId();
+
+    TicketPriority getPriority();
+
+    Long getDepartmentId();
+
+    LocalDateTime getSubmittedAt();
+
+    LocalDateTime getResolvedAt();
+}
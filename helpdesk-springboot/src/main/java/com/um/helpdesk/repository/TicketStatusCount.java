@@ -0,0 +1,13 @@
+package com.um.helpdesk.repository;
+
+import com.um.helpdesk.entity.TicketStatus;
+
+/**
+ * Projection: number of tickets in one status (see TicketRepository.countByStatusIn)
+ */
+public interface TicketStatusCount {
+
+    TicketStatus getStatus();
+
+    long getCount();
+}
@@ -0,0 +1,11 @@
+package com.um.helpdesk.repository;
+
+/**
+ * Projection: unread notification count for one recipient (see NotificationRepository.countUnreadByRecipient)
+ */
+public interface UnreadCount {
+
+    Long getRecipientId();
+
+    long getUnread();
+}
@@ -1,9 +1,62 @@
 package com.um.helpdesk.repository;
 
 import com.um.helpdesk.entity.User;
+import com.um.helpdesk.entity.UserRole;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+
+    // TechnicianSupportStaff.department is LAZY; these fetch it for callers that display users
+    @Query("SELECT u FROM User u LEFT JOIN FETCH TREAT(u AS TechnicianSupportStaff).department")
+    List<User> findAllWithDepartment();
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH TREAT(u AS TechnicianSupportStaff).department WHERE u.id = :id")
+    Optional<User> findWithDepartmentById(@Param("id") Long id);
+
+    // Escalation recipients: staff of the given departments act as supervisors, then administrators
+    @Query("SELECT s.id AS userId, s.department.id AS departmentId FROM Staff s WHERE s.department.id IN :departmentIds")
+    List<DepartmentSupervisor> findSupervisors(@Param("departmentIds") Collection<Long> departmentIds);
+
+    @Query("SELECT a.id FROM Administrator a")
+    List<Long> findAdministratorIds();
+
+    // Addresses for a batch of external deliveries, without loading the users
+    @Query("SELECT u.id AS id, u.email AS email, u.phoneNumber AS phoneNumber FROM User u WHERE u.id IN :ids")
+    List<RecipientContact> findContactsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ========== BROADCAST AUDIENCES ==========
+    // Active members' ids in id order, a page after afterId at a time, and the audience size
+
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.active = true AND u.id > :afterId ORDER BY u.id")
+    List<Long> findActiveIdsByRole(@Param("role") UserRole role, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role AND u.active = true")
+    long countActiveByRole(@Param("role") UserRole role);
+
+    // Staff and technicians share the department_id column
+    @Query("SELECT u.id FROM User u WHERE (TREAT(u AS Staff).department.id = :departmentId " +
+           "OR TREAT(u AS TechnicianSupportStaff).department.id = :departmentId) " +
+           "AND u.active = true AND u.id > :afterId ORDER BY u.id")
+    List<Long> findActiveIdsByDepartment(@Param("departmentId") Long departmentId, @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE (TREAT(u AS Staff).department.id = :departmentId " +
+           "OR TREAT(u AS TechnicianSupportStaff).department.id = :departmentId) AND u.active = true")
+    long countActiveByDepartment(@Param("departmentId") Long departmentId);
+
+    @Query("SELECT s.id FROM Student s WHERE s.faculty = :faculty AND s.active = true AND s.id > :afterId ORDER BY s.id")
+    List<Long> findActiveStudentIdsByFaculty(@Param("faculty") String faculty, @Param("afterId") Long afterId,
+                                             Limit limit);
+
+    @Query("SELECT COUNT(s) FROM Student s WHERE s.faculty = :faculty AND s.active = true")
+    long countActiveStudentsByFaculty(@Param("faculty") String faculty);
+}
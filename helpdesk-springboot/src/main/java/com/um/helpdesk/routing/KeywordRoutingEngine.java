@@ -0,0 +1,247 @@
+package com.um.helpdesk.routing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keyword-to-department router compiled into an Aho-Corasick automaton.
+ *
+ * The automaton is built once from the keyword table. Each call to {@link #route}
+ * walks the ticket text a single time (title, description and category, case-insensitive)
+ * without allocating, adds the weight of every keyword hit to its department and then
+ * picks the winner deterministically:
+ *  - highest score (sum of keyword weights, multiplied by the department weight)
+ *  - on a tie, the department that was registered first
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class KeywordRoutingEngine {
+
+    // Keywords are restricted to ASCII; any other character simply resets the match
+    private static final int ALPHABET = 128;
+
+    private final String[] departmentCodes;
+    private final double[] departmentWeights;
+    private final int[][] transitions;
+    private final int[] outputStart;
+    private final int[] outputRules;
+    private final int[] ruleDepartment;
+    private final double[] ruleWeight;
+    private final ThreadLocal<double[]> scores;
+
+    private KeywordRoutingEngine(Builder builder) {
+        int departments = builder.departmentIndex.size();
+        this.departmentCodes = builder.departmentIndex.keySet().toArray(new String[0]);
+        this.departmentWeights = new double[departments];
+        for (int i = 0; i < departments; i++) {
+            departmentWeights[i] = builder.departmentWeights.get(i);
+        }
+
+        int rules = builder.keywords.size();
+        this.ruleDepartment = new int[rules];
+        this.ruleWeight = new double[rules];
+        for (int r = 0; r < rules; r++) {
+            ruleDepartment[r] = builder.ruleDepartments.get(r);
+            ruleWeight[r] = builder.ruleWeights.get(r);
+        }
+
+        // 1. Build the trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> ownRules = new ArrayList<>();
+        trie.add(newNode());
+        ownRules.add(new ArrayList<>());
+        for (int r = 0; r < rules; r++) {
+            String keyword = builder.keywords.get(r);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newNode());
+                    ownRules.add(new ArrayList<>());
+                }
+                state = trie.get(state)[c];
+            }
+            ownRules.get(state).add(r);
+        }
+
+        // 2. Breadth-first pass: failure links, complete transition table and merged outputs
+        int states = trie.size();
+        int[] fail = new int[states];
+        List<List<Integer>> outputs = new ArrayList<>(states);
+        for (int s = 0; s < states; s++) {
+            outputs.add(new ArrayList<>(ownRules.get(s)));
+        }
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        int[] root = trie.get(0);
+        for (int c = 0; c < ALPHABET; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                fail[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] node = trie.get(state);
+            outputs.get(state).addAll(outputs.get(fail[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = node[c];
+                if (next < 0) {
+                    node[c] = trie.get(fail[state])[c];
+                } else {
+                    fail[next] = trie.get(fail[state])[c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = trie.toArray(new int[0][]);
+        this.outputStart = new int[states + 1];
+        int total = 0;
+        for (int s = 0; s < states; s++) {
+            outputStart[s] = total;
+            total += outputs.get(s).size();
+        }
+        outputStart[states] = total;
+        this.outputRules = new int[total];
+        int k = 0;
+        for (List<Integer> out : outputs) {
+            for (int r : out) {
+                outputRules[k++] = r;
+            }
+        }
+
+        this.scores = ThreadLocal.withInitial(() -> new double[departments]);
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[ALPHABET];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Routes a ticket using its title, description and category (any of them may be null).
+     *
+     * @return the winning department code, or null when no keyword matched
+     */
+    public String route(CharSequence title, CharSequence description, CharSequence category) {
+        double[] score = scores.get();
+        Arrays.fill(score, 0.0);
+
+        // Fields are separated by a space, the same as concatenating them
+        int state = scan(title, 0, score);
+        state = step(state, ' ', score);
+        state = scan(description, state, score);
+        state = step(state, ' ', score);
+        scan(category, state, score);
+
+        int best = -1;
+        double bestScore = 0.0;
+        for (int d = 0; d < score.length; d++) {
+            double weighted = score[d] * departmentWeights[d];
+            if (weighted > bestScore) {
+                bestScore = weighted;
+                best = d;
+            }
+        }
+        return best < 0 ? null : departmentCodes[best];
+    }
+
+    private int scan(CharSequence text, int state, double[] score) {
+        if (text == null) {
+            return state;
+        }
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = step(state, text.charAt(i), score);
+        }
+        return state;
+    }
+
+    private int step(int state, char c, double[] score) {
+        c = Character.toLowerCase(c);
+        state = c < ALPHABET ? transitions[state][c] : 0;
+        for (int k = outputStart[state], end = outputStart[state + 1]; k < end; k++) {
+            int rule = outputRules[k];
+            score[ruleDepartment[rule]] += ruleWeight[rule];
+        }
+        return state;
+    }
+
+    public int getKeywordCount() {
+        return ruleDepartment.length;
+    }
+
+    public List<String> getDepartmentCodes() {
+        return List.of(departmentCodes);
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Integer> departmentIndex = new LinkedHashMap<>();
+        private final List<Double> departmentWeights = new ArrayList<>();
+        private final List<String> keywords = new ArrayList<>();
+        private final List<Integer> ruleDepartments = new ArrayList<>();
+        private final List<Double> ruleWeights = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Registers a department (or changes its weight). Registration order is the tie-breaker.
+         */
+        public Builder department(String code, double weight) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Department weight must be positive: " + code);
+            }
+            Integer index = departmentIndex.get(code);
+            if (index == null) {
+                departmentIndex.put(code, departmentWeights.size());
+                departmentWeights.add(weight);
+            } else {
+                departmentWeights.set(index, weight);
+            }
+            return this;
+        }
+
+        public Builder keyword(String keyword, String departmentCode) {
+            return keyword(keyword, departmentCode, 1.0);
+        }
+
+        public Builder keyword(String keyword, String departmentCode, double weight) {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keyword must not be empty");
+            }
+            String normalized = keyword.toLowerCase(Locale.ROOT);
+            for (int i = 0; i < normalized.length(); i++) {
+                if (normalized.charAt(i) >= ALPHABET) {
+                    throw new IllegalArgumentException("Keyword must be ASCII: " + keyword);
+                }
+            }
+            if (!departmentIndex.containsKey(departmentCode)) {
+                department(departmentCode, 1.0);
+            }
+            keywords.add(normalized);
+            ruleDepartments.add(departmentIndex.get(departmentCode));
+            ruleWeights.add(weight);
+            return this;
+        }
+
+        public KeywordRoutingEngine build() {
+            return new KeywordRoutingEngine(this);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Notification;
+import com.um.helpdesk.entity.NotificationStatus;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.NotificationStatusCount;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live notification count per status, so delivery statistics are served from memory.
+ *
+ * Writers report each status transition once their transaction commits: the status the row had
+ * when they created or loaded it, and the one they wrote. Bulk updates that cannot know the
+ * previous statuses of their rows (marking an inbox read) mark the counts stale instead, and the
+ * next read recounts them with one GROUP BY. The counts are seeded the same way when the
+ * application is up and reconciled on an interval, which corrects drift from rows changed
+ * concurrently or outside the services.
+ *
+ * As in {@link UnreadCountTracker}, reconciliation does not overwrite a status whose count changed
+ * while its query ran; it is left for the next round.
+ */
+@Component
+public class DeliveryStatisticsTracker {
+
+    static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(5);
+
+    private final NotificationRepository notificationRepository;
+    private final long reconcileIntervalMillis;
+    private final boolean reconcile;
+    private final Thread worker;
+
+    private final Map<NotificationStatus, Counter> counts = new EnumMap<>(NotificationStatus.class);
+    // Transitions share the read lock; a reconciliation takes the write lock only to open a round and to apply it
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long round = 0;
+    private volatile boolean loaded = false;
+    private volatile boolean stale = false;
+
+    // Metrics
+    private final LongAdder servedFromMemory = new LongAdder();
+    private final LongAdder servedFromDatabase = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder corrected = new LongAdder();
+    private volatile long lastReconcileMillis;
+
+    @Autowired
+    public DeliveryStatisticsTracker(NotificationRepository notificationRepository) {
+        this(notificationRepository, RECONCILE_INTERVAL, true);
+    }
+
+    DeliveryStatisticsTracker(NotificationRepository notificationRepository, Duration reconcileInterval,
+                              boolean reconcile) {
+        this.notificationRepository = notificationRepository;
+        this.reconcileIntervalMillis = reconcileInterval.toMillis();
+        this.reconcile = reconcile;
+        for (NotificationStatus status : NotificationStatus.values()) {
+            counts.put(status, new Counter());
+        }
+        this.worker = new Thread(this::reconcileLoop, "delivery-statistics-reconcile");
+        this.worker.setDaemon(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+        if (reconcile && !worker.isAlive()) {
+            worker.start();
+        }
+    }
+
+    // ========== COUNTS ==========
+
+    /**
+     * Notifications per status, every status present. From memory unless the counts are not
+     * seeded yet or were marked stale, in which case they are recounted first.
+     */
+    public Map<NotificationStatus, Long> getCounts() {
+        if (!loaded || stale) {
+            servedFromDatabase.increment();
+            reconcile();
+        } else {
+            servedFromMemory.increment();
+        }
+        Map<NotificationStatus, Long> snapshot = new EnumMap<>(NotificationStatus.class);
+        counts.forEach((status, counter) -> snapshot.put(status, Math.max(0, counter.count.sum())));
+        return snapshot;
+    }
+
+    // ========== TRANSITIONS ==========
+
+    /**
+     * Counts new rows in their current status once the current transaction commits.
+     */
+    public void created(Collection<Notification> rows) {
+        Map<NotificationStatus, Long> deltas = new EnumMap<>(NotificationStatus.class);
+        rows.forEach(row -> deltas.merge(row.getStatus(), 1L, Long::sum));
+        record(deltas);
+    }
+
+    public void created(NotificationStatus status, long rows) {
+        if (rows > 0) {
+            record(new EnumMap<>(Map.of(status, rows)));
+        }
+    }
+
+    public void changed(NotificationStatus from, NotificationStatus to) {
+        if (from != to) {
+            record(new EnumMap<>(Map.of(from, -1L, to, 1L)));
+        }
+    }
+
+    /**
+     * Moves rows from the status they hold in memory to the given one; call before (or instead
+     * of) setting it on them.
+     */
+    public void changed(Collection<Notification> rows, NotificationStatus to) {
+        Map<NotificationStatus, Long> deltas = new EnumMap<>(NotificationStatus.class);
+        for (Notification row : rows) {
+            if (row.getStatus() != to) {
+                deltas.merge(row.getStatus(), -1L, Long::sum);
+                deltas.merge(to, 1L, Long::sum);
+            }
+        }
+        record(deltas);
+    }
+
+    /**
+     * Transitions of NotificationRepository.markFailed: retried while retries are left,
+     * permanently failed after.
+     */
+    public void failed(Collection<Notification> rows) {
+        Map<NotificationStatus, Long> deltas = new EnumMap<>(NotificationStatus.class);
+        for (Notification row : rows) {
+            NotificationStatus to = row.getRetryCount() + 1 < row.getMaxRetries()
+                ? NotificationStatus.QUEUED_FOR_RETRY : NotificationStatus.PERMANENTLY_FAILED;
+            if (row.getStatus() != to) {
+                deltas.merge(row.getStatus(), -1L, Long::sum);
+                deltas.merge(to, 1L, Long::sum);
+            }
+        }
+        record(deltas);
+    }
+
+    public void deleted(Notification row) {
+        record(new EnumMap<>(Map.of(row.getStatus(), -1L)));
+    }
+
+    /**
+     * For writes whose rows' previous statuses are unknown: the next read recounts once the
+     * current transaction commits.
+     */
+    public void invalidate() {
+        afterCommit(() -> {
+            invalidations.increment();
+            stale = true;
+        });
+    }
+
+    private void record(Map<NotificationStatus, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> apply(deltas));
+    }
+
+    private void apply(Map<NotificationStatus, Long> deltas) {
+        lock.readLock().lock();
+        try {
+            deltas.forEach((status, delta) -> {
+                Counter counter = counts.get(status);
+                counter.count.add(delta);
+                counter.changedInRound = round;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== RECONCILIATION ==========
+
+    private void reconcileLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(reconcileIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                System.out.println("❌ Delivery statistics reconciliation failed, will retry: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces every count with the database's, except those changed while the query ran.
+     *
+     * @return the number of statuses whose count was wrong
+     */
+    public synchronized int reconcile() {
+        long startNanos = System.nanoTime();
+        long thisRound;
+        boolean wasStale;
+        lock.writeLock().lock();
+        try {
+            thisRound = ++round;
+            wasStale = stale;
+            stale = false;    // an invalidation from here on stands
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<NotificationStatus, Long> actual = new EnumMap<>(NotificationStatus.class);
+        for (NotificationStatusCount row : notificationRepository.countByStatus()) {
+            actual.put(row.getStatus(), row.getCount());
+        }
+
+        int wrong = 0;
+        boolean skipped = false;
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<NotificationStatus, Counter> entry : counts.entrySet()) {
+                Counter counter = entry.getValue();
+                if (counter.changedInRound == thisRound) {
+                    skipped = true;
+                    continue;
+                }
+                long expected = actual.getOrDefault(entry.getKey(), 0L);
+                long current = counter.count.sum();
+                if (current != expected) {
+                    counter.count.add(expected - current);
+                    wrong++;
+                }
+            }
+            // A stale count that changed meanwhile may still be off
+            if (wasStale && skipped) {
+                stale = true;
+            }
+            if (!loaded || wasStale) {
+                wrong = 0;    // expected to differ
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        reconciliations.increment();
+        corrected.add(wrong);
+        lastReconcileMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (wrong > 0) {
+            System.out.println(">>> Delivery statistics: corrected " + wrong + " status count(s)");
+        }
+        return wrong;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ========== MONITORING ==========
+
+    public Metrics metrics() {
+        return new Metrics(loaded, stale, servedFromMemory.sum(), servedFromDatabase.sum(), invalidations.sum(),
+            reconciliations.sum(), corrected.sum(), lastReconcileMillis);
+    }
+
+    private static final class Counter {
+        private final LongAdder count = new LongAdder();
+        private volatile long changedInRound;
+    }
+
+    /**
+     * Point-in-time status counter figures.
+     */
+    public static final class Metrics {
+        private final boolean loaded;
+        private final boolean stale;
+        private final long servedFromMemory;
+        private final long servedFromDatabase;
+        private final long invalidations;
+        private final long reconciliations;
+        private final long corrected;
+        private final long lastReconcileMillis;
+
+        private Metrics(boolean loaded, boolean stale, long servedFromMemory, long servedFromDatabase,
+                        long invalidations, long reconciliations, long corrected, long lastReconcileMillis) {
+            this.loaded = loaded;
+            this.stale = stale;
+            this.servedFromMemory = servedFromMemory;
+            this.servedFromDatabase = servedFromDatabase;
+            this.invalidations = invalidations;
+            this.reconciliations = reconciliations;
+            this.corrected = corrected;
+            this.lastReconcileMillis = lastReconcileMillis;
+        }
+
+        /** Seeded from the database at least once */
+        public boolean isLoaded() {
+            return loaded;
+        }
+
+        /** A bulk update is waiting to be recounted */
+        public boolean isStale() {
+            return stale;
+        }
+
+        public long getServedFromMemory() {
+            return servedFromMemory;
+        }
+
+        /** Reads that recounted first: not yet seeded, or stale */
+        public long getServedFromDatabase() {
+            return servedFromDatabase;
+        }
+
+        /** Bulk updates that marked the counts stale */
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public long getReconciliations() {
+            return reconciliations;
+        }
+
+        /** Status counts found wrong by a scheduled reconciliation (drift) */
+        public long getCorrected() {
+            return corrected;
+        }
+
+        public long getLastReconcileMillis() {
+            return lastReconcileMillis;
+        }
+    }
+}
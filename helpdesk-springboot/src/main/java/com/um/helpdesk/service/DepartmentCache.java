@@ -0,0 +1,104 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Department;
+import com.um.helpdesk.repository.DepartmentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory index of departments by code and by id.
+ *
+ * Loaded once at boot (and lazily after every invalidation) with a single findAll().
+ * {@link DepartmentCacheInvalidator} drops the snapshot whenever a department is
+ * created, updated or deleted, so lookups on the routing path never hit the database.
+ * A miss falls back to the repository, which covers departments committed elsewhere.
+ */
+@Component
+public class DepartmentCache {
+
+    private final DepartmentRepository departmentRepository;
+
+    private volatile Snapshot snapshot;
+    private long generation = 0;
+
+    public DepartmentCache(DepartmentRepository departmentRepository) {
+        this.departmentRepository = departmentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        snapshot();
+    }
+
+    public Optional<Department> findByCode(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        Department department = snapshot().byCode.get(code);
+        return department != null ? Optional.of(department) : departmentRepository.findByCode(code);
+    }
+
+    public Optional<Department> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Department department = snapshot().byId.get(id);
+        return department != null ? Optional.of(department) : departmentRepository.findById(id);
+    }
+
+    /**
+     * Drops the current snapshot; the next lookup reloads it.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        long loadedGeneration;
+        synchronized (this) {
+            loadedGeneration = generation;
+        }
+        Snapshot fresh = new Snapshot(departmentRepository.findAll());
+
+        // Don't publish a snapshot that was invalidated while it was loading
+        synchronized (this) {
+            if (generation == loadedGeneration) {
+                snapshot = fresh;
+            }
+        }
+        return fresh;
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Department> byCode;
+        private final Map<Long, Department> byId;
+
+        private Snapshot(List<Department> departments) {
+            Map<String, Department> codes = new HashMap<>();
+            Map<Long, Department> ids = new HashMap<>();
+            for (Department d : departments) {
+                if (d.getCode() != null) {
+                    codes.putIfAbsent(d.getCode(), d);
+                }
+                if (d.getId() != null) {
+                    ids.put(d.getId(), d);
+                }
+            }
+            this.byCode = Collections.unmodifiableMap(codes);
+            this.byId = Collections.unmodifiableMap(ids);
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Ticket;
+import com.um.helpdesk.entity.TicketEvent;
+import com.um.helpdesk.entity.TicketEventType;
+import com.um.helpdesk.entity.TicketPriority;
+import com.um.helpdesk.repository.DepartmentSupervisor;
+import com.um.helpdesk.repository.TicketEscalationRow;
+import com.um.helpdesk.repository.TicketEventRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Fires overdue-ticket reminders and escalations from a hashed timing wheel.
+ *
+ * Each active ticket stores its escalation level and the time the next level fires
+ * (Ticket.nextEscalationTime): the SLA deadline for the reminder, then one escalation interval
+ * after each notification for the supervisor (level 2) and administrator (level 3) escalations.
+ * The wheel holds one entry per scheduled ticket in the slot for its tick, so scheduling and
+ * cancelling are O(1) and each tick only looks at one slot; entries further out than one
+ * revolution stay in their slot until their tick comes round.
+ *
+ * Due tickets are escalated in batches: one transaction reads the batch, writes a REMINDER or
+ * ESCALATED outbox row per recipient (turned into notifications by TicketEventRelay) and moves
+ * each ticket to its next level. The tickets are never written as whole rows: each group of tickets
+ * moving between the same levels gets one UPDATE of the escalation columns, guarded on the level
+ * read and on still being due. If a user changed one of them in the meantime the batch rolls back
+ * and is retried from fresh rows on the next tick, rather than overwriting that change.
+ * The wheel is rebuilt at boot from one indexed query over next_escalation_time, and kept current
+ * by TicketServiceImpl after each commit.
+ */
+@Component
+public class EscalationScheduler {
+
+    public static final int MAX_LEVEL = 3;
+    static final Duration TICK = Duration.ofSeconds(1);
+    static final int WHEEL_SIZE = 512;    // power of two; one revolution is ~8.5 minutes
+    static final int BATCH_SIZE = 100;
+
+    private final TicketRepository ticketRepository;
+    private final TicketEventRepository ticketEventRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long tickMillis;
+    private final int batchSize;
+    private final Thread worker;
+
+    // Wheel state, guarded by this
+    private final ArrayDeque<Entry>[] slots;
+    private final Map<Long, Entry> scheduled = new HashMap<>();
+    private final ArrayDeque<Entry> due = new ArrayDeque<>();
+    private long currentTick;
+    private boolean loaded = false;
+
+    // Metrics
+    private final LongAdder reminders = new LongAdder();
+    private final LongAdder supervisorEscalations = new LongAdder();
+    private final LongAdder administratorEscalations = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final AtomicLong maxFireLagMillis = new AtomicLong();
+    private volatile long lastRebuildCount;
+    private volatile long lastRebuildMillis;
+
+    @Autowired
+    public EscalationScheduler(TicketRepository ticketRepository, TicketEventRepository ticketEventRepository,
+                               UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this(ticketRepository, ticketEventRepository, userRepository, transactionManager,
+            TICK, WHEEL_SIZE, BATCH_SIZE, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    EscalationScheduler(TicketRepository ticketRepository, TicketEventRepository ticketEventRepository,
+                        UserRepository userRepository, PlatformTransactionManager transactionManager,
+                        Duration tick, int wheelSize, int batchSize, boolean start) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.ticketRepository = ticketRepository;
+        this.ticketEventRepository = ticketEventRepository;
+        this.userRepository = userRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.tickMillis = tick.toMillis();
+        this.batchSize = batchSize;
+        this.slots = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.currentTick = tickOf(LocalDateTime.now());
+        this.worker = new Thread(this::tickLoop, "escalation-scheduler");
+        this.worker.setDaemon(true);
+        if (start) {
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+    }
+
+    // ========== SCHEDULE ==========
+
+    public static long escalationIntervalHours(TicketPriority priority) {
+        if (priority == null) return 24; // Default Low
+        switch (priority) {
+            case URGENT: return 2;
+            case HIGH: return 4;
+            case MEDIUM: return 8;
+            case LOW: default: return 24;
+        }
+    }
+
+    /**
+     * When the ticket's next escalation level should fire, given its current level and status.
+     *
+     * @param current the time already scheduled, kept for a ticket that has been reminded
+     * @return null for an inactive or fully escalated ticket
+     */
+    public static LocalDateTime nextEscalationTime(Ticket ticket, LocalDateTime current) {
+        if (!TechnicianWorkloadTracker.isActive(ticket.getStatus()) || ticket.getSubmittedAt() == null
+                || ticket.getEscalationLevel() >= MAX_LEVEL) {
+            return null;
+        }
+        if (ticket.getEscalationLevel() == 0) {
+            return SlaTracker.deadline(ticket.getPriority(), ticket.getSubmittedAt());
+        }
+        return current != null ? current
+            : LocalDateTime.now().plusHours(escalationIntervalHours(ticket.getPriority()));
+    }
+
+    /**
+     * Records a ticket's escalation time changing; null cancels it. Applied after the current
+     * transaction commits.
+     */
+    public void ticketChanged(Long ticketId, LocalDateTime nextEscalationTime) {
+        if (ticketId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (this) {
+                if (loaded) {    // otherwise the first rebuild reads the committed state
+                    schedule(ticketId, nextEscalationTime);
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        scheduled.clear();
+        due.clear();
+        for (ArrayDeque<Entry> slot : slots) {
+            slot.clear();
+        }
+        currentTick = tickOf(LocalDateTime.now());
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TicketEscalationRow> rows = ticketRepository.streamEscalationSchedule()) {
+                rows.forEach(row -> schedule(row.getId(), row.getNextEscalationTime()));
+            }
+        });
+        loaded = true;
+        lastRebuildCount = scheduled.size();
+        lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        System.out.println(">>> Escalation scheduler loaded: " + scheduled.size() + " ticket(s), "
+            + due.size() + " already due");
+    }
+
+    private void schedule(Long ticketId, LocalDateTime time) {
+        // A replaced entry stays in its slot and is dropped when the slot is next visited
+        scheduled.remove(ticketId);
+        if (time == null) {
+            return;
+        }
+        Entry entry = new Entry(ticketId, time, firstTickAtOrAfter(time));
+        scheduled.put(ticketId, entry);
+        if (entry.tick <= currentTick) {
+            due.add(entry);
+        } else {
+            slots[slotOf(entry.tick)].add(entry);
+        }
+    }
+
+    // Moves every entry whose tick has passed onto the due queue
+    private void advance(long nowTick) {
+        if (nowTick <= currentTick) {
+            return;
+        }
+        // After a pause longer than one revolution, one visit per slot still covers everything
+        long steps = Math.min(nowTick - currentTick, slots.length);
+        for (long tick = currentTick + 1; tick <= currentTick + steps; tick++) {
+            Iterator<Entry> entries = slots[slotOf(tick)].iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (scheduled.get(entry.ticketId) != entry) {
+                    entries.remove();
+                } else if (entry.tick <= nowTick) {
+                    entries.remove();
+                    due.add(entry);
+                }
+            }
+        }
+        currentTick = nowTick;
+    }
+
+    private long tickOf(LocalDateTime time) {
+        return Math.floorDiv(epochMillis(time), tickMillis);
+    }
+
+    // Rounded up, so an entry never comes due before its time
+    private long firstTickAtOrAfter(LocalDateTime time) {
+        return Math.floorDiv(epochMillis(time) + tickMillis - 1, tickMillis);
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private int slotOf(long tick) {
+        return (int) (tick & (slots.length - 1));
+    }
+
+    // ========== FIRING ==========
+
+    private void tickLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            processDue();
+        }
+    }
+
+    /**
+     * Escalates every ticket that is due now, in batches.
+     *
+     * @return the number of tickets moved to their next level
+     */
+    public int processDue() {
+        int escalated = 0;
+        List<Entry> batch;
+        while (!(batch = takeDue()).isEmpty()) {
+            try {
+                escalated += fire(batch);
+                batches.increment();
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                System.out.println("❌ Escalation batch failed, will retry: " + e.getMessage());
+                synchronized (this) {
+                    batch.forEach(entry -> {
+                        if (!scheduled.containsKey(entry.ticketId)) {
+                            schedule(entry.ticketId, entry.time);
+                        }
+                    });
+                }
+                break;
+            }
+        }
+        return escalated;
+    }
+
+    private synchronized List<Entry> takeDue() {
+        if (!loaded) {
+            return Collections.emptyList();
+        }
+        advance(tickOf(LocalDateTime.now()));
+        List<Entry> batch = new ArrayList<>(Math.min(due.size(), batchSize));
+        while (batch.size() < batchSize && !due.isEmpty()) {
+            Entry entry = due.poll();
+            if (scheduled.get(entry.ticketId) == entry) {
+                scheduled.remove(entry.ticketId);
+                batch.add(entry);
+            }
+        }
+        return batch;
+    }
+
+    private int fire(List<Entry> batch) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        batch.forEach(entry -> ids.add(entry.ticketId));
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> firedLevels = new ArrayList<>();
+        Map<Long, LocalDateTime> nextTimes = new HashMap<>();
+
+        transaction.executeWithoutResult(status -> {
+            // The ticket row, not the wheel entry, decides: it may have changed since it was scheduled.
+            // The loaded tickets are only read; the guarded UPDATEs below write the new levels.
+            List<Ticket> loadedTickets = ticketRepository.findAllById(ids);
+            Recipients recipients = new Recipients(loadedTickets);
+            List<TicketEvent> events = new ArrayList<>();
+            Map<Move, List<Long>> moves = new HashMap<>();
+            List<Long> finished = new ArrayList<>();
+            for (Ticket ticket : loadedTickets) {
+                LocalDateTime next = ticket.getNextEscalationTime();
+                if (next == null || next.isAfter(now)) {
+                    nextTimes.put(ticket.getId(), next);
+                    continue;
+                }
+                if (!TechnicianWorkloadTracker.isActive(ticket.getStatus())
+                        || ticket.getEscalationLevel() >= MAX_LEVEL) {
+                    finished.add(ticket.getId());
+                    nextTimes.put(ticket.getId(), null);
+                    continue;
+                }
+                int level = ticket.getEscalationLevel() + 1;
+                for (Long recipientId : recipients.forLevel(ticket, level)) {
+                    events.add(level == 1
+                        ? new TicketEvent(TicketEventType.REMINDER, ticket.getId(), recipientId)
+                        : new TicketEvent(TicketEventType.ESCALATED, ticket.getId(), recipientId,
+                            String.valueOf(level - 1), String.valueOf(level)));
+                }
+                LocalDateTime nextTime = level < MAX_LEVEL
+                    ? now.plusHours(escalationIntervalHours(ticket.getPriority())) : null;
+                moves.computeIfAbsent(new Move(level, nextTime), m -> new ArrayList<>()).add(ticket.getId());
+                nextTimes.put(ticket.getId(), nextTime);
+                firedLevels.add(level);
+                maxFireLagMillis.accumulateAndGet(Duration.between(next, now).toMillis(), Math::max);
+            }
+            if (!finished.isEmpty()) {
+                ticketRepository.clearDueEscalations(finished, now);
+            }
+            moves.forEach((move, movedIds) -> {
+                int updated = ticketRepository.escalate(movedIds, move.level - 1, move.level, move.next, now);
+                if (updated != movedIds.size()) {
+                    throw new IllegalStateException(
+                        (movedIds.size() - updated) + " ticket(s) changed while being escalated");
+                }
+            });
+            // Batched INSERTs at flush
+            ticketEventRepository.saveAll(events);
+        });
+
+        firedLevels.forEach(this::count);
+        synchronized (this) {
+            nextTimes.forEach((ticketId, time) -> {
+                if (!scheduled.containsKey(ticketId)) {    // a newer commit already rescheduled it
+                    schedule(ticketId, time);
+                }
+            });
+        }
+        return firedLevels.size();
+    }
+
+    // Tickets moving to the same level with the same next escalation time share one UPDATE
+    private record Move(int level, LocalDateTime next) {
+    }
+
+    private void count(int level) {
+        if (level == 1) {
+            reminders.increment();
+        } else if (level == 2) {
+            supervisorEscalations.increment();
+        } else {
+            administratorEscalations.increment();
+        }
+    }
+
+    /**
+     * Who hears about each level for one batch, loaded with one query per kind of recipient:
+     * the assigned technician for the reminder, department staff for level 2, administrators
+     * for level 3. A level with nobody to tell falls through to the next kind.
+     */
+    private final class Recipients {
+        private final Map<Long, List<Long>> supervisors = new HashMap<>();
+        private List<Long> administrators;
+
+        private Recipients(List<Ticket> tickets) {
+            Set<Long> departmentIds = new HashSet<>();
+            for (Ticket ticket : tickets) {
+                if (ticket.getAssignedDepartment() != null && ticket.getEscalationLevel() < 2) {
+                    departmentIds.add(ticket.getAssignedDepartment().getId());
+                }
+            }
+            if (!departmentIds.isEmpty()) {
+                for (DepartmentSupervisor row : userRepository.findSupervisors(departmentIds)) {
+                    supervisors.computeIfAbsent(row.getDepartmentId(), d -> new ArrayList<>()).add(row.getUserId());
+                }
+            }
+        }
+
+        private List<Long> forLevel(Ticket ticket, int level) {
+            if (level == 1 && ticket.getAssignedTo() != null) {
+                return List.of(ticket.getAssignedTo().getId());
+            }
+            if (level <= 2 && ticket.getAssignedDepartment() != null) {
+                List<Long> staff = supervisors.get(ticket.getAssignedDepartment().getId());
+                if (staff != null) {
+                    return staff;
+                }
+            }
+            if (administrators == null) {
+                administrators = userRepository.findAdministratorIds();
+            }
+            return administrators;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ========== MONITORING ==========
+
+    public synchronized Metrics metrics() {
+        return new Metrics(scheduled.size(), due.size(), reminders.sum(), supervisorEscalations.sum(),
+            administratorEscalations.sum(), batches.sum(), failedBatches.sum(), maxFireLagMillis.get(),
+            lastRebuildCount, lastRebuildMillis);
+    }
+
+    /**
+     * Point-in-time scheduler counters.
+     */
+    public static final class Metrics {
+        private final long scheduled;
+        private final long due;
+        private final long reminders;
+        private final long supervisorEscalations;
+        private final long administratorEscalations;
+        private final long batches;
+        private final long failedBatches;
+        private final long maxFireLagMillis;
+        private final long lastRebuildCount;
+        private final long lastRebuildMillis;
+
+        private Metrics(long scheduled, long due, long reminders, long supervisorEscalations,
+                        long administratorEscalations, long batches, long failedBatches, long maxFireLagMillis,
+                        long lastRebuildCount, long lastRebuildMillis) {
+            this.scheduled = scheduled;
+            this.due = due;
+            this.reminders = reminders;
+            this.supervisorEscalations = supervisorEscalations;
+            this.administratorEscalations = administratorEscalations;
+            this.batches = batches;
+            this.failedBatches = failedBatches;
+            this.maxFireLagMillis = maxFireLagMillis;
+            this.lastRebuildCount = lastRebuildCount;
+            this.lastRebuildMillis = lastRebuildMillis;
+        }
+
+        /** Tickets with a pending escalation, in the wheel or due */
+        public long getScheduled() {
+            return scheduled;
+        }
+
+        /** Due tickets not yet escalated */
+        public long getDue() {
+            return due;
+        }
+
+        public long getReminders() {
+            return reminders;
+        }
+
+        public long getSupervisorEscalations() {
+            return supervisorEscalations;
+        }
+
+        public long getAdministratorEscalations() {
+            return administratorEscalations;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        /** Batches rolled back and retried on the next tick */
+        public long getFailedBatches() {
+            return failedBatches;
+        }
+
+        /** Longest delay between a level's scheduled time and when it fired */
+        public long getMaxFireLagMillis() {
+            return maxFireLagMillis;
+        }
+
+        public long getLastRebuildCount() {
+            return lastRebuildCount;
+        }
+
+        public long getLastRebuildMillis() {
+            return lastRebuildMillis;
+        }
+    }
+
+    private static final class Entry {
+        private final long ticketId;
+        private final LocalDateTime time;
+        private final long tick;
+
+        private Entry(long ticketId, LocalDateTime time, long tick) {
+            this.ticketId = ticketId;
+            this.time = time;
+            this.tick = tick;
+        }
+    }
+}
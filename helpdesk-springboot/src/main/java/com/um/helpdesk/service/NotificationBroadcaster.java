@@ -0,0 +1,250 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.dto.BroadcastProgress;
+import com.um.helpdesk.dto.BroadcastRequest;
+import com.um.helpdesk.entity.NotificationStatus;
+import com.um.helpdesk.entity.NotificationPriority;
+import com.um.helpdesk.entity.NotificationType;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends one notification to every member of an audience: all active users with a role, the staff
+ * and technicians of a department, or the students of a faculty.
+ *
+ * Broadcasts run one at a time on a background thread. The audience is walked in id order a chunk
+ * at a time; each chunk is one id query and one INSERT ... SELECT in its own transaction, so a
+ * broadcast to every student is a few dozen statements rather than a save per recipient, and a
+ * failure part-way keeps the chunks already committed. Progress is kept in memory for polling.
+ *
+ * Broadcast notifications are in-app and stored as DELIVERED, so they skip the delivery stages.
+ * Their eventType ("BROADCAST:" + broadcast id) ties them to the broadcast.
+ */
+@Service
+public class NotificationBroadcaster {
+
+    static final int CHUNK_SIZE = 1_000;
+    static final int MAX_QUEUED = 20;
+    static final int RETAINED = 100;    // finished broadcasts kept for polling
+    static final String EVENT_TYPE_PREFIX = "BROADCAST:";
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final UnreadCountTracker unreadCounts;
+    private final DeliveryStatisticsTracker deliveryStatistics;
+    private final NotificationStreamHub streams;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    private final ThreadPoolExecutor executor;
+
+    // Guarded by this; insertion order, oldest first
+    private final Map<String, Broadcast> broadcasts = new LinkedHashMap<>();
+
+    @Autowired
+    public NotificationBroadcaster(NotificationRepository notificationRepository, UserRepository userRepository,
+                                   UnreadCountTracker unreadCounts, DeliveryStatisticsTracker deliveryStatistics,
+                                   NotificationStreamHub streams, PlatformTransactionManager transactionManager) {
+        this(notificationRepository, userRepository, unreadCounts, deliveryStatistics, streams, transactionManager,
+            CHUNK_SIZE);
+    }
+
+    NotificationBroadcaster(NotificationRepository notificationRepository, UserRepository userRepository,
+                            UnreadCountTracker unreadCounts, DeliveryStatisticsTracker deliveryStatistics,
+                            NotificationStreamHub streams, PlatformTransactionManager transactionManager, int chunkSize) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.unreadCounts = unreadCounts;
+        this.deliveryStatistics = deliveryStatistics;
+        this.streams = streams;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED), r -> {
+                Thread thread = new Thread(r, "notification-broadcast");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ========== SUBMIT / POLL ==========
+
+    public BroadcastProgress submit(BroadcastRequest request) {
+        if (request == null || request.getTitle() == null || request.getTitle().isBlank()) {
+            throw new RuntimeException("Broadcast title is required");
+        }
+        Audience audience = audienceOf(request);
+        Broadcast broadcast = new Broadcast(UUID.randomUUID().toString(), audience, request);
+        synchronized (this) {
+            broadcasts.put(broadcast.id, broadcast);
+            evictFinished();
+        }
+        try {
+            executor.execute(() -> run(broadcast));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                broadcasts.remove(broadcast.id);
+            }
+            throw new RuntimeException("Broadcast queue is full, try again later");
+        }
+        System.out.println("Broadcast " + broadcast.id + " queued for " + audience.description);
+        return broadcast.progress();
+    }
+
+    public BroadcastProgress getProgress(String id) {
+        Broadcast broadcast;
+        synchronized (this) {
+            broadcast = broadcasts.get(id);
+        }
+        if (broadcast == null) {
+            throw new RuntimeException("Broadcast not found with id: " + id);
+        }
+        return broadcast.progress();
+    }
+
+    private Audience audienceOf(BroadcastRequest request) {
+        int audiences = (request.getRole() != null ? 1 : 0) + (request.getDepartmentId() != null ? 1 : 0)
+            + (request.getFaculty() != null && !request.getFaculty().isBlank() ? 1 : 0);
+        if (audiences != 1) {
+            throw new RuntimeException("Broadcast needs exactly one audience: role, departmentId or faculty");
+        }
+        if (request.getRole() != null) {
+            return new Audience("role " + request.getRole(),
+                (afterId, limit) -> userRepository.findActiveIdsByRole(request.getRole(), afterId, limit),
+                () -> userRepository.countActiveByRole(request.getRole()));
+        }
+        if (request.getDepartmentId() != null) {
+            return new Audience("department " + request.getDepartmentId(),
+                (afterId, limit) -> userRepository.findActiveIdsByDepartment(request.getDepartmentId(), afterId, limit),
+                () -> userRepository.countActiveByDepartment(request.getDepartmentId()));
+        }
+        return new Audience("faculty " + request.getFaculty(),
+            (afterId, limit) -> userRepository.findActiveStudentIdsByFaculty(request.getFaculty(), afterId, limit),
+            () -> userRepository.countActiveStudentsByFaculty(request.getFaculty()));
+    }
+
+    // Caller holds the lock
+    private void evictFinished() {
+        Iterator<Broadcast> it = broadcasts.values().iterator();
+        while (broadcasts.size() > RETAINED && it.hasNext()) {
+            if (it.next().finished()) {
+                it.remove();
+            }
+        }
+    }
+
+    // ========== WORKER ==========
+
+    private void run(Broadcast broadcast) {
+        broadcast.startedAt = LocalDateTime.now();
+        broadcast.status = BroadcastProgress.Status.RUNNING;
+        try {
+            broadcast.total = broadcast.audience.count.getAsLong();
+            Long afterId = 0L;
+            while (true) {
+                List<Long> recipientIds = broadcast.audience.page.apply(afterId, Limit.of(chunkSize));
+                if (recipientIds.isEmpty()) {
+                    break;
+                }
+                Integer inserted = transaction.execute(status -> insertChunk(broadcast, recipientIds));
+                broadcast.sent += inserted;
+                broadcast.chunks++;
+                afterId = recipientIds.get(recipientIds.size() - 1);
+            }
+            broadcast.status = BroadcastProgress.Status.DONE;
+            System.out.println("✓ Broadcast " + broadcast.id + " sent " + broadcast.sent + " notification(s) to "
+                + broadcast.audience.description + " in " + broadcast.chunks + " chunk(s)");
+        } catch (RuntimeException e) {
+            broadcast.error = e.getMessage();
+            broadcast.status = BroadcastProgress.Status.FAILED;
+            System.out.println("❌ Broadcast " + broadcast.id + " failed after " + broadcast.sent
+                + " notification(s): " + e.getMessage());
+        } finally {
+            broadcast.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private int insertChunk(Broadcast broadcast, List<Long> recipientIds) {
+        int inserted = notificationRepository.insertBroadcast(recipientIds, broadcast.title, broadcast.message,
+            broadcast.type.name(), broadcast.priority.name(), broadcast.eventType, LocalDateTime.now());
+
+        Map<Long, Long> unread = new HashMap<>();
+        for (Long recipientId : recipientIds) {
+            unread.put(recipientId, 1L);
+        }
+        unreadCounts.adjustAll(unread);
+        deliveryStatistics.created(NotificationStatus.DELIVERED, inserted);
+        // Only recipients with an open stream need the rows back
+        Set<Long> watching = streams.subscribedAmong(recipientIds);
+        if (!watching.isEmpty()) {
+            streams.created(notificationRepository.findByEventTypeForRecipients(broadcast.eventType, watching));
+        }
+        return inserted;
+    }
+
+    private static final class Audience {
+        private final String description;
+        private final BiFunction<Long, Limit, List<Long>> page;
+        private final LongSupplier count;
+
+        private Audience(String description, BiFunction<Long, Limit, List<Long>> page, LongSupplier count) {
+            this.description = description;
+            this.page = page;
+            this.count = count;
+        }
+    }
+
+    // Written by the worker thread only; read by pollers
+    private static final class Broadcast {
+        private final String id;
+        private final Audience audience;
+        private final String title;
+        private final String message;
+        private final NotificationType type;
+        private final NotificationPriority priority;
+        private final String eventType;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile BroadcastProgress.Status status = BroadcastProgress.Status.QUEUED;
+        private volatile long total;
+        private volatile long sent;
+        private volatile int chunks;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Broadcast(String id, Audience audience, BroadcastRequest request) {
+            this.id = id;
+            this.audience = audience;
+            this.title = request.getTitle();
+            this.message = request.getMessage();
+            this.type = request.getType() != null ? request.getType() : NotificationType.SYSTEM_ALERT;
+            this.priority = request.getPriority() != null ? request.getPriority() : NotificationPriority.NORMAL;
+            this.eventType = EVENT_TYPE_PREFIX + id;
+        }
+
+        private boolean finished() {
+            return status == BroadcastProgress.Status.DONE || status == BroadcastProgress.Status.FAILED;
+        }
+
+        private BroadcastProgress progress() {
+            return new BroadcastProgress(id, audience.description, status, total, sent, chunks, submittedAt,
+                startedAt, finishedAt, error);
+        }
+    }
+}
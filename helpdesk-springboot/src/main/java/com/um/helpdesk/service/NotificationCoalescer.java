@@ -0,0 +1,217 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Notification;
+import com.um.helpdesk.entity.NotificationPriority;
+import com.um.helpdesk.entity.NotificationType;
+import com.um.helpdesk.repository.NotificationRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalescing stage of {@link NotificationPipeline}: merges bursts of notifications of one type to
+ * one recipient into a digest.
+ *
+ * The first notification for a (recipient, type) opens a window and goes out at once. Further
+ * ones inside the window are merged into a single digest row, which is held (PENDING, digestUntil
+ * set) and released by the pipeline when the window closes; a burst of any size thus costs two
+ * rows and two deliveries. The digest is a row, not memory, so events relayed from the outbox are
+ * not lost across a restart; merging is one UPDATE per (recipient, type) per batch.
+ *
+ * URGENT notifications are never held, nor are types outside COALESCED_TYPES. Overdue reminders
+ * and escalations are always URGENT, so they are not listed there. Window state is per node: after
+ * a restart the next notification simply opens a new window.
+ */
+final class NotificationCoalescer {
+
+    static final Set<NotificationType> COALESCED_TYPES = EnumSet.of(
+        NotificationType.TICKET_ASSIGNED, NotificationType.TICKET_STATUS_CHANGED);
+    static final String DIGEST_EVENT_TYPE = "DIGEST";
+
+    private final NotificationRepository notificationRepository;
+    private final Duration window;
+
+    // Guarded by this, as is each Window's digestId
+    private final Map<Key, Window> windows = new HashMap<>();
+
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder digestsCreated = new LongAdder();
+
+    NotificationCoalescer(NotificationRepository notificationRepository, Duration window) {
+        this.notificationRepository = notificationRepository;
+        this.window = window;
+    }
+
+    boolean isEnabled() {
+        return !window.isZero() && !window.isNegative();
+    }
+
+    private boolean coalesces(Notification notification) {
+        return notification.getPriority() != NotificationPriority.URGENT
+            && COALESCED_TYPES.contains(notification.getType())
+            && notification.getRecipient() != null;
+    }
+
+    /**
+     * Merges the notifications that fall in an open window into digests, in the caller's
+     * transaction, and returns the ones to save and deliver now. New digests are saved here and
+     * added to newDigests.
+     *
+     * Only the decisions are made under the lock; the digest writes run outside it, so concurrent
+     * writers do not queue behind each other's round trips. Windows this batch opens, and the
+     * digests it creates, are registered once its transaction commits: a rolled-back batch leaves
+     * no window behind. Two batches racing for a new key may both send their first at once.
+     */
+    List<Notification> coalesce(List<Notification> notifications, List<Notification> newDigests) {
+        if (!isEnabled()) {
+            return notifications;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> immediate = new ArrayList<>(notifications.size());
+        Map<Key, Window> opened = new HashMap<>();
+        Map<Key, List<Notification>> held = new LinkedHashMap<>();
+        Map<Key, Window> heldIn = new HashMap<>();
+        Map<Key, Long> digestIds = new HashMap<>();
+        synchronized (this) {
+            for (Notification notification : notifications) {
+                if (!coalesces(notification)) {
+                    immediate.add(notification);
+                    continue;
+                }
+                Key key = new Key(notification.getRecipient().getId(), notification.getType());
+                Window open = opened.containsKey(key) ? opened.get(key) : windows.get(key);
+                if (open == null || !now.isBefore(open.closesAt)) {
+                    opened.put(key, new Window(now.plus(window)));
+                    immediate.add(notification);
+                } else {
+                    held.computeIfAbsent(key, k -> new ArrayList<>()).add(notification);
+                    heldIn.put(key, open);
+                    digestIds.put(key, open.digestId);
+                }
+            }
+        }
+
+        Map<Notification, Window> created = new LinkedHashMap<>();
+        held.forEach((key, burst) -> {
+            Window open = heldIn.get(key);
+            Long digestId = digestIds.get(key);
+            merged.add(burst.size());
+            if (digestId != null
+                    && notificationRepository.appendToDigest(digestId, burst.size(), ticketIds(burst), now) == 1) {
+                return;
+            }
+            // No digest yet (or it was released): the first becomes one
+            Notification digest = burst.get(0);
+            digest.setEventType(DIGEST_EVENT_TYPE);
+            digest.setDigestCount(burst.size());
+            digest.setRelatedTicketIds(ticketIds(burst));
+            digest.setDigestUntil(open.closesAt);
+            created.put(digest, open);
+        });
+        if (!created.isEmpty()) {
+            notificationRepository.saveAll(created.keySet());
+            newDigests.addAll(created.keySet());
+            digestsCreated.add(created.size());
+        }
+        if (!opened.isEmpty() || !created.isEmpty()) {
+            afterCommit(() -> register(opened, created));
+        }
+        return immediate;
+    }
+
+    private synchronized void register(Map<Key, Window> opened, Map<Notification, Window> created) {
+        LocalDateTime now = LocalDateTime.now();
+        opened.forEach((key, open) -> {
+            Window current = windows.get(key);
+            if (current == null || !now.isBefore(current.closesAt)) {
+                windows.put(key, open);
+            }
+        });
+        created.forEach((digest, open) -> {
+            if (open.digestId == null) {
+                open.digestId = digest.getId();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ",12,15" form, appended as is to relatedTicketIds
+    private static String ticketIds(List<Notification> burst) {
+        StringBuilder ids = new StringBuilder();
+        for (Notification notification : burst) {
+            if (notification.getRelatedTicketId() != null) {
+                ids.append(',').append(notification.getRelatedTicketId());
+            }
+        }
+        return ids.toString();
+    }
+
+    /**
+     * Turns a held digest into its final form for release: title and message list the tickets.
+     */
+    void finish(Notification digest) {
+        Set<String> tickets = new LinkedHashSet<>();
+        if (digest.getRelatedTicketIds() != null) {
+            for (String id : digest.getRelatedTicketIds().split(",")) {
+                if (!id.isBlank()) {
+                    tickets.add(id);
+                }
+            }
+        }
+        digest.setRelatedTicketIds(String.join(",", tickets));
+        digest.setTitle(digest.getTitle() + " (" + digest.getDigestCount() + " updates)");
+        digest.setMessage(digest.getDigestCount() + " notification(s) in the last " + describe(window)
+            + (tickets.isEmpty() ? "." : " for ticket(s) #" + String.join(", #", tickets) + "."));
+        digest.setDigestUntil(null);
+    }
+
+    private static String describe(Duration window) {
+        return window.toMinutes() > 0 ? window.toMinutes() + " minute(s)" : window.toSeconds() + " second(s)";
+    }
+
+    // Drops windows that have closed; their digests are released by the pipeline
+    synchronized void expire() {
+        LocalDateTime now = LocalDateTime.now();
+        windows.values().removeIf(open -> !now.isBefore(open.closesAt));
+    }
+
+    synchronized int openWindows() {
+        return windows.size();
+    }
+
+    long merged() {
+        return merged.sum();
+    }
+
+    long digestsCreated() {
+        return digestsCreated.sum();
+    }
+
+    private record Key(Long recipientId, NotificationType type) {
+    }
+
+    private static final class Window {
+        private final LocalDateTime closesAt;
+        private Long digestId;
+
+        private Window(LocalDateTime closesAt) {
+            this.closesAt = closesAt;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.*;
+
+/**
+ * A notification to be persisted and delivered by {@link NotificationPipeline}.
+ *
+ * Carries only the recipient id, so publishing one needs no database access; the factory
+ * methods hold the title and message for each event type.
+ */
+public final class NotificationEvent {
+
+    private final Long recipientId;
+    private final Long ticketId;
+    private final NotificationType type;
+    private final NotificationPriority priority;
+    private final DeliveryChannel channel;
+    private final String eventType;
+    private final String title;
+    private final String message;
+    private final int escalationLevel;
+    private final String idempotencyKey;
+
+    NotificationEvent(Long recipientId, Long ticketId, NotificationType type, NotificationPriority priority,
+                      DeliveryChannel channel, String eventType, String title, String message,
+                      int escalationLevel) {
+        this(recipientId, ticketId, type, priority, channel, eventType, title, message, escalationLevel, null);
+    }
+
+    private NotificationEvent(Long recipientId, Long ticketId, NotificationType type, NotificationPriority priority,
+                              DeliveryChannel channel, String eventType, String title, String message,
+                              int escalationLevel, String idempotencyKey) {
+        this.recipientId = recipientId;
+        this.ticketId = ticketId;
+        this.type = type;
+        this.priority = priority;
+        this.channel = channel;
+        this.eventType = eventType;
+        this.title = title;
+        this.message = message;
+        this.escalationLevel = escalationLevel;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    // ========== EVENT TYPES ==========
+
+    public static NotificationEvent ticketSubmitted(Long ticketId, Long userId) {
+        return inApp(userId, ticketId, NotificationType.TICKET_SUBMITTED, NotificationPriority.NORMAL,
+            "TICKET_SUBMITTED", "Ticket Submitted Successfully",
+            "Your ticket #" + ticketId + " has been submitted successfully and is now in the queue.", 0);
+    }
+
+    public static NotificationEvent ticketAssigned(Long ticketId, Long technicianId) {
+        return inApp(technicianId, ticketId, NotificationType.TICKET_ASSIGNED, NotificationPriority.HIGH,
+            "TICKET_ASSIGNED", "New Ticket Assigned",
+            "Ticket #" + ticketId + " has been assigned to you. Please review and take action.", 0);
+    }
+
+    public static NotificationEvent ticketStatusChanged(Long ticketId, Long recipientId,
+                                                        String oldStatus, String newStatus) {
+        return inApp(recipientId, ticketId, NotificationType.TICKET_STATUS_CHANGED, NotificationPriority.NORMAL,
+            "STATUS_CHANGED", "Ticket Status Updated",
+            "Ticket #" + ticketId + " status changed from " + oldStatus + " to " + newStatus, 0);
+    }
+
+    public static NotificationEvent ticketResolved(Long ticketId, Long userId) {
+        return inApp(userId, ticketId, NotificationType.TICKET_RESOLVED, NotificationPriority.HIGH,
+            "TICKET_RESOLVED", "Ticket Resolved",
+            "Great news! Your ticket #" + ticketId + " has been resolved. Please provide feedback.", 0);
+    }
+
+    public static NotificationEvent ticketReopened(Long ticketId, Long technicianId) {
+        return inApp(technicianId, ticketId, NotificationType.TICKET_REOPENED, NotificationPriority.HIGH,
+            "TICKET_REOPENED", "Ticket Reopened",
+            "Ticket #" + ticketId + " has been reopened and requires your attention.", 0);
+    }
+
+    public static NotificationEvent reminder(Long ticketId, Long technicianId) {
+        return inApp(technicianId, ticketId, NotificationType.REMINDER, NotificationPriority.URGENT,
+            "OVERDUE_REMINDER", "Reminder: Overdue Ticket",
+            "Reminder: Ticket #" + ticketId + " is overdue. Please take action immediately.", 1);
+    }
+
+    public static NotificationEvent escalation(Long ticketId, Long supervisorId, int escalationLevel) {
+        String levelText = escalationLevel == 2 ? "Supervisor" : "Administrator";
+        return inApp(supervisorId, ticketId, NotificationType.ESCALATION, NotificationPriority.URGENT,
+            "ESCALATION", "ESCALATION: Overdue Ticket",
+            "URGENT: Ticket #" + ticketId + " has been escalated to " + levelText + " level due to delays.",
+            escalationLevel);
+    }
+
+    public static NotificationEvent ticketTransferred(Long ticketId, Long userId,
+                                                      String fromDepartment, String toDepartment) {
+        return inApp(userId, ticketId, NotificationType.TICKET_STATUS_CHANGED, NotificationPriority.NORMAL,
+            "TICKET_TRANSFERRED", "Ticket Transferred",
+            "Your ticket #" + ticketId + " has been transferred from " + fromDepartment + " to " + toDepartment
+                + " and is waiting for a technician there.", 0);
+    }
+
+    private static NotificationEvent inApp(Long recipientId, Long ticketId, NotificationType type,
+                                           NotificationPriority priority, String eventType, String title,
+                                           String message, int escalationLevel) {
+        return new NotificationEvent(recipientId, ticketId, type, priority, DeliveryChannel.IN_APP,
+            eventType, title, message, escalationLevel);
+    }
+
+    /**
+     * Copy of this event that is saved at most once: a later event with the same key is skipped.
+     */
+    public NotificationEvent withIdempotencyKey(String key) {
+        return new NotificationEvent(recipientId, ticketId, type, priority, channel, eventType, title, message,
+            escalationLevel, key);
+    }
+
+    /**
+     * @return an unsaved notification for this event, addressed to the given recipient
+     */
+    Notification toNotification(User recipient) {
+        Notification notification = new Notification();
+        notification.setRecipient(recipient);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setType(type);
+        notification.setPriority(priority);
+        notification.setEventType(eventType);
+        notification.setRelatedTicketId(ticketId);
+        notification.setDeliveryChannel(channel);
+        notification.setEscalationLevel(escalationLevel);
+        notification.setIdempotencyKey(idempotencyKey);
+        return notification;
+    }
+
+    // Getters
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public NotificationType getType() {
+        return type;
+    }
+
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    public DeliveryChannel getChannel() {
+        return channel;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public int getEscalationLevel() {
+        return escalationLevel;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,708 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.delivery.DeliveryOutcome;
+import com.um.helpdesk.delivery.WeightedPriorityQueue;
+import com.um.helpdesk.entity.DeliveryChannel;
+import com.um.helpdesk.entity.Notification;
+import com.um.helpdesk.entity.NotificationPriority;
+import com.um.helpdesk.entity.NotificationStatus;
+import com.um.helpdesk.entity.User;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process notification fan-out: publish, then batch insert, then deliver per channel.
+ *
+ * Publishing puts a {@link NotificationEvent} on a bounded queue once the caller's transaction
+ * commits, so the caller pays neither the inserts nor the delivery. One worker drains the
+ * queue in batches, loads the batch's recipients in one query and inserts the notifications with
+ * JDBC batching. Each delivery channel then has its own single-thread stage that marks a whole
+ * batch sent (or failed) with one UPDATE. Recipients with an open stream are told of both steps
+ * through {@link NotificationStreamHub}.
+ *
+ * The queue and each delivery stage are {@link WeightedPriorityQueue}s: events are taken, and batches
+ * delivered, by weighted rounds over their priority, so an URGENT escalation overtakes a backlog of LOW
+ * announcements instead of waiting behind it. A dispatched batch is split per priority for this.
+ *
+ * Channels with a transport (see {@link DeliveryGateway}) are only handed over by their stage; the
+ * gateway sends them on the channel's own bounded executor and the stage writes the outcome back,
+ * sent rows with one UPDATE and failed ones per failure reason, so a slow gateway never holds the
+ * stage, the insert worker or another channel. The rows are leased to the retry engine before they are
+ * handed over (QUEUED_FOR_RETRY, due when the lease runs out) and the gateway settles them within half
+ * the lease, so a row whose outcome is never written back is sent again rather than left PENDING.
+ *
+ * Backpressure: a full delivery stage makes the insert worker deliver the batch itself, which
+ * stops it draining the queue; a full queue blocks publishers for up to the publish timeout and
+ * then rejects the event. Both show up in {@link #metrics()}.
+ *
+ * Bursts of one type to one recipient are coalesced into a digest over a window (see
+ * {@link NotificationCoalescer}); a digest thread releases each one when its window closes.
+ *
+ * Events still queued when the application stops are lost; ticket events reach
+ * {@link #saveAndDeliver} through the ticket_events outbox instead, see {@link TicketEventRelay}.
+ */
+@Service
+public class NotificationPipeline {
+
+    static final int QUEUE_CAPACITY = 10_000;
+    static final int BATCH_SIZE = 50;    // matches hibernate.jdbc.batch_size
+    static final int DELIVERY_QUEUE_BATCHES = 16;
+    static final Duration PUBLISH_TIMEOUT = Duration.ofMillis(200);
+    static final Duration SEND_LEASE = Duration.ofMinutes(2);
+    static final Duration MAX_DIGEST_POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final UnreadCountTracker unreadCounts;
+    private final DeliveryStatisticsTracker deliveryStatistics;
+    private final NotificationStreamHub streams;
+    private final DeliveryGateway gateway;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final long publishTimeoutNanos;
+    private final Duration sendLease;
+    private final WeightedPriorityQueue<NotificationEvent> queue;
+    private final Thread persistWorker;
+    private final NotificationCoalescer coalescer;
+    private final long digestPollMillis;
+    private final Thread digestWorker;
+    private final Map<DeliveryChannel, ThreadPoolExecutor> deliveryStages = new EnumMap<>(DeliveryChannel.class);
+    private final Map<DeliveryChannel, WeightedPriorityQueue<Runnable>> stageQueues = new EnumMap<>(DeliveryChannel.class);
+
+    // Metrics
+    private final LongAdder published = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder persistBatches = new LongAdder();
+    private final LongAdder publishWaitNanos = new LongAdder();
+    private final LongAdder digestsReleased = new LongAdder();
+    private final Map<DeliveryChannel, LongAdder> delivered = new EnumMap<>(DeliveryChannel.class);
+    private final Map<DeliveryChannel, LongAdder> failed = new EnumMap<>(DeliveryChannel.class);
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    private final AtomicLong inFlight = new AtomicLong();    // queued or awaiting delivery
+
+    @Autowired
+    public NotificationPipeline(NotificationRepository notificationRepository, UserRepository userRepository,
+                                UnreadCountTracker unreadCounts, DeliveryStatisticsTracker deliveryStatistics,
+                                NotificationStreamHub streams, DeliveryGateway gateway,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${helpdesk.notifications.coalesce-window:PT2M}") Duration coalesceWindow) {
+        this(notificationRepository, userRepository, unreadCounts, deliveryStatistics, streams, gateway,
+            transactionManager, QUEUE_CAPACITY, BATCH_SIZE, PUBLISH_TIMEOUT, coalesceWindow, SEND_LEASE, true);
+    }
+
+    NotificationPipeline(NotificationRepository notificationRepository, UserRepository userRepository,
+                         UnreadCountTracker unreadCounts, DeliveryStatisticsTracker deliveryStatistics,
+                         NotificationStreamHub streams, DeliveryGateway gateway,
+                         PlatformTransactionManager transactionManager, int queueCapacity, int batchSize,
+                         Duration publishTimeout, Duration coalesceWindow, Duration sendLease, boolean start) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.unreadCounts = unreadCounts;
+        this.deliveryStatistics = deliveryStatistics;
+        this.streams = streams;
+        this.gateway = gateway;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.publishTimeoutNanos = publishTimeout.toNanos();
+        this.sendLease = sendLease;
+        this.queue = new WeightedPriorityQueue<>(queueCapacity, NotificationEvent::getPriority);
+
+        for (DeliveryChannel channel : DeliveryChannel.values()) {
+            delivered.put(channel, new LongAdder());
+            failed.put(channel, new LongAdder());
+            stageQueues.put(channel,
+                WeightedPriorityQueue.forTasks(DELIVERY_QUEUE_BATCHES, WeightedPriorityQueue.DEFAULT_AGING_AFTER));
+            deliveryStages.put(channel, new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, stageQueues.get(channel),
+                r -> daemon(r, "notification-" + channel.name().toLowerCase(Locale.ROOT)),
+                new ThreadPoolExecutor.CallerRunsPolicy()));
+        }
+        this.persistWorker = daemon(this::persistLoop, "notification-writer");
+        this.coalescer = new NotificationCoalescer(notificationRepository, coalesceWindow);
+        // Digests go out within a quarter of their window of closing
+        this.digestPollMillis = Math.max(50, Math.min(MAX_DIGEST_POLL_INTERVAL.toMillis(), coalesceWindow.toMillis() / 4));
+        this.digestWorker = daemon(this::digestLoop, "notification-digests");
+        if (start) {
+            start();
+        }
+    }
+
+    // Starts a pipeline built with start = false
+    void start() {
+        persistWorker.start();
+        if (coalescer.isEnabled()) {
+            digestWorker.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persistWorker.interrupt();
+        digestWorker.interrupt();
+        deliveryStages.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    // ========== PUBLISH ==========
+
+    /**
+     * Queues a notification once the current transaction commits (immediately without one).
+     * Blocks for at most the publish timeout when the queue is full, then drops the event.
+     * The recipient is checked here (one primary-key lookup) so an unknown one still fails the caller.
+     */
+    public void publish(NotificationEvent event) {
+        if (event == null || event.getRecipientId() == null) {
+            throw new RuntimeException("Notification event and recipient are required");
+        }
+        if (!userRepository.existsById(event.getRecipientId())) {
+            throw new RuntimeException("User not found with id: " + event.getRecipientId());
+        }
+        afterCommit(() -> enqueue(event));
+    }
+
+    private boolean enqueue(NotificationEvent event) {
+        inFlight.incrementAndGet();
+        boolean accepted = queue.offer(event);
+        if (!accepted) {
+            long start = System.nanoTime();
+            try {
+                accepted = queue.offer(event, publishTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            publishWaitNanos.add(System.nanoTime() - start);
+        }
+        if (!accepted) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            System.out.println("❌ Notification queue full, dropped " + event.getEventType()
+                + " for user " + event.getRecipientId());
+            return false;
+        }
+        published.increment();
+        highWaterMark.accumulateAndGet(queue.size(), Math::max);
+        return true;
+    }
+
+    // ========== PERSIST STAGE ==========
+
+    private void persistLoop() {
+        List<NotificationEvent> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                persist(batch);
+            } catch (RuntimeException e) {
+                dropped.add(batch.size());
+                inFlight.addAndGet(-batch.size());
+                System.out.println("❌ Notification batch of " + batch.size() + " not saved: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void persist(List<NotificationEvent> batch) {
+        transaction.executeWithoutResult(status -> saveAndDeliver(batch));
+        persistBatches.increment();
+        inFlight.addAndGet(-batch.size());
+    }
+
+    /**
+     * Saves a notification per event in the caller's transaction and hands them to the delivery
+     * stages once it commits. Events whose recipient no longer exists (deleted after publish, or an
+     * outbox row for a removed user) are skipped and counted as dropped, and so are events whose
+     * idempotency key is already stored, so replaying a batch does not duplicate notifications.
+     *
+     * @return the notifications saved
+     */
+    public List<Notification> saveAndDeliver(List<NotificationEvent> events) {
+        Set<String> keys = new HashSet<>();
+        Set<Long> recipientIds = new HashSet<>();
+        for (NotificationEvent event : events) {
+            if (event.getIdempotencyKey() != null) {
+                keys.add(event.getIdempotencyKey());
+            }
+            recipientIds.add(event.getRecipientId());
+        }
+        Set<String> seen = keys.isEmpty() ? new HashSet<>()
+            : new HashSet<>(notificationRepository.findIdempotencyKeysIn(keys));
+        Map<Long, User> recipients = new HashMap<>();
+        userRepository.findAllById(recipientIds).forEach(u -> recipients.put(u.getId(), u));
+
+        List<Notification> notifications = new ArrayList<>(events.size());
+        int unknownRecipients = 0;
+        for (NotificationEvent event : events) {
+            if (event.getIdempotencyKey() != null && !seen.add(event.getIdempotencyKey())) {
+                duplicates.increment();
+                continue;
+            }
+            User recipient = recipients.get(event.getRecipientId());
+            if (recipient == null) {
+                unknownRecipients++;
+                continue;
+            }
+            notifications.add(event.toNotification(recipient));
+        }
+        if (unknownRecipients > 0) {
+            dropped.add(unknownRecipients);
+            System.out.println("❌ " + unknownRecipients + " notification(s) dropped: recipient not found");
+        }
+
+        // Bursts within a coalescing window go into held digests instead
+        List<Notification> digests = new ArrayList<>();
+        List<Notification> immediate = coalescer.coalesce(notifications, digests);
+
+        // Pooled sequence ids + hibernate.jdbc.batch_size turn this into batched INSERTs
+        List<Notification> saved = notificationRepository.saveAll(immediate);
+        Map<Long, Long> unread = new HashMap<>();
+        for (Notification notification : saved) {
+            unread.merge(notification.getRecipient().getId(), 1L, Long::sum);
+        }
+        for (Notification digest : digests) {
+            unread.merge(digest.getRecipient().getId(), 1L, Long::sum);
+        }
+        unreadCounts.adjustAll(unread);
+        deliveryStatistics.created(saved);
+        deliveryStatistics.created(digests);
+        streams.created(saved);
+        afterCommit(() -> {
+            persisted.add(saved.size());
+            dispatch(saved);
+        });
+        if (digests.isEmpty()) {
+            return saved;
+        }
+        List<Notification> rows = new ArrayList<>(saved);
+        rows.addAll(digests);
+        return rows;
+    }
+
+    // ========== DIGEST STAGE ==========
+
+    private void digestLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(digestPollMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                // A full batch means more may be due
+                while (releaseDueDigests() == batchSize) {
+                    Thread.yield();
+                }
+            } catch (RuntimeException e) {
+                System.out.println("❌ Notification digest release failed, will retry: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Releases held digests whose window has closed to the delivery stages.
+     *
+     * @return the number released
+     */
+    int releaseDueDigests() {
+        coalescer.expire();
+        List<Notification> due = transaction.execute(status -> {
+            List<Notification> digests = notificationRepository.findDueDigests(LocalDateTime.now(), Limit.of(batchSize));
+            digests.forEach(coalescer::finish);
+            streams.created(digests);
+            return digests;
+        });
+        if (due == null || due.isEmpty()) {
+            return 0;
+        }
+        digestsReleased.add(due.size());
+        dispatch(due);
+        return due.size();
+    }
+
+    /**
+     * Hands notifications that are already saved to the delivery stages once the current transaction
+     * commits (immediately without one).
+     */
+    public void deliver(List<Notification> notifications) {
+        afterCommit(() -> dispatch(notifications));
+    }
+
+    // Whether the channel has a transport, so delivery takes longer than the UPDATE
+    public boolean deliversExternally(DeliveryChannel channel) {
+        return gateway.supports(channel);
+    }
+
+    private void dispatch(List<Notification> saved) {
+        // Highest priority first, each its own batch so the stage can order them
+        Map<DeliveryChannel, Map<NotificationPriority, List<Notification>>> batches = new EnumMap<>(DeliveryChannel.class);
+        for (Notification notification : saved) {
+            NotificationPriority priority = notification.getPriority() == null
+                ? NotificationPriority.NORMAL : notification.getPriority();
+            batches.computeIfAbsent(notification.getDeliveryChannel(), c -> new TreeMap<>(Comparator.reverseOrder()))
+                .computeIfAbsent(priority, p -> new ArrayList<>()).add(notification);
+        }
+        inFlight.addAndGet(saved.size());
+        batches.forEach((channel, byPriority) -> byPriority.forEach((priority, notifications) ->
+            deliveryStages.get(channel).execute(
+                WeightedPriorityQueue.task(priority, () -> deliver(channel, priority, notifications)))));
+    }
+
+    // ========== DELIVERY STAGE ==========
+
+    private void deliver(DeliveryChannel channel, NotificationPriority priority, List<Notification> notifications) {
+        if (gateway.supports(channel)) {
+            sendExternally(channel, priority, notifications);
+            return;
+        }
+        List<Long> ids = new ArrayList<>(notifications.size());
+        notifications.forEach(n -> ids.add(n.getId()));
+        LocalDateTime now = LocalDateTime.now();
+        NotificationStatus sent = channel == DeliveryChannel.IN_APP ? NotificationStatus.DELIVERED : NotificationStatus.SENT;
+        try {
+            transaction.executeWithoutResult(status -> {
+                if (channel == DeliveryChannel.IN_APP) {
+                    notificationRepository.markSent(ids, sent, "Delivered", now, now);
+                } else {
+                    notificationRepository.markSent(ids, sent, "Sent", now, null);
+                }
+                deliveryStatistics.changed(notifications, sent);
+            });
+            delivered.get(channel).add(ids.size());
+            streams.delivered(notifications, sent);
+        } catch (RuntimeException e) {
+            failed.get(channel).add(ids.size());
+            System.out.println("Notification delivery failed via " + channel + ": " + e.getMessage());
+            try {
+                // First failure of the batch: NotificationRetryEngine picks the rows up once the backoff passes
+                transaction.executeWithoutResult(status -> {
+                    notificationRepository.markFailed(ids, Notification.truncateFailureReason(e.getMessage()), now,
+                        RetryBackoff.nextAttemptAt(channel, 1, now));
+                    deliveryStatistics.failed(notifications);
+                });
+            } catch (RuntimeException ignored) {
+                // left PENDING; nothing more to record
+            }
+        } finally {
+            inFlight.addAndGet(-ids.size());
+        }
+    }
+
+    private void sendExternally(DeliveryChannel channel, NotificationPriority priority, List<Notification> notifications) {
+        List<Long> ids = new ArrayList<>(notifications.size());
+        notifications.forEach(n -> ids.add(n.getId()));
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            transaction.executeWithoutResult(status -> {
+                notificationRepository.leaseForSending(ids, now.plus(sendLease), now);
+                deliveryStatistics.changed(notifications, NotificationStatus.QUEUED_FOR_RETRY);
+            });
+        } catch (RuntimeException e) {
+            failed.get(channel).add(ids.size());
+            inFlight.addAndGet(-ids.size());
+            System.out.println("❌ Notification delivery via " + channel + " not leased, left PENDING: " + e.getMessage());
+            return;
+        }
+        notifications.forEach(n -> n.setStatus(NotificationStatus.QUEUED_FOR_RETRY));
+
+        CompletableFuture<DeliveryOutcome> sending;
+        try {
+            // Settled within half the lease, which leaves the other half for the write-back
+            sending = gateway.deliver(channel, notifications, sendLease.dividedBy(2));
+        } catch (RuntimeException e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+        // Written back on this channel's stage, at the batch's priority; the gateway's own threads only send
+        ThreadPoolExecutor stage = deliveryStages.get(channel);
+        sending.whenCompleteAsync((outcome, error) -> {
+            try {
+                recordOutcome(channel, notifications, outcome, error);
+            } finally {
+                inFlight.addAndGet(-notifications.size());
+            }
+        }, writeBack -> stage.execute(WeightedPriorityQueue.task(priority, writeBack)));
+    }
+
+    private void recordOutcome(DeliveryChannel channel, List<Notification> notifications, DeliveryOutcome outcome,
+                               Throwable error) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<Long>> failures;
+        List<Long> sentIds;
+        if (error != null) {
+            List<Long> ids = new ArrayList<>(notifications.size());
+            notifications.forEach(n -> ids.add(n.getId()));
+            sentIds = Collections.emptyList();
+            failures = Map.of(String.valueOf(error.getMessage()), ids);
+        } else {
+            sentIds = outcome.getDelivered();
+            failures = outcome.failuresByReason();
+        }
+        Map<Long, Notification> byId = new HashMap<>();
+        notifications.forEach(n -> byId.put(n.getId(), n));
+        // Sends and failures commit separately: failures that cannot be written never undo recorded sends,
+        // which would otherwise go out again once the lease runs out
+        if (!sentIds.isEmpty()) {
+            try {
+                transaction.executeWithoutResult(status -> {
+                    notificationRepository.markSent(sentIds, NotificationStatus.SENT, "Sent", now, null);
+                    deliveryStatistics.changed(rows(byId, sentIds), NotificationStatus.SENT);
+                });
+                delivered.get(channel).add(sentIds.size());
+                streams.delivered(rows(byId, sentIds), NotificationStatus.SENT);
+            } catch (RuntimeException e) {
+                System.out.println("❌ Sends via " + channel + " not recorded, sent again once the lease runs out: "
+                    + e.getMessage());
+            }
+        }
+        if (!failures.isEmpty()) {
+            try {
+                // First failure: NotificationRetryEngine picks the rows up once the backoff passes
+                transaction.executeWithoutResult(status -> failures.forEach((reason, ids) -> {
+                    notificationRepository.markFailed(ids, Notification.truncateFailureReason(reason), now,
+                        RetryBackoff.nextAttemptAt(channel, 1, now));
+                    deliveryStatistics.failed(rows(byId, ids));
+                }));
+            } catch (RuntimeException e) {
+                System.out.println("❌ Failed deliveries via " + channel
+                    + " not recorded, retried once the lease runs out: " + e.getMessage());
+                return;
+            }
+            int failedNow = failures.values().stream().mapToInt(List::size).sum();
+            failed.get(channel).add(failedNow);
+            System.out.println("Notification delivery failed via " + channel + " for " + failedNow + " notification(s): "
+                + failures.keySet().iterator().next());
+        }
+    }
+
+    private static List<Notification> rows(Map<Long, Notification> byId, List<Long> ids) {
+        List<Notification> rows = new ArrayList<>(ids.size());
+        ids.forEach(id -> rows.add(byId.get(id)));
+        return rows;
+    }
+
+    // ========== MONITORING ==========
+
+    public Metrics metrics() {
+        Map<DeliveryChannel, Long> deliveredByChannel = new EnumMap<>(DeliveryChannel.class);
+        Map<DeliveryChannel, Long> failedByChannel = new EnumMap<>(DeliveryChannel.class);
+        Map<DeliveryChannel, Integer> backlogByChannel = new EnumMap<>(DeliveryChannel.class);
+        Map<DeliveryChannel, Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics>> backlogByPriority =
+            new EnumMap<>(DeliveryChannel.class);
+        for (DeliveryChannel channel : DeliveryChannel.values()) {
+            deliveredByChannel.put(channel, delivered.get(channel).sum());
+            failedByChannel.put(channel, failed.get(channel).sum());
+            backlogByChannel.put(channel, stageQueues.get(channel).size());
+            backlogByPriority.put(channel, stageQueues.get(channel).metrics());
+        }
+        return new Metrics(queue.size(), queue.size() + queue.remainingCapacity(), highWaterMark.get(),
+            published.sum(), rejected.sum(), dropped.sum(), duplicates.sum(), persisted.sum(), persistBatches.sum(),
+            publishWaitNanos.sum() / 1_000_000, coalescer.merged(), coalescer.digestsCreated(), digestsReleased.sum(),
+            coalescer.openWindows(), queue.metrics(), deliveredByChannel, failedByChannel, backlogByChannel,
+            backlogByPriority);
+    }
+
+    /**
+     * Waits until every accepted event has been delivered or dropped.
+     *
+     * @return false if the timeout passed first
+     */
+    public boolean awaitIdle(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Point-in-time pipeline counters.
+     */
+    public static final class Metrics {
+        private final int queueDepth;
+        private final int queueCapacity;
+        private final int queueHighWaterMark;
+        private final long published;
+        private final long rejected;
+        private final long dropped;
+        private final long duplicates;
+        private final long persisted;
+        private final long persistBatches;
+        private final long publishWaitMillis;
+        private final long coalesced;
+        private final long digestsCreated;
+        private final long digestsReleased;
+        private final int coalescingWindows;
+        private final Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics> queueByPriority;
+        private final Map<DeliveryChannel, Long> delivered;
+        private final Map<DeliveryChannel, Long> failed;
+        private final Map<DeliveryChannel, Integer> deliveryBacklog;
+        private final Map<DeliveryChannel, Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics>> deliveryBacklogByPriority;
+
+        private Metrics(int queueDepth, int queueCapacity, int queueHighWaterMark, long published, long rejected,
+                        long dropped, long duplicates, long persisted, long persistBatches, long publishWaitMillis,
+                        long coalesced, long digestsCreated, long digestsReleased, int coalescingWindows,
+                        Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics> queueByPriority,
+                        Map<DeliveryChannel, Long> delivered, Map<DeliveryChannel, Long> failed,
+                        Map<DeliveryChannel, Integer> deliveryBacklog,
+                        Map<DeliveryChannel, Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics>> deliveryBacklogByPriority) {
+            this.queueDepth = queueDepth;
+            this.queueCapacity = queueCapacity;
+            this.queueHighWaterMark = queueHighWaterMark;
+            this.published = published;
+            this.rejected = rejected;
+            this.dropped = dropped;
+            this.duplicates = duplicates;
+            this.persisted = persisted;
+            this.persistBatches = persistBatches;
+            this.publishWaitMillis = publishWaitMillis;
+            this.coalesced = coalesced;
+            this.digestsCreated = digestsCreated;
+            this.digestsReleased = digestsReleased;
+            this.coalescingWindows = coalescingWindows;
+            this.queueByPriority = Collections.unmodifiableMap(queueByPriority);
+            this.delivered = Collections.unmodifiableMap(delivered);
+            this.failed = Collections.unmodifiableMap(failed);
+            this.deliveryBacklog = Collections.unmodifiableMap(deliveryBacklog);
+            this.deliveryBacklogByPriority = Collections.unmodifiableMap(deliveryBacklogByPriority);
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public int getQueueHighWaterMark() {
+            return queueHighWaterMark;
+        }
+
+        /** Events accepted onto the queue */
+        public long getPublished() {
+            return published;
+        }
+
+        /** Events refused because the queue stayed full for the whole publish timeout */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /** Accepted events not saved: unknown recipient or a failed insert */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /** Events skipped because a notification with the same idempotency key exists */
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getPersisted() {
+            return persisted;
+        }
+
+        public long getPersistBatches() {
+            return persistBatches;
+        }
+
+        public double getAverageBatchSize() {
+            return persistBatches == 0 ? 0 : (double) persisted / persistBatches;
+        }
+
+        /** Total time publishers spent blocked on a full queue */
+        public long getPublishWaitMillis() {
+            return publishWaitMillis;
+        }
+
+        /** Notifications merged into a digest rather than saved and delivered on their own */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getDigestsCreated() {
+            return digestsCreated;
+        }
+
+        public long getDigestsReleased() {
+            return digestsReleased;
+        }
+
+        /** (recipient, type) pairs with an open coalescing window */
+        public int getCoalescingWindows() {
+            return coalescingWindows;
+        }
+
+        /** Depth of the queue and time events spent in it before being saved, per priority */
+        public Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics> getQueueByPriority() {
+            return queueByPriority;
+        }
+
+        public Map<DeliveryChannel, Long> getDelivered() {
+            return delivered;
+        }
+
+        public Map<DeliveryChannel, Long> getFailed() {
+            return failed;
+        }
+
+        /** Batches waiting in each channel's delivery stage */
+        public Map<DeliveryChannel, Integer> getDeliveryBacklog() {
+            return deliveryBacklog;
+        }
+
+        /** Batches waiting in each channel's delivery stage and how long they waited, per priority */
+        public Map<DeliveryChannel, Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics>> getDeliveryBacklogByPriority() {
+            return deliveryBacklogByPriority;
+        }
+    }
+}
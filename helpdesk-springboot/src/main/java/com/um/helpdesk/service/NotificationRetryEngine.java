@@ -0,0 +1,446 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryException;
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.delivery.DeliveryOutcome;
+import com.um.helpdesk.entity.DeliveryChannel;
+import com.um.helpdesk.entity.Notification;
+import com.um.helpdesk.entity.NotificationStatus;
+import com.um.helpdesk.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries failed notification deliveries in batches.
+ *
+ * A failed delivery leaves the notification QUEUED_FOR_RETRY with a nextAttemptAt from
+ * {@link RetryBackoff}. Each round reads up to one batch of due ids, locks those still due with
+ * SELECT ... FOR UPDATE SKIP LOCKED and pushes their nextAttemptAt ahead by a lease before committing, so several
+ * nodes can run the engine without waiting on or retrying each other's rows, and rows held by
+ * a node that dies come due again once the lease runs out.
+ *
+ * Each channel's share of the claimed rows is handed to that channel's own worker thread, which
+ * attempts it outside any transaction, through {@link DeliveryGateway} for channels with a transport,
+ * and writes the results back in one transaction: one UPDATE for the delivered rows, and JDBC-batched
+ * entity updates for the failed ones, each with its own retry count and backoff. A row that has
+ * used up its own maxRetries is marked PERMANENTLY_FAILED. A slow channel therefore holds up only
+ * its own retries: the poll thread goes on claiming for the others, and claims nothing for a channel
+ * whose previous share is still being sent. Gateway sends are cut off at half the lease, so a share
+ * is written back before its rows can come due again.
+ */
+@Service
+public class NotificationRetryEngine {
+
+    static final int BATCH_SIZE = 50;    // matches hibernate.jdbc.batch_size
+    static final Duration CLAIM_LEASE = Duration.ofMinutes(1);
+    static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * One delivery attempt for a channel's share of a claimed batch; throwing fails the whole share,
+     * except a {@link DeliveryException}, which fails only the notifications it lists.
+     */
+    @FunctionalInterface
+    interface DeliveryAttempt {
+        void deliver(DeliveryChannel channel, List<Notification> notifications);
+    }
+
+    // Channels without a transport count as delivered once they get here
+    static DeliveryAttempt through(DeliveryGateway gateway, Duration lease) {
+        Duration within = lease.dividedBy(2);
+        long waitMillis = lease.multipliedBy(3).dividedBy(4).toMillis();
+        return (channel, notifications) -> {
+            if (!gateway.supports(channel)) {
+                return;
+            }
+            // Messages still queued behind the channel's bulkhead at half the lease fail instead of being sent;
+            // the bounded wait only guards against a gateway that never settles
+            DeliveryOutcome outcome;
+            try {
+                outcome = gateway.deliver(channel, notifications, within).get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(channel + " retry not settled within " + waitMillis + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(channel + " retry interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            }
+            if (!outcome.getFailures().isEmpty()) {
+                throw new DeliveryException(outcome.getFailures());
+            }
+        };
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final DeliveryStatisticsTracker deliveryStatistics;
+    private final TransactionTemplate transaction;
+    private final DeliveryAttempt attempt;
+    private final int batchSize;
+    private final Duration lease;
+    private final long pollIntervalMillis;
+    private final boolean poll;
+    private final Thread worker;
+    private final Map<DeliveryChannel, ExecutorService> channelWorkers = new EnumMap<>(DeliveryChannel.class);
+    private final Set<DeliveryChannel> retrying = ConcurrentHashMap.newKeySet();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    // Metrics
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rescheduled = new LongAdder();
+    private final LongAdder permanentlyFailed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final Map<DeliveryChannel, LongAdder> succeededByChannel = new EnumMap<>(DeliveryChannel.class);
+    private final Map<DeliveryChannel, LongAdder> failedByChannel = new EnumMap<>(DeliveryChannel.class);
+    private final AtomicLong lastBatchSize = new AtomicLong();
+
+    @Autowired
+    public NotificationRetryEngine(NotificationRepository notificationRepository,
+                                   DeliveryStatisticsTracker deliveryStatistics,
+                                   PlatformTransactionManager transactionManager, DeliveryGateway gateway) {
+        this(notificationRepository, deliveryStatistics, transactionManager, through(gateway, CLAIM_LEASE),
+            BATCH_SIZE,
+            CLAIM_LEASE, POLL_INTERVAL, true);
+    }
+
+    NotificationRetryEngine(NotificationRepository notificationRepository, DeliveryStatisticsTracker deliveryStatistics,
+                            PlatformTransactionManager transactionManager, DeliveryAttempt attempt, int batchSize,
+                            Duration lease, Duration pollInterval, boolean poll) {
+        this.notificationRepository = notificationRepository;
+        this.deliveryStatistics = deliveryStatistics;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.attempt = attempt;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.poll = poll;
+        for (DeliveryChannel channel : DeliveryChannel.values()) {
+            succeededByChannel.put(channel, new LongAdder());
+            failedByChannel.put(channel, new LongAdder());
+            String name = "notification-retry-" + channel.name().toLowerCase(Locale.ROOT);
+            channelWorkers.put(channel, Executors.newSingleThreadExecutor(runnable -> daemon(runnable, name)));
+        }
+        this.worker = daemon(this::retryLoop, "notification-retry");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+        channelWorkers.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    // Polling starts once the application is up, after rows queued before nextAttemptAt existed are made due
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Integer scheduled = transaction.execute(status ->
+            notificationRepository.scheduleUnscheduledRetries(LocalDateTime.now()));
+        if (scheduled != null && scheduled > 0) {
+            System.out.println(">>> Retry engine: " + scheduled + " queued notification(s) scheduled for retry");
+        }
+        if (poll && !worker.isAlive()) {
+            worker.start();
+        }
+    }
+
+    // ========== RETRY ==========
+
+    private void retryLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            int retriedNow;
+            try {
+                retriedNow = retryDue();
+            } catch (RuntimeException e) {
+                System.out.println("❌ Notification retry failed, will retry: " + e.getMessage());
+                retriedNow = 0;
+            }
+            // A full batch means more may be due
+            if (retriedNow < batchSize) {
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims one batch of due notifications and hands each channel's share to that channel's worker.
+     * Channels whose previous share is still being retried are left out of the claim.
+     *
+     * @return the number of rows claimed; 0 if nothing was due
+     */
+    public int retryDue() {
+        Set<DeliveryChannel> idle = EnumSet.allOf(DeliveryChannel.class);
+        idle.removeAll(retrying);
+        if (idle.isEmpty()) {
+            return 0;
+        }
+        List<Notification> batch;
+        int[] exhausted = new int[1];
+        try {
+            batch = transaction.execute(status -> claim(LocalDateTime.now(), idle, exhausted));
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            throw e;
+        }
+        int claimedNow = (batch != null ? batch.size() : 0) + exhausted[0];
+        if (claimedNow == 0) {
+            return 0;
+        }
+
+        Map<DeliveryChannel, List<Notification>> byChannel = new EnumMap<>(DeliveryChannel.class);
+        for (Notification notification : batch) {
+            byChannel.computeIfAbsent(notification.getDeliveryChannel(), c -> new ArrayList<>()).add(notification);
+        }
+        byChannel.forEach((channel, notifications) -> {
+            retrying.add(channel);
+            inFlight.incrementAndGet();
+            try {
+                channelWorkers.get(channel).execute(() -> retry(channel, notifications));
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the rows come due again when their lease runs out
+                retrying.remove(channel);
+                inFlight.decrementAndGet();
+            }
+        });
+        claimed.add(claimedNow);
+        batches.increment();
+        lastBatchSize.set(claimedNow);
+        return claimedNow;
+    }
+
+    // Runs on the channel's worker; rows left unwritten here come due again when their lease runs out
+    private void retry(DeliveryChannel channel, List<Notification> notifications) {
+        try {
+            List<Long> delivered = new ArrayList<>(notifications.size());
+            Map<Long, String> failures = new HashMap<>();
+            try {
+                attempt.deliver(channel, notifications);
+                delivered.addAll(ids(notifications));
+            } catch (DeliveryException e) {
+                for (Notification n : notifications) {
+                    String reason = e.getFailures().get(n.getId());
+                    if (reason == null) {
+                        delivered.add(n.getId());
+                    } else {
+                        failures.put(n.getId(), reason);
+                    }
+                }
+            } catch (RuntimeException e) {
+                notifications.forEach(n -> failures.put(n.getId(), e.getMessage()));
+            }
+
+            Map<Long, Notification> claimedById = new HashMap<>();
+            notifications.forEach(n -> claimedById.put(n.getId(), n));
+            transaction.executeWithoutResult(status ->
+                writeBack(channel, claimedById, delivered, failures, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            System.out.println("❌ Notification retry via " + channel
+                + " not recorded, claimed again once the lease runs out: " + e.getMessage());
+        } finally {
+            retrying.remove(channel);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Waits until every claimed share has been retried and written back.
+     *
+     * @return false if the timeout passed first
+     */
+    public boolean awaitIdle(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Notification> claim(LocalDateTime now, Set<DeliveryChannel> channels, int[] exhausted) {
+        List<Long> candidates = notificationRepository.findDueRetryIds(now, channels, Limit.of(batchSize));
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Notification> due = notificationRepository.claimDueRetries(candidates, now);
+        LocalDateTime leaseUntil = now.plus(lease);
+        List<Notification> attempts = new ArrayList<>(due.size());
+        // Dirty checking writes these as batched UPDATEs when the claim commits
+        for (Notification notification : due) {
+            if (notification.getRetryCount() >= notification.getMaxRetries()) {
+                deliveryStatistics.changed(notification.getStatus(), NotificationStatus.PERMANENTLY_FAILED);
+                notification.setStatus(NotificationStatus.PERMANENTLY_FAILED);
+                notification.setNextAttemptAt(null);
+                exhausted[0]++;
+                permanentlyFailed.increment();
+            } else {
+                notification.setNextAttemptAt(leaseUntil);
+                attempts.add(notification);
+            }
+        }
+        return attempts;
+    }
+
+    private void writeBack(DeliveryChannel channel, Map<Long, Notification> claimed, List<Long> ids,
+                           Map<Long, String> failures, LocalDateTime now) {
+        if (!ids.isEmpty()) {
+            NotificationStatus sent = channel == DeliveryChannel.IN_APP ? NotificationStatus.DELIVERED : NotificationStatus.SENT;
+            if (channel == DeliveryChannel.IN_APP) {
+                notificationRepository.markSent(ids, sent, "Delivered", now, now);
+            } else {
+                notificationRepository.markSent(ids, sent, "Sent", now, null);
+            }
+            List<Notification> rows = new ArrayList<>(ids.size());
+            ids.forEach(id -> rows.add(claimed.get(id)));
+            deliveryStatistics.changed(rows, sent);
+            succeeded.add(ids.size());
+            succeededByChannel.get(channel).add(ids.size());
+        }
+        if (failures.isEmpty()) {
+            return;
+        }
+        for (Notification notification : notificationRepository.findAllById(failures.keySet())) {
+            int failuresSoFar = notification.getRetryCount() + 1;
+            notification.setRetryCount(failuresSoFar);
+            notification.setDeliveryStatus("Failed");
+            notification.setFailureReason(failures.get(notification.getId()));
+            if (failuresSoFar < notification.getMaxRetries()) {
+                deliveryStatistics.changed(notification.getStatus(), NotificationStatus.QUEUED_FOR_RETRY);
+                notification.setStatus(NotificationStatus.QUEUED_FOR_RETRY);
+                notification.setNextAttemptAt(
+                    RetryBackoff.nextAttemptAt(notification.getDeliveryChannel(), failuresSoFar, now));
+                rescheduled.increment();
+            } else {
+                deliveryStatistics.changed(notification.getStatus(), NotificationStatus.PERMANENTLY_FAILED);
+                notification.setStatus(NotificationStatus.PERMANENTLY_FAILED);
+                notification.setNextAttemptAt(null);
+                permanentlyFailed.increment();
+            }
+            failedByChannel.get(notification.getDeliveryChannel()).increment();
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static List<Long> ids(List<Notification> notifications) {
+        List<Long> ids = new ArrayList<>(notifications.size());
+        notifications.forEach(n -> ids.add(n.getId()));
+        return ids;
+    }
+
+    // ========== MONITORING ==========
+
+    public Metrics metrics() {
+        Map<DeliveryChannel, Long> succeededCounts = new EnumMap<>(DeliveryChannel.class);
+        Map<DeliveryChannel, Long> failedCounts = new EnumMap<>(DeliveryChannel.class);
+        for (DeliveryChannel channel : DeliveryChannel.values()) {
+            succeededCounts.put(channel, succeededByChannel.get(channel).sum());
+            failedCounts.put(channel, failedByChannel.get(channel).sum());
+        }
+        return new Metrics(notificationRepository.countDueRetries(LocalDateTime.now()), claimed.sum(),
+            succeeded.sum(), rescheduled.sum(), permanentlyFailed.sum(), batches.sum(), failedBatches.sum(),
+            lastBatchSize.get(), succeededCounts, failedCounts);
+    }
+
+    /**
+     * Point-in-time retry counters.
+     */
+    public static final class Metrics {
+        private final long due;
+        private final long claimed;
+        private final long succeeded;
+        private final long rescheduled;
+        private final long permanentlyFailed;
+        private final long batches;
+        private final long failedBatches;
+        private final long lastBatchSize;
+        private final Map<DeliveryChannel, Long> succeededByChannel;
+        private final Map<DeliveryChannel, Long> failedByChannel;
+
+        private Metrics(long due, long claimed, long succeeded, long rescheduled, long permanentlyFailed,
+                        long batches, long failedBatches, long lastBatchSize,
+                        Map<DeliveryChannel, Long> succeededByChannel, Map<DeliveryChannel, Long> failedByChannel) {
+            this.due = due;
+            this.claimed = claimed;
+            this.succeeded = succeeded;
+            this.rescheduled = rescheduled;
+            this.permanentlyFailed = permanentlyFailed;
+            this.batches = batches;
+            this.failedBatches = failedBatches;
+            this.lastBatchSize = lastBatchSize;
+            this.succeededByChannel = Collections.unmodifiableMap(succeededByChannel);
+            this.failedByChannel = Collections.unmodifiableMap(failedByChannel);
+        }
+
+        /** Retries whose nextAttemptAt has passed and that no node holds */
+        public long getDue() {
+            return due;
+        }
+
+        public long getClaimed() {
+            return claimed;
+        }
+
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        /** Failed again and queued with a longer backoff */
+        public long getRescheduled() {
+            return rescheduled;
+        }
+
+        /** Out of retries (the row's own maxRetries) */
+        public long getPermanentlyFailed() {
+            return permanentlyFailed;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        /** Claims or write-backs rolled back; their rows come due again */
+        public long getFailedBatches() {
+            return failedBatches;
+        }
+
+        public long getLastBatchSize() {
+            return lastBatchSize;
+        }
+
+        public Map<DeliveryChannel, Long> getSucceededByChannel() {
+            return succeededByChannel;
+        }
+
+        public Map<DeliveryChannel, Long> getFailedByChannel() {
+            return failedByChannel;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.um.helpdesk.service;
 
+import com.um.helpdesk.dto.BroadcastProgress;
+import com.um.helpdesk.dto.BroadcastRequest;
 import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DeliveryBreakdown;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface NotificationService {
@@ -13,7 +17,8 @@ public interface NotificationService {
     List<Notification> getNotificationsByUser(Long userId);
     List<Notification> getUnreadNotifications(Long userId);
     void markAsRead(Long notificationId);
-    void markAllAsRead(Long userId);
+    int markAllAsRead(Long userId);
+    int markAsReadUpTo(Long userId, Long notificationId);
     Notification updateNotification(Long id, Notification notification);
     void deleteNotification(Long id);
     long getUnreadCount(Long userId);
@@ -26,6 +31,9 @@ public interface NotificationService {
     void sendTicketResolvedNotification(Long ticketId, Long userId);
     void sendTicketReopenedNotification(Long ticketId, Long technicianId);
 
+    // Saves notifications for relayed ticket events, skipping already-recorded idempotency keys
+    int recordEvents(List<NotificationEvent> events);
+
     // ========== FUNCTIONALITY 3: Reminder & Escalation System ==========
 
     void sendReminderNotification(Long ticketId, Long technicianId);
@@ -38,4 +46,12 @@ public interface NotificationService {
     void updateDeliveryStatus(Long notificationId, String status);
     void retryFailedDeliveries();
     String getDeliveryStatistics();
+    // Notifications created in [from, to), counted per channel, type and status
+    List<DeliveryBreakdown> getDeliveryBreakdown(LocalDateTime from, LocalDateTime to);
+
+    // ========== FUNCTIONALITY 5: Broadcast to an Audience ==========
+
+    // Queues one notification per member of the audience; poll the returned id for progress
+    BroadcastProgress broadcast(BroadcastRequest request);
+    BroadcastProgress getBroadcastProgress(String broadcastId);
 }
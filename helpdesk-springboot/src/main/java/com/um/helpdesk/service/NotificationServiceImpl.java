@@ -2,9 +2,14 @@ package com.um.helpdesk.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import com.um.helpdesk.dto.BroadcastProgress;
+import com.um.helpdesk.dto.BroadcastRequest;
 import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DeliveryBreakdown;
 import com.um.helpdesk.repository.NotificationRepository;
 import com.um.helpdesk.repository.UserRepository;
 
@@ -14,18 +19,50 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final NotificationPipeline pipeline;
+    private final EscalationScheduler escalationScheduler;
+    private final NotificationRetryEngine retryEngine;
+    private final UnreadCountTracker unreadCounts;
+    private final DeliveryStatisticsTracker deliveryStatistics;
+    private final NotificationStreamHub streams;
+    private final NotificationBroadcaster broadcaster;
 
     public NotificationServiceImpl(NotificationRepository notificationRepository,
-                                   UserRepository userRepository) {
+                                   UserRepository userRepository,
+                                   NotificationPipeline pipeline,
+                                   EscalationScheduler escalationScheduler,
+                                   NotificationRetryEngine retryEngine,
+                                   UnreadCountTracker unreadCounts,
+                                   DeliveryStatisticsTracker deliveryStatistics,
+                                   NotificationStreamHub streams,
+                                   NotificationBroadcaster broadcaster) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.pipeline = pipeline;
+        this.escalationScheduler = escalationScheduler;
+        this.retryEngine = retryEngine;
+        this.unreadCounts = unreadCounts;
+        this.deliveryStatistics = deliveryStatistics;
+        this.streams = streams;
+        this.broadcaster = broadcaster;
     }
 
     // ========== FUNCTIONALITY 1: Notification Management (CRUD) ==========
 
     @Override
     public Notification createNotification(Notification notification) {
-        return notificationRepository.save(notification);
+        boolean isNew = notification.getId() == null;
+        Notification saved = notificationRepository.save(notification);
+        if (isNew && !saved.isRead() && saved.getRecipient() != null) {
+            unreadCounts.adjust(saved.getRecipient().getId(), +1);
+        }
+        if (isNew) {
+            deliveryStatistics.created(List.of(saved));
+            streams.created(List.of(saved));
+        } else {
+            deliveryStatistics.invalidate();    // a full update may have changed the status
+        }
+        return saved;
     }
 
     @Override
@@ -57,6 +94,8 @@ public class NotificationServiceImpl implements NotificationService {
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
             .orElseThrow(() -> new RuntimeException("Notification not found"));
+        markedRead(notification);
+        deliveryStatistics.changed(notification.getStatus(), NotificationStatus.READ);
 
         notification.setRead(true);
         notification.setReadAt(LocalDateTime.now());
@@ -66,19 +105,23 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    public void markAllAsRead(Long userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Notification> unreadNotifications =
-            notificationRepository.findByRecipientAndIsReadFalse(user);
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllRead(userId, LocalDateTime.now());
+        unreadCounts.adjust(userId, -updated);
+        if (updated > 0) {
+            deliveryStatistics.invalidate();    // statuses the rows had are not known here
+        }
+        return updated;
+    }
 
-        for (Notification notification : unreadNotifications) {
-            notification.setRead(true);
-            notification.setReadAt(LocalDateTime.now());
-            notification.setStatus(NotificationStatus.READ);
-            notificationRepository.save(notification);
+    @Override
+    public int markAsReadUpTo(Long userId, Long notificationId) {
+        int updated = notificationRepository.markReadUpTo(userId, notificationId, LocalDateTime.now());
+        unreadCounts.adjust(userId, -updated);
+        if (updated > 0) {
+            deliveryStatistics.invalidate();
         }
+        return updated;
     }
 
     @Override
@@ -95,165 +138,83 @@ public class NotificationServiceImpl implements NotificationService {
 
     @Override
     public void deleteNotification(Long id) {
-        if (!notificationRepository.existsById(id)) {
-            throw new RuntimeException("Notification not found with id: " + id);
-        }
-        notificationRepository.deleteById(id);
+        Notification notification = notificationRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Notification not found with id: " + id));
+        markedRead(notification);
+        deliveryStatistics.deleted(notification);
+        notificationRepository.delete(notification);
     }
 
+    // Served from UnreadCountTracker; no user lookup, and no query once the counts are loaded
     @Override
     public long getUnreadCount(Long userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.countByRecipientAndIsReadFalse(user);
+        return unreadCounts.getUnreadCount(userId);
+    }
+
+    // An unread notification leaving the unread set, whether read or deleted
+    private void markedRead(Notification notification) {
+        if (!notification.isRead() && notification.getRecipient() != null) {
+            unreadCounts.adjust(notification.getRecipient().getId(), -1);
+        }
     }
 
     // ========== FUNCTIONALITY 2: Automated Event-Based Notifications ==========
+    // Queued on NotificationPipeline: saved in batches and delivered after the caller returns
 
     @Override
     public void sendTicketSubmittedNotification(Long ticketId, Long userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Notification notification = new Notification();
-        notification.setRecipient(user);
-        notification.setTitle("Ticket Submitted Successfully");
-        notification.setMessage("Your ticket #" + ticketId + " has been submitted successfully and is now in the queue.");
-        notification.setType(NotificationType.TICKET_SUBMITTED);
-        notification.setPriority(NotificationPriority.NORMAL);
-        notification.setEventType("TICKET_SUBMITTED");
-        notification.setRelatedTicketId(ticketId);
-        notification.setDeliveryChannel(DeliveryChannel.IN_APP);
-
-        createNotification(notification);
-        sendNotification(notification.getId(), DeliveryChannel.IN_APP);
+        pipeline.publish(NotificationEvent.ticketSubmitted(ticketId, userId));
     }
 
     @Override
     public void sendTicketAssignedNotification(Long ticketId, Long technicianId) {
-        User technician = userRepository.findById(technicianId)
-            .orElseThrow(() -> new RuntimeException("Technician not found"));
-
-        Notification notification = new Notification();
-        notification.setRecipient(technician);
-        notification.setTitle("New Ticket Assigned");
-        notification.setMessage("Ticket #" + ticketId + " has been assigned to you. Please review and take action.");
-        notification.setType(NotificationType.TICKET_ASSIGNED);
-        notification.setPriority(NotificationPriority.HIGH);
-        notification.setEventType("TICKET_ASSIGNED");
-        notification.setRelatedTicketId(ticketId);
-        notification.setDeliveryChannel(DeliveryChannel.IN_APP);
-
-        createNotification(notification);
-        sendNotification(notification.getId(), DeliveryChannel.IN_APP);
+        pipeline.publish(NotificationEvent.ticketAssigned(ticketId, technicianId));
     }
 
     @Override
     public void sendTicketStatusChangedNotification(Long ticketId, String oldStatus, String newStatus) {
-        // For demo, send to admin (ID=1)
-        User user = userRepository.findById(1L).orElse(null);
-        if (user == null) return;
-
-        Notification notification = new Notification();
-        notification.setRecipient(user);
-        notification.setTitle("Ticket Status Updated");
-        notification.setMessage("Ticket #" + ticketId + " status changed from " + oldStatus + " to " + newStatus);
-        notification.setType(NotificationType.TICKET_STATUS_CHANGED);
-        notification.setPriority(NotificationPriority.NORMAL);
-        notification.setEventType("STATUS_CHANGED");
-        notification.setRelatedTicketId(ticketId);
-        notification.setDeliveryChannel(DeliveryChannel.IN_APP);
-
-        createNotification(notification);
-        sendNotification(notification.getId(), DeliveryChannel.IN_APP);
+        // For demo, send to admin (ID=1); skipped when there is none
+        if (!userRepository.existsById(1L)) {
+            return;
+        }
+        pipeline.publish(NotificationEvent.ticketStatusChanged(ticketId, 1L, oldStatus, newStatus));
     }
 
     @Override
     public void sendTicketResolvedNotification(Long ticketId, Long userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Notification notification = new Notification();
-        notification.setRecipient(user);
-        notification.setTitle("Ticket Resolved");
-        notification.setMessage("Great news! Your ticket #" + ticketId + " has been resolved. Please provide feedback.");
-        notification.setType(NotificationType.TICKET_RESOLVED);
-        notification.setPriority(NotificationPriority.HIGH);
-        notification.setEventType("TICKET_RESOLVED");
-        notification.setRelatedTicketId(ticketId);
-        notification.setDeliveryChannel(DeliveryChannel.IN_APP);
-
-        createNotification(notification);
-        sendNotification(notification.getId(), DeliveryChannel.IN_APP);
+        pipeline.publish(NotificationEvent.ticketResolved(ticketId, userId));
     }
 
     @Override
     public void sendTicketReopenedNotification(Long ticketId, Long technicianId) {
-        User technician = userRepository.findById(technicianId)
-            .orElseThrow(() -> new RuntimeException("Technician not found"));
-
-        Notification notification = new Notification();
-        notification.setRecipient(technician);
-        notification.setTitle("Ticket Reopened");
-        notification.setMessage("Ticket #" + ticketId + " has been reopened and requires your attention.");
-        notification.setType(NotificationType.TICKET_REOPENED);
-        notification.setPriority(NotificationPriority.HIGH);
-        notification.setEventType("TICKET_REOPENED");
-        notification.setRelatedTicketId(ticketId);
-        notification.setDeliveryChannel(DeliveryChannel.IN_APP);
-
-        createNotification(notification);
-        sendNotification(notification.getId(), DeliveryChannel.IN_APP);
+        pipeline.publish(NotificationEvent.ticketReopened(ticketId, technicianId));
+    }
+
+    @Override
+    public int recordEvents(List<NotificationEvent> events) {
+        // Joins the relay's transaction; delivery starts once it commits
+        return pipeline.saveAndDeliver(events).size();
     }
 
     // ========== FUNCTIONALITY 3: Reminder & Escalation System ==========
 
     @Override
     public void sendReminderNotification(Long ticketId, Long technicianId) {
-        User technician = userRepository.findById(technicianId)
-            .orElseThrow(() -> new RuntimeException("Technician not found"));
-
-        Notification notification = new Notification();
-        notification.setRecipient(technician);
-        notification.setTitle("Reminder: Overdue Ticket");
-        notification.setMessage("Reminder: Ticket #" + ticketId + " is overdue. Please take action immediately.");
-        notification.setType(NotificationType.REMINDER);
-        notification.setPriority(NotificationPriority.URGENT);
-        notification.setEventType("OVERDUE_REMINDER");
-        notification.setRelatedTicketId(ticketId);
-        notification.setDeliveryChannel(DeliveryChannel.IN_APP);
-        notification.setEscalationLevel(1);
-
-        createNotification(notification);
-        sendNotification(notification.getId(), DeliveryChannel.IN_APP);
+        pipeline.publish(NotificationEvent.reminder(ticketId, technicianId));
     }
 
     @Override
     public void sendEscalationNotification(Long ticketId, Long supervisorId, int escalationLevel) {
-        User supervisor = userRepository.findById(supervisorId)
-            .orElseThrow(() -> new RuntimeException("Supervisor not found"));
-
-        String levelText = escalationLevel == 2 ? "Supervisor" : "Administrator";
-
-        Notification notification = new Notification();
-        notification.setRecipient(supervisor);
-        notification.setTitle("ESCALATION: Overdue Ticket");
-        notification.setMessage("URGENT: Ticket #" + ticketId + " has been escalated to " + levelText + " level due to delays.");
-        notification.setType(NotificationType.ESCALATION);
-        notification.setPriority(NotificationPriority.URGENT);
-        notification.setEventType("ESCALATION");
-        notification.setRelatedTicketId(ticketId);
-        notification.setDeliveryChannel(DeliveryChannel.IN_APP);
-        notification.setEscalationLevel(escalationLevel);
-
-        createNotification(notification);
-        sendNotification(notification.getId(), DeliveryChannel.IN_APP);
+        pipeline.publish(NotificationEvent.escalation(ticketId, supervisorId, escalationLevel));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)    // each batch commits on its own
     public void checkAndProcessOverdueTickets() {
+        // The scheduler also runs this every tick; calling it just fires whatever is due now
         System.out.println("Checking for overdue tickets...");
-        System.out.println("Overdue ticket check completed.");
+        int escalated = escalationScheduler.processDue();
+        System.out.println("Overdue ticket check completed: " + escalated + " ticket(s) escalated.");
     }
 
     // ========== FUNCTIONALITY 4: Notification Delivery Management ==========
@@ -262,6 +223,18 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendNotification(Long notificationId, DeliveryChannel channel) {
         Notification notification = notificationRepository.findById(notificationId)
             .orElseThrow(() -> new RuntimeException("Notification not found"));
+        NotificationStatus previous = notification.getStatus();
+
+        if (pipeline.deliversExternally(channel)) {
+            // Sent on the channel's own executor after this commits; the outcome is written back from there
+            notification.setDeliveryChannel(channel);
+            notification.setStatus(NotificationStatus.PENDING);
+            notification.setDeliveryStatus("Sending");
+            deliveryStatistics.changed(previous, NotificationStatus.PENDING);
+            pipeline.deliver(List.of(notificationRepository.save(notification)));
+            System.out.println("Notification queued for delivery via " + channel + ": " + notification.getTitle());
+            return;
+        }
 
         try {
             notification.setStatus(NotificationStatus.SENT);
@@ -274,6 +247,7 @@ public class NotificationServiceImpl implements NotificationService {
                 notification.setDeliveryStatus("Delivered");
             }
 
+            deliveryStatistics.changed(previous, notification.getStatus());
             notificationRepository.save(notification);
             System.out.println("Notification sent via " + channel + ": " + notification.getTitle());
 
@@ -285,10 +259,13 @@ public class NotificationServiceImpl implements NotificationService {
 
             if (notification.getRetryCount() < notification.getMaxRetries()) {
                 notification.setStatus(NotificationStatus.QUEUED_FOR_RETRY);
+                notification.setNextAttemptAt(RetryBackoff.nextAttemptAt(
+                    channel, notification.getRetryCount(), LocalDateTime.now()));
             } else {
                 notification.setStatus(NotificationStatus.PERMANENTLY_FAILED);
             }
 
+            deliveryStatistics.changed(previous, notification.getStatus());
             notificationRepository.save(notification);
             System.out.println("Notification delivery failed: " + e.getMessage());
         }
@@ -298,6 +275,7 @@ public class NotificationServiceImpl implements NotificationService {
     public void updateDeliveryStatus(Long notificationId, String status) {
         Notification notification = notificationRepository.findById(notificationId)
             .orElseThrow(() -> new RuntimeException("Notification not found"));
+        NotificationStatus previous = notification.getStatus();
 
         notification.setDeliveryStatus(status);
 
@@ -311,6 +289,7 @@ public class NotificationServiceImpl implements NotificationService {
                 notification.setDeliveredAt(LocalDateTime.now());
                 break;
             case "READ":
+                markedRead(notification);
                 notification.setStatus(NotificationStatus.READ);
                 notification.setReadAt(LocalDateTime.now());
                 notification.setRead(true);
@@ -320,36 +299,34 @@ public class NotificationServiceImpl implements NotificationService {
                 break;
         }
 
+        deliveryStatistics.changed(previous, notification.getStatus());
         notificationRepository.save(notification);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)    // claims and write-backs commit per batch
     public void retryFailedDeliveries() {
-        List<Notification> failedNotifications =
-            notificationRepository.findByStatusAndRetryCountLessThan(
-                NotificationStatus.QUEUED_FOR_RETRY, 3);
-
-        System.out.println("Retrying " + failedNotifications.size() + " failed deliveries...");
-
-        for (Notification notification : failedNotifications) {
-            sendNotification(notification.getId(), notification.getDeliveryChannel());
+        // The retry engine also polls on its own; this drains whatever is due now
+        int retried = 0;
+        int batch;
+        while ((batch = retryEngine.retryDue()) > 0) {
+            retried += batch;
+            // Each channel's share is retried on its own worker; a busy channel is not claimed again
+            retryEngine.awaitIdle(NotificationRetryEngine.CLAIM_LEASE);
         }
+        System.out.println("Retried " + retried + " failed deliveries");
     }
 
     @Override
     public String getDeliveryStatistics() {
-        List<Notification> allNotifications = notificationRepository.findAll();
-
-        long total = allNotifications.size();
-        long sent = allNotifications.stream()
-            .filter(n -> n.getStatus() == NotificationStatus.SENT).count();
-        long delivered = allNotifications.stream()
-            .filter(n -> n.getStatus() == NotificationStatus.DELIVERED).count();
-        long read = allNotifications.stream()
-            .filter(n -> n.getStatus() == NotificationStatus.READ).count();
-        long failed = allNotifications.stream()
-            .filter(n -> n.getStatus() == NotificationStatus.FAILED ||
-                         n.getStatus() == NotificationStatus.PERMANENTLY_FAILED).count();
+        // Per-status counts from DeliveryStatisticsTracker; no rows are loaded
+        Map<NotificationStatus, Long> counts = deliveryStatistics.getCounts();
+
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        long sent = counts.get(NotificationStatus.SENT);
+        long delivered = counts.get(NotificationStatus.DELIVERED);
+        long read = counts.get(NotificationStatus.READ);
+        long failed = counts.get(NotificationStatus.FAILED) + counts.get(NotificationStatus.PERMANENTLY_FAILED);
 
         StringBuilder stats = new StringBuilder();
         stats.append("=== NOTIFICATION DELIVERY STATISTICS ===\n");
@@ -367,4 +344,28 @@ public class NotificationServiceImpl implements NotificationService {
 
         return stats.toString();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeliveryBreakdown> getDeliveryBreakdown(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new RuntimeException("A time range with from before to is required");
+        }
+        return notificationRepository.countByChannelAndType(from, to);
+    }
+
+    // ========== FUNCTIONALITY 5: Broadcast to an Audience ==========
+
+    // Runs in the background in chunked INSERT ... SELECTs, see NotificationBroadcaster
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BroadcastProgress broadcast(BroadcastRequest request) {
+        return broadcaster.submit(request);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BroadcastProgress getBroadcastProgress(String broadcastId) {
+        return broadcaster.getProgress(broadcastId);
+    }
 }
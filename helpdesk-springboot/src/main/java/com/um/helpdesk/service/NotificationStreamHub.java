@@ -0,0 +1,468 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.dto.NotificationStreamEvent;
+import com.um.helpdesk.entity.Notification;
+import com.um.helpdesk.entity.NotificationStatus;
+import com.um.helpdesk.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pushes notifications to connected clients over Server-Sent Events.
+ *
+ * Each open stream is an SseEmitter on an async servlet request, so an idle connection holds no
+ * thread. Events for a stream go into that stream's own bounded queue, after commit on the
+ * caller's thread, and a small writer pool drains each queue with at most one writer per stream,
+ * so a client that reads slowly backs up only its own queue. A stream that falls
+ * STREAM_QUEUE_CAPACITY events behind, or whose write has been blocked for SEND_TIMEOUT, is
+ * completed; the client reconnects and is replayed what it missed. A heartbeat thread queues a
+ * comment on an interval, which keeps proxies from closing idle streams and finds clients that
+ * went away, and completes the stalled streams.
+ *
+ * "created" events carry a cursor, the notification's createdAt and id, as their event id
+ * ("delivered" events carry none, so they do not move the browser's Last-Event-ID back). Ids come
+ * from a pooled sequence and transactions commit out of order, so a notification can become
+ * visible after one with a higher id or a later createdAt has been streamed. A client reconnecting
+ * with Last-Event-ID is therefore replayed everything created from REPLAY_OVERLAP before its
+ * cursor, in (createdAt, id) order, up to REPLAY_LIMIT; beyond that a "resync" event tells it to
+ * reload its inbox. The stream is also registered before the replay runs, so an event can arrive
+ * twice around a reconnect but is not lost; clients drop notification ids they have seen.
+ */
+@Component
+public class NotificationStreamHub {
+
+    static final Duration EMITTER_TIMEOUT = Duration.ofMinutes(30);    // the browser reconnects with Last-Event-ID
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(25);
+    static final int REPLAY_LIMIT = 200;
+    // Longer than a notification takes from being built to being committed
+    static final Duration REPLAY_OVERLAP = Duration.ofSeconds(30);
+    static final int STREAM_QUEUE_CAPACITY = 256;
+    static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+    static final int WRITER_THREADS = 4;
+
+    static final String CREATED = "created";
+    static final String DELIVERED = "delivered";
+    static final String RESYNC = "resync";
+
+    private final NotificationRepository notificationRepository;
+    private final Supplier<SseEmitter> emitterFactory;
+    private final long heartbeatIntervalMillis;
+    private final long sendTimeoutNanos;
+    private final Map<Long, Set<Subscriber>> streams = new ConcurrentHashMap<>();
+    private final ExecutorService writers;
+    private final ScheduledExecutorService heartbeat;
+
+    // Metrics
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    @Autowired
+    public NotificationStreamHub(NotificationRepository notificationRepository) {
+        this(notificationRepository, () -> new SseEmitter(EMITTER_TIMEOUT.toMillis()), HEARTBEAT_INTERVAL,
+            SEND_TIMEOUT);
+    }
+
+    NotificationStreamHub(NotificationRepository notificationRepository, Supplier<SseEmitter> emitterFactory,
+                          Duration heartbeatInterval, Duration sendTimeout) {
+        this.notificationRepository = notificationRepository;
+        this.emitterFactory = emitterFactory;
+        this.heartbeatIntervalMillis = heartbeatInterval.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        // Unbounded, but holds at most one drain task per open stream
+        this.writers = Executors.newFixedThreadPool(WRITER_THREADS, r -> daemon(r, "notification-stream-writer"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "notification-stream-heartbeat"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        writers.shutdownNow();
+        streams.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        streams.clear();
+    }
+
+    // ========== SUBSCRIBE ==========
+
+    /**
+     * Opens a stream for the recipient, first replaying what was missed after lastEventId (if given).
+     */
+    public SseEmitter subscribe(Long recipientId, String lastEventId) {
+        SseEmitter emitter = emitterFactory.get();
+        Subscriber subscriber = new Subscriber(recipientId, emitter);
+        streams.computeIfAbsent(recipientId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        opened.increment();
+        Runnable remove = () -> remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Written on the request thread, which the response buffers until the handler returns
+        try {
+            // Flushes the response headers so the client sees the stream open at once
+            emitter.send(SseEmitter.event().comment("connected"));
+            if (lastEventId != null) {
+                replay(recipientId, lastEventId, emitter);
+            }
+        } catch (IOException | IllegalStateException e) {
+            failed(subscriber, e);
+        }
+        return emitter;
+    }
+
+    private void replay(Long recipientId, String lastEventId, SseEmitter emitter) throws IOException {
+        Cursor last = lastSeen(lastEventId);
+        if (last == null) {
+            resyncs.increment();
+            emitter.send(SseEmitter.event().name(RESYNC).data("Unknown Last-Event-ID"));
+            return;
+        }
+        List<Notification> missed = notificationRepository.findCreatedSince(recipientId,
+            last.createdAt().minus(REPLAY_OVERLAP), Limit.of(REPLAY_LIMIT + 1));
+        if (missed.size() > REPLAY_LIMIT) {
+            resyncs.increment();
+            emitter.send(SseEmitter.event().name(RESYNC).data(missed.size() + "+ notifications missed"));
+            return;
+        }
+        for (Notification notification : missed) {
+            if (notification.getId().equals(last.id())) {
+                continue;    // the one the client reported
+            }
+            emitter.send(event(CREATED, NotificationStreamEvent.of(notification)));
+            replayed.increment();
+        }
+    }
+
+    // The createdAt and id a cursor names; a bare id, from before cursors, is looked up
+    private Cursor lastSeen(String lastEventId) {
+        try {
+            int separator = lastEventId.lastIndexOf('_');
+            if (separator < 0) {
+                return notificationRepository.findById(Long.valueOf(lastEventId.trim()))
+                    .map(n -> new Cursor(n.getCreatedAt(), n.getId())).orElse(null);
+            }
+            return new Cursor(LocalDateTime.parse(lastEventId.substring(0, separator)),
+                Long.valueOf(lastEventId.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    static String cursor(NotificationStreamEvent event) {
+        return event.createdAt() + "_" + event.id();
+    }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    // ========== PUBLISH ==========
+
+    /**
+     * Sends the notifications to their recipients' open streams once the current transaction commits.
+     */
+    public void created(List<Notification> notifications) {
+        publish(CREATED, notifications, null);
+    }
+
+    /**
+     * Tells the recipients' open streams the notifications reached the given status.
+     */
+    public void delivered(List<Notification> notifications, NotificationStatus status) {
+        publish(DELIVERED, notifications, status);
+    }
+
+    /**
+     * The given recipients that have at least one open stream.
+     */
+    public Set<Long> subscribedAmong(Collection<Long> recipientIds) {
+        if (streams.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> subscribed = new HashSet<>();
+        for (Long recipientId : recipientIds) {
+            if (streams.containsKey(recipientId)) {
+                subscribed.add(recipientId);
+            }
+        }
+        return subscribed;
+    }
+
+    private void publish(String name, List<Notification> notifications, NotificationStatus status) {
+        if (streams.isEmpty()) {
+            return;
+        }
+        // Built now, on the caller's thread, while the entities are at hand
+        Map<Long, List<NotificationStreamEvent>> byRecipient = new HashMap<>();
+        for (Notification notification : notifications) {
+            Long recipientId = notification.getRecipient() != null ? notification.getRecipient().getId() : null;
+            if (recipientId != null && streams.containsKey(recipientId)) {
+                byRecipient.computeIfAbsent(recipientId, id -> new ArrayList<>())
+                    .add(status == null ? NotificationStreamEvent.of(notification)
+                        : NotificationStreamEvent.of(notification, status));
+            }
+        }
+        if (!byRecipient.isEmpty()) {
+            afterCommit(() -> byRecipient.forEach((recipientId, events) -> send(name, recipientId, events)));
+        }
+    }
+
+    // Only queues the events; never blocks on a client
+    private void send(String name, Long recipientId, List<NotificationStreamEvent> events) {
+        Set<Subscriber> subscribers = streams.get(recipientId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            for (NotificationStreamEvent event : events) {
+                if (!subscriber.enqueue(event(name, event), true)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Completes streams whose write has been blocked too long, and queues a heartbeat on the rest
+    void sendHeartbeat() {
+        long now = System.nanoTime();
+        streams.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            long started = subscriber.sendStartedNanos;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                stalled.increment();
+                failed(subscriber, new IOException("Write blocked for over " + sendTimeoutNanos / 1_000_000 + " ms"));
+            } else {
+                subscriber.enqueue(SseEmitter.event().comment("heartbeat"), false);
+            }
+        }));
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, NotificationStreamEvent event) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(event);
+        return CREATED.equals(name) ? builder.id(cursor(event)) : builder;
+    }
+
+    // A write failed or fell behind: the client is gone, too slow, or the request already finished
+    private void failed(Subscriber subscriber, Exception e) {
+        sendFailures.increment();
+        remove(subscriber);
+        subscriber.emitter.completeWithError(e);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.queue.clear();
+        Set<Subscriber> subscribers = streams.get(subscriber.recipientId);
+        if (subscribers != null && subscribers.remove(subscriber)) {
+            closed.increment();
+            if (subscribers.isEmpty()) {
+                streams.remove(subscriber.recipientId, subscribers);
+            }
+        }
+    }
+
+    /**
+     * One open stream and the events waiting to be written to it, in order, by one writer at a time.
+     */
+    private final class Subscriber {
+        private final Long recipientId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Outgoing> queue = new ArrayBlockingQueue<>(STREAM_QUEUE_CAPACITY);
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private volatile long sendStartedNanos;    // 0 while no write is in progress
+
+        private Subscriber(Long recipientId, SseEmitter emitter) {
+            this.recipientId = recipientId;
+            this.emitter = emitter;
+        }
+
+        // false if the stream fell too far behind and was completed
+        private boolean enqueue(SseEmitter.SseEventBuilder event, boolean counted) {
+            if (!queue.offer(new Outgoing(event, counted))) {
+                overflowed.increment();
+                failed(this, new IOException("Fell " + STREAM_QUEUE_CAPACITY + " events behind"));
+                return false;
+            }
+            drain();
+            return true;
+        }
+
+        private void drain() {
+            if (writing.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::write);
+                } catch (RejectedExecutionException e) {
+                    writing.set(false);    // shutting down
+                }
+            }
+        }
+
+        private void write() {
+            try {
+                Outgoing next;
+                while ((next = queue.poll()) != null) {
+                    sendStartedNanos = System.nanoTime();
+                    emitter.send(next.event);
+                    sendStartedNanos = 0;
+                    if (next.counted) {
+                        eventsSent.increment();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                sendStartedNanos = 0;
+                writing.set(false);
+                failed(this, e);
+                return;
+            }
+            writing.set(false);
+            if (!queue.isEmpty()) {    // queued after the last poll
+                drain();
+            }
+        }
+    }
+
+    private record Outgoing(SseEmitter.SseEventBuilder event, boolean counted) {
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ========== MONITORING ==========
+
+    public Metrics metrics() {
+        int open = 0;
+        for (Set<Subscriber> subscribers : streams.values()) {
+            open += subscribers.size();
+        }
+        int queued = 0;
+        for (Set<Subscriber> subscribers : streams.values()) {
+            for (Subscriber subscriber : subscribers) {
+                queued += subscriber.queue.size();
+            }
+        }
+        return new Metrics(open, streams.size(), opened.sum(), closed.sum(), eventsSent.sum(), replayed.sum(),
+            resyncs.sum(), sendFailures.sum(), overflowed.sum(), stalled.sum(), queued);
+    }
+
+    /**
+     * Point-in-time stream figures.
+     */
+    public static final class Metrics {
+        private final int openStreams;
+        private final int recipients;
+        private final long opened;
+        private final long closed;
+        private final long eventsSent;
+        private final long replayed;
+        private final long resyncs;
+        private final long sendFailures;
+        private final long overflowed;
+        private final long stalled;
+        private final int queuedEvents;
+
+        private Metrics(int openStreams, int recipients, long opened, long closed, long eventsSent, long replayed,
+                        long resyncs, long sendFailures, long overflowed, long stalled, int queuedEvents) {
+            this.openStreams = openStreams;
+            this.recipients = recipients;
+            this.opened = opened;
+            this.closed = closed;
+            this.eventsSent = eventsSent;
+            this.replayed = replayed;
+            this.resyncs = resyncs;
+            this.sendFailures = sendFailures;
+            this.overflowed = overflowed;
+            this.stalled = stalled;
+            this.queuedEvents = queuedEvents;
+        }
+
+        public int getOpenStreams() {
+            return openStreams;
+        }
+
+        /** Recipients with at least one open stream */
+        public int getRecipients() {
+            return recipients;
+        }
+
+        public long getOpened() {
+            return opened;
+        }
+
+        public long getClosed() {
+            return closed;
+        }
+
+        public long getEventsSent() {
+            return eventsSent;
+        }
+
+        /** Events sent from the database to reconnecting clients */
+        public long getReplayed() {
+            return replayed;
+        }
+
+        /** Reconnects that had missed more than REPLAY_LIMIT and were told to reload */
+        public long getResyncs() {
+            return resyncs;
+        }
+
+        public long getSendFailures() {
+            return sendFailures;
+        }
+
+        /** Streams completed for falling STREAM_QUEUE_CAPACITY events behind; they catch up on reconnect */
+        public long getOverflowed() {
+            return overflowed;
+        }
+
+        /** Streams completed because a write was blocked for longer than the send timeout */
+        public long getStalled() {
+            return stalled;
+        }
+
+        /** Events waiting in the open streams' queues */
+        public int getQueuedEvents() {
+            return queuedEvents;
+        }
+    }
+}
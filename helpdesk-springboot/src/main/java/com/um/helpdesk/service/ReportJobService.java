@@ -0,0 +1,268 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.ReportJobStatus;
+import com.um.helpdesk.entity.SavedReportArchive;
+import com.um.helpdesk.repository.SavedReportRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs report exports as background jobs.
+ *
+ * Jobs run on a fixed pool of workers, and at most perTypeLimit jobs of one report type run at
+ * once; waiting jobs are started oldest first, skipping types that are at their limit, so one
+ * heavy report type cannot take every worker.
+ * A submission with the same type and format as a job submitted within the coalescing window
+ * (and not failed or cancelled) returns that job instead of starting another export.
+ *
+ * The saved report record is the job: it is created as QUEUED and moves to RUNNING, then DONE,
+ * FAILED or CANCELLED. Live progress and row counts are kept in memory and overlaid on the record
+ * by getJob while the job runs. Jobs do not survive a restart: records a previous run left QUEUED or
+ * RUNNING are marked FAILED at startup, and a full queue refuses submissions with
+ * {@link ReportQueueFullException} rather than queueing them.
+ */
+@Service
+public class ReportJobService {
+
+    static final int WORKERS = 4;
+    static final int PER_TYPE_LIMIT = 1;
+    static final int MAX_QUEUED_JOBS = 100;
+    static final Duration COALESCE_WINDOW = Duration.ofSeconds(30);
+    static final Duration QUEUE_FULL_RETRY_AFTER = Duration.ofSeconds(30);
+    static final String INTERRUPTED_REASON = "Interrupted by a restart before it finished";
+    private static final List<ReportJobStatus> UNFINISHED = List.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING);
+
+    private final ReportingService reportingService;
+    private final SavedReportRepository reportRepository;
+    private final int workers;
+    private final int perTypeLimit;
+    private final long coalesceWindowNanos;
+    private final ThreadPoolExecutor executor;
+
+    // Guarded by this
+    private final Map<Long, Job> jobs = new HashMap<>();             // queued or running
+    private final Map<String, Job> recentByKey = new HashMap<>();    // last submission per type|format
+    private final Deque<Job> waiting = new ArrayDeque<>();           // FIFO across types
+    private final Map<String, Integer> runningByType = new HashMap<>();
+    private int running = 0;
+
+    @Autowired
+    public ReportJobService(ReportingService reportingService, SavedReportRepository reportRepository) {
+        this(reportingService, reportRepository, WORKERS, PER_TYPE_LIMIT, COALESCE_WINDOW);
+    }
+
+    ReportJobService(ReportingService reportingService, SavedReportRepository reportRepository,
+                     int workers, int perTypeLimit, Duration coalesceWindow) {
+        this.reportingService = reportingService;
+        this.reportRepository = reportRepository;
+        this.workers = workers;
+        this.perTypeLimit = perTypeLimit;
+        this.coalesceWindowNanos = coalesceWindow.toNanos();
+        // Never more than `workers` jobs are handed to the pool, so its queue only smooths hand-offs
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workers), r -> {
+                Thread thread = new Thread(r, "report-job-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ========== SUBMIT / POLL / CANCEL ==========
+
+    public SavedReportArchive submit(String reportType, String format) {
+        if (reportType == null || reportType.isBlank() || format == null || format.isBlank()) {
+            throw new RuntimeException("Report type and format are required");
+        }
+        String key = reportType.toLowerCase(Locale.ROOT) + "|" + format.toLowerCase(Locale.ROOT);
+
+        synchronized (this) {
+            Job recent = recentByKey.get(key);
+            if (recent != null && System.nanoTime() - recent.submittedNanos < coalesceWindowNanos
+                    && recent.status != ReportJobStatus.FAILED && recent.status != ReportJobStatus.CANCELLED) {
+                System.out.println("Report job " + recent.id + " reused for duplicate " + reportType + "/" + format);
+                return getJob(recent.id);
+            }
+            if (waiting.size() >= MAX_QUEUED_JOBS) {
+                throw new ReportQueueFullException("Report queue is full, try again later", QUEUE_FULL_RETRY_AFTER);
+            }
+
+            SavedReportArchive report = new SavedReportArchive();
+            report.setReportName(reportType + "_" + System.currentTimeMillis());
+            report.setReportType(reportType);
+            report.setFileFormat(format);
+            report.setStatus(ReportJobStatus.QUEUED);
+            report.setProgress(0);
+            report = reportRepository.save(report);
+
+            Job job = new Job(report.getId(), reportType);
+            jobs.put(job.id, job);
+            recentByKey.put(key, job);
+            waiting.add(job);
+            System.out.println("Report job " + job.id + " queued: " + reportType + "/" + format);
+            dispatch();
+            return report;
+        }
+    }
+
+    public SavedReportArchive getJob(Long id) {
+        SavedReportArchive report = reportRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Report job not found with id: " + id));
+        Job job;
+        synchronized (this) {
+            job = jobs.get(id);
+        }
+        if (job != null && job.status == ReportJobStatus.RUNNING) {
+            report.setStatus(ReportJobStatus.RUNNING);
+            report.setRowCount(job.rows.get());
+            report.setProgress(job.percent());
+        }
+        return report;
+    }
+
+    public SavedReportArchive cancel(Long id) {
+        boolean cancelledWhileQueued = false;
+        synchronized (this) {
+            Job job = jobs.get(id);
+            if (job != null) {
+                job.cancelled = true;
+                if (waiting.remove(job)) {
+                    jobs.remove(id);
+                    job.status = ReportJobStatus.CANCELLED;
+                    cancelledWhileQueued = true;
+                }
+            }
+        }
+        if (cancelledWhileQueued) {
+            finish(id, ReportJobStatus.CANCELLED, "Cancelled before it started", null);
+        }
+        // A running job stops at its next row and records CANCELLED itself
+        return getJob(id);
+    }
+
+    // Job state lives in memory, so records a previous run left unfinished would be polled forever
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        List<Long> unfinished = new ArrayList<>(reportRepository.findIdsByStatusIn(UNFINISHED));
+        synchronized (this) {
+            unfinished.removeAll(jobs.keySet());
+        }
+        if (unfinished.isEmpty()) {
+            return;
+        }
+        int failed = reportRepository.updateStatus(unfinished, UNFINISHED, ReportJobStatus.FAILED, INTERRUPTED_REASON);
+        System.out.println("❌ " + failed + " report job(s) interrupted by a restart marked FAILED");
+    }
+
+    // ========== WORKERS ==========
+
+    // Starts the oldest waiting jobs whose type is under its limit, while workers are free.
+    // Caller holds the lock.
+    private void dispatch() {
+        Iterator<Job> it = waiting.iterator();
+        while (running < workers && it.hasNext()) {
+            Job job = it.next();
+            if (runningByType.getOrDefault(job.reportType, 0) < perTypeLimit) {
+                it.remove();
+                running++;
+                runningByType.merge(job.reportType, 1, Integer::sum);
+                job.status = ReportJobStatus.RUNNING;
+                executor.execute(() -> run(job));
+            }
+        }
+    }
+
+    private void run(Job job) {
+        long startNanos = System.nanoTime();
+        try {
+            if (job.cancelled) {
+                throw new CancellationException("Cancelled before it started");
+            }
+            SavedReportArchive report = reportRepository.findById(job.id)
+                .orElseThrow(() -> new RuntimeException("Report job not found with id: " + job.id));
+            report.setStatus(ReportJobStatus.RUNNING);
+            report = reportRepository.save(report);
+
+            reportingService.runReport(report, job);
+            job.status = ReportJobStatus.DONE;
+        } catch (CancellationException e) {
+            job.status = ReportJobStatus.CANCELLED;
+            finish(job.id, ReportJobStatus.CANCELLED, e.getMessage(), startNanos);
+        } catch (RuntimeException e) {
+            job.status = ReportJobStatus.FAILED;
+            System.out.println("❌ Report job " + job.id + " failed: " + e.getMessage());
+            finish(job.id, ReportJobStatus.FAILED, e.getMessage(), startNanos);
+        } finally {
+            synchronized (this) {
+                jobs.remove(job.id);
+                running--;
+                runningByType.merge(job.reportType, -1, Integer::sum);
+                dispatch();
+            }
+        }
+    }
+
+    private void finish(Long id, ReportJobStatus status, String reason, Long startNanos) {
+        reportRepository.findById(id).ifPresent(report -> {
+            report.setStatus(status);
+            report.setFailureReason(reason);
+            if (startNanos != null) {
+                report.setDurationMillis((System.nanoTime() - startNanos) / 1_000_000);
+            }
+            reportRepository.save(report);
+        });
+    }
+
+    /**
+     * In-memory state of one queued or running job; also the progress sink for its export.
+     */
+    private static final class Job implements ReportProgress {
+
+        final Long id;
+        final String reportType;
+        final long submittedNanos = System.nanoTime();
+        final AtomicLong rows = new AtomicLong();
+        volatile long totalRows;
+        volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        volatile boolean cancelled;
+
+        Job(Long id, String reportType) {
+            this.id = id;
+            this.reportType = reportType;
+        }
+
+        @Override
+        public void started(long totalRows) {
+            this.totalRows = totalRows;
+        }
+
+        @Override
+        public void rowsWritten(long rows) {
+            this.rows.lazySet(rows);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        int percent() {
+            long total = totalRows;
+            return total == 0 ? 0 : (int) Math.min(100, rows.get() * 100 / total);
+        }
+    }
+}
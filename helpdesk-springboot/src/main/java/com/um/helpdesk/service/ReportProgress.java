@@ -0,0 +1,22 @@
+package com.um.helpdesk.service;
+
+/**
+ * Progress sink for a running export (see ReportingService.runReport).
+ * Called on the exporting thread; implementations must be cheap and thread-safe to read.
+ */
+public interface ReportProgress {
+
+    ReportProgress NONE = new ReportProgress() {
+    };
+
+    default void started(long totalRows) {
+    }
+
+    default void rowsWritten(long rows) {
+    }
+
+    // Checked once per row; returning true aborts the export
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.um.helpdesk.service;
+
+import java.time.Duration;
+
+/**
+ * A report job was refused because the job queue is full; the client should submit it again later.
+ */
+public class ReportQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ReportQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    // How long the client should wait before submitting again
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
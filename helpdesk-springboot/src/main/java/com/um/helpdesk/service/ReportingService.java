@@ -1,14 +1,22 @@
 package com.um.helpdesk.service;
 
 import com.um.helpdesk.entity.SavedReportArchive;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
 public interface ReportingService {
     SavedReportArchive generateReport(String reportType, String format);
+    // Writes the export for an already-created report record and saves it as DONE
+    SavedReportArchive runReport(SavedReportArchive report, ReportProgress progress);
     List<SavedReportArchive> getAllSavedReports();
     void deleteReport(Long id);
     void updateReport(SavedReportArchive report);
     Map<String, Integer> getTicketTrendForecast();
+    // Submissions in the last `periods` buckets of one HOURS/DAYS/WEEKS each, plus a forecast for the next
+    Map<String, Integer> getTicketTrendForecast(int periods, ChronoUnit granularity);
+    // Backtests the forecasting models over `periods` closed buckets and forecasts `horizon` buckets,
+    // overall and optionally per department
+    Map<String, Object> getTicketForecast(int periods, ChronoUnit granularity, int horizon, boolean byDepartment);
     Map<String, Object> getFailureRateAnalysis();
 }
\ No newline at end of file
@@ -1,22 +1,41 @@
 package com.um.helpdesk.service;
 
+import com.um.helpdesk.entity.Department;
+import com.um.helpdesk.entity.ReportJobStatus;
 import com.um.helpdesk.entity.SavedReportArchive;
 import com.um.helpdesk.entity.Ticket;
-import com.um.helpdesk.entity.TicketPriority;
 import com.um.helpdesk.entity.TicketStatus;
+import com.um.helpdesk.forecast.ForecastEngine;
+import com.um.helpdesk.forecast.ForecastModel;
+import com.um.helpdesk.forecast.LinearTrendModel;
+import com.um.helpdesk.repository.DepartmentSubmissionCount;
 import com.um.helpdesk.repository.SavedReportRepository;
+import com.um.helpdesk.repository.SubmissionCount;
 import com.um.helpdesk.repository.TicketRepository; // IMPORTED
+import com.um.helpdesk.repository.TicketStatusCount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.Duration;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @Service
 public class ReportingServiceImpl implements ReportingService {
@@ -27,191 +46,349 @@ public class ReportingServiceImpl implements ReportingService {
     @Autowired
     private TicketRepository ticketRepository; // INJECTED REAL REPOSITORY
 
+    @Autowired
+    private SlaTracker slaTracker;
+
+    @Autowired
+    private DepartmentCache departmentCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // REMOVED MOCK DATA INITIALIZATION
 
+    // Trend analysis: default horizon (TREND_PERIODS buckets of TREND_GRANULARITY) and the largest one accepted
+    static final int TREND_PERIODS = 4;
+    static final ChronoUnit TREND_GRANULARITY = ChronoUnit.WEEKS;
+    private static final int MAX_TREND_PERIODS = 366;
+    private static final ForecastModel TREND_MODEL = new LinearTrendModel(0);
+
+    // Capacity forecast: up to a year of hourly buckets, forecasting up to MAX_FORECAST_HORIZON buckets.
+    // One engine per granularity, with the season length of that granularity (day, week, year)
+    private static final int MAX_FORECAST_PERIODS = 24 * 366;
+    private static final int MAX_FORECAST_HORIZON = 366;
+    private static final Map<ChronoUnit, ForecastEngine> FORECAST_ENGINES = Map.of(
+        ChronoUnit.HOURS, ForecastEngine.standard(24),
+        ChronoUnit.DAYS, ForecastEngine.standard(7),
+        ChronoUnit.WEEKS, ForecastEngine.standard(52));
+
+    // Closed buckets per granularity, reused until the open bucket closes; only the latest (longest)
+    // history is kept, shorter horizons are served from its tail
+    private final Map<ChronoUnit, TrendHistory> trendCache = new ConcurrentHashMap<>();
+
+    // Report export: persistence context is cleared every CLEAR_INTERVAL rows; the file is
+    // written through a WRITE_BUFFER_BYTES buffer
+    private static final int CLEAR_INTERVAL = 1000;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
     @Override
+    @Transactional
     public SavedReportArchive generateReport(String reportType, String format) {
         SavedReportArchive report = new SavedReportArchive();
         report.setReportName(reportType + "_" + System.currentTimeMillis());
         report.setReportType(reportType);
         report.setFileFormat(format);
+        return runReport(report, ReportProgress.NONE);
+    }
 
-        // 1. Fetch Real Data
-        List<Ticket> tickets = ticketRepository.findAll();
-
-        // Optional: Filter based on reportType if needed
-        if ("OpenTickets".equalsIgnoreCase(reportType)) {
-            tickets = tickets.stream()
-                    .filter(t -> t.getStatus() == TicketStatus.OPEN)
-                    .collect(Collectors.toList());
-        } else if ("Performance".equalsIgnoreCase(reportType)) {
-            tickets = tickets.stream()
-                    .filter(t -> t.getStatus() == TicketStatus.CLOSED || t.getStatus() == TicketStatus.RESOLVED)
-                    .collect(Collectors.toList());
-        }
-
-        // 2. Generate Content
-        StringBuilder content = new StringBuilder();
-        content.append("HELPDESK SYSTEM REPORT\n");
-        content.append("Type: ").append(reportType).append("\n");
-        content.append("Generated: ").append(LocalDateTime.now()).append("\n");
-        content.append("Total Records: ").append(tickets.size()).append("\n\n");
-
-        if ("CSV".equalsIgnoreCase(format)) {
-            // Functionality 2: Custom Data Export (CSV)
-            content.append("ID,Title,Priority,Status,Submitted Date,Resolved Date\n");
-            for (Ticket t : tickets) {
-                content.append(t.getId()).append(",")
-                        .append(escapeCsv(t.getTitle())).append(",")
-                        .append(t.getPriority()).append(",")
-                        .append(t.getStatus()).append(",")
-                        .append(t.getSubmittedAt()).append(",")
-                        .append(t.getResolvedAt() != null ? t.getResolvedAt() : "N/A")
-                        .append("\n");
-            }
-        } else {
-            // Text Summary / Simple View
-            content.append("--- TICKET SUMMARY ---\n");
-            Map<TicketStatus, Long> statusCount = tickets.stream()
-                    .collect(Collectors.groupingBy(Ticket::getStatus, Collectors.counting()));
-
-            statusCount.forEach((k, v) -> content.append(k).append(": ").append(v).append("\n"));
-
-            content.append("\n--- DETAILS ---\n");
-            for(Ticket t : tickets) {
-                content.append(String.format("[%s] %s - %s (%s)\n",
-                        t.getId(), t.getTitle(), t.getStatus(), t.getPriority()));
-            }
+    @Override
+    @Transactional
+    public SavedReportArchive runReport(SavedReportArchive report, ReportProgress progress) {
+        String reportType = report.getReportType();
+        String format = report.getFileFormat();
+        long startNanos = System.nanoTime();
+
+        // 1. Filter for this report type is part of the query, so only matching rows leave the DB
+        List<TicketStatus> statuses = reportStatuses(reportType);
+        Map<TicketStatus, Long> statusCount = new EnumMap<>(TicketStatus.class);
+        long total = 0;
+        for (TicketStatusCount row : ticketRepository.countByStatusIn(statuses)) {
+            statusCount.put(row.getStatus(), row.getCount());
+            total += row.getCount();
         }
+        progress.started(total);
 
-        // 3. Write to File
+        // 2. Stream rows straight into the file: heap use does not grow with the ticket count
         String userHome = System.getProperty("user.home");
         File directory = new File(userHome, "Desktop/HelpdeskReports");
         if (!directory.exists()) directory.mkdirs();
 
         String fileName = reportType + "_" + System.currentTimeMillis() + "." + format.toLowerCase();
-        File file = new File(directory, fileName);
+        Path file = directory.toPath().resolve(fileName);
+        boolean csv = "CSV".equalsIgnoreCase(format);
+        long rows = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), WRITE_BUFFER_BYTES);
+             Stream<Ticket> tickets = ticketRepository.streamByStatusIn(statuses)) {
+
+            writer.write("HELPDESK SYSTEM REPORT\n");
+            writer.write("Type: " + reportType + "\n");
+            writer.write("Generated: " + LocalDateTime.now() + "\n");
+            writer.write("Total Records: " + total + "\n\n");
+
+            if (csv) {
+                // Functionality 2: Custom Data Export (CSV)
+                writer.write("ID,Title,Priority,Status,Submitted Date,Resolved Date\n");
+            } else {
+                // Text Summary / Simple View
+                writer.write("--- TICKET SUMMARY ---\n");
+                for (Map.Entry<TicketStatus, Long> entry : statusCount.entrySet()) {
+                    writer.write(entry.getKey() + ": " + entry.getValue() + "\n");
+                }
+                writer.write("\n--- DETAILS ---\n");
+            }
 
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(content.toString());
-            System.out.println("✅ REAL DATA REPORT CREATED: " + file.getAbsolutePath());
+            Iterator<Ticket> it = tickets.iterator();
+            while (it.hasNext()) {
+                if (progress.isCancelled()) {
+                    throw new CancellationException("Report cancelled after " + rows + " rows");
+                }
+                Ticket t = it.next();
+                if (csv) {
+                    writer.write(t.getId() + "," + escapeCsv(t.getTitle()) + "," + t.getPriority() + ","
+                            + t.getStatus() + "," + t.getSubmittedAt() + ","
+                            + (t.getResolvedAt() != null ? t.getResolvedAt() : "N/A") + "\n");
+                } else {
+                    writer.write(String.format("[%s] %s - %s (%s)\n",
+                            t.getId(), t.getTitle(), t.getStatus(), t.getPriority()));
+                }
+                progress.rowsWritten(++rows);
+                // Drop the rows already written from the persistence context
+                if (rows % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+            System.out.println("✅ REAL DATA REPORT CREATED: " + file.toAbsolutePath() + " (" + rows + " rows)");
         } catch (IOException e) {
-            e.printStackTrace(); // Handle appropriately in production
+            deletePartialFile(file);
+            throw new RuntimeException("Failed to write report: " + file.toAbsolutePath(), e);
+        } catch (RuntimeException e) {
+            deletePartialFile(file);
+            throw e;
         }
 
-        report.setFilePath(file.getAbsolutePath());
+        report.setFilePath(file.toAbsolutePath().toString());
+        report.setGeneratedDate(LocalDateTime.now());
+        report.setStatus(ReportJobStatus.DONE);
+        report.setProgress(100);
+        report.setRowCount(rows);
+        report.setDurationMillis((System.nanoTime() - startNanos) / 1_000_000);
 
         // Functionality 1: Manage Saved Reports (Save to DB)
         return reportRepository.save(report);
     }
 
+    private void deletePartialFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not delete partial report " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Ticket statuses included in each report type
+    private List<TicketStatus> reportStatuses(String reportType) {
+        if ("OpenTickets".equalsIgnoreCase(reportType)) {
+            return List.of(TicketStatus.OPEN);
+        } else if ("Performance".equalsIgnoreCase(reportType)) {
+            return List.of(TicketStatus.CLOSED, TicketStatus.RESOLVED);
+        }
+        return List.of(TicketStatus.values());
+    }
+
     @Override
     public Map<String, Object> getFailureRateAnalysis() {
         // Functionality 3: Analyze System Failure Rates (SLA Breaches)
+        // Answered from the running SLA counters instead of scanning every ticket
         Map<String, Object> analysis = new LinkedHashMap<>();
-        List<Ticket> allTickets = ticketRepository.findAll();
-        LocalDateTime now = LocalDateTime.now();
+        SlaTracker.Snapshot sla = slaTracker.snapshot();
+        SlaTracker.Counts total = sla.getTotal();
+        double failureRate = total.getFailureRate();
 
-        long totalEvaluated = 0;
-        long missedDeadlines = 0;
+        analysis.put("Total Tickets Analyzed", total.getEvaluated());
+        analysis.put("Overdue Tickets", total.getBreached());
+        analysis.put("Failure Rate (%)", String.format("%.2f", failureRate));
+        analysis.put("System Health", failureRate < 10.0 ? "GOOD" : (failureRate < 25.0 ? "WARNING" : "CRITICAL"));
 
-        for (Ticket t : allTickets) {
-            // Define SLA Rules (Hours)
-            long slaHoursLimit = getSlaLimitHours(t.getPriority());
+        Map<String, Object> byPriority = new LinkedHashMap<>();
+        sla.getByPriority().forEach((priority, counts) -> byPriority.put(priority.name(), breakdown(counts)));
+        analysis.put("By Priority", byPriority);
 
-            // Calculate Time Taken (if resolved) or Time Elapsed (if open)
-            LocalDateTime endTime = (t.getResolvedAt() != null) ? t.getResolvedAt() : now;
+        Map<String, Object> byDepartment = new TreeMap<>();
+        sla.getByDepartment().forEach((departmentId, counts) -> byDepartment.put(departmentName(departmentId), breakdown(counts)));
+        analysis.put("By Department", byDepartment);
 
-            // Skip tickets submitted in the future (sanity check)
-            if (t.getSubmittedAt().isAfter(now)) continue;
+        return analysis;
+    }
 
-            long hoursElapsed = Duration.between(t.getSubmittedAt(), endTime).toHours();
-            totalEvaluated++;
+    @Override
+    public Map<String, Integer> getTicketTrendForecast() {
+        return getTicketTrendForecast(TREND_PERIODS, TREND_GRANULARITY);
+    }
 
-            if (hoursElapsed > slaHoursLimit) {
-                missedDeadlines++;
-            }
-        }
+    @Override
+    public Map<String, Integer> getTicketTrendForecast(int periods, ChronoUnit granularity) {
+        // Functionality 4: Forecast Ticket Trends (Linear Regression on Real Data)
+        checkBuckets(periods, granularity, MAX_TREND_PERIODS);
 
-        double failureRate = (totalEvaluated == 0) ? 0 : ((double) missedDeadlines / totalEvaluated) * 100;
+        // Buckets are aligned to the clock (hour, midnight, Monday); the last one is still open.
+        // Closed buckets come from the cache; the open one is a live range count on the index
+        LocalDateTime currentStart = bucketStart(LocalDateTime.now(), granularity);
+        double[] series = Arrays.copyOf(closedBuckets(periods - 1, granularity, currentStart), periods);
+        series[periods - 1] = ticketRepository.countBySubmittedAtGreaterThanEqual(currentStart);
 
-        analysis.put("Total Tickets Analyzed", totalEvaluated);
-        analysis.put("Overdue Tickets", missedDeadlines);
-        analysis.put("Failure Rate (%)", String.format("%.2f", failureRate));
-        analysis.put("System Health", failureRate < 10.0 ? "GOOD" : (failureRate < 25.0 ? "WARNING" : "CRITICAL"));
+        Map<String, Integer> trends = new LinkedHashMap<>();
+        String unit = unitName(granularity);
+        for (int i = 0; i < periods; i++) {
+            int ago = periods - 1 - i;
+            String label = ago == 0 ? "Current " + unit : (ago == 1 ? "Last " + unit : ago + " " + unit + "s Ago");
+            trends.put(label, (int) series[i]);
+        }
 
-        return analysis;
+        // Predict the next bucket using Linear Regression
+        double[] next = new double[1];
+        TREND_MODEL.forecast(series, periods, next);
+        trends.put("Next " + unit + " (Forecast)", (int) Math.max(0, Math.round(next[0])));
+
+        return trends;
     }
 
     @Override
-    public Map<String, Integer> getTicketTrendForecast() {
-        // Functionality 4: Forecast Ticket Trends (Linear Regression on Real Data)
-        Map<String, Integer> trends = new LinkedHashMap<>();
-        List<Ticket> tickets = ticketRepository.findAll();
-        LocalDateTime now = LocalDateTime.now();
-
-        // Bucket tickets by "Weeks Ago" (0 = this week, 1 = last week, etc.)
-        // We will look at the last 4 weeks
-        int[] weeklyCounts = new int[4];
-
-        for (Ticket t : tickets) {
-            long weeksAgo = ChronoUnit.WEEKS.between(t.getSubmittedAt(), now);
-            if (weeksAgo >= 0 && weeksAgo < 4) {
-                // Map weeksAgo 0 -> index 3 (Now), 3 -> index 0 (Oldest)
-                int index = 3 - (int) weeksAgo;
-                weeklyCounts[index]++;
-            }
+    public Map<String, Object> getTicketForecast(int periods, ChronoUnit granularity, int horizon, boolean byDepartment) {
+        // Functionality 4b: Capacity Forecast (backtested models over closed buckets)
+        checkBuckets(periods, granularity, MAX_FORECAST_PERIODS);
+        if (horizon < 1 || horizon > MAX_FORECAST_HORIZON) {
+            throw new RuntimeException("Forecast horizon must be between 1 and " + MAX_FORECAST_HORIZON);
+        }
+        LocalDateTime currentStart = bucketStart(LocalDateTime.now(), granularity);
+        ForecastEngine engine = FORECAST_ENGINES.get(granularity);
+
+        // The first forecast bucket is the current, still open one
+        Map<String, Object> forecast = new LinkedHashMap<>();
+        forecast.put("Granularity", granularity.name());
+        forecast.put("History Buckets", periods);
+        forecast.put("Forecast From", currentStart.toString());
+        forecast.putAll(forecastEntry(engine, closedBuckets(periods, granularity, currentStart), horizon));
+
+        if (byDepartment) {
+            Map<String, Object> departments = new TreeMap<>();
+            departmentBuckets(periods, granularity, currentStart).forEach((departmentId, series) ->
+                departments.put(departmentName(departmentId), forecastEntry(engine, series, horizon)));
+            forecast.put("By Department", departments);
         }
+        return forecast;
+    }
 
-        trends.put("3 Weeks Ago", weeklyCounts[0]);
-        trends.put("2 Weeks Ago", weeklyCounts[1]);
-        trends.put("Last Week", weeklyCounts[2]);
-        trends.put("Current Week", weeklyCounts[3]);
+    private Map<String, Object> forecastEntry(ForecastEngine engine, double[] series, int horizon) {
+        List<ForecastEngine.Result> results = engine.run(series, series.length, horizon);
+        Map<String, Object> models = new LinkedHashMap<>();
+        for (ForecastEngine.Result result : results) {
+            Map<String, Object> model = new LinkedHashMap<>();
+            model.put("MAPE (%)", Double.isNaN(result.getMape()) ? "n/a" : String.format("%.2f", result.getMape()));
+            model.put("Forecast", rounded(result.getForecast()));
+            models.put(result.getModel(), model);
+        }
 
-        // Predict Next Week using Linear Regression
-        List<Integer> history = Arrays.asList(weeklyCounts[0], weeklyCounts[1], weeklyCounts[2], weeklyCounts[3]);
-        int predicted = predictNextValue(history);
+        ForecastEngine.Result best = ForecastEngine.best(results);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("Best Model", best != null ? best.getModel() : "n/a");
+        entry.put("Forecast", best != null ? rounded(best.getForecast()) : List.of());
+        entry.put("Models", models);
+        return entry;
+    }
 
-        trends.put("Next Week (Forecast)", predicted);
+    // The last `buckets` closed buckets before currentStart, cached until the open bucket closes
+    private double[] closedBuckets(int buckets, ChronoUnit granularity, LocalDateTime currentStart) {
+        TrendHistory history = trendCache.get(granularity);
+        if (history == null || !history.currentStart.equals(currentStart) || history.closedCounts.length < buckets) {
+            LocalDateTime from = currentStart.minus(buckets, granularity);
+            List<SubmissionCount> rows = granularity == ChronoUnit.HOURS
+                ? ticketRepository.countSubmittedPerHour(from, currentStart)
+                : ticketRepository.countSubmittedPerDay(from, currentStart);
+            double[] closed = new double[buckets];
+            for (SubmissionCount row : rows) {
+                addToBucket(closed, from, granularity, row);
+            }
+            history = new TrendHistory(currentStart, closed);
+            trendCache.put(granularity, history);
+        }
+        double[] counts = history.closedCounts;
+        return counts.length == buckets ? counts : Arrays.copyOfRange(counts, counts.length - buckets, counts.length);
+    }
 
-        return trends;
+    // Same buckets, one series per department (null key: no department); not cached
+    private Map<Long, double[]> departmentBuckets(int buckets, ChronoUnit granularity, LocalDateTime currentStart) {
+        LocalDateTime from = currentStart.minus(buckets, granularity);
+        List<DepartmentSubmissionCount> rows = granularity == ChronoUnit.HOURS
+            ? ticketRepository.countSubmittedPerHourByDepartment(from, currentStart)
+            : ticketRepository.countSubmittedPerDayByDepartment(from, currentStart);
+        Map<Long, double[]> series = new HashMap<>();
+        for (DepartmentSubmissionCount row : rows) {
+            addToBucket(series.computeIfAbsent(row.getDepartmentId(), d -> new double[buckets]), from, granularity, row);
+        }
+        return series;
     }
 
-    // Helper: SLA Logic
-    private long getSlaLimitHours(TicketPriority priority) {
-        if (priority == null) return 168; // Default Low
-        switch (priority) {
-            case URGENT: return 24;
-            case HIGH: return 48;
-            case MEDIUM: return 72;
-            case LOW: default: return 168; // 1 Week
+    // Folds one per-day (or per-hour) row into its bucket
+    private static void addToBucket(double[] buckets, LocalDateTime from, ChronoUnit granularity, SubmissionCount row) {
+        int index = (int) granularity.between(from, row.getDay().atTime(row.getHour(), 0));
+        if (index >= 0 && index < buckets.length) {
+            buckets[index] += row.getCount();
         }
     }
 
-    // Helper: CSV Escape
-    private String escapeCsv(String data) {
-        if (data == null) return "";
-        return "\"" + data.replace("\"", "\"\"") + "\"";
+    private static void checkBuckets(int periods, ChronoUnit granularity, int maxPeriods) {
+        if (!FORECAST_ENGINES.containsKey(granularity)) {
+            throw new RuntimeException("Unsupported trend granularity: " + granularity);
+        }
+        if (periods < 2 || periods > maxPeriods) {
+            throw new RuntimeException("Trend periods must be between 2 and " + maxPeriods);
+        }
+    }
+
+    private static List<Long> rounded(double[] forecast) {
+        List<Long> values = new ArrayList<>(forecast.length);
+        for (double value : forecast) {
+            values.add(Math.max(0, Math.round(value)));
+        }
+        return values;
     }
 
-    // Helper: Simple Linear Regression
-    private int predictNextValue(List<Integer> history) {
-        int n = history.size();
-        if (n < 2) return history.get(n - 1); // Not enough data
+    private static LocalDateTime bucketStart(LocalDateTime time, ChronoUnit granularity) {
+        if (granularity == ChronoUnit.WEEKS) {
+            return time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        return time.truncatedTo(granularity);
+    }
 
-        double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0;
-        for (int i = 0; i < n; i++) {
-            sumX += i;
-            sumY += history.get(i);
-            sumXY += i * history.get(i);
-            sumX2 += i * i;
+    private static String unitName(ChronoUnit granularity) {
+        switch (granularity) {
+            case HOURS: return "Hour";
+            case DAYS: return "Day";
+            default: return "Week";
         }
+    }
 
-        double slope = (n * sumXY - sumX * sumY) / (n * sumX2 - sumX * sumX);
-        double intercept = (sumY - slope * sumX) / n;
+    // Helper: SLA breakdown entry
+    private Map<String, Object> breakdown(SlaTracker.Counts counts) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("Evaluated", counts.getEvaluated());
+        entry.put("Breached", counts.getBreached());
+        entry.put("Failure Rate (%)", String.format("%.2f", counts.getFailureRate()));
+        return entry;
+    }
 
-        // Predict for x = n (the next point)
-        return Math.max(0, (int) Math.round(slope * n + intercept));
+    private String departmentName(Long departmentId) {
+        if (departmentId == null) return "Unassigned";
+        return departmentCache.findById(departmentId).map(Department::getName).orElse("Department #" + departmentId);
+    }
+
+    // Helper: CSV Escape
+    private String escapeCsv(String data) {
+        if (data == null) return "";
+        return "\"" + data.replace("\"", "\"\"") + "\"";
     }
 
     @Override
@@ -235,4 +412,14 @@ public class ReportingServiceImpl implements ReportingService {
     public void updateReport(SavedReportArchive report) {
         reportRepository.save(report);
     }
-}
\ No newline at end of file
+
+    private static final class TrendHistory {
+        private final LocalDateTime currentStart;
+        private final double[] closedCounts;
+
+        private TrendHistory(LocalDateTime currentStart, double[] closedCounts) {
+            this.currentStart = currentStart;
+            this.closedCounts = closedCounts;
+        }
+    }
+}
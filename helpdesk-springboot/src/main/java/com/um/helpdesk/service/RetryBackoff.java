@@ -0,0 +1,56 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.DeliveryChannel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for notification delivery retries, per channel.
+ *
+ * The n-th failure opens a window of base * 2^(n-1), capped at the channel's maximum, and the
+ * retry lands at a random point in the upper half of it, so a batch that failed together does
+ * not come back as one burst.
+ */
+public final class RetryBackoff {
+
+    private RetryBackoff() {
+    }
+
+    static Duration baseDelay(DeliveryChannel channel) {
+        if (channel == null) return Duration.ofSeconds(30);
+        switch (channel) {
+            case IN_APP: return Duration.ofSeconds(5);
+            case PUSH_NOTIFICATION: return Duration.ofSeconds(15);
+            case SMS: return Duration.ofSeconds(60);
+            case EMAIL: default: return Duration.ofSeconds(30);
+        }
+    }
+
+    static Duration maxDelay(DeliveryChannel channel) {
+        if (channel == null) return Duration.ofHours(1);
+        switch (channel) {
+            case IN_APP: return Duration.ofMinutes(5);
+            case PUSH_NOTIFICATION: return Duration.ofMinutes(15);
+            case SMS: return Duration.ofHours(2);
+            case EMAIL: default: return Duration.ofHours(1);
+        }
+    }
+
+    /**
+     * Upper bound of the wait after the given number of failed attempts (1 for the first failure).
+     */
+    public static Duration window(DeliveryChannel channel, int failures) {
+        int doublings = Math.min(Math.max(failures, 1) - 1, 30);
+        Duration max = maxDelay(channel);
+        Duration delay = baseDelay(channel).multipliedBy(1L << doublings);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    public static LocalDateTime nextAttemptAt(DeliveryChannel channel, int failures, LocalDateTime now) {
+        long window = window(channel, failures).toMillis();
+        long half = window / 2;
+        return now.plus(Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(window - half + 1)));
+    }
+}
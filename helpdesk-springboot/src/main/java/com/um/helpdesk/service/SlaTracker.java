@@ -0,0 +1,310 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Ticket;
+import com.um.helpdesk.entity.TicketPriority;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.TicketSlaRow;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Running SLA counters: evaluated and breached tickets per priority and per department.
+ *
+ * A ticket misses its SLA when more than its priority's limit in whole hours passes between
+ * submission and resolution (or now, while it is unresolved). Resolved tickets are counted once;
+ * unresolved tickets wait in a min-heap ordered by deadline and are flipped to breached when the
+ * deadline passes. The heap is drained before every read and change, so a read costs O(1) plus
+ * the tickets that breached since the previous one.
+ *
+ * The counters are built with one streamed pass over the tickets (at boot, or lazily on first use)
+ * and then kept current by TicketServiceImpl. Changes made inside a transaction are applied only
+ * after it commits.
+ */
+@Component
+public class SlaTracker {
+
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Counts total = new Counts();
+    private final Map<TicketPriority, Counts> byPriority = new EnumMap<>(TicketPriority.class);
+    private final Map<Long, Counts> byDepartment = new HashMap<>();    // null key: no department
+    private final Map<Long, Open> open = new HashMap<>();
+    private final PriorityQueue<Open> deadlines = new PriorityQueue<>(Comparator.comparing((Open o) -> o.deadline));
+    private boolean loaded = false;
+
+    public SlaTracker(TicketRepository ticketRepository, PlatformTransactionManager transactionManager) {
+        this.ticketRepository = ticketRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public static long slaLimitHours(TicketPriority priority) {
+        if (priority == null) return 168; // Default Low
+        switch (priority) {
+            case URGENT: return 24;
+            case HIGH: return 48;
+            case MEDIUM: return 72;
+            case LOW: default: return 168; // 1 Week
+        }
+    }
+
+    // First instant at which the elapsed whole hours exceed the limit
+    static LocalDateTime deadline(TicketPriority priority, LocalDateTime submittedAt) {
+        return submittedAt.plusHours(slaLimitHours(priority) + 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        total.reset();
+        byPriority.clear();
+        byDepartment.clear();
+        open.clear();
+        deadlines.clear();
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TicketSlaRow> rows = ticketRepository.streamSlaRows()) {
+                rows.forEach(row -> add(new TicketSla(row.getId(), row.getPriority(), row.getDepartmentId(),
+                    row.getSubmittedAt(), row.getResolvedAt())));
+            }
+        });
+        loaded = true;
+        expire(LocalDateTime.now());
+        System.out.println(">>> SLA tracker loaded: " + total.evaluated + " ticket(s), " + open.size() + " unresolved");
+    }
+
+    /**
+     * Counters as of now.
+     */
+    public synchronized Snapshot snapshot() {
+        ensureLoaded();
+        expire(LocalDateTime.now());
+        Map<TicketPriority, Counts> priorities = new EnumMap<>(TicketPriority.class);
+        byPriority.forEach((priority, counts) -> priorities.put(priority, counts.copy()));
+        Map<Long, Counts> departments = new HashMap<>();
+        byDepartment.forEach((departmentId, counts) -> departments.put(departmentId, counts.copy()));
+        return new Snapshot(total.copy(), priorities, departments);
+    }
+
+    /**
+     * Records a ticket's SLA fields changing. Pass null before for a new ticket and null after
+     * for a deleted one.
+     */
+    public void ticketChanged(TicketSla before, TicketSla after) {
+        if (before != null && before.sameAs(after)) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (this) {
+                if (!loaded) {
+                    return;  // the first rebuild reads the committed state
+                }
+                expire(LocalDateTime.now());
+                if (before != null) {
+                    remove(before);
+                }
+                if (after != null) {
+                    add(after);
+                }
+            }
+        });
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuild();
+        }
+    }
+
+    private void add(TicketSla ticket) {
+        if (ticket.id == null || ticket.submittedAt == null) {
+            return;
+        }
+        if (ticket.resolvedAt != null) {
+            count(ticket.priority, ticket.departmentId, 1, ticket.breachedWhenResolved() ? 1 : 0);
+            return;
+        }
+        count(ticket.priority, ticket.departmentId, 1, 0);
+        Open entry = new Open(ticket.id, ticket.priority, ticket.departmentId,
+            deadline(ticket.priority, ticket.submittedAt));
+        open.put(ticket.id, entry);
+        deadlines.add(entry);
+    }
+
+    private void remove(TicketSla ticket) {
+        if (ticket.id == null || ticket.submittedAt == null) {
+            return;
+        }
+        if (ticket.resolvedAt != null) {
+            count(ticket.priority, ticket.departmentId, -1, ticket.breachedWhenResolved() ? -1 : 0);
+            return;
+        }
+        // The heap entry is left behind and skipped when it surfaces
+        Open entry = open.remove(ticket.id);
+        if (entry != null) {
+            count(entry.priority, entry.departmentId, -1, entry.breached ? -1 : 0);
+        }
+        if (deadlines.size() > 2 * open.size() + 64) {
+            deadlines.removeIf(o -> open.get(o.ticketId) != o);
+        }
+    }
+
+    // Flips every unresolved ticket whose deadline has passed
+    private void expire(LocalDateTime now) {
+        while (!deadlines.isEmpty() && !deadlines.peek().deadline.isAfter(now)) {
+            Open entry = deadlines.poll();
+            if (open.get(entry.ticketId) == entry && !entry.breached) {
+                entry.breached = true;
+                count(entry.priority, entry.departmentId, 0, 1);
+            }
+        }
+    }
+
+    private void count(TicketPriority priority, Long departmentId, int evaluated, int breached) {
+        TicketPriority key = priority != null ? priority : TicketPriority.LOW;
+        total.add(evaluated, breached);
+        byPriority.computeIfAbsent(key, p -> new Counts()).add(evaluated, breached);
+        byDepartment.computeIfAbsent(departmentId, d -> new Counts()).add(evaluated, breached);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Immutable copy of the fields SLA tracking reads from a ticket, taken before it is changed.
+     */
+    public static final class TicketSla {
+        private final Long id;
+        private final TicketPriority priority;
+        private final Long departmentId;
+        private final LocalDateTime submittedAt;
+        private final LocalDateTime resolvedAt;
+
+        TicketSla(Long id, TicketPriority priority, Long departmentId,
+                  LocalDateTime submittedAt, LocalDateTime resolvedAt) {
+            this.id = id;
+            this.priority = priority;
+            this.departmentId = departmentId;
+            this.submittedAt = submittedAt;
+            this.resolvedAt = resolvedAt;
+        }
+
+        public static TicketSla of(Ticket ticket) {
+            if (ticket == null) {
+                return null;
+            }
+            return new TicketSla(ticket.getId(), ticket.getPriority(),
+                ticket.getAssignedDepartment() != null ? ticket.getAssignedDepartment().getId() : null,
+                ticket.getSubmittedAt(), ticket.getResolvedAt());
+        }
+
+        private boolean breachedWhenResolved() {
+            return !resolvedAt.isBefore(deadline(priority, submittedAt));
+        }
+
+        private boolean sameAs(TicketSla other) {
+            return other != null && Objects.equals(id, other.id) && priority == other.priority
+                && Objects.equals(departmentId, other.departmentId)
+                && Objects.equals(submittedAt, other.submittedAt)
+                && Objects.equals(resolvedAt, other.resolvedAt);
+        }
+    }
+
+    /**
+     * Evaluated and breached tickets in one bucket.
+     */
+    public static final class Counts {
+        private long evaluated;
+        private long breached;
+
+        public long getEvaluated() {
+            return evaluated;
+        }
+
+        public long getBreached() {
+            return breached;
+        }
+
+        public double getFailureRate() {
+            return evaluated == 0 ? 0 : ((double) breached / evaluated) * 100;
+        }
+
+        private void add(int evaluated, int breached) {
+            this.evaluated += evaluated;
+            this.breached += breached;
+        }
+
+        private void reset() {
+            evaluated = 0;
+            breached = 0;
+        }
+
+        private Counts copy() {
+            Counts copy = new Counts();
+            copy.evaluated = evaluated;
+            copy.breached = breached;
+            return copy;
+        }
+    }
+
+    public static final class Snapshot {
+        private final Counts total;
+        private final Map<TicketPriority, Counts> byPriority;
+        private final Map<Long, Counts> byDepartment;
+
+        private Snapshot(Counts total, Map<TicketPriority, Counts> byPriority, Map<Long, Counts> byDepartment) {
+            this.total = total;
+            this.byPriority = Collections.unmodifiableMap(byPriority);
+            this.byDepartment = Collections.unmodifiableMap(byDepartment);
+        }
+
+        public Counts getTotal() {
+            return total;
+        }
+
+        public Map<TicketPriority, Counts> getByPriority() {
+            return byPriority;
+        }
+
+        /**
+         * @return counts per department id; the null key holds tickets without a department
+         */
+        public Map<Long, Counts> getByDepartment() {
+            return byDepartment;
+        }
+    }
+
+    private static final class Open {
+        private final long ticketId;
+        private final TicketPriority priority;
+        private final Long departmentId;
+        private final LocalDateTime deadline;
+        private boolean breached;
+
+        private Open(long ticketId, TicketPriority priority, Long departmentId, LocalDateTime deadline) {
+            this.ticketId = ticketId;
+            this.priority = priority;
+            this.departmentId = departmentId;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.TechnicianSupportStaff;
+import com.um.helpdesk.entity.TicketStatus;
+import com.um.helpdesk.repository.TechnicianWorkload;
+import com.um.helpdesk.repository.TicketRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Live table of active-ticket counts per technician, grouped by department.
+ *
+ * Each department keeps its active technicians in a sorted set ordered by
+ * (active tickets, technician id), so the least busy technician is found in O(log n)
+ * without loading users or running one COUNT per technician.
+ *
+ * The table is built with a single GROUP BY query (at boot, or lazily on first use) and
+ * then kept current by TicketServiceImpl and UserServiceImpl. Changes made inside a
+ * transaction are applied only after it commits.
+ */
+@Component
+public class TechnicianWorkloadTracker {
+
+    private static final Comparator<Load> LEAST_BUSY_FIRST =
+        Comparator.comparingInt((Load l) -> l.activeTickets).thenComparingLong(l -> l.technicianId);
+
+    private final TicketRepository ticketRepository;
+
+    private final Map<Long, TreeSet<Load>> byDepartment = new HashMap<>();
+    private final Map<Long, Load> loads = new HashMap<>();
+    private final Map<Long, Long> departmentOf = new HashMap<>();
+    private boolean loaded = false;
+
+    public TechnicianWorkloadTracker(TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+    }
+
+    public static boolean isActive(TicketStatus status) {
+        return status != null && status != TicketStatus.CLOSED && status != TicketStatus.RESOLVED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        byDepartment.clear();
+        loads.clear();
+        departmentOf.clear();
+
+        for (TechnicianWorkload row : ticketRepository.findTechnicianWorkloads()) {
+            Long technicianId = row.getTechnicianId();
+            loads.put(technicianId, new Load(technicianId, (int) row.getActiveTickets()));
+            if (row.isActive() && row.getDepartmentId() != null) {
+                departmentOf.put(technicianId, row.getDepartmentId());
+                byDepartment.computeIfAbsent(row.getDepartmentId(), d -> new TreeSet<>(LEAST_BUSY_FIRST))
+                    .add(loads.get(technicianId));
+            }
+        }
+        loaded = true;
+    }
+
+    /**
+     * @return id of the active technician with the fewest active tickets in the department, or null
+     */
+    public synchronized Long findLeastBusy(Long departmentId) {
+        ensureLoaded();
+        TreeSet<Load> technicians = byDepartment.get(departmentId);
+        return technicians == null || technicians.isEmpty() ? null : technicians.first().technicianId;
+    }
+
+    public synchronized int getWorkload(Long technicianId) {
+        ensureLoaded();
+        Load load = loads.get(technicianId);
+        return load == null ? 0 : load.activeTickets;
+    }
+
+    /**
+     * Private copy of the table for assigning a whole batch in one pass.
+     * Assignments made on the snapshot stay local; report them with ticketMoved once saved.
+     */
+    public synchronized Snapshot snapshot() {
+        ensureLoaded();
+        return new Snapshot(byDepartment);
+    }
+
+    /**
+     * Records that an active ticket moved from one technician to another.
+     * Either side may be null (newly assigned, unassigned, resolved or closed).
+     */
+    public void ticketMoved(Long fromTechnicianId, Long toTechnicianId) {
+        if (fromTechnicianId != null && fromTechnicianId.equals(toTechnicianId)) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (this) {
+                if (!loaded) {
+                    return;  // the first rebuild reads the committed state
+                }
+                adjust(fromTechnicianId, -1);
+                adjust(toTechnicianId, +1);
+            }
+        });
+    }
+
+    /**
+     * Adds a technician, or moves them to their current department / active state.
+     */
+    public void technicianChanged(TechnicianSupportStaff technician) {
+        Long technicianId = technician.getId();
+        Long departmentId = technician.getDepartment() != null ? technician.getDepartment().getId() : null;
+        boolean active = technician.isActive();
+        afterCommit(() -> {
+            synchronized (this) {
+                if (!loaded || technicianId == null) {
+                    return;
+                }
+                Load load = loads.computeIfAbsent(technicianId, id -> new Load(id, 0));
+                detach(technicianId, load);
+                if (active && departmentId != null) {
+                    departmentOf.put(technicianId, departmentId);
+                    byDepartment.computeIfAbsent(departmentId, d -> new TreeSet<>(LEAST_BUSY_FIRST)).add(load);
+                }
+            }
+        });
+    }
+
+    public void technicianRemoved(Long technicianId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                Load load = loads.remove(technicianId);
+                if (load != null) {
+                    detach(technicianId, load);
+                }
+            }
+        });
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuild();
+        }
+    }
+
+    private void adjust(Long technicianId, int delta) {
+        if (technicianId == null) {
+            return;
+        }
+        Load current = loads.computeIfAbsent(technicianId, id -> new Load(id, 0));
+        Load updated = new Load(technicianId, Math.max(0, current.activeTickets + delta));
+        loads.put(technicianId, updated);
+
+        Long departmentId = departmentOf.get(technicianId);
+        if (departmentId != null) {
+            TreeSet<Load> technicians = byDepartment.get(departmentId);
+            technicians.remove(current);
+            technicians.add(updated);
+        }
+    }
+
+    private void detach(Long technicianId, Load load) {
+        Long departmentId = departmentOf.remove(technicianId);
+        if (departmentId != null) {
+            byDepartment.get(departmentId).remove(load);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static final class Snapshot {
+        private final Map<Long, TreeSet<Load>> byDepartment = new HashMap<>();
+
+        private Snapshot(Map<Long, TreeSet<Load>> source) {
+            source.forEach((departmentId, technicians) -> byDepartment.put(departmentId, new TreeSet<>(technicians)));
+        }
+
+        /**
+         * @return least busy technician in the department (now counted one ticket busier), or null
+         */
+        public Long assignLeastBusy(Long departmentId) {
+            TreeSet<Load> technicians = byDepartment.get(departmentId);
+            if (technicians == null || technicians.isEmpty()) {
+                return null;
+            }
+            Load least = technicians.pollFirst();
+            technicians.add(new Load(least.technicianId, least.activeTickets + 1));
+            return least.technicianId;
+        }
+    }
+
+    private static final class Load {
+        private final long technicianId;
+        private final int activeTickets;
+
+        private Load(long technicianId, int activeTickets) {
+            this.technicianId = technicianId;
+            this.activeTickets = activeTickets;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.TicketEvent;
+import com.um.helpdesk.repository.TicketEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Relays the ticket_events outbox into {@link NotificationService}.
+ *
+ * TicketServiceImpl writes an outbox row in the same transaction as each ticket change, so a
+ * ticket write costs one batched INSERT and no notification work. This relay reads the oldest
+ * pending rows in batches, records a notification per row and deletes the rows, all in one
+ * transaction; a failed batch stays in the outbox and is retried on the next poll.
+ *
+ * Delivery is at-least-once: each notification carries an idempotency key built from the event
+ * type, ticket, recipient and outbox row id, so a batch that is replayed (a retry after a commit
+ * that was not acknowledged, or a second relay draining the same rows) does not add rows.
+ */
+@Service
+public class TicketEventRelay {
+
+    static final int BATCH_SIZE = 50;    // matches hibernate.jdbc.batch_size
+    static final Duration POLL_INTERVAL = Duration.ofMillis(250);
+
+    private final TicketEventRepository ticketEventRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final Thread worker;
+    private final long startedNanos = System.nanoTime();
+
+    // Metrics
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder notificationsCreated = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong lastBatchLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @Autowired
+    public TicketEventRelay(TicketEventRepository ticketEventRepository, NotificationService notificationService,
+                            PlatformTransactionManager transactionManager) {
+        this(ticketEventRepository, notificationService, transactionManager, BATCH_SIZE, POLL_INTERVAL, true);
+    }
+
+    TicketEventRelay(TicketEventRepository ticketEventRepository, NotificationService notificationService,
+                     PlatformTransactionManager transactionManager, int batchSize, Duration pollInterval,
+                     boolean start) {
+        this.ticketEventRepository = ticketEventRepository;
+        this.notificationService = notificationService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.worker = new Thread(this::relayLoop, "ticket-event-relay");
+        this.worker.setDaemon(true);
+        if (start) {
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+    }
+
+    // ========== RELAY ==========
+
+    private void relayLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            int relayedNow;
+            try {
+                relayedNow = relayBatch();
+            } catch (RuntimeException e) {
+                System.out.println("❌ Ticket event relay failed, will retry: " + e.getMessage());
+                relayedNow = 0;
+            }
+            // A full batch means more may be waiting
+            if (relayedNow < batchSize) {
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Relays the oldest pending batch.
+     *
+     * @return the number of events relayed; 0 if the outbox was empty
+     */
+    public int relayBatch() {
+        try {
+            Integer count = transaction.execute(status -> {
+                List<TicketEvent> batch = ticketEventRepository.findPending(Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                List<NotificationEvent> events = new ArrayList<>(batch.size());
+                for (TicketEvent event : batch) {
+                    events.add(toNotificationEvent(event));
+                }
+                int created = notificationService.recordEvents(events);
+                ticketEventRepository.deleteAllInBatch(batch);
+
+                LocalDateTime now = LocalDateTime.now();
+                long lag = Duration.between(batch.get(0).getCreatedAt(), now).toMillis();
+                notificationsCreated.add(created);
+                lastBatchLagMillis.set(lag);
+                maxLagMillis.accumulateAndGet(lag, Math::max);
+                return batch.size();
+            });
+            int size = count != null ? count : 0;
+            if (size > 0) {
+                relayed.add(size);
+                batches.increment();
+                lastBatchSize.set(size);
+            }
+            return size;
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            throw e;
+        }
+    }
+
+    static NotificationEvent toNotificationEvent(TicketEvent event) {
+        Long ticketId = event.getTicketId();
+        Long recipientId = event.getRecipientId();
+        NotificationEvent notification;
+        switch (event.getEventType()) {
+            case SUBMITTED:
+                notification = NotificationEvent.ticketSubmitted(ticketId, recipientId);
+                break;
+            case ASSIGNED:
+                notification = NotificationEvent.ticketAssigned(ticketId, recipientId);
+                break;
+            case RESOLVED:
+                notification = NotificationEvent.ticketResolved(ticketId, recipientId);
+                break;
+            case REOPENED:
+                notification = NotificationEvent.ticketReopened(ticketId, recipientId);
+                break;
+            case REMINDER:
+                notification = NotificationEvent.reminder(ticketId, recipientId);
+                break;
+            case ESCALATED:
+                notification = NotificationEvent.escalation(ticketId, recipientId,
+                    Integer.parseInt(event.getToValue()));
+                break;
+            case TRANSFERRED:
+                notification = NotificationEvent.ticketTransferred(ticketId, recipientId,
+                    event.getFromValue(), event.getToValue());
+                break;
+            case STATUS_CHANGED:
+            default:
+                notification = NotificationEvent.ticketStatusChanged(ticketId, recipientId,
+                    event.getFromValue(), event.getToValue());
+                break;
+        }
+        return notification.withIdempotencyKey(notification.getEventType() + ":" + ticketId + ":" + recipientId
+            + ":" + event.getId());
+    }
+
+    // ========== MONITORING ==========
+
+    public Metrics metrics() {
+        long pending = ticketEventRepository.count();
+        long oldestPendingAgeMillis = ticketEventRepository.findFirstByOrderByIdAsc()
+            .map(e -> Duration.between(e.getCreatedAt(), LocalDateTime.now()).toMillis())
+            .orElse(0L);
+        double uptimeSeconds = (System.nanoTime() - startedNanos) / 1e9;
+        long relayedTotal = relayed.sum();
+        long batchCount = batches.sum();
+        return new Metrics(relayedTotal, notificationsCreated.sum(), batchCount, failedBatches.sum(),
+            lastBatchSize.get(), batchCount == 0 ? 0 : (double) relayedTotal / batchCount,
+            uptimeSeconds > 0 ? relayedTotal / uptimeSeconds : 0,
+            pending, oldestPendingAgeMillis, lastBatchLagMillis.get(), maxLagMillis.get());
+    }
+
+    /**
+     * Point-in-time relay counters.
+     */
+    public static final class Metrics {
+        private final long relayed;
+        private final long notificationsCreated;
+        private final long batches;
+        private final long failedBatches;
+        private final long lastBatchSize;
+        private final double averageBatchSize;
+        private final double eventsPerSecond;
+        private final long pending;
+        private final long oldestPendingAgeMillis;
+        private final long lastBatchLagMillis;
+        private final long maxLagMillis;
+
+        private Metrics(long relayed, long notificationsCreated, long batches, long failedBatches,
+                        long lastBatchSize, double averageBatchSize, double eventsPerSecond, long pending,
+                        long oldestPendingAgeMillis, long lastBatchLagMillis, long maxLagMillis) {
+            this.relayed = relayed;
+            this.notificationsCreated = notificationsCreated;
+            this.batches = batches;
+            this.failedBatches = failedBatches;
+            this.lastBatchSize = lastBatchSize;
+            this.averageBatchSize = averageBatchSize;
+            this.eventsPerSecond = eventsPerSecond;
+            this.pending = pending;
+            this.oldestPendingAgeMillis = oldestPendingAgeMillis;
+            this.lastBatchLagMillis = lastBatchLagMillis;
+            this.maxLagMillis = maxLagMillis;
+        }
+
+        /** Outbox events relayed and removed */
+        public long getRelayed() {
+            return relayed;
+        }
+
+        /** Notifications saved; fewer than relayed when a replay or unknown recipient was skipped */
+        public long getNotificationsCreated() {
+            return notificationsCreated;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        /** Batches rolled back and left in the outbox for the next poll */
+        public long getFailedBatches() {
+            return failedBatches;
+        }
+
+        public long getLastBatchSize() {
+            return lastBatchSize;
+        }
+
+        public double getAverageBatchSize() {
+            return averageBatchSize;
+        }
+
+        /** Throughput since startup */
+        public double getEventsPerSecond() {
+            return eventsPerSecond;
+        }
+
+        public long getPending() {
+            return pending;
+        }
+
+        /** Age of the oldest event still in the outbox */
+        public long getOldestPendingAgeMillis() {
+            return oldestPendingAgeMillis;
+        }
+
+        /** Age of the oldest event in the last relayed batch when it was relayed */
+        public long getLastBatchLagMillis() {
+            return lastBatchLagMillis;
+        }
+
+        public long getMaxLagMillis() {
+            return maxLagMillis;
+        }
+    }
+}
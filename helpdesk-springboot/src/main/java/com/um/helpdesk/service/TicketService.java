@@ -1,5 +1,9 @@
 package com.um.helpdesk.service;
 
+import com.um.helpdesk.dto.CursorPage;
+import com.um.helpdesk.dto.TicketIntakeRequest;
+import com.um.helpdesk.dto.TicketIntakeResult;
+import com.um.helpdesk.dto.TicketSummary;
 import com.um.helpdesk.entity.Department;
 import com.um.helpdesk.entity.Ticket;
 import com.um.helpdesk.entity.TechnicianSupportStaff;
@@ -24,6 +28,24 @@ public interface TicketService {
     Ticket updateTicket(Long id, Ticket ticket);
     void deleteTicket(Long id);
 
+    // Keyset-paginated listings; cursor is null for the first page
+    CursorPage<Ticket> getTicketsPage(String cursor, int size);
+    CursorPage<Ticket> getTicketsByStatusPage(TicketStatus status, String cursor, int size);
+    CursorPage<Ticket> getUnassignedTicketsForDepartmentPage(Long departmentId, String cursor, int size);
+    CursorPage<Ticket> getClaimableTicketsPage(Long technicianId, String cursor, int size);
+
+    // Same listings as TicketSummary rows (?view=summary)
+    CursorPage<TicketSummary> getTicketSummariesPage(String cursor, int size);
+    CursorPage<TicketSummary> getTicketSummariesByStatusPage(TicketStatus status, String cursor, int size);
+    CursorPage<TicketSummary> getUnassignedTicketSummariesForDepartmentPage(Long departmentId, String cursor, int size);
+    CursorPage<TicketSummary> getClaimableTicketSummariesPage(Long technicianId, String cursor, int size);
+
+    /**
+     * Creates, routes and assigns a batch of tickets in one transaction.
+     * Invalid items are rejected individually; results are in input order, numbered from firstIndex.
+     */
+    List<TicketIntakeResult> createTicketBatch(List<TicketIntakeRequest> requests, int firstIndex);
+
     // ========== FUNCTIONALITY 1: Automated Departmental Routing ==========
 
     /**
@@ -1,14 +1,22 @@
 package com.um.helpdesk.service;
 
+import com.um.helpdesk.dto.CursorPage;
+import com.um.helpdesk.dto.TicketCursor;
+import com.um.helpdesk.dto.TicketIntakeRequest;
+import com.um.helpdesk.dto.TicketIntakeResult;
+import com.um.helpdesk.dto.TicketSummary;
 import com.um.helpdesk.entity.*;
-import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TicketEventRepository;
 import com.um.helpdesk.repository.TicketRepository;
 import com.um.helpdesk.repository.UserRepository;
+import com.um.helpdesk.routing.KeywordRoutingEngine;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,60 +24,86 @@ import java.util.stream.Collectors;
 public class TicketServiceImpl implements TicketService {
 
     private final TicketRepository ticketRepository;
-    private final DepartmentRepository departmentRepository;
     private final UserRepository userRepository;
+    private final DepartmentCache departmentCache;
+    private final TechnicianWorkloadTracker workloadTracker;
+    private final SlaTracker slaTracker;
+    private final EscalationScheduler escalationScheduler;
+    private final TicketEventRepository ticketEventRepository;
 
-    // Simple keyword-to-department mapping for routing
-    private final Map<String, String> departmentKeywords;
+    // Keyword-to-department routing, compiled once into a single-pass matcher
+    private final KeywordRoutingEngine routingEngine;
 
     // Maximum reassignment allowed before requiring escalation
     private static final int MAX_REASSIGNMENT_COUNT = 3;
 
+    // Upper bound for a single page of a paginated listing
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final Function<Ticket, TicketCursor> BY_CREATED_AT = t -> TicketCursor.after(t, false);
+    private static final Function<Ticket, TicketCursor> BY_PRIORITY = t -> TicketCursor.after(t, true);
+    private static final Function<TicketSummary, TicketCursor> SUMMARY_BY_CREATED_AT = t -> TicketCursor.after(t, false);
+    private static final Function<TicketSummary, TicketCursor> SUMMARY_BY_PRIORITY = t -> TicketCursor.after(t, true);
+
     public TicketServiceImpl(TicketRepository ticketRepository,
-                             DepartmentRepository departmentRepository,
-                             UserRepository userRepository) {
+                             UserRepository userRepository,
+                             DepartmentCache departmentCache,
+                             TechnicianWorkloadTracker workloadTracker,
+                             SlaTracker slaTracker,
+                             EscalationScheduler escalationScheduler,
+                             TicketEventRepository ticketEventRepository) {
         this.ticketRepository = ticketRepository;
-        this.departmentRepository = departmentRepository;
         this.userRepository = userRepository;
-        this.departmentKeywords = initializeDepartmentKeywords();
-    }
-
-    private Map<String, String> initializeDepartmentKeywords() {
-        Map<String, String> keywords = new HashMap<>();
-        // IT Department keywords
-        keywords.put("network", "IT");
-        keywords.put("computer", "IT");
-        keywords.put("software", "IT");
-        keywords.put("hardware", "IT");
-        keywords.put("login", "IT");
-        keywords.put("password", "IT");
-        keywords.put("internet", "IT");
-        keywords.put("wifi", "IT");
-        keywords.put("email", "IT");
-
-        // Facilities keywords
-        keywords.put("room", "FACILITIES");
-        keywords.put("building", "FACILITIES");
-        keywords.put("maintenance", "FACILITIES");
-        keywords.put("air conditioning", "FACILITIES");
-        keywords.put("lighting", "FACILITIES");
-        keywords.put("cleaning", "FACILITIES");
-
-        // Finance keywords
-        keywords.put("payment", "FINANCE");
-        keywords.put("tuition", "FINANCE");
-        keywords.put("fees", "FINANCE");
-        keywords.put("refund", "FINANCE");
-        keywords.put("invoice", "FINANCE");
-
-        // Academic keywords
-        keywords.put("enrollment", "ACADEMIC");
-        keywords.put("course", "ACADEMIC");
-        keywords.put("grade", "ACADEMIC");
-        keywords.put("exam", "ACADEMIC");
-        keywords.put("registration", "ACADEMIC");
-
-        return keywords;
+        this.departmentCache = departmentCache;
+        this.workloadTracker = workloadTracker;
+        this.slaTracker = slaTracker;
+        this.escalationScheduler = escalationScheduler;
+        this.ticketEventRepository = ticketEventRepository;
+        this.routingEngine = initializeRoutingEngine();
+    }
+
+    private KeywordRoutingEngine initializeRoutingEngine() {
+        return KeywordRoutingEngine.builder()
+            // Registration order breaks ties between equally scored departments
+            .department("IT", 1.0)
+            .department("FACILITIES", 1.0)
+            .department("FINANCE", 1.0)
+            .department("ACADEMIC", 1.0)
+
+            // IT Department keywords
+            .keyword("network", "IT")
+            .keyword("computer", "IT")
+            .keyword("software", "IT")
+            .keyword("hardware", "IT")
+            .keyword("login", "IT")
+            .keyword("password", "IT")
+            .keyword("internet", "IT")
+            .keyword("wifi", "IT")
+            .keyword("email", "IT")
+
+            // Facilities keywords
+            .keyword("room", "FACILITIES")
+            .keyword("building", "FACILITIES")
+            .keyword("maintenance", "FACILITIES")
+            .keyword("air conditioning", "FACILITIES")
+            .keyword("lighting", "FACILITIES")
+            .keyword("cleaning", "FACILITIES")
+
+            // Finance keywords
+            .keyword("payment", "FINANCE")
+            .keyword("tuition", "FINANCE")
+            .keyword("fees", "FINANCE")
+            .keyword("refund", "FINANCE")
+            .keyword("invoice", "FINANCE")
+
+            // Academic keywords
+            .keyword("enrollment", "ACADEMIC")
+            .keyword("course", "ACADEMIC")
+            .keyword("grade", "ACADEMIC")
+            .keyword("exam", "ACADEMIC")
+            .keyword("registration", "ACADEMIC")
+
+            .build();
     }
 
     // ========== BASIC TICKET OPERATIONS ==========
@@ -82,7 +116,15 @@ public class TicketServiceImpl implements TicketService {
         if (ticket.getStatus() == null) {
             ticket.setStatus(TicketStatus.OPEN);
         }
-        return ticketRepository.save(ticket);
+        ticket.setEscalationLevel(0);
+        ticket.setNextEscalationTime(EscalationScheduler.nextEscalationTime(ticket, null));
+        Ticket saved = ticketRepository.save(ticket);
+        workloadTracker.ticketMoved(null, activeAssigneeId(saved));
+        slaTracker.ticketChanged(null, SlaTracker.TicketSla.of(saved));
+        escalationScheduler.ticketChanged(saved.getId(), saved.getNextEscalationTime());
+        notifySubmitted(saved);
+        notifyAssigned(saved, null);
+        return saved;
     }
 
     @Override
@@ -116,16 +158,223 @@ public class TicketServiceImpl implements TicketService {
         return ticketRepository.findBySubmittedById(userId);
     }
 
+    @Override
+    public CursorPage<Ticket> getTicketsPage(String cursor, int size) {
+        Limit limit = pageLimit(size);
+        if (cursor == null) {
+            return toPage(ticketRepository.findPage(limit), size, BY_CREATED_AT);
+        }
+        TicketCursor after = TicketCursor.decode(cursor);
+        return toPage(ticketRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit), size, BY_CREATED_AT);
+    }
+
+    @Override
+    public CursorPage<Ticket> getTicketsByStatusPage(TicketStatus status, String cursor, int size) {
+        Limit limit = pageLimit(size);
+        if (cursor == null) {
+            return toPage(ticketRepository.findPageByStatus(status, limit), size, BY_CREATED_AT);
+        }
+        TicketCursor after = TicketCursor.decode(cursor);
+        return toPage(ticketRepository.findPageByStatusAfter(status, after.getCreatedAt(), after.getId(), limit),
+            size, BY_CREATED_AT);
+    }
+
+    @Override
+    public CursorPage<TicketSummary> getTicketSummariesPage(String cursor, int size) {
+        Limit limit = pageLimit(size);
+        if (cursor == null) {
+            return toPage(ticketRepository.findSummaryPage(limit), size, SUMMARY_BY_CREATED_AT);
+        }
+        TicketCursor after = TicketCursor.decode(cursor);
+        return toPage(ticketRepository.findSummaryPageAfter(after.getCreatedAt(), after.getId(), limit),
+            size, SUMMARY_BY_CREATED_AT);
+    }
+
+    @Override
+    public CursorPage<TicketSummary> getTicketSummariesByStatusPage(TicketStatus status, String cursor, int size) {
+        Limit limit = pageLimit(size);
+        if (cursor == null) {
+            return toPage(ticketRepository.findSummaryPageByStatus(status, limit), size, SUMMARY_BY_CREATED_AT);
+        }
+        TicketCursor after = TicketCursor.decode(cursor);
+        return toPage(ticketRepository.findSummaryPageByStatusAfter(status, after.getCreatedAt(), after.getId(), limit),
+            size, SUMMARY_BY_CREATED_AT);
+    }
+
     @Override
     public Ticket updateTicket(Long id, Ticket ticket) {
         Ticket existing = getTicketById(id);
+        Long previousAssigneeId = activeAssigneeId(existing);
+        SlaTracker.TicketSla previousSla = SlaTracker.TicketSla.of(existing);
+        TicketStatus previousStatus = existing.getStatus();
         ticket.setId(id);
-        return ticketRepository.save(ticket);
+        // Escalation progress is owned by EscalationScheduler, not the caller
+        ticket.setEscalationLevel(existing.getEscalationLevel());
+        ticket.setNextEscalationTime(EscalationScheduler.nextEscalationTime(ticket, existing.getNextEscalationTime()));
+        Ticket saved = ticketRepository.save(ticket);
+        workloadTracker.ticketMoved(previousAssigneeId, activeAssigneeId(saved));
+        slaTracker.ticketChanged(previousSla, SlaTracker.TicketSla.of(saved));
+        escalationScheduler.ticketChanged(id, saved.getNextEscalationTime());
+        notifyStatusChanged(previousStatus, saved);
+        notifyAssigned(saved, previousAssigneeId);
+        return saved;
     }
 
     @Override
     public void deleteTicket(Long id) {
+        Ticket existing = ticketRepository.findById(id).orElse(null);
         ticketRepository.deleteById(id);
+        workloadTracker.ticketMoved(activeAssigneeId(existing), null);
+        slaTracker.ticketChanged(SlaTracker.TicketSla.of(existing), null);
+        escalationScheduler.ticketChanged(id, null);
+    }
+
+    @Override
+    public List<TicketIntakeResult> createTicketBatch(List<TicketIntakeRequest> requests, int firstIndex) {
+        // Submitters for the whole batch in one query
+        Set<Long> submitterIds = requests.stream()
+            .map(TicketIntakeRequest::getSubmittedById)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, User> submitters = new HashMap<>();
+        userRepository.findAllById(submitterIds).forEach(u -> submitters.put(u.getId(), u));
+
+        // Route and pick technicians for every ticket against one in-memory workload snapshot
+        TechnicianWorkloadTracker.Snapshot workload = workloadTracker.snapshot();
+        Ticket[] tickets = new Ticket[requests.size()];
+        Long[] technicianIds = new Long[requests.size()];
+        String[] errors = new String[requests.size()];
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            TicketIntakeRequest request = requests.get(i);
+            if (request == null || request.getTitle() == null || request.getTitle().isBlank()) {
+                errors[i] = "Title is required";
+                continue;
+            }
+            User submitter = submitters.get(request.getSubmittedById());
+            if (submitter == null) {
+                errors[i] = "Submitter not found with id: " + request.getSubmittedById();
+                continue;
+            }
+
+            Ticket ticket = new Ticket(request.getTitle(), request.getDescription(), submitter);
+            ticket.setCategory(request.getCategory());
+            if (request.getPriority() != null) {
+                ticket.setPriority(request.getPriority());
+            }
+            ticket.setSubmittedAt(now);
+            ticket.setStatus(TicketStatus.OPEN);
+            ticket.setNextEscalationTime(EscalationScheduler.nextEscalationTime(ticket, null));
+
+            Department department = analyzeDepartmentFromTicket(ticket);
+            if (department != null) {
+                ticket.setAssignedDepartment(department);
+                technicianIds[i] = workload.assignLeastBusy(department.getId());
+            }
+            tickets[i] = ticket;
+        }
+
+        // Technicians chosen above, again in one query
+        Set<Long> chosen = Arrays.stream(technicianIds).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, TechnicianSupportStaff> technicians = new HashMap<>();
+        userRepository.findAllById(chosen).forEach(u -> {
+            if (u instanceof TechnicianSupportStaff) {
+                technicians.put(u.getId(), (TechnicianSupportStaff) u);
+            }
+        });
+
+        List<Ticket> accepted = new ArrayList<>();
+        for (int i = 0; i < tickets.length; i++) {
+            if (tickets[i] == null) {
+                continue;
+            }
+            TechnicianSupportStaff technician = technicians.get(technicianIds[i]);
+            if (technician != null) {
+                tickets[i].setAssignedTo(technician);
+                tickets[i].setAssignedAt(now);
+                tickets[i].setStatus(TicketStatus.ASSIGNED);
+            }
+            accepted.add(tickets[i]);
+        }
+
+        // Pooled sequence ids + hibernate.jdbc.batch_size turn this into batched INSERTs
+        ticketRepository.saveAll(accepted);
+
+        List<TicketIntakeResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < tickets.length; i++) {
+            Ticket ticket = tickets[i];
+            if (ticket == null) {
+                results.add(TicketIntakeResult.rejected(firstIndex + i, errors[i]));
+                continue;
+            }
+            Long assignedToId = ticket.getAssignedTo() != null ? ticket.getAssignedTo().getId() : null;
+            workloadTracker.ticketMoved(null, assignedToId);
+            slaTracker.ticketChanged(null, SlaTracker.TicketSla.of(ticket));
+            escalationScheduler.ticketChanged(ticket.getId(), ticket.getNextEscalationTime());
+            notifySubmitted(ticket);
+            notifyAssigned(ticket, null);
+            results.add(TicketIntakeResult.created(firstIndex + i, ticket.getId(),
+                ticket.getAssignedDepartment() != null ? ticket.getAssignedDepartment().getCode() : null,
+                assignedToId));
+        }
+
+        System.out.println(">>> Batch intake: " + accepted.size() + " of " + requests.size() + " ticket(s) created");
+        return results;
+    }
+
+    // ========== NOTIFICATION EVENTS ==========
+    // Outbox rows in the ticket's own transaction; TicketEventRelay turns them into notifications
+
+    private void notifySubmitted(Ticket ticket) {
+        if (ticket.getSubmittedBy() != null) {
+            recordEvent(new TicketEvent(TicketEventType.SUBMITTED, ticket.getId(), ticket.getSubmittedBy().getId()));
+        }
+    }
+
+    // Tells a technician who is newly carrying the ticket
+    private void notifyAssigned(Ticket ticket, Long previousAssigneeId) {
+        Long assigneeId = activeAssigneeId(ticket);
+        if (assigneeId != null && !assigneeId.equals(previousAssigneeId)) {
+            recordEvent(new TicketEvent(TicketEventType.ASSIGNED, ticket.getId(), assigneeId));
+        }
+    }
+
+    private void notifyStatusChanged(TicketStatus previousStatus, Ticket ticket) {
+        TicketStatus status = ticket.getStatus();
+        if (status == null || status == previousStatus) {
+            return;
+        }
+        boolean wasClosed = previousStatus == TicketStatus.RESOLVED || previousStatus == TicketStatus.CLOSED;
+        if (status == TicketStatus.RESOLVED && ticket.getSubmittedBy() != null) {
+            recordEvent(new TicketEvent(TicketEventType.RESOLVED, ticket.getId(), ticket.getSubmittedBy().getId()));
+        } else if (wasClosed && TechnicianWorkloadTracker.isActive(status) && ticket.getAssignedTo() != null) {
+            recordEvent(new TicketEvent(TicketEventType.REOPENED, ticket.getId(), ticket.getAssignedTo().getId()));
+        } else if (ticket.getSubmittedBy() != null) {
+            recordEvent(new TicketEvent(TicketEventType.STATUS_CHANGED, ticket.getId(),
+                ticket.getSubmittedBy().getId(), String.valueOf(previousStatus), status.name()));
+        }
+    }
+
+    private void notifyTransferred(Ticket ticket, Department from, Department to) {
+        if (ticket.getSubmittedBy() != null) {
+            recordEvent(new TicketEvent(TicketEventType.TRANSFERRED, ticket.getId(), ticket.getSubmittedBy().getId(),
+                from != null ? from.getName() : "unassigned", to.getName()));
+        }
+    }
+
+    private void recordEvent(TicketEvent event) {
+        // Batched with the ticket's own INSERT/UPDATE at flush
+        ticketEventRepository.save(event);
+    }
+
+    // Technician currently carrying this ticket in their workload, if any
+    private Long activeAssigneeId(Ticket ticket) {
+        if (ticket == null || ticket.getAssignedTo() == null
+                || !TechnicianWorkloadTracker.isActive(ticket.getStatus())) {
+            return null;
+        }
+        return ticket.getAssignedTo().getId();
     }
 
     // ========== FUNCTIONALITY 1: Automated Departmental Routing ==========
@@ -136,9 +385,11 @@ public class TicketServiceImpl implements TicketService {
         Department department = analyzeDepartmentFromTicket(ticket);
 
         if (department != null) {
+            SlaTracker.TicketSla previousSla = SlaTracker.TicketSla.of(ticket);
             ticket.setAssignedDepartment(department);
             ticket.setStatus(TicketStatus.OPEN);
             ticketRepository.save(ticket);
+            slaTracker.ticketChanged(previousSla, SlaTracker.TicketSla.of(ticket));
             System.out.println(">>> Ticket #" + ticketId + " routed to department: " + department.getName());
         }
 
@@ -164,10 +415,13 @@ public class TicketServiceImpl implements TicketService {
         TechnicianSupportStaff technician = findLeastBusyTechnician(department.getId());
 
         if (technician != null) {
+            Long previousAssigneeId = activeAssigneeId(ticket);
             ticket.setAssignedTo(technician);
             ticket.setAssignedAt(LocalDateTime.now());
             ticket.setStatus(TicketStatus.ASSIGNED);
             ticket = ticketRepository.save(ticket);
+            workloadTracker.ticketMoved(previousAssigneeId, technician.getId());
+            notifyAssigned(ticket, previousAssigneeId);
             System.out.println(">>> Ticket #" + ticketId + " auto-assigned to: " + technician.getFullName());
             return ticket;
         }
@@ -177,32 +431,17 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     public Department analyzeDepartmentFromTicket(Ticket ticket) {
-        String searchText = (ticket.getTitle() + " " + ticket.getDescription() + " " +
-                           (ticket.getCategory() != null ? ticket.getCategory() : "")).toLowerCase();
-
-        // Match keywords to find appropriate department
-        String matchedDeptCode = null;
-        for (Map.Entry<String, String> entry : departmentKeywords.entrySet()) {
-            if (searchText.contains(entry.getKey())) {
-                matchedDeptCode = entry.getValue();
-                break;
-            }
-        }
+        // Score every department whose keywords appear in the ticket, highest score wins
+        String matchedDeptCode = routingEngine.route(
+            ticket.getTitle(), ticket.getDescription(), ticket.getCategory());
 
-        // Find department by code
+        // Find department by code (served from the in-memory department index)
         if (matchedDeptCode != null) {
-            final String code = matchedDeptCode;
-            return departmentRepository.findAll().stream()
-                .filter(d -> code.equals(d.getCode()))
-                .findFirst()
-                .orElse(null);
+            return departmentCache.findByCode(matchedDeptCode).orElse(null);
         }
 
         // Default to IT department if no match
-        return departmentRepository.findAll().stream()
-            .filter(d -> "IT".equals(d.getCode()))
-            .findFirst()
-            .orElse(null);
+        return departmentCache.findByCode("IT").orElse(null);
     }
 
     // ========== FUNCTIONALITY 2: Ticket Claiming and Self-Assignment ==========
@@ -212,6 +451,17 @@ public class TicketServiceImpl implements TicketService {
         return ticketRepository.findUnassignedByDepartment(departmentId);
     }
 
+    @Override
+    public CursorPage<Ticket> getUnassignedTicketsForDepartmentPage(Long departmentId, String cursor, int size) {
+        Limit limit = pageLimit(size);
+        if (cursor == null) {
+            return toPage(ticketRepository.findUnassignedPageByDepartment(departmentId, limit), size, BY_PRIORITY);
+        }
+        TicketCursor after = TicketCursor.decode(cursor);
+        return toPage(ticketRepository.findUnassignedPageByDepartmentAfter(departmentId,
+            after.getPriorityRank(), after.getCreatedAt(), after.getId(), limit), size, BY_PRIORITY);
+    }
+
     @Override
     public Ticket claimTicket(Long ticketId, Long technicianId) {
         Ticket ticket = getTicketById(ticketId);
@@ -234,6 +484,8 @@ public class TicketServiceImpl implements TicketService {
         ticket.setAssignedAt(LocalDateTime.now());
         ticket.setStatus(TicketStatus.ASSIGNED);
         ticket = ticketRepository.save(ticket);
+        workloadTracker.ticketMoved(null, technicianId);
+        notifyAssigned(ticket, null);
 
         System.out.println(">>> Ticket #" + ticketId + " claimed by: " + technician.getFullName());
         return ticket;
@@ -251,6 +503,59 @@ public class TicketServiceImpl implements TicketService {
         return getUnassignedTicketsForDepartment(technician.getDepartment().getId());
     }
 
+    @Override
+    public CursorPage<Ticket> getClaimableTicketsPage(Long technicianId, String cursor, int size) {
+        TechnicianSupportStaff technician = (TechnicianSupportStaff) userRepository.findById(technicianId)
+            .orElse(null);
+
+        if (technician == null || technician.getDepartment() == null) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+
+        return getUnassignedTicketsForDepartmentPage(technician.getDepartment().getId(), cursor, size);
+    }
+
+    @Override
+    public CursorPage<TicketSummary> getUnassignedTicketSummariesForDepartmentPage(Long departmentId,
+                                                                                 String cursor, int size) {
+        Limit limit = pageLimit(size);
+        if (cursor == null) {
+            return toPage(ticketRepository.findUnassignedSummaryPageByDepartment(departmentId, limit),
+                size, SUMMARY_BY_PRIORITY);
+        }
+        TicketCursor after = TicketCursor.decode(cursor);
+        return toPage(ticketRepository.findUnassignedSummaryPageByDepartmentAfter(departmentId,
+            after.getPriorityRank(), after.getCreatedAt(), after.getId(), limit), size, SUMMARY_BY_PRIORITY);
+    }
+
+    @Override
+    public CursorPage<TicketSummary> getClaimableTicketSummariesPage(Long technicianId, String cursor, int size) {
+        TechnicianSupportStaff technician = (TechnicianSupportStaff) userRepository.findById(technicianId)
+            .orElse(null);
+
+        if (technician == null || technician.getDepartment() == null) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+
+        return getUnassignedTicketSummariesForDepartmentPage(technician.getDepartment().getId(), cursor, size);
+    }
+
+    // One extra row tells us whether another page follows
+    private Limit pageLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
+
+    private <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, TicketCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode());
+    }
+
     // ========== FUNCTIONALITY 3: Internal Re-assignment and Chaining ==========
 
     @Override
@@ -274,6 +579,7 @@ public class TicketServiceImpl implements TicketService {
         }
 
         // Track previous assignee
+        Long previousAssigneeId = activeAssigneeId(ticket);
         ticket.setPreviousAssignee(currentTechnician);
         ticket.setAssignedTo(newTechnician);
         ticket.setAssignedAt(LocalDateTime.now());
@@ -281,6 +587,8 @@ public class TicketServiceImpl implements TicketService {
         ticket.setStatus(TicketStatus.ASSIGNED);
 
         ticket = ticketRepository.save(ticket);
+        workloadTracker.ticketMoved(previousAssigneeId, newTechnicianId);
+        notifyAssigned(ticket, previousAssigneeId);
 
         System.out.println(">>> Ticket #" + ticketId + " reassigned from " +
             (currentTechnician != null ? currentTechnician.getFullName() : "unassigned") +
@@ -315,11 +623,13 @@ public class TicketServiceImpl implements TicketService {
     @Override
     public Ticket transferTicketToDepartment(Long ticketId, Long newDepartmentId, String reason) {
         Ticket ticket = getTicketById(ticketId);
-        Department newDepartment = departmentRepository.findById(newDepartmentId)
+        Department newDepartment = departmentCache.findById(newDepartmentId)
             .orElseThrow(() -> new RuntimeException("Department not found"));
 
         Department oldDepartment = ticket.getAssignedDepartment();
         TechnicianSupportStaff oldTechnician = ticket.getAssignedTo();
+        Long previousAssigneeId = activeAssigneeId(ticket);
+        SlaTracker.TicketSla previousSla = SlaTracker.TicketSla.of(ticket);
 
         // Transfer to new department
         ticket.setAssignedDepartment(newDepartment);
@@ -329,6 +639,9 @@ public class TicketServiceImpl implements TicketService {
         ticket.setReassignmentCount(ticket.getReassignmentCount() + 1);
 
         ticket = ticketRepository.save(ticket);
+        workloadTracker.ticketMoved(previousAssigneeId, null);
+        slaTracker.ticketChanged(previousSla, SlaTracker.TicketSla.of(ticket));
+        notifyTransferred(ticket, oldDepartment, newDepartment);
 
         System.out.println(">>> Ticket #" + ticketId + " transferred from " +
             (oldDepartment != null ? oldDepartment.getName() : "unassigned") +
@@ -357,6 +670,8 @@ public class TicketServiceImpl implements TicketService {
         ticket.setStatus(TicketStatus.ASSIGNED);
 
         ticket = ticketRepository.save(ticket);
+        workloadTracker.ticketMoved(null, newTechnicianId);
+        notifyAssigned(ticket, null);
 
         System.out.println(">>> Ticket #" + ticketId + " assigned to " + newTechnician.getFullName() +
             " in " + newTechnician.getDepartment().getName());
@@ -382,31 +697,16 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     public TechnicianSupportStaff findLeastBusyTechnician(Long departmentId) {
-        List<User> users = userRepository.findAll();
-        List<TechnicianSupportStaff> technicians = users.stream()
-            .filter(u -> u instanceof TechnicianSupportStaff)
-            .map(u -> (TechnicianSupportStaff) u)
-            .filter(t -> t.getDepartment() != null && t.getDepartment().getId().equals(departmentId))
-            .filter(User::isActive)
-            .collect(Collectors.toList());
-
-        if (technicians.isEmpty()) {
+        // Answered from the live workload table instead of loading every user and counting per technician
+        Long technicianId = workloadTracker.findLeastBusy(departmentId);
+        if (technicianId == null) {
             return null;
         }
 
-        // Find technician with least workload
-        TechnicianSupportStaff leastBusy = technicians.get(0);
-        int minWorkload = getTechnicianWorkload(leastBusy.getId());
-
-        for (TechnicianSupportStaff tech : technicians) {
-            int workload = getTechnicianWorkload(tech.getId());
-            if (workload < minWorkload) {
-                minWorkload = workload;
-                leastBusy = tech;
-            }
-        }
-
-        return leastBusy;
+        return userRepository.findById(technicianId)
+            .filter(u -> u instanceof TechnicianSupportStaff)
+            .map(u -> (TechnicianSupportStaff) u)
+            .orElse(null);
     }
 
     @Override
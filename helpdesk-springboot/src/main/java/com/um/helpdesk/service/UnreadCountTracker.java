@@ -0,0 +1,299 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UnreadCount;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live unread-notification count per recipient, so the unread badge is served from memory.
+ *
+ * Each recipient has a LongAdder in a ConcurrentHashMap; NotificationServiceImpl and
+ * NotificationPipeline add to it after their transactions commit. The table is seeded with one
+ * GROUP BY query when the application is up and reconciled against the database on an interval,
+ * which corrects any drift (rows changed outside the services, or lost updates). Until it is
+ * seeded, counts are read from the database by recipient id.
+ *
+ * Reconciliation does not overwrite a count that changed while its query ran: the query may or
+ * may not have seen that change, so the recipient is left for the next round. A recipient first
+ * adjusted before the table was seeded has no base count and is read from the database until a
+ * round covers it.
+ */
+@Component
+public class UnreadCountTracker {
+
+    static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(5);
+
+    private final NotificationRepository notificationRepository;
+    private final long reconcileIntervalMillis;
+    private final boolean reconcile;
+    private final Thread worker;
+
+    private final ConcurrentHashMap<Long, Counter> counts = new ConcurrentHashMap<>();
+    // Adjustments share the read lock; a reconciliation takes the write lock only to open a round and to apply it
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long round = 0;
+    private volatile boolean loaded = false;
+
+    // Metrics
+    private final LongAdder servedFromMemory = new LongAdder();
+    private final LongAdder servedFromDatabase = new LongAdder();
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder corrected = new LongAdder();
+    private volatile long lastReconcileMillis;
+
+    @Autowired
+    public UnreadCountTracker(NotificationRepository notificationRepository) {
+        this(notificationRepository, RECONCILE_INTERVAL, true);
+    }
+
+    UnreadCountTracker(NotificationRepository notificationRepository, Duration reconcileInterval, boolean reconcile) {
+        this.notificationRepository = notificationRepository;
+        this.reconcileIntervalMillis = reconcileInterval.toMillis();
+        this.reconcile = reconcile;
+        this.worker = new Thread(this::reconcileLoop, "unread-reconcile");
+        this.worker.setDaemon(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+        if (reconcile && !worker.isAlive()) {
+            worker.start();
+        }
+    }
+
+    // ========== COUNTS ==========
+
+    public long getUnreadCount(Long recipientId) {
+        if (!loaded) {
+            servedFromDatabase.increment();
+            return notificationRepository.countUnreadByRecipientId(recipientId);
+        }
+        Counter counter = counts.get(recipientId);
+        if (counter != null && !counter.seeded) {
+            servedFromDatabase.increment();
+            return notificationRepository.countUnreadByRecipientId(recipientId);
+        }
+        servedFromMemory.increment();
+        // No counter: nothing unread at the last reconciliation and no change since
+        return counter == null ? 0 : Math.max(0, counter.unread.sum());
+    }
+
+    /**
+     * Adds delta (negative for notifications read or deleted) to the recipient's count once the
+     * current transaction commits.
+     */
+    public void adjust(Long recipientId, long delta) {
+        if (recipientId == null || delta == 0) {
+            return;
+        }
+        afterCommit(() -> apply(recipientId, delta));
+    }
+
+    /**
+     * Batch form of adjust, for writes that touch several recipients at once.
+     */
+    public void adjustAll(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> deltas.forEach(this::apply));
+    }
+
+    private void apply(Long recipientId, long delta) {
+        lock.readLock().lock();
+        try {
+            // Once seeded, a recipient without a counter had nothing unread
+            Counter counter = counts.computeIfAbsent(recipientId, id -> new Counter(loaded));
+            counter.unread.add(delta);
+            counter.changedInRound = round;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== RECONCILIATION ==========
+
+    private void reconcileLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(reconcileIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                System.out.println("❌ Unread count reconciliation failed, will retry: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces every count with the database's, except those adjusted while the query ran.
+     *
+     * @return the number of recipients whose count was wrong
+     */
+    public synchronized int reconcile() {
+        long startNanos = System.nanoTime();
+        long thisRound;
+        lock.writeLock().lock();
+        try {
+            thisRound = ++round;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, Long> actual = new HashMap<>();
+        for (UnreadCount row : notificationRepository.countUnreadByRecipient()) {
+            actual.put(row.getRecipientId(), row.getUnread());
+        }
+
+        int wrong = 0;
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Counter> entry : counts.entrySet()) {
+                Counter counter = entry.getValue();
+                if (counter.changedInRound == thisRound) {
+                    continue;
+                }
+                long expected = actual.getOrDefault(entry.getKey(), 0L);
+                long current = counter.unread.sum();
+                if (current != expected) {
+                    counter.unread.add(expected - current);
+                    if (counter.seeded) {
+                        wrong++;
+                    }
+                }
+                counter.seeded = true;
+            }
+            for (Map.Entry<Long, Long> entry : actual.entrySet()) {
+                if (!counts.containsKey(entry.getKey())) {
+                    Counter counter = new Counter(true);
+                    counter.unread.add(entry.getValue());
+                    counts.put(entry.getKey(), counter);
+                    if (loaded) {
+                        wrong++;
+                    }
+                }
+            }
+            // Only recipients with something unread, or a change pending, keep a counter
+            counts.values().removeIf(counter -> counter.seeded && counter.changedInRound != thisRound
+                && counter.unread.sum() == 0);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        reconciliations.increment();
+        corrected.add(wrong);
+        lastReconcileMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (wrong > 0) {
+            System.out.println(">>> Unread counts: corrected " + wrong + " recipient(s)");
+        }
+        return wrong;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ========== MONITORING ==========
+
+    public Metrics metrics() {
+        return new Metrics(counts.size(), loaded, servedFromMemory.sum(), servedFromDatabase.sum(),
+            reconciliations.sum(), corrected.sum(), lastReconcileMillis);
+    }
+
+    private static final class Counter {
+        private final LongAdder unread = new LongAdder();
+        private volatile long changedInRound;
+        private volatile boolean seeded;
+
+        private Counter(boolean seeded) {
+            this.seeded = seeded;
+        }
+    }
+
+    /**
+     * Point-in-time unread counter figures.
+     */
+    public static final class Metrics {
+        private final int recipients;
+        private final boolean loaded;
+        private final long servedFromMemory;
+        private final long servedFromDatabase;
+        private final long reconciliations;
+        private final long corrected;
+        private final long lastReconcileMillis;
+
+        private Metrics(int recipients, boolean loaded, long servedFromMemory, long servedFromDatabase,
+                        long reconciliations, long corrected, long lastReconcileMillis) {
+            this.recipients = recipients;
+            this.loaded = loaded;
+            this.servedFromMemory = servedFromMemory;
+            this.servedFromDatabase = servedFromDatabase;
+            this.reconciliations = reconciliations;
+            this.corrected = corrected;
+            this.lastReconcileMillis = lastReconcileMillis;
+        }
+
+        /** Recipients with a counter in memory */
+        public int getRecipients() {
+            return recipients;
+        }
+
+        /** False until the first reconciliation; counts come from the database until then */
+        public boolean isLoaded() {
+            return loaded;
+        }
+
+        public long getServedFromMemory() {
+            return servedFromMemory;
+        }
+
+        public long getServedFromDatabase() {
+            return servedFromDatabase;
+        }
+
+        public long getReconciliations() {
+            return reconciliations;
+        }
+
+        /** Recipient counts found wrong and fixed by reconciliation (drift) */
+        public long getCorrected() {
+            return corrected;
+        }
+
+        public long getLastReconcileMillis() {
+            return lastReconcileMillis;
+        }
+    }
+}
@@ -13,25 +13,32 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final DepartmentRepository departmentRepository;
+    private final TechnicianWorkloadTracker workloadTracker;
 
-    public UserServiceImpl(UserRepository userRepository, DepartmentRepository departmentRepository) {
+    public UserServiceImpl(UserRepository userRepository, DepartmentRepository departmentRepository,
+                           TechnicianWorkloadTracker workloadTracker) {
         this.userRepository = userRepository;
         this.departmentRepository = departmentRepository;
+        this.workloadTracker = workloadTracker;
     }
 
     @Override
     public User createUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (saved instanceof TechnicianSupportStaff) {
+            workloadTracker.technicianChanged((TechnicianSupportStaff) saved);
+        }
+        return saved;
     }
 
     @Override
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        return userRepository.findAllWithDepartment();
     }
 
     @Override
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        return userRepository.findWithDepartmentById(id)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
@@ -76,6 +83,7 @@ public class UserServiceImpl implements UserService {
             ((Staff) user).setDepartment(department);
         } else if (user instanceof TechnicianSupportStaff) {
             ((TechnicianSupportStaff) user).setDepartment(department);
+            workloadTracker.technicianChanged((TechnicianSupportStaff) user);
         } else {
             throw new RuntimeException("Only Staff and Technician can be assigned to departments");
         }
@@ -111,5 +119,6 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        workloadTracker.technicianRemoved(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.um.helpdesk.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.helpdesk.dto.TicketIntakeRequest;
+import com.um.helpdesk.dto.TicketIntakeResult;
+import com.um.helpdesk.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test: bulk intake reads the body a chunk at a time, answers a malformed start with 400, and
+ * ends the stream with an aborted line instead of cutting it short
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Ticket Batch Endpoint - Unit Tests")
+class TicketControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private TicketService ticketService;
+
+    private TicketController controller;
+    private final List<Integer> chunkSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        controller = new TicketController(ticketService, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should read the body and hand it to the service one chunk at a time")
+    void testStreamsInChunks() throws Exception {
+        createEveryItem();
+        ResponseEntity<StreamingResponseBody> response = controller.createTicketBatch(ndjson(120, -1));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyNoInteractions(ticketService);    // nothing is saved before the response streams
+        List<JsonNode> lines = run(response);
+        assertEquals(List.of(50, 50, 20), chunkSizes);
+        assertEquals(120, lines.size());
+        assertEquals(119, lines.get(119).get("index").asInt());
+        assertFalse(lines.get(119).get("aborted").asBoolean());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed item in the first chunk with 400 and save nothing")
+    void testMalformedStartIsBadRequest() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = controller.createTicketBatch(ndjson(10, 3));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        JsonNode error = run(response).get(0);
+        assertEquals(3, error.get("index").asInt());
+        assertTrue(error.get("aborted").asBoolean());
+        assertTrue(error.get("error").asText().contains("line 4"), error.get("error").asText());
+        verifyNoInteractions(ticketService);
+    }
+
+    @Test
+    @DisplayName("Should process what was read before a later malformed item, then end with an aborted line")
+    void testMalformedLaterItemEndsStream() throws Exception {
+        createEveryItem();
+        List<JsonNode> lines = run(controller.createTicketBatch(ndjson(80, 65)));
+
+        assertEquals(List.of(50, 15), chunkSizes);
+        assertEquals(66, lines.size());
+        JsonNode last = lines.get(65);
+        assertTrue(last.get("aborted").asBoolean());
+        assertEquals(65, last.get("index").asInt());
+        assertTrue(last.get("error").asText().contains("line 66"), last.get("error").asText());
+    }
+
+    @Test
+    @DisplayName("Should end with an aborted line for the failed chunk when the service throws mid-stream")
+    void testServiceFailureEndsStream() throws Exception {
+        when(ticketService.createTicketBatch(anyList(), anyInt())).thenAnswer(invocation -> {
+            int firstIndex = invocation.getArgument(1);
+            if (firstIndex == 50) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return created(invocation.getArgument(0), firstIndex);
+        });
+        List<JsonNode> lines = run(controller.createTicketBatch(ndjson(120, -1)));
+
+        assertEquals(51, lines.size());
+        JsonNode last = lines.get(50);
+        assertTrue(last.get("aborted").asBoolean());
+        assertEquals(50, last.get("index").asInt());
+        assertTrue(last.get("error").asText().contains("database unavailable"));
+        verify(ticketService, times(2)).createTicketBatch(anyList(), anyInt());
+    }
+
+    private void createEveryItem() {
+        when(ticketService.createTicketBatch(anyList(), anyInt())).thenAnswer(invocation ->
+            created(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    private List<TicketIntakeResult> created(List<TicketIntakeRequest> chunk, int firstIndex) {
+        chunkSizes.add(chunk.size());
+        List<TicketIntakeResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(TicketIntakeResult.created(firstIndex + i, (long) firstIndex + i + 1, "IT", null));
+        }
+        return results;
+    }
+
+    // count NDJSON tickets; the one at malformedIndex (when >= 0) is not valid JSON
+    private static ByteArrayInputStream ndjson(int count, int malformedIndex) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append(i == malformedIndex ? "{\"title\": broken}" : "{\"title\": \"WiFi down " + i
+                + "\", \"description\": \"No connection\", \"submittedById\": 1}").append('\n');
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> run(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
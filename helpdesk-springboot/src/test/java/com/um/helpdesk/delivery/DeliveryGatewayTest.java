@@ -0,0 +1,289 @@
+package com.um.helpdesk.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: external channels are sent through their adapters against loopback SMTP and HTTP
+ * sinks, each on its own lane, with the bulkhead, rate limit, timeout and circuit breaker of its policy
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Delivery Gateway - Integration Tests")
+class DeliveryGatewayTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final AtomicLong notificationIds = new AtomicLong(1_000);
+    private final List<DeliveryGateway> gateways = new ArrayList<>();
+    private SmtpSink smtp;
+    private HttpPushSink push;
+    private Student ali;
+    private Student mei;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new SmtpSink();
+        push = new HttpPushSink();
+        ali = student("ali@siswa.um.edu.my", "Ali Student", "+60123456789");
+        mei = student("mei@siswa.um.edu.my", "Mei Student", null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        gateways.forEach(DeliveryGateway::shutdown);
+        smtp.close();
+        push.close();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should send email over SMTP and push and SMS over HTTP, failing recipients without an address")
+    void testDeliversThroughStubServers() {
+        ChannelPolicy open = policy(4, 100, 0, 1, 2_000, 5, 1_000);
+        DeliveryGateway gateway = gateway(Map.of(DeliveryChannel.EMAIL, open, DeliveryChannel.PUSH_NOTIFICATION, open,
+            DeliveryChannel.SMS, open), smtpAdapter(), pushAdapter(DeliveryChannel.PUSH_NOTIFICATION),
+            pushAdapter(DeliveryChannel.SMS));
+        assertFalse(gateway.supports(DeliveryChannel.IN_APP));
+
+        DeliveryOutcome email = gateway.deliver(DeliveryChannel.EMAIL, notifications(ali, 20, "Tiket dihantar ✅")).join();
+        DeliveryOutcome pushed = gateway.deliver(DeliveryChannel.PUSH_NOTIFICATION, notifications(mei, 20, "Assigned")).join();
+        List<Notification> sms = new ArrayList<>(notifications(ali, 1, "Escalated"));
+        sms.addAll(notifications(mei, 1, "Escalated"));    // no phone number
+        DeliveryOutcome texted = gateway.deliver(DeliveryChannel.SMS, sms).join();
+
+        assertEquals(20, email.getDelivered().size());
+        assertTrue(email.getFailures().isEmpty());
+        assertEquals(20, smtp.getReceived().size());
+        smtp.getReceived().forEach(mail -> {
+            assertEquals("ali@siswa.um.edu.my", mail.recipient);
+            assertTrue(mail.data.contains("Subject: =?UTF-8?B?"), mail.data);
+        });
+
+        assertEquals(20, pushed.getDelivered().size());
+        assertEquals(1, texted.getDelivered().size());
+        assertEquals(sms.get(1).getId(), texted.getFailures().keySet().iterator().next());
+        assertTrue(texted.getFailures().values().iterator().next().contains("no phone number"));
+        assertEquals(21, push.getReceived().size());
+        assertTrue(push.getReceived().stream().anyMatch(body -> body.contains("\"to\":\"+60123456789\"")));
+
+        DeliveryGateway.Metrics metrics = gateway.metrics();
+        assertEquals(20, metrics.getChannels().get(DeliveryChannel.EMAIL).getSent());
+        assertTrue(metrics.getChannels().get(DeliveryChannel.EMAIL).getLatencyP99Millis() > 0);
+        assertTrue(metrics.getChannels().get(DeliveryChannel.EMAIL).getThroughputPerSecond() >= 0);
+        assertEquals(1, metrics.getChannels().get(DeliveryChannel.SMS).getNoAddress());
+        // A missing address is not the gateway's fault
+        assertEquals("CLOSED", metrics.getChannels().get(DeliveryChannel.SMS).getCircuitState());
+    }
+
+    @Test
+    @DisplayName("Should keep a stalled push gateway from delaying email, refusing what its bulkhead cannot hold")
+    void testBulkheadIsolatesSlowChannel() throws Exception {
+        push.setDelay(Duration.ofMillis(800));
+        DeliveryGateway gateway = gateway(Map.of(
+                DeliveryChannel.PUSH_NOTIFICATION, policy(1, 2, 0, 1, 5_000, 5, 1_000),
+                DeliveryChannel.EMAIL, policy(4, 100, 0, 1, 2_000, 5, 1_000)),
+            smtpAdapter(), pushAdapter(DeliveryChannel.PUSH_NOTIFICATION));
+
+        long start = System.nanoTime();
+        CompletableFuture<DeliveryOutcome> pushing =
+            gateway.deliver(DeliveryChannel.PUSH_NOTIFICATION, notifications(mei, 5, "Assigned"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(300), "deliver() blocked on the transport");
+
+        DeliveryOutcome email = gateway.deliver(DeliveryChannel.EMAIL, notifications(ali, 10, "Submitted"))
+            .get(2, TimeUnit.SECONDS);
+        assertEquals(10, email.getDelivered().size());
+        assertFalse(pushing.isDone(), "Push should still be sending");
+
+        // One sending, two queued; the other two refused at once
+        DeliveryOutcome pushed = pushing.get(10, TimeUnit.SECONDS);
+        assertEquals(3, pushed.getDelivered().size());
+        assertEquals(2, pushed.getFailures().size());
+        pushed.getFailures().values().forEach(reason -> assertEquals("PUSH_NOTIFICATION delivery queue full", reason));
+        assertEquals(2, gateway.metrics().getChannels().get(DeliveryChannel.PUSH_NOTIFICATION).getRejected());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after consecutive failures, fail fast, then close it after a good trial")
+    void testCircuitBreaker() throws Exception {
+        push.setStatus(503);
+        DeliveryGateway gateway = gateway(Map.of(DeliveryChannel.PUSH_NOTIFICATION, policy(1, 100, 0, 1, 2_000, 3, 300)),
+            pushAdapter(DeliveryChannel.PUSH_NOTIFICATION));
+
+        DeliveryOutcome failing = gateway.deliver(DeliveryChannel.PUSH_NOTIFICATION, notifications(mei, 10, "Assigned")).join();
+        assertEquals(10, failing.getFailures().size());
+        assertEquals(3, push.getRequests());    // the rest never reached the gateway
+        assertEquals(3, failing.getFailures().values().stream().filter(r -> r.contains("HTTP 503")).count());
+        assertEquals(7, failing.getFailures().values().stream().filter(r -> r.equals("PUSH_NOTIFICATION circuit open")).count());
+        DeliveryGateway.ChannelMetrics open = gateway.metrics().getChannels().get(DeliveryChannel.PUSH_NOTIFICATION);
+        assertEquals("OPEN", open.getCircuitState());
+        assertEquals(7, open.getShortCircuited());
+
+        push.setStatus(200);
+        Thread.sleep(400);
+        DeliveryOutcome trial = gateway.deliver(DeliveryChannel.PUSH_NOTIFICATION, notifications(mei, 1, "Assigned")).join();
+        assertEquals(1, trial.getDelivered().size());
+        assertEquals("CLOSED", gateway.metrics().getChannels().get(DeliveryChannel.PUSH_NOTIFICATION).getCircuitState());
+    }
+
+    @Test
+    @DisplayName("Should pace sends to the channel's rate, and fail sends that exceed the timeout")
+    void testRateLimitAndTimeout() {
+        DeliveryGateway gateway = gateway(Map.of(
+                DeliveryChannel.EMAIL, policy(4, 100, 10, 2, 5_000, 5, 1_000),
+                DeliveryChannel.PUSH_NOTIFICATION, policy(1, 100, 0, 1, 150, 5, 1_000)),
+            smtpAdapter(), pushAdapter(DeliveryChannel.PUSH_NOTIFICATION));
+
+        // A burst of 2, then 10 per second
+        long start = System.nanoTime();
+        DeliveryOutcome email = gateway.deliver(DeliveryChannel.EMAIL, notifications(ali, 12, "Submitted")).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(12, email.getDelivered().size());
+        assertTrue(elapsedMillis >= 900, "12 sends took only " + elapsedMillis + " ms");
+
+        push.setDelay(Duration.ofMillis(600));
+        DeliveryOutcome pushed = gateway.deliver(DeliveryChannel.PUSH_NOTIFICATION, notifications(mei, 1, "Assigned")).join();
+        assertEquals(1, pushed.getFailures().size());
+        assertTrue(pushed.getFailures().values().iterator().next().contains("timed out"));
+        assertEquals(1, gateway.metrics().getChannels().get(DeliveryChannel.PUSH_NOTIFICATION).getTimedOut());
+    }
+
+    @Test
+    @DisplayName("Should refuse an email address that would inject SMTP commands or headers")
+    void testRejectsAddressInjection() {
+        Student eve = student("eve@siswa.um.edu.my>\r\nRCPT TO:<mallory@example.com", "Eve Student", null);
+        DeliveryGateway gateway = gateway(Map.of(DeliveryChannel.EMAIL, policy(1, 100, 0, 1, 2_000, 5, 1_000)),
+            smtpAdapter());
+
+        DeliveryOutcome email = gateway.deliver(DeliveryChannel.EMAIL, notifications(eve, 1, "Submitted")).join();
+
+        assertTrue(email.getDelivered().isEmpty());
+        assertTrue(email.getFailures().values().iterator().next().contains("invalid email address"));
+        assertTrue(smtp.getReceived().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+            () -> new SmtpDeliveryAdapter("127.0.0.1", smtp.getPort(), "helpdesk@um.edu.my\r\nBcc: all@um.edu.my"));
+    }
+
+    @Test
+    @DisplayName("Should fail refused recipients without opening the circuit for everyone else")
+    void testRecipientRejectionsLeaveCircuitClosed() {
+        smtp.reject("gone@siswa.um.edu.my");
+        List<Notification> batch = new ArrayList<>();
+        batch.addAll(notifications(student("eve one@siswa.um.edu.my", "Eve Student", null), 3, "Submitted"));
+        batch.addAll(notifications(student("<eve@siswa.um.edu.my>", "Eve Again", null), 3, "Submitted"));
+        batch.addAll(notifications(student("gone@siswa.um.edu.my", "Gone Student", null), 3, "Submitted"));
+        DeliveryGateway gateway = gateway(Map.of(DeliveryChannel.EMAIL, policy(1, 100, 0, 1, 2_000, 3, 30_000)),
+            smtpAdapter());
+
+        DeliveryOutcome refused = gateway.deliver(DeliveryChannel.EMAIL, batch).join();
+        assertEquals(9, refused.getFailures().size());
+        assertEquals(3, refused.getFailures().values().stream().filter(r -> r.contains("SMTP 550")).count());
+        DeliveryGateway.ChannelMetrics metrics = gateway.metrics().getChannels().get(DeliveryChannel.EMAIL);
+        assertEquals("CLOSED", metrics.getCircuitState());
+        assertEquals(0, metrics.getCircuitOpened());
+        assertEquals(9, metrics.getRecipientRejected());
+
+        DeliveryOutcome email = gateway.deliver(DeliveryChannel.EMAIL, notifications(ali, 2, "Submitted")).join();
+        assertEquals(2, email.getDelivered().size());
+    }
+
+    @Test
+    @DisplayName("Should time out an SMTP session whose replies add up past the timeout, each within it")
+    void testSmtpSessionDeadline() {
+        smtp.setDelay(Duration.ofMillis(220));    // five delayed replies: 1.1 s in all
+        DeliveryGateway gateway = gateway(Map.of(DeliveryChannel.EMAIL, policy(1, 100, 0, 1, 1_000, 5, 1_000)),
+            smtpAdapter());
+
+        long start = System.nanoTime();
+        DeliveryOutcome email = gateway.deliver(DeliveryChannel.EMAIL, notifications(ali, 1, "Submitted")).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(1, email.getFailures().size());
+        assertTrue(email.getFailures().values().iterator().next().contains("timed out"));
+        assertTrue(elapsedMillis < 1_100, "Session ran for " + elapsedMillis + " ms");
+        assertEquals(1, gateway.metrics().getChannels().get(DeliveryChannel.EMAIL).getTimedOut());
+    }
+
+    @Test
+    @DisplayName("Should settle a batch within its deadline, failing messages still queued when it passes")
+    void testBatchDeadline() {
+        push.setDelay(Duration.ofMillis(300));
+        DeliveryGateway gateway = gateway(Map.of(DeliveryChannel.PUSH_NOTIFICATION, policy(1, 100, 0, 1, 5_000, 50, 1_000)),
+            pushAdapter(DeliveryChannel.PUSH_NOTIFICATION));
+
+        long start = System.nanoTime();
+        DeliveryOutcome pushed = gateway.deliver(DeliveryChannel.PUSH_NOTIFICATION, notifications(mei, 10, "Assigned"),
+            Duration.ofMillis(500)).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Served one at a time: the first is sent, the second is cut short, the rest never start
+        assertTrue(elapsedMillis < 1_500, "Settled after " + elapsedMillis + " ms");
+        assertEquals(1, pushed.getDelivered().size());
+        assertEquals(9, pushed.getFailures().size());
+        assertEquals(8, pushed.getFailures().values().stream()
+            .filter(reason -> reason.equals("PUSH_NOTIFICATION not sent before the batch deadline")).count());
+        assertEquals(8, gateway.metrics().getChannels().get(DeliveryChannel.PUSH_NOTIFICATION).getExpired());
+    }
+
+    private DeliveryGateway gateway(Map<DeliveryChannel, ChannelPolicy> policies, DeliveryAdapter... adapters) {
+        DeliveryGateway gateway = new DeliveryGateway(List.of(adapters), policies::get, userRepository);
+        gateways.add(gateway);
+        return gateway;
+    }
+
+    private DeliveryAdapter smtpAdapter() {
+        return new SmtpDeliveryAdapter("127.0.0.1", smtp.getPort(), "helpdesk@um.edu.my");
+    }
+
+    private DeliveryAdapter pushAdapter(DeliveryChannel channel) {
+        return new HttpDeliveryAdapter(channel, push.getUri(), new ObjectMapper());
+    }
+
+    private static ChannelPolicy policy(int concurrency, int queueCapacity, double ratePerSecond, int burst,
+                                        long timeoutMillis, int failureThreshold, long openMillis) {
+        return new ChannelPolicy(concurrency, queueCapacity, ratePerSecond, burst, Duration.ofMillis(timeoutMillis),
+            failureThreshold, Duration.ofMillis(openMillis));
+    }
+
+    // Not saved: the gateway only reads ids, recipients and content
+    private List<Notification> notifications(User recipient, int count, String title) {
+        List<Notification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Notification notification = new Notification();
+            notification.setId(notificationIds.incrementAndGet());
+            notification.setRecipient(recipient);
+            notification.setTitle(title);
+            notification.setMessage("Ticket #" + i + "\n.leading dot line");
+            notification.setType(NotificationType.TICKET_SUBMITTED);
+            notification.setPriority(NotificationPriority.NORMAL);
+            notifications.add(notification);
+        }
+        return notifications;
+    }
+
+    private Student student(String email, String name, String phone) {
+        Student student = new Student();
+        student.setEmail(email);
+        student.setFullName(name);
+        student.setPhoneNumber(phone);
+        return userRepository.save(student);
+    }
+}
@@ -0,0 +1,84 @@
+package com.um.helpdesk.delivery;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loopback HTTP push gateway for tests: keeps every request body and answers with a settable status
+ * after a settable delay.
+ */
+class HttpPushSink implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "push-sink");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+
+    HttpPushSink() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.createContext("/push", exchange -> {
+            requests.incrementAndGet();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int replyStatus = status;
+            if (replyStatus / 100 == 2) {
+                received.add(body);
+            }
+            exchange.sendResponseHeaders(replyStatus, -1);
+            exchange.close();
+        });
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    URI getUri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/push");
+    }
+
+    // Accepted messages' JSON bodies
+    List<String> getReceived() {
+        return received;
+    }
+
+    // Every request that reached the sink, accepted or not
+    int getRequests() {
+        return requests.get();
+    }
+
+    void setStatus(int status) {
+        this.status = status;
+    }
+
+    void setDelay(Duration delay) {
+        this.delayMillis = delay.toMillis();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+}
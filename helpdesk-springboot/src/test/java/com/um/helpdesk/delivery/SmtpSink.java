@@ -0,0 +1,127 @@
+package com.um.helpdesk.delivery;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback SMTP server for tests: accepts every message and keeps it, except to mailboxes it is told to
+ * reject at RCPT TO. A delay before every reply after the greeting simulates a slow relay.
+ */
+class SmtpSink implements AutoCloseable {
+
+    /**
+     * A message as received: the envelope recipient and the raw DATA section
+     */
+    static final class Mail {
+        final String recipient;
+        final String data;
+
+        Mail(String recipient, String data) {
+            this.recipient = recipient;
+            this.data = data;
+        }
+    }
+
+    private final ServerSocket server;
+    private final ExecutorService sessions = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "smtp-sink");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Mail> received = new CopyOnWriteArrayList<>();
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    private volatile long delayMillis;
+
+    SmtpSink() throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        sessions.execute(this::acceptLoop);
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    List<Mail> getReceived() {
+        return received;
+    }
+
+    void setDelay(Duration delay) {
+        this.delayMillis = delay.toMillis();
+    }
+
+    void reject(String mailbox) {
+        rejected.add(mailbox);
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                sessions.execute(() -> session(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            reply(out, "220 sink ready");
+            String recipient = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                String command = line.toUpperCase();
+                if (command.startsWith("HELO") || command.startsWith("EHLO") || command.startsWith("MAIL FROM")) {
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RCPT TO")) {
+                    recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    reply(out, rejected.contains(recipient) ? "550 5.1.1 Mailbox unavailable" : "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        data.append(line).append('\n');
+                    }
+                    if (delayMillis > 0) {
+                        Thread.sleep(delayMillis);
+                    }
+                    received.add(new Mail(recipient, data.toString()));
+                    reply(out, "250 Queued");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // client went away
+        }
+    }
+
+    private static void reply(Writer out, String line) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        sessions.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.um.helpdesk.delivery;
+
+import com.um.helpdesk.entity.NotificationPriority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.um.helpdesk.entity.NotificationPriority.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the weighted priority queue used by the notification pipeline and delivery lanes
+ */
+@DisplayName("Weighted Priority Queue - Unit Tests")
+class WeightedPriorityQueueTest {
+
+    @Test
+    @DisplayName("Should serve each round by weight, higher priorities first, until every level is drained")
+    void testWeightedRounds() {
+        WeightedPriorityQueue<NotificationPriority> queue = new WeightedPriorityQueue<>(100, p -> p, Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            for (NotificationPriority priority : NotificationPriority.values()) {
+                assertTrue(queue.offer(priority));
+            }
+        }
+
+        List<NotificationPriority> round = new ArrayList<>();
+        assertEquals(15, queue.drainTo(round, 15));
+        List<NotificationPriority> expected = new ArrayList<>();
+        expected.addAll(Collections.nCopies(8, URGENT));
+        expected.addAll(Collections.nCopies(4, HIGH));
+        expected.addAll(Collections.nCopies(2, NORMAL));
+        expected.add(LOW);
+        assertEquals(expected, round);
+
+        List<NotificationPriority> rest = new ArrayList<>();
+        assertEquals(25, queue.drainTo(rest));
+        assertEquals(2, rest.stream().filter(p -> p == URGENT).count());
+        assertEquals(9, rest.stream().filter(p -> p == LOW).count());
+        assertTrue(queue.isEmpty());
+        assertEquals(10, queue.metrics().get(LOW).getDequeued());
+    }
+
+    @Test
+    @DisplayName("Should give a level whose head has aged the weight of the level above")
+    void testAging() throws Exception {
+        WeightedPriorityQueue<NotificationPriority> queue = new WeightedPriorityQueue<>(100, p -> p, Duration.ofMillis(50));
+        for (int i = 0; i < 10; i++) {
+            queue.offer(LOW);
+        }
+        Thread.sleep(80);
+        for (int i = 0; i < 20; i++) {
+            queue.offer(URGENT);
+        }
+
+        List<NotificationPriority> round = new ArrayList<>();
+        queue.drainTo(round, 10);
+        // LOW served twice in the round, as NORMAL would be
+        assertEquals(8, round.stream().filter(p -> p == URGENT).count());
+        assertEquals(2, round.stream().filter(p -> p == LOW).count());
+        assertEquals(1, queue.metrics().get(LOW).getPromoted());
+        assertEquals(0, queue.metrics().get(URGENT).getPromoted());
+    }
+
+    @Test
+    @DisplayName("Should refuse offers when full, wait up to the timeout, and support removal")
+    void testCapacityAndRemoval() throws Exception {
+        WeightedPriorityQueue<NotificationPriority> queue = new WeightedPriorityQueue<>(3, p -> p);
+        assertTrue(queue.offer(LOW));
+        assertTrue(queue.offer(HIGH));
+        assertTrue(queue.offer(NORMAL));
+        assertFalse(queue.offer(URGENT));
+        long start = System.nanoTime();
+        assertFalse(queue.offer(URGENT, 30, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+        assertEquals(0, queue.remainingCapacity());
+
+        Iterator<NotificationPriority> it = queue.iterator();
+        assertEquals(HIGH, it.next());    // highest level first
+        assertEquals(HIGH, queue.peek());
+        assertTrue(queue.remove(NORMAL));
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.metrics().get(LOW).getDepth());
+
+        assertEquals(HIGH, queue.take());
+        assertEquals(LOW, queue.poll(10, TimeUnit.MILLISECONDS));
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Should keep urgent p99 wait flat while a single worker is flooded with low-priority tasks")
+    void testUrgentLatencyUnderLowFlood() throws Exception {
+        double idle = urgentWaitP99(0);
+        double flooded = urgentWaitP99(5_000);
+
+        // The flood is 5 s of work; served in arrival order the urgent tasks would have waited seconds
+        assertTrue(flooded < idle + 10, "Urgent p99 " + flooded + " ms under the flood, " + idle + " ms idle");
+    }
+
+    // p99 of 100 urgent tasks submitted 5 ms apart to one worker that has a backlog of 1 ms LOW tasks
+    private static double urgentWaitP99(int lowBacklog) throws Exception {
+        WeightedPriorityQueue<Runnable> queue = WeightedPriorityQueue.forTasks(lowBacklog + 1_000, Duration.ofSeconds(5));
+        ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue);
+        worker.prestartAllCoreThreads();    // so every task goes through the queue
+        try {
+            for (int i = 0; i < lowBacklog; i++) {
+                worker.execute(WeightedPriorityQueue.task(LOW, () -> LockSupport.parkNanos(1_000_000)));
+            }
+            for (int i = 0; i < 100; i++) {
+                worker.execute(WeightedPriorityQueue.task(URGENT, () -> LockSupport.parkNanos(100_000)));
+                Thread.sleep(5);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (queue.metrics().get(URGENT).getDequeued() < 100 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            WeightedPriorityQueue.LevelMetrics urgent = queue.metrics().get(URGENT);
+            assertEquals(100, urgent.getDequeued());
+            if (lowBacklog > 0) {
+                assertTrue(queue.metrics().get(LOW).getDepth() > lowBacklog / 2, "The flood was already drained");
+            }
+            return urgent.getWaitP99Millis();
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.um.helpdesk.forecast;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: backtests and forecasts 10 years of hourly buckets (87,600) per invocation,
+ * for each model of the standard hourly engine. Add -prof gc to confirm ~0 B/op.
+ *
+ * Run with:
+ *   mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main ForecastBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForecastBenchmark {
+
+    private static final int BUCKETS = 10 * 365 * 24;
+    private static final int HORIZON = 24 * 7;
+
+    @Param({"Linear Regression", "Moving-Window Regression (48)", "Exponential Smoothing", "Holt-Winters (24)"})
+    public String model;
+
+    private ForecastModel forecastModel;
+    private double[] series;
+    private double[] fitted;
+    private double[] forecast;
+
+    @Setup
+    public void setUp() {
+        for (ForecastModel candidate : ForecastEngine.standard(24).getModels()) {
+            if (candidate.name().equals(model)) {
+                forecastModel = candidate;
+            }
+        }
+        series = ForecastModelsTest.noisySeasonalSeries(BUCKETS, 24, new Random(42));
+        fitted = new double[BUCKETS];
+        forecast = new double[HORIZON];
+    }
+
+    @Benchmark
+    public double backtest() {
+        return Backtest.mape(forecastModel, series, BUCKETS, 48, fitted);
+    }
+
+    @Benchmark
+    public void forecast(Blackhole bh) {
+        forecastModel.forecast(series, BUCKETS, forecast);
+        bh.consume(forecast);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ForecastBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.um.helpdesk.forecast;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit Tests for the forecasting models and the backtesting harness
+ */
+@DisplayName("Forecasting Models - Unit Tests")
+class ForecastModelsTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    @DisplayName("Linear regression should extend a straight line, over all history or a moving window")
+    void testLinearTrend() {
+        double[] series = {1, 2, 3, 4};
+        double[] out = new double[2];
+        new LinearTrendModel(0).forecast(series, series.length, out);
+        assertArrayEquals(new double[]{5, 6}, out, DELTA);
+
+        // Only the last three buckets (a rising line 10, 20, 30) count in a window of 3
+        double[] bent = {50, 40, 10, 20, 30};
+        new LinearTrendModel(3).forecast(bent, bent.length, out);
+        assertArrayEquals(new double[]{40, 50}, out, DELTA);
+    }
+
+    @Test
+    @DisplayName("One-step-ahead regression should match refitting at every bucket")
+    void testLinearTrendBacktestMatchesRefit() {
+        double[] series = noisySeasonalSeries(500, 24, new Random(7));
+        for (int window : new int[]{0, 48}) {
+            LinearTrendModel model = new LinearTrendModel(window);
+            double[] fitted = new double[series.length];
+            model.oneStepAhead(series, series.length, fitted);
+
+            assertTrue(Double.isNaN(fitted[0]));
+            double[] next = new double[1];
+            for (int t = 1; t < series.length; t++) {
+                model.forecast(series, t, next);
+                assertEquals(next[0], fitted[t], 1e-6, "window " + window + ", bucket " + t);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Exponential smoothing should forecast the smoothed level")
+    void testExponentialSmoothing() {
+        double[] series = {10, 20, 20};
+        double[] out = new double[3];
+        new ExponentialSmoothingModel(0.5).forecast(series, series.length, out);
+        // 10 -> 15 -> 17.5
+        assertArrayEquals(new double[]{17.5, 17.5, 17.5}, out, DELTA);
+
+        double[] fitted = new double[series.length];
+        new ExponentialSmoothingModel(0.5).oneStepAhead(series, series.length, fitted);
+        assertTrue(Double.isNaN(fitted[0]));
+        assertEquals(10, fitted[1], DELTA);
+        assertEquals(15, fitted[2], DELTA);
+    }
+
+    @Test
+    @DisplayName("Holt-Winters should reproduce an exact seasonal pattern with a trend")
+    void testHoltWintersLearnsSeason() {
+        int period = 7;
+        double[] season = {5, 9, 12, 10, 8, 2, 1};
+        double[] series = new double[10 * period];
+        for (int t = 0; t < series.length; t++) {
+            series[t] = 20 + 0.5 * t + season[t % period];
+        }
+
+        HoltWintersModel model = new HoltWintersModel(0.3, 0.1, 0.2, period);
+        double[] out = new double[period];
+        model.forecast(series, series.length, out);
+        for (int h = 0; h < period; h++) {
+            int t = series.length + h;
+            assertEquals(20 + 0.5 * t + season[t % period], out[h], 0.5, "bucket +" + (h + 1));
+        }
+
+        double[] fitted = new double[series.length];
+        model.oneStepAhead(series, series.length, fitted);
+        assertTrue(Double.isNaN(fitted[2 * period - 1]));
+        assertFalse(Double.isNaN(fitted[2 * period]));
+        assertThrows(IllegalArgumentException.class, () -> model.forecast(series, 2 * period - 1, out));
+    }
+
+    @Test
+    @DisplayName("Backtest should score every model and rank Holt-Winters first on seasonal data")
+    void testEngineRanksModelsByMape() {
+        double[] series = noisySeasonalSeries(24 * 60, 24, new Random(42));
+
+        ForecastEngine engine = ForecastEngine.standard(24);
+        List<ForecastEngine.Result> results = engine.run(series, series.length, 24);
+
+        assertEquals(4, results.size());
+        results.forEach(r -> assertFalse(Double.isNaN(r.getMape()), r.getModel()));
+        assertEquals("Holt-Winters (24)", ForecastEngine.best(results).getModel());
+        assertEquals(24, ForecastEngine.best(results).getForecast().length);
+
+        // Too short for Holt-Winters: it is left out instead of failing
+        assertEquals(3, engine.run(series, 30, 24).size());
+    }
+
+    @Test
+    @DisplayName("MAPE should skip zero actuals and unforecastable buckets")
+    void testMape() {
+        double[] actual = {0, 10, 20, 0, 40};
+        double[] fitted = {Double.NaN, 11, 18, 5, 40};
+        // |1/10|, |2/20|, 0 over three scored buckets
+        assertEquals(20.0 / 3, Backtest.mape(actual, fitted, 0, actual.length), DELTA);
+        assertTrue(Double.isNaN(Backtest.mape(actual, fitted, 0, 1)));
+    }
+
+    @Test
+    @DisplayName("Models should not allocate once warmed up")
+    void testHotPathIsAllocationFree() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        double[] series = noisySeasonalSeries(24 * 365, 24, new Random(1));
+        double[] fitted = new double[series.length];
+        double[] out = new double[24];
+        List<ForecastModel> models = ForecastEngine.standard(24).getModels();
+        for (int i = 0; i < 3; i++) {
+            for (ForecastModel model : models) {
+                model.oneStepAhead(series, series.length, fitted);
+                model.forecast(series, series.length, out);
+            }
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (ForecastModel model : models) {
+            model.oneStepAhead(series, series.length, fitted);
+            model.forecast(series, series.length, out);
+            Backtest.mape(series, fitted, 48, series.length);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        // Leaves room for the bookkeeping of the measurement itself, not for per-bucket garbage
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+
+    // Daily cycle with a slow upward drift and noise, never zero
+    static double[] noisySeasonalSeries(int length, int period, Random random) {
+        double[] series = new double[length];
+        for (int t = 0; t < length; t++) {
+            double cycle = 10 * Math.sin(2 * Math.PI * (t % period) / period);
+            series[t] = 30 + 0.01 * t + cycle + random.nextGaussian();
+        }
+        return series;
+    }
+}
@@ -0,0 +1,307 @@
+package com.um.helpdesk.repository;
+
+import com.um.helpdesk.entity.*;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ParameterMetaData;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-plan regression test for the entity indexes.
+ *
+ * Each repository method is called once, the SQL Hibernate actually sent is captured, and
+ * H2's EXPLAIN for that SQL must name the expected index on the filtered table. Dropping or
+ * reordering an index (or changing a query so it no longer matches one) fails the build.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.um.helpdesk.repository.QueryPlanIndexTest$CapturingInspector")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Entity Indexes - Query Plan Tests")
+class QueryPlanIndexTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long departmentId;
+    private Long technicianId;
+    private User student;
+
+    /**
+     * Seeds a realistic spread (most tickets assigned, a few departments, many students) and runs
+     * ANALYZE, so H2 costs the indexes with real column selectivity instead of its defaults.
+     */
+    @BeforeEach
+    void setUp() {
+        List<Department> departments = new ArrayList<>();
+        for (int d = 0; d < 5; d++) {
+            departments.add(departmentRepository.save(new Department("Department " + d, "D" + d)));
+        }
+        List<User> technicians = new ArrayList<>();
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            TechnicianSupportStaff tech = new TechnicianSupportStaff();
+            tech.setEmail("tech" + i + "@um.edu.my");
+            tech.setFullName("Technician " + i);
+            tech.setDepartment(departments.get(i % departments.size()));
+            technicians.add(tech);
+        }
+        for (int i = 0; i < 40; i++) {
+            Student student = new Student();
+            student.setEmail("student" + i + "@siswa.um.edu.my");
+            student.setFullName("Student " + i);
+            students.add(student);
+        }
+        technicians = userRepository.saveAll(technicians);
+        students = userRepository.saveAll(students);
+
+        TicketPriority[] priorities = TicketPriority.values();
+        TicketStatus[] assignedStatuses = {TicketStatus.ASSIGNED, TicketStatus.IN_PROGRESS,
+                                           TicketStatus.RESOLVED, TicketStatus.CLOSED};
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Ticket ticket = new Ticket("Ticket " + i, "Description " + i, students.get(i % students.size()));
+            ticket.setPriority(priorities[i % priorities.length]);
+            ticket.setAssignedDepartment(departments.get(i % departments.size()));
+            ticket.setSubmittedAt(LocalDateTime.now().minusDays(i));
+            if (i % 10 == 0) {
+                ticket.setNextEscalationTime(LocalDateTime.now().plusHours(i));
+            }
+            if (i % 5 == 0) {
+                ticket.setStatus(TicketStatus.OPEN);
+            } else {
+                ticket.setAssignedTo((TechnicianSupportStaff) technicians.get(i % technicians.size()));
+                ticket.setStatus(assignedStatuses[i % assignedStatuses.length]);
+            }
+            tickets.add(ticket);
+        }
+        ticketRepository.saveAll(tickets);
+
+        NotificationStatus[] statuses = NotificationStatus.values();
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Notification notification = new Notification();
+            notification.setRecipient(i % 3 == 0 ? technicians.get(i % technicians.size()) : students.get(i % students.size()));
+            notification.setTitle("Notification " + i);
+            notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+            notification.setStatus(statuses[i % statuses.length]);
+            notification.setRead(i % 4 != 0);
+            notification.setRetryCount(i % 4);
+            notification.setNextAttemptAt(LocalDateTime.now().plusMinutes(i - 150));
+            notifications.add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+
+        jdbcTemplate.execute("ANALYZE");
+        departmentId = departments.get(0).getId();
+        technicianId = technicians.get(0).getId();
+        student = students.get(0);
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Ticket filters use the ticket indexes")
+    void testTicketQueriesUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertIndexUsed("tickets", () -> ticketRepository.findPage(Limit.of(10)), "idx_ticket_created_id");
+        assertIndexUsed("tickets", () -> ticketRepository.findPageAfter(now, 1L, Limit.of(10)),
+            "idx_ticket_created_id");
+        assertIndexUsed("tickets", () -> ticketRepository.findSummaryPage(Limit.of(10)), "idx_ticket_created_id");
+
+        assertIndexUsed("tickets", () -> ticketRepository.findByStatus(TicketStatus.OPEN),
+            "idx_ticket_status_created_id");
+        assertIndexUsed("tickets", () -> ticketRepository.findPageByStatus(TicketStatus.OPEN, Limit.of(10)),
+            "idx_ticket_status_created_id");
+        assertIndexUsed("tickets", () -> ticketRepository.findPageByStatusAfter(TicketStatus.OPEN, now, 1L, Limit.of(10)),
+            "idx_ticket_status_created_id");
+        assertIndexUsed("tickets", () -> ticketRepository.findSummaryPageByStatus(TicketStatus.OPEN, Limit.of(10)),
+            "idx_ticket_status_created_id");
+        assertIndexUsed("tickets",
+            () -> ticketRepository.findSummaryPageByStatusAfter(TicketStatus.OPEN, now, 1L, Limit.of(10)),
+            "idx_ticket_status_created_id");
+
+        // Unassigned queue: department + assignedTo IS NULL + status all seek into the queue index
+        assertIndexUsed("tickets", () -> ticketRepository.findUnassignedByDepartment(departmentId), "idx_ticket_dept_queue");
+        assertIndexUsed("tickets", () -> ticketRepository.findUnassignedPageByDepartment(departmentId, Limit.of(10)),
+            "idx_ticket_dept_queue");
+        assertIndexUsed("tickets",
+            () -> ticketRepository.findUnassignedPageByDepartmentAfter(departmentId, 3, now, 1L, Limit.of(10)),
+            "idx_ticket_dept_queue");
+        assertIndexUsed("tickets", () -> ticketRepository.findUnassignedSummaryPageByDepartment(departmentId, Limit.of(10)),
+            "idx_ticket_dept_queue");
+        assertIndexUsed("tickets",
+            () -> ticketRepository.findUnassignedSummaryPageByDepartmentAfter(departmentId, 3, now, 1L, Limit.of(10)),
+            "idx_ticket_dept_queue");
+
+        assertIndexUsed("tickets", () -> ticketRepository.countActiveTicketsByTechnician(technicianId),
+            "idx_ticket_assignee_status");
+
+        // Single-column foreign-key filters: H2 keeps its own index per foreign key and may pick
+        // either that or ours, so any index leading with the filtered column is accepted
+        assertIndexUsed("tickets", () -> ticketRepository.findByAssignedDepartmentId(departmentId),
+            indexesLeadingWith("tickets", "department_id"));
+        assertIndexUsed("tickets", () -> ticketRepository.countActiveTicketsByDepartment(departmentId),
+            indexesLeadingWith("tickets", "department_id"));
+        assertIndexUsed("tickets", () -> ticketRepository.findByAssignedToId(technicianId),
+            indexesLeadingWith("tickets", "assigned_to_id"));
+        assertIndexUsed("tickets", () -> ticketRepository.findTechnicianWorkloads(),
+            indexesLeadingWith("tickets", "assigned_to_id"));
+        assertIndexUsed("tickets", () -> ticketRepository.findBySubmittedById(student.getId()),
+            indexesLeadingWith("tickets", "submitted_by_id"));
+
+        // Trend buckets read only the horizon's slice of submitted_at
+        LocalDateTime horizon = now.minusWeeks(4);
+        assertIndexUsed("tickets", () -> ticketRepository.countSubmittedPerDay(horizon, now), "idx_ticket_submitted");
+        assertIndexUsed("tickets", () -> ticketRepository.countSubmittedPerHour(horizon, now), "idx_ticket_submitted");
+        assertIndexUsed("tickets", () -> ticketRepository.countBySubmittedAtGreaterThanEqual(now), "idx_ticket_submitted");
+
+        // Escalation rebuild reads only the scheduled slice
+        assertIndexUsed("tickets", () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<TicketEscalationRow> rows = ticketRepository.streamEscalationSchedule()) {
+                rows.forEach(row -> { });
+            }
+        }), "idx_ticket_next_escalation");
+    }
+
+    @Test
+    @DisplayName("Notification filters use the notification indexes")
+    void testNotificationQueriesUseIndexes() {
+        // The unread badge count is answered from the index alone
+        assertIndexUsed("notifications", () -> notificationRepository.countByRecipientAndIsReadFalse(student),
+            "idx_notification_recipient_read");
+        assertIndexUsed("notifications", () -> notificationRepository.findByStatus(NotificationStatus.FAILED),
+            "idx_notification_retry_due");
+        // Retry claims seek the due slice of QUEUED_FOR_RETRY in nextAttemptAt order
+        LocalDateTime now = LocalDateTime.now();
+        assertIndexUsed("notifications", () -> notificationRepository.findDueRetryIds(now,
+                List.of(DeliveryChannel.EMAIL, DeliveryChannel.SMS), Limit.of(50)),
+            "idx_notification_retry_due");
+        assertIndexUsed("notifications", () -> notificationRepository.countDueRetries(now), "idx_notification_retry_due");
+        // Stream replay seeks one recipient's rows from a createdAt
+        assertIndexUsed("notifications", () -> notificationRepository.findCreatedSince(student.getId(),
+                now.minusMinutes(1), Limit.of(201)), "idx_notification_recipient_created");
+
+        assertIndexUsed("notifications", () -> notificationRepository.findByRecipient(student),
+            indexesLeadingWith("notifications", "user_id"));
+        assertIndexUsed("notifications", () -> notificationRepository.findByRecipientAndIsReadFalse(student),
+            indexesLeadingWith("notifications", "user_id"));
+        assertIndexUsed("notifications",
+            () -> notificationRepository.findByRecipientAndStatus(student, NotificationStatus.SENT),
+            indexesLeadingWith("notifications", "user_id"));
+    }
+
+    /**
+     * Runs the call, then EXPLAINs the last statement it sent that reads the given table and
+     * checks that one of the given indexes (and no table scan) is used for that table.
+     */
+    private void assertIndexUsed(String table, Runnable call, String... indexes) {
+        CapturingInspector.STATEMENTS.clear();
+        call.run();
+
+        String sql = null;
+        for (String statement : CapturingInspector.STATEMENTS) {
+            String lower = statement.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("select") && lower.contains(" " + table + " ")) {
+                sql = statement;
+            }
+        }
+        assertNotNull(sql, "No query against " + table + " was captured");
+
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        String plan = jdbcTemplate.query("EXPLAIN " + sql,
+            ps -> {
+                ParameterMetaData metaData = ps.getParameterMetaData();
+                for (int i = 1; i <= parameters; i++) {
+                    ps.setObject(i, sampleValue(metaData.getParameterType(i)));
+                }
+            },
+            rs -> rs.next() ? rs.getString(1) : "").toUpperCase(Locale.ROOT);
+
+        assertFalse(plan.contains("PUBLIC." + table.toUpperCase(Locale.ROOT) + ".TABLESCAN"),
+            "Unexpected table scan of " + table + " in plan:\n" + plan);
+        assertTrue(Arrays.stream(indexes).anyMatch(index -> plan.contains("PUBLIC." + index.toUpperCase(Locale.ROOT))),
+            "Expected one of " + Arrays.toString(indexes) + " in plan:\n" + plan);
+    }
+
+    // A non-NULL value of the parameter's type; a NULL would let H2 discard the predicate when costing indexes
+    private static Object sampleValue(int sqlType) {
+        switch (sqlType) {
+            case Types.TIMESTAMP:
+                return LocalDateTime.now();
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return 1;
+            case Types.BOOLEAN:
+                return false;
+            default:
+                return "OPEN";
+        }
+    }
+
+    private String[] indexesLeadingWith(String table, String column) {
+        return jdbcTemplate.queryForList(
+            "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+            "WHERE TABLE_NAME = ? AND COLUMN_NAME = ? AND ORDINAL_POSITION = 1",
+            String.class, table.toUpperCase(Locale.ROOT), column.toUpperCase(Locale.ROOT)).toArray(new String[0]);
+    }
+
+    /**
+     * Records every SQL statement Hibernate prepares, unchanged.
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
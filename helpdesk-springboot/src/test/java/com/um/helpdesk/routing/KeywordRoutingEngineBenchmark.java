@@ -0,0 +1,98 @@
+package com.um.helpdesk.routing;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: routes 100k synthetic tickets per invocation (reported per ticket).
+ *
+ * Run with:
+ *   mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main KeywordRoutingEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeywordRoutingEngineBenchmark {
+
+    private static final int TICKETS = 100_000;
+
+    private static final String[] WORDS = {
+        "cannot", "connect", "to", "the", "campus", "wifi", "network", "printer", "jammed", "level",
+        "lecture", "room", "air", "conditioning", "broken", "since", "monday", "tuition", "payment",
+        "refund", "exam", "grade", "course", "registration", "software", "install", "matlab", "lab",
+        "please", "help", "urgent", "building", "lighting", "password", "reset", "email", "outlook"
+    };
+
+    private static final String[] CATEGORIES = { "Network", "Facilities", "Finance", "Academic", "Other", null };
+
+    private KeywordRoutingEngine engine;
+    private String[] titles;
+    private String[] descriptions;
+    private String[] categories;
+
+    @Setup
+    public void setUp() {
+        engine = KeywordRoutingEngine.builder()
+            .department("IT", 1.0)
+            .department("FACILITIES", 1.0)
+            .department("FINANCE", 1.0)
+            .department("ACADEMIC", 1.0)
+            .keyword("network", "IT").keyword("computer", "IT").keyword("software", "IT")
+            .keyword("hardware", "IT").keyword("login", "IT").keyword("password", "IT")
+            .keyword("internet", "IT").keyword("wifi", "IT").keyword("email", "IT")
+            .keyword("room", "FACILITIES").keyword("building", "FACILITIES")
+            .keyword("maintenance", "FACILITIES").keyword("air conditioning", "FACILITIES")
+            .keyword("lighting", "FACILITIES").keyword("cleaning", "FACILITIES")
+            .keyword("payment", "FINANCE").keyword("tuition", "FINANCE").keyword("fees", "FINANCE")
+            .keyword("refund", "FINANCE").keyword("invoice", "FINANCE")
+            .keyword("enrollment", "ACADEMIC").keyword("course", "ACADEMIC").keyword("grade", "ACADEMIC")
+            .keyword("exam", "ACADEMIC").keyword("registration", "ACADEMIC")
+            .build();
+
+        Random random = new Random(42);
+        titles = new String[TICKETS];
+        descriptions = new String[TICKETS];
+        categories = new String[TICKETS];
+        for (int i = 0; i < TICKETS; i++) {
+            titles[i] = sentence(random, 4 + random.nextInt(4));
+            descriptions[i] = sentence(random, 20 + random.nextInt(40));
+            categories[i] = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        }
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKETS)
+    public void routeTickets(Blackhole bh) {
+        for (int i = 0; i < TICKETS; i++) {
+            bh.consume(engine.route(titles[i], descriptions[i], categories[i]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(KeywordRoutingEngineBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
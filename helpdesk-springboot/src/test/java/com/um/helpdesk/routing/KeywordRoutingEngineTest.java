@@ -0,0 +1,95 @@
+package com.um.helpdesk.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the keyword routing automaton
+ */
+@DisplayName("Keyword Routing Engine - Unit Tests")
+class KeywordRoutingEngineTest {
+
+    private KeywordRoutingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = KeywordRoutingEngine.builder()
+            .department("IT", 1.0)
+            .department("FACILITIES", 1.0)
+            .department("FINANCE", 1.0)
+            .keyword("network", "IT")
+            .keyword("wifi", "IT")
+            .keyword("room", "FACILITIES")
+            .keyword("air conditioning", "FACILITIES", 2.0)
+            .keyword("payment", "FINANCE")
+            .build();
+    }
+
+    @Test
+    @DisplayName("Should match keywords case-insensitively across all fields")
+    void testRoute_CaseInsensitive() {
+        assertEquals("IT", engine.route("Cannot connect", "The WIFI is down", null));
+        assertEquals("FINANCE", engine.route(null, null, "Payment"));
+    }
+
+    @Test
+    @DisplayName("Should pick the department with the highest total score")
+    void testRoute_HighestScoreWins() {
+        // "air conditioning" (2.0) + "room" (1.0) beats "network" (1.0)
+        String result = engine.route("Air conditioning broken", "Room A301, near the network cabinet", "Facilities");
+
+        assertEquals("FACILITIES", result);
+    }
+
+    @Test
+    @DisplayName("Should break ties by department registration order")
+    void testRoute_TieBreakIsDeterministic() {
+        // One IT keyword and one FACILITIES keyword: IT was registered first
+        for (int i = 0; i < 10; i++) {
+            assertEquals("IT", engine.route("wifi in the room", "", ""));
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply department weights to the score")
+    void testRoute_DepartmentWeight() {
+        KeywordRoutingEngine weighted = KeywordRoutingEngine.builder()
+            .department("IT", 1.0)
+            .department("FACILITIES", 3.0)
+            .keyword("network", "IT")
+            .keyword("room", "FACILITIES")
+            .build();
+
+        assertEquals("FACILITIES", weighted.route("network network", "room", null));
+    }
+
+    @Test
+    @DisplayName("Should find overlapping keywords in a single pass")
+    void testRoute_OverlappingKeywords() {
+        KeywordRoutingEngine overlapping = KeywordRoutingEngine.builder()
+            .keyword("net", "A")
+            .keyword("network", "B", 0.5)
+            .keyword("work", "B", 0.75)
+            .build();
+
+        // "net" (1.0) vs "network" + "work" (1.25)
+        assertEquals("B", overlapping.route("network", null, null));
+    }
+
+    @Test
+    @DisplayName("Should return null when no keyword matches")
+    void testRoute_NoMatch() {
+        assertNull(engine.route("General inquiry", "I have a question", "Other"));
+        assertNull(engine.route(null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should reject non-ASCII keywords")
+    void testBuilder_RejectsNonAscii() {
+        assertThrows(IllegalArgumentException.class,
+            () -> KeywordRoutingEngine.builder().keyword("café", "FACILITIES"));
+    }
+}
@@ -0,0 +1,251 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DeliveryBreakdown;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.NotificationStatusCount;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: delivery statistics are served from in-memory status counters that follow
+ * the services' transitions after commit, are recounted with one GROUP BY after a bulk update,
+ * and are repaired by reconciliation when rows change behind the services' back
+ */
+// No coalescing: its digest thread polls the database, which the statement counts would pick up
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                           "helpdesk.notifications.coalesce-window=PT0S"})
+@Import({NotificationServiceImpl.class, NotificationPipeline.class, EscalationScheduler.class,
+         NotificationRetryEngine.class, UnreadCountTracker.class, DeliveryStatisticsTracker.class,
+         NotificationStreamHub.class, NotificationBroadcaster.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Delivery Statistics Tracker - Integration Tests")
+class DeliveryStatisticsTrackerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationPipeline pipeline;
+
+    @Autowired
+    private DeliveryStatisticsTracker deliveryStatistics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NotificationRetryEngine retryEngine;
+
+    private Student ali;
+
+    @BeforeEach
+    void setUp() {
+        retryEngine.shutdown();    // nor its poll every second
+        ali = new Student();
+        ali.setEmail("ali@siswa.um.edu.my");
+        ali.setFullName("Ali Student");
+        ali = userRepository.save(ali);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.awaitIdle(TIMEOUT);
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+        deliveryStatistics.reconcile();    // the tracker bean outlives each test
+    }
+
+    @Test
+    @DisplayName("Should build delivery statistics from memory once seeded, without loading a row")
+    void testServedFromMemory() {
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            NotificationStatus status = i % 4 == 0 ? NotificationStatus.READ
+                : i % 4 == 1 ? NotificationStatus.FAILED : NotificationStatus.DELIVERED;
+            notifications.add(notification(status, DeliveryChannel.IN_APP));
+        }
+        notificationRepository.saveAll(notifications);
+
+        // Not yet seeded: one GROUP BY, no rows loaded
+        DeliveryStatisticsTracker cold =
+            new DeliveryStatisticsTracker(notificationRepository, Duration.ofMinutes(5), false);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Map<NotificationStatus, Long> counts = cold.getCounts();
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(10, counts.get(NotificationStatus.READ));
+        assertEquals(10, counts.get(NotificationStatus.FAILED));
+        assertEquals(20, counts.get(NotificationStatus.DELIVERED));
+        assertEquals(0, counts.get(NotificationStatus.PERMANENTLY_FAILED));
+
+        deliveryStatistics.reconcile();
+        statistics.clear();
+        String stats = notificationService.getDeliveryStatistics();
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(stats.contains("Total Notifications: 40"), stats);
+        assertTrue(stats.contains("Delivered: 20\n"), stats);
+        assertTrue(stats.contains("Read: 10\n"), stats);
+        assertTrue(stats.contains("Failed: 10\n"), stats);
+        assertTrue(stats.contains("Delivery Success Rate: 50.00%"), stats);
+
+        DeliveryStatisticsTracker.Metrics metrics = cold.metrics();
+        assertTrue(metrics.isLoaded());
+        assertEquals(1, metrics.getServedFromDatabase());
+        assertEquals(0, metrics.getServedFromMemory());
+    }
+
+    @Test
+    @DisplayName("Should follow creates, sends, reads and deletes made through the services and the pipeline")
+    void testFollowsServiceChanges() {
+        deliveryStatistics.reconcile();
+
+        Notification first = notificationService.createNotification(pending());
+        Notification second = notificationService.createNotification(pending());
+        Notification third = notificationService.createNotification(pending());
+        assertEquals(3, deliveryStatistics.getCounts().get(NotificationStatus.PENDING));
+
+        notificationService.sendNotification(first.getId(), DeliveryChannel.IN_APP);
+        notificationService.updateDeliveryStatus(second.getId(), "FAILED");
+        notificationService.markAsRead(third.getId());
+        notificationService.markAsRead(third.getId());    // already read: no change
+        notificationService.deleteNotification(second.getId());
+
+        pipeline.saveAndDeliver(List.of(
+            NotificationEvent.ticketSubmitted(1L, ali.getId()), NotificationEvent.ticketSubmitted(2L, ali.getId())));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+
+        // A rolled-back create leaves the counts alone
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationService.createNotification(pending());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(database(), deliveryStatistics.getCounts());
+        assertEquals(0, deliveryStatistics.getCounts().get(NotificationStatus.PENDING));
+        assertEquals(1, deliveryStatistics.getCounts().get(NotificationStatus.READ));
+        assertEquals(0, deliveryStatistics.reconcile());    // nothing drifted
+    }
+
+    @Test
+    @DisplayName("Should recount with one GROUP BY after marking an inbox read, then serve from memory again")
+    void testBulkUpdateInvalidates() {
+        for (int i = 0; i < 5; i++) {
+            notificationService.createNotification(notification(NotificationStatus.DELIVERED, DeliveryChannel.IN_APP));
+        }
+        deliveryStatistics.reconcile();
+
+        assertEquals(5, notificationService.markAllAsRead(ali.getId()));
+        assertTrue(deliveryStatistics.metrics().isStale());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(5, deliveryStatistics.getCounts().get(NotificationStatus.READ));
+        assertEquals(0, deliveryStatistics.getCounts().get(NotificationStatus.DELIVERED));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(deliveryStatistics.metrics().isStale());
+    }
+
+    @Test
+    @DisplayName("Should repair counts changed outside the services on reconciliation")
+    void testReconcileRepairsDrift() {
+        deliveryStatistics.reconcile();
+        notificationService.createNotification(notification(NotificationStatus.SENT, DeliveryChannel.EMAIL));
+        // Written straight to the repository, bypassing the tracker
+        notificationRepository.save(notification(NotificationStatus.FAILED, DeliveryChannel.SMS));
+        assertEquals(0, deliveryStatistics.getCounts().get(NotificationStatus.FAILED));
+
+        long correctedBefore = deliveryStatistics.metrics().getCorrected();
+        assertEquals(1, deliveryStatistics.reconcile());
+        assertEquals(1, deliveryStatistics.getCounts().get(NotificationStatus.FAILED));
+        assertEquals(1, deliveryStatistics.getCounts().get(NotificationStatus.SENT));
+        assertEquals(correctedBefore + 1, deliveryStatistics.metrics().getCorrected());
+    }
+
+    @Test
+    @DisplayName("Should break down notifications created in a time range by channel, type and status")
+    void testBreakdown() {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            notifications.add(notification(NotificationStatus.SENT, DeliveryChannel.EMAIL));
+        }
+        notifications.add(notification(NotificationStatus.FAILED, DeliveryChannel.EMAIL));
+        notifications.add(notification(NotificationStatus.DELIVERED, DeliveryChannel.IN_APP));
+        notificationRepository.saveAll(notifications);
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+
+        List<DeliveryBreakdown> breakdown = notificationService.getDeliveryBreakdown(from, to);
+        assertEquals(3, breakdown.size());
+        DeliveryBreakdown sentByEmail = breakdown.stream()
+            .filter(b -> b.getChannel() == DeliveryChannel.EMAIL && b.getStatus() == NotificationStatus.SENT)
+            .findFirst().orElseThrow();
+        assertEquals(NotificationType.TICKET_STATUS_CHANGED, sentByEmail.getType());
+        assertEquals(6, sentByEmail.getCount());
+
+        assertTrue(notificationService.getDeliveryBreakdown(to, to.plusHours(1)).isEmpty());
+        assertThrows(RuntimeException.class, () -> notificationService.getDeliveryBreakdown(to, from));
+    }
+
+    private Map<NotificationStatus, Long> database() {
+        Map<NotificationStatus, Long> counts = new EnumMap<>(NotificationStatus.class);
+        for (NotificationStatus status : NotificationStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (NotificationStatusCount row : notificationRepository.countByStatus()) {
+            counts.put(row.getStatus(), row.getCount());
+        }
+        return counts;
+    }
+
+    private Notification pending() {
+        return notification(NotificationStatus.PENDING, DeliveryChannel.IN_APP);
+    }
+
+    private Notification notification(NotificationStatus status, DeliveryChannel channel) {
+        Notification notification = new Notification();
+        notification.setRecipient(ali);
+        notification.setTitle("Ticket update");
+        notification.setMessage("Your ticket was updated");
+        notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+        notification.setDeliveryChannel(channel);
+        notification.setStatus(status);
+        notification.setRead(status == NotificationStatus.READ);
+        return notification;
+    }
+}
@@ -0,0 +1,52 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Department;
+import com.um.helpdesk.repository.DepartmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: department writes invalidate the cache once they commit
+ */
+@DataJpaTest
+@Import({DepartmentCache.class, DepartmentCacheInvalidator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Department Cache Invalidation - Integration Tests")
+class DepartmentCacheInvalidatorTest {
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private DepartmentCache departmentCache;
+
+    @AfterEach
+    void tearDown() {
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should see created, updated and deleted departments without a manual reload")
+    void testCacheFollowsDepartmentWrites() {
+        departmentCache.load();
+        assertTrue(departmentCache.findByCode("LIB").isEmpty());
+
+        Department library = departmentRepository.save(new Department("Library", "LIB"));
+        assertEquals("Library", departmentCache.findByCode("LIB").map(Department::getName).orElse(null));
+
+        library.setName("Main Library");
+        departmentRepository.save(library);
+        assertEquals("Main Library", departmentCache.findById(library.getId()).map(Department::getName).orElse(null));
+
+        departmentRepository.delete(library);
+        assertTrue(departmentCache.findByCode("LIB").isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Department;
+import com.um.helpdesk.repository.DepartmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Tests for the in-memory department index used by routing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Department Cache - Unit Tests")
+class DepartmentCacheTest {
+
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    private DepartmentCache departmentCache;
+    private Department itDepartment;
+    private Department financeDepartment;
+
+    @BeforeEach
+    void setUp() {
+        departmentCache = new DepartmentCache(departmentRepository);
+
+        itDepartment = new Department("Information Technology", "IT");
+        itDepartment.setId(1L);
+        financeDepartment = new Department("Finance", "FINANCE");
+        financeDepartment.setId(2L);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups by code and id from a single load")
+    void testLookupsLoadOnce() {
+        when(departmentRepository.findAll()).thenReturn(Arrays.asList(itDepartment, financeDepartment));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(itDepartment, departmentCache.findByCode("IT").orElse(null));
+            assertEquals(financeDepartment, departmentCache.findById(2L).orElse(null));
+        }
+
+        verify(departmentRepository, times(1)).findAll();
+        verify(departmentRepository, never()).findByCode(any());
+    }
+
+    @Test
+    @DisplayName("Should reload after invalidation")
+    void testInvalidateReloads() {
+        when(departmentRepository.findAll())
+            .thenReturn(Collections.singletonList(itDepartment))
+            .thenReturn(Arrays.asList(itDepartment, financeDepartment));
+
+        departmentCache.load();
+        departmentCache.invalidate();
+
+        assertEquals(financeDepartment, departmentCache.findByCode("FINANCE").orElse(null));
+        verify(departmentRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the repository on a cache miss")
+    void testMissFallsBackToRepository() {
+        when(departmentRepository.findAll()).thenReturn(Collections.singletonList(itDepartment));
+        when(departmentRepository.findByCode("FINANCE")).thenReturn(Optional.of(financeDepartment));
+
+        assertEquals(financeDepartment, departmentCache.findByCode("FINANCE").orElse(null));
+        assertTrue(departmentCache.findByCode(null).isEmpty());
+    }
+}
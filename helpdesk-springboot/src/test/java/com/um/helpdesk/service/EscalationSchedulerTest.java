@@ -0,0 +1,311 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TicketEventRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Integration test: overdue tickets move through reminder, supervisor and administrator levels
+ * in batches, the wheel fires entries beyond one revolution on time, and a restart rebuilds the
+ * schedule from the tickets table
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({TicketServiceImpl.class, DepartmentCache.class, TechnicianWorkloadTracker.class, SlaTracker.class,
+         EscalationScheduler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Escalation Scheduler - Integration Tests")
+class EscalationSchedulerTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketEventRepository ticketEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Department it;
+    private TechnicianSupportStaff bob;
+    private Staff supervisor;
+    private Administrator admin;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        ticketEventRepository.deleteAllInBatch();
+        it = departmentRepository.save(new Department("Information Technology", "IT"));
+
+        bob = new TechnicianSupportStaff();
+        bob.setEmail("bob@um.edu.my");
+        bob.setFullName("Bob Lee");
+        bob.setDepartment(it);
+        bob = userRepository.save(bob);
+
+        supervisor = new Staff();
+        supervisor.setEmail("head.it@um.edu.my");
+        supervisor.setFullName("Head of IT");
+        supervisor.setDepartment(it);
+        supervisor = userRepository.save(supervisor);
+
+        admin = new Administrator();
+        admin.setEmail("admin@um.edu.my");
+        admin.setFullName("Admin User");
+        admin = userRepository.save(admin);
+
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketEventRepository.deleteAllInBatch();
+        ticketRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should remind the technician, then escalate to the supervisor and the administrator")
+    void testReminderThenEscalations() {
+        Ticket ticket = ticketRepository.save(overdueTicket(TicketPriority.URGENT, 3));
+        EscalationScheduler scheduler = stoppedScheduler(EscalationScheduler.TICK, EscalationScheduler.WHEEL_SIZE);
+        scheduler.rebuild();
+        assertEquals(1, scheduler.metrics().getDue());
+
+        assertEquals(1, scheduler.processDue());
+        assertOutbox(TicketEventType.REMINDER, bob.getId(), null);
+        Ticket reminded = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertEquals(1, reminded.getEscalationLevel());
+        assertTrue(reminded.getNextEscalationTime().isAfter(LocalDateTime.now().plusHours(1)));
+        assertEquals(0, scheduler.processDue());    // next level is an interval away
+
+        makeDueNow(scheduler, ticket.getId());
+        assertEquals(1, scheduler.processDue());
+        assertOutbox(TicketEventType.ESCALATED, supervisor.getId(), "2");
+
+        makeDueNow(scheduler, ticket.getId());
+        assertEquals(1, scheduler.processDue());
+        assertOutbox(TicketEventType.ESCALATED, admin.getId(), "3");
+
+        Ticket escalated = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertEquals(EscalationScheduler.MAX_LEVEL, escalated.getEscalationLevel());
+        assertNull(escalated.getNextEscalationTime());
+        EscalationScheduler.Metrics metrics = scheduler.metrics();
+        assertEquals(0, metrics.getScheduled());
+        assertEquals(1, metrics.getReminders());
+        assertEquals(1, metrics.getSupervisorEscalations());
+        assertEquals(1, metrics.getAdministratorEscalations());
+    }
+
+    @Test
+    @DisplayName("Should escalate overdue tickets in batches and rebuild the schedule after a restart")
+    void testBatchedEscalationAndRebuild() {
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tickets.add(overdueTicket(TicketPriority.values()[i % 4], 10));
+        }
+        for (int i = 0; i < 50; i++) {
+            Ticket future = new Ticket("Not yet due " + i, "Description", student);
+            future.setNextEscalationTime(EscalationScheduler.nextEscalationTime(future, null));
+            tickets.add(future);
+        }
+        for (int i = 0; i < 50; i++) {
+            Ticket resolved = overdueTicket(TicketPriority.HIGH, 10);
+            resolved.setStatus(TicketStatus.RESOLVED);
+            resolved.setNextEscalationTime(null);
+            tickets.add(resolved);
+        }
+        ticketRepository.saveAll(tickets);
+
+        EscalationScheduler scheduler = stoppedScheduler(EscalationScheduler.TICK, EscalationScheduler.WHEEL_SIZE);
+        scheduler.rebuild();
+        assertEquals(550, scheduler.metrics().getLastRebuildCount());
+        assertEquals(500, scheduler.metrics().getDue());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(500, scheduler.processDue());
+
+        assertEquals(5, scheduler.metrics().getBatches());
+        assertEquals(500, ticketEventRepository.count());
+        assertEquals(500, statistics.getEntityInsertCount());
+        // Per batch of 100: tickets, supervisors, ids, batched INSERTs and UPDATEs; never one query per ticket
+        assertTrue(statistics.getPrepareStatementCount() <= 60,
+            "Prepared " + statistics.getPrepareStatementCount() + " statements");
+
+        // A restarted scheduler sees every open ticket again, with the reminded ones no longer due
+        EscalationScheduler restarted = stoppedScheduler(EscalationScheduler.TICK, EscalationScheduler.WHEEL_SIZE);
+        restarted.rebuild();
+        assertEquals(550, restarted.metrics().getScheduled());
+        assertEquals(0, restarted.metrics().getDue());
+        assertEquals(0, restarted.processDue());
+    }
+
+    @Test
+    @DisplayName("Should fire an entry several revolutions out on time and skip a cancelled one")
+    void testWheelTiming() throws InterruptedException {
+        // 8 slots of 10 ms: one revolution is 80 ms
+        EscalationScheduler scheduler = stoppedScheduler(Duration.ofMillis(10), 8);
+        scheduler.rebuild();
+        LocalDateTime fireAt = LocalDateTime.now().plusNanos(300_000_000);
+        Ticket later = ticketRepository.save(scheduledTicket(fireAt));
+        Ticket cancelled = ticketRepository.save(scheduledTicket(fireAt));
+        scheduler.ticketChanged(later.getId(), fireAt);
+        scheduler.ticketChanged(cancelled.getId(), fireAt);
+        scheduler.ticketChanged(cancelled.getId(), null);
+
+        assertEquals(0, scheduler.processDue());
+        assertEquals(1, scheduler.metrics().getScheduled());
+
+        Thread.sleep(Duration.between(LocalDateTime.now(), fireAt).toMillis() + 50);
+        assertEquals(1, scheduler.processDue());
+        assertEquals(1, ticketRepository.findById(later.getId()).orElseThrow().getEscalationLevel());
+        assertEquals(0, ticketRepository.findById(cancelled.getId()).orElseThrow().getEscalationLevel());
+    }
+
+    @Test
+    @DisplayName("Should schedule new tickets at their SLA deadline and cancel on resolution")
+    void testTicketServiceKeepsSchedule() {
+        Ticket ticket = new Ticket("WiFi down", "Cannot connect", student);
+        ticket.setPriority(TicketPriority.HIGH);
+        ticket = ticketService.createTicket(ticket);
+        assertEquals(SlaTracker.deadline(TicketPriority.HIGH, ticket.getSubmittedAt()), ticket.getNextEscalationTime());
+
+        Ticket update = ticketRepository.findById(ticket.getId()).orElseThrow();
+        update.setEscalationLevel(0);
+        update.setStatus(TicketStatus.RESOLVED);
+        Ticket resolved = ticketService.updateTicket(ticket.getId(), update);
+        assertNull(resolved.getNextEscalationTime());
+        assertNull(ticketRepository.findById(ticket.getId()).orElseThrow().getNextEscalationTime());
+    }
+
+    @Test
+    @DisplayName("Should not overwrite a ticket resolved while its escalation batch was in flight")
+    void testConcurrentTicketUpdateWins() throws Exception {
+        Ticket ticket = ticketRepository.save(overdueTicket(TicketPriority.HIGH, 3));
+        ExecutorService user = Executors.newSingleThreadExecutor();
+        AtomicBoolean resolveFirst = new AtomicBoolean();
+        // The user resolves the ticket after the scheduler has read it, just before the scheduler writes it
+        TicketRepository racing = mock(TicketRepository.class, delegatesTo(ticketRepository));
+        doAnswer(invocation -> {
+            if (resolveFirst.compareAndSet(true, false)) {
+                user.submit(() -> {
+                    Ticket update = ticketRepository.findById(ticket.getId()).orElseThrow();
+                    update.setStatus(TicketStatus.RESOLVED);
+                    ticketService.updateTicket(ticket.getId(), update);
+                }).get(10, TimeUnit.SECONDS);
+            }
+            return delegatesTo(ticketRepository).answer(invocation);
+        }).when(racing).escalate(any(), anyInt(), anyInt(), any(), any());
+        try {
+            EscalationScheduler scheduler = new EscalationScheduler(racing, ticketEventRepository, userRepository,
+                transactionManager, EscalationScheduler.TICK, EscalationScheduler.WHEEL_SIZE,
+                EscalationScheduler.BATCH_SIZE, false);
+            scheduler.rebuild();
+            ticketEventRepository.deleteAllInBatch();
+
+            resolveFirst.set(true);
+            assertEquals(0, scheduler.processDue());
+            assertEquals(1, scheduler.metrics().getFailedBatches());
+            assertEquals(0, scheduler.metrics().getReminders());
+
+            Ticket resolved = ticketRepository.findById(ticket.getId()).orElseThrow();
+            assertEquals(TicketStatus.RESOLVED, resolved.getStatus());
+            assertEquals(0, resolved.getEscalationLevel());
+            assertNull(resolved.getNextEscalationTime());
+
+            // The retried batch reads the resolved ticket and leaves it alone
+            assertEquals(0, scheduler.processDue());
+            assertEquals(TicketStatus.RESOLVED, ticketRepository.findById(ticket.getId()).orElseThrow().getStatus());
+            assertTrue(ticketEventRepository.findAll().stream()
+                .noneMatch(event -> event.getEventType() == TicketEventType.REMINDER));
+        } finally {
+            user.shutdownNow();
+        }
+    }
+
+    private Ticket overdueTicket(TicketPriority priority, int daysAgo) {
+        Ticket ticket = new Ticket("Overdue", "Description", student);
+        ticket.setPriority(priority);
+        ticket.setSubmittedAt(LocalDateTime.now().minusDays(daysAgo));
+        ticket.setAssignedDepartment(it);
+        ticket.setAssignedTo(bob);
+        ticket.setStatus(TicketStatus.ASSIGNED);
+        ticket.setNextEscalationTime(EscalationScheduler.nextEscalationTime(ticket, null));
+        return ticket;
+    }
+
+    private Ticket scheduledTicket(LocalDateTime nextEscalationTime) {
+        Ticket ticket = new Ticket("Scheduled", "Description", student);
+        ticket.setNextEscalationTime(nextEscalationTime);
+        return ticket;
+    }
+
+    // Stands in for the escalation interval passing
+    private void makeDueNow(EscalationScheduler scheduler, Long ticketId) {
+        Ticket ticket = ticketRepository.findById(ticketId).orElseThrow();
+        ticket.setNextEscalationTime(LocalDateTime.now().minusSeconds(1));
+        ticketRepository.save(ticket);
+        scheduler.ticketChanged(ticketId, ticket.getNextEscalationTime());
+    }
+
+    private void assertOutbox(TicketEventType type, Long recipientId, String level) {
+        List<TicketEvent> events = ticketEventRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(type, events.get(0).getEventType());
+        assertEquals(recipientId, events.get(0).getRecipientId());
+        assertEquals(level, events.get(0).getToValue());
+        ticketEventRepository.deleteAllInBatch();
+    }
+
+    private EscalationScheduler stoppedScheduler(Duration tick, int wheelSize) {
+        return new EscalationScheduler(ticketRepository, ticketEventRepository, userRepository, transactionManager,
+            tick, wheelSize, EscalationScheduler.BATCH_SIZE, false);
+    }
+}
@@ -0,0 +1,177 @@
+package com.um.helpdesk.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-count regression test for the fetch profiles.
+ *
+ * Each call is made the way its endpoint makes it (service call, then JSON serialization
+ * of the result inside the same session, as open-in-view does), and the number of JDBC
+ * statements is asserted exactly, so an N+1 regression fails the build.
+ */
+// No coalescing: its digest thread polls the database, which the statement counts would pick up
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                           "helpdesk.notifications.coalesce-window=PT0S"})
+@Import({TicketServiceImpl.class, NotificationServiceImpl.class, NotificationPipeline.class,
+         DepartmentCache.class, TechnicianWorkloadTracker.class, SlaTracker.class, EscalationScheduler.class,
+         NotificationRetryEngine.class, UnreadCountTracker.class, DeliveryStatisticsTracker.class,
+         NotificationStreamHub.class, NotificationBroadcaster.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Fetch Profiles - Query Count Tests")
+class FetchProfileQueryCountTest {
+
+    private static final int TICKETS = 12;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NotificationRetryEngine retryEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+    private Long ticketId;
+    private Long studentId;
+
+    @BeforeEach
+    void setUp() {
+        retryEngine.shutdown();    // nor its poll every second
+        Department it = departmentRepository.save(new Department("Information Technology", "IT"));
+        Department facilities = departmentRepository.save(new Department("Facilities Management", "FACILITIES"));
+        TechnicianSupportStaff bob = technician("bob@um.edu.my", "Bob Lee", it);
+        TechnicianSupportStaff kumar = technician("kumar@um.edu.my", "Kumar Facilities", facilities);
+        Student student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+        studentId = student.getId();
+
+        for (int i = 0; i < TICKETS; i++) {
+            Ticket ticket = new Ticket("Ticket " + i, "Description " + i, student);
+            ticket.setAssignedDepartment(i % 2 == 0 ? it : facilities);
+            ticket.setAssignedTo(i % 3 == 0 ? null : (i % 2 == 0 ? bob : kumar));
+            ticket.setPreviousAssignee(i % 4 == 0 ? kumar : null);
+            ticket.setStatus(ticket.getAssignedTo() != null ? TicketStatus.ASSIGNED : TicketStatus.OPEN);
+            ticketId = ticketRepository.save(ticket).getId();
+
+            Notification notification = new Notification();
+            notification.setRecipient(i % 2 == 0 ? student : bob);
+            notification.setTitle("Update on ticket " + i);
+            notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+            notificationRepository.save(notification);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Ticket list, page and detail views each load in a single query")
+    void testTicketEndpoints() {
+        assertEquals(1, statementsFor(() -> ticketService.getAllTickets()));
+        assertEquals(1, statementsFor(() -> ticketService.getTicketsPage(null, 50)));
+        assertEquals(1, statementsFor(() -> ticketService.getTicketsByStatusPage(TicketStatus.ASSIGNED, null, 50)));
+        assertEquals(1, statementsFor(() -> ticketService.getTicketSummariesPage(null, 50)));
+        assertEquals(1, statementsFor(() -> ticketService.getTicketById(ticketId)));
+    }
+
+    @Test
+    @DisplayName("Notification lists load recipients with the notifications")
+    void testNotificationEndpoints() {
+        // notifications + recipients, then one lookup per distinct technician department (here: IT)
+        assertEquals(2, statementsFor(() -> notificationService.getAllNotifications()));
+        // user lookup + notifications
+        assertEquals(2, statementsFor(() -> notificationService.getNotificationsByUser(studentId)));
+    }
+
+    @Test
+    @DisplayName("User lookups fetch technician departments for callers outside a transaction")
+    void testUserLookupsFetchTechnicianDepartments() {
+        assertEquals(1, statementsFor(() -> userRepository.findAllWithDepartment()));
+
+        // The console menus read these after the service transaction has closed
+        for (User user : userRepository.findAllWithDepartment()) {
+            if (user instanceof TechnicianSupportStaff) {
+                assertNotNull(((TechnicianSupportStaff) user).getDepartment().getName());
+            }
+        }
+        Long bobId = userRepository.findAllWithDepartment().stream()
+            .filter(u -> u instanceof TechnicianSupportStaff).findFirst().orElseThrow().getId();
+        TechnicianSupportStaff bob = (TechnicianSupportStaff) userRepository.findWithDepartmentById(bobId).orElseThrow();
+        assertNotNull(bob.getDepartment().getName());
+    }
+
+    private int statementsFor(Supplier<Object> endpoint) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                objectMapper.writeValueAsString(endpoint.get());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return (int) statistics.getPrepareStatementCount();
+    }
+
+    private TechnicianSupportStaff technician(String email, String name, Department department) {
+        TechnicianSupportStaff technician = new TechnicianSupportStaff();
+        technician.setEmail(email);
+        technician.setFullName(name);
+        technician.setDepartment(department);
+        return userRepository.save(technician);
+    }
+}
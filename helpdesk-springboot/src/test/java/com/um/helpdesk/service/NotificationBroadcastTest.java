@@ -0,0 +1,216 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.dto.BroadcastProgress;
+import com.um.helpdesk.dto.BroadcastRequest;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: a broadcast reaches every active member of its audience with one id query and
+ * one INSERT ... SELECT per chunk, and reports its progress
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({UnreadCountTracker.class, DeliveryStatisticsTracker.class, NotificationStreamHub.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Notification Broadcast - Integration Tests")
+class NotificationBroadcastTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UnreadCountTracker unreadCounts;
+
+    @Autowired
+    private DeliveryStatisticsTracker deliveryStatistics;
+
+    @Autowired
+    private NotificationStreamHub streams;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private NotificationBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new NotificationBroadcaster(notificationRepository, userRepository, unreadCounts,
+            deliveryStatistics, streams, transactionManager, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+        unreadCounts.reconcile();    // the tracker bean outlives each test
+    }
+
+    @Test
+    @DisplayName("Should notify a whole faculty in a few set-based statements")
+    void testBroadcastToFaculty() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            users.add(student("fsktm" + i + "@siswa.um.edu.my", "FSKTM", i % 100 != 0));
+        }
+        for (int i = 0; i < 30; i++) {
+            users.add(student("law" + i + "@siswa.um.edu.my", "Law", true));
+        }
+        userRepository.saveAll(users);
+        unreadCounts.reconcile();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BroadcastProgress done = await(broadcaster.submit(
+            BroadcastRequest.toFaculty("FSKTM", "Maintenance tonight", "The portal is down from 22:00")));
+
+        assertEquals(BroadcastProgress.Status.DONE, done.getStatus());
+        assertEquals(2_475, done.getTotal());
+        assertEquals(2_475, done.getSent());
+        assertEquals(3, done.getChunks());
+        assertEquals(100, done.getPercent());
+        // COUNT, then an id page and an INSERT ... SELECT per chunk, then the empty last page
+        assertEquals(1 + 3 * 2 + 1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+
+        assertEquals(2_475, notificationRepository.count());
+        Notification sample = notificationRepository.findAll().get(0);
+        assertEquals("Maintenance tonight", sample.getTitle());
+        assertEquals(NotificationType.SYSTEM_ALERT, sample.getType());
+        assertEquals(NotificationStatus.DELIVERED, sample.getStatus());
+        assertEquals(DeliveryChannel.IN_APP, sample.getDeliveryChannel());
+        assertFalse(sample.isRead());
+        assertNotNull(sample.getCreatedAt());
+        assertEquals(1, notificationRepository.countUnreadByRecipientId(sample.getRecipient().getId()));
+        assertEquals(1, unreadCounts.getUnreadCount(sample.getRecipient().getId()));
+        assertEquals(0, unreadCounts.reconcile());    // the tracker followed the inserts
+
+        // Ids drawn by the insert do not collide with the ones Hibernate hands out afterwards
+        Notification direct = new Notification();
+        direct.setRecipient(sample.getRecipient());
+        direct.setTitle("Direct");
+        direct.setType(NotificationType.GENERAL);
+        assertDoesNotThrow(() -> notificationRepository.saveAll(List.of(direct)));
+        assertEquals(2_476, notificationRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should reach a department's staff and technicians, and a role's active users")
+    void testBroadcastToDepartmentAndRole() {
+        Department it = departmentRepository.save(new Department("Information Technology", "IT"));
+        Department finance = departmentRepository.save(new Department("Finance", "FIN"));
+        Staff itStaff = staff("it.staff@um.edu.my", it);
+        staff("fin.staff@um.edu.my", finance);
+        TechnicianSupportStaff itTechnician = technician("it.tech@um.edu.my", it);
+        userRepository.saveAll(List.of(student("ali@siswa.um.edu.my", "FSKTM", true),
+            student("mei@siswa.um.edu.my", "FSKTM", false)));
+
+        BroadcastRequest toDepartment = BroadcastRequest.toDepartment(it.getId(), "Network outage", "Wi-Fi is down");
+        toDepartment.setPriority(NotificationPriority.HIGH);
+        BroadcastProgress department = await(broadcaster.submit(toDepartment));
+        assertEquals(2, department.getSent());
+        Set<Long> reached = new HashSet<>();
+        for (Notification n : notificationRepository.findAll()) {
+            reached.add(n.getRecipient().getId());
+            assertEquals(NotificationPriority.HIGH, n.getPriority());
+        }
+        assertEquals(Set.of(itStaff.getId(), itTechnician.getId()), reached);
+
+        BroadcastProgress students = await(broadcaster.submit(
+            BroadcastRequest.toRole(UserRole.STUDENT, "Survey", "Please rate the helpdesk")));
+        assertEquals(1, students.getTotal());
+        assertEquals(1, students.getSent());
+        assertEquals(students.getStatus(), broadcaster.getProgress(students.getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject a broadcast without exactly one audience")
+    void testAudienceRequired() {
+        BroadcastRequest none = new BroadcastRequest();
+        none.setTitle("Hello");
+        assertThrows(RuntimeException.class, () -> broadcaster.submit(none));
+
+        BroadcastRequest two = BroadcastRequest.toRole(UserRole.STAFF, "Hello", "Everyone");
+        two.setFaculty("FSKTM");
+        assertThrows(RuntimeException.class, () -> broadcaster.submit(two));
+
+        assertThrows(RuntimeException.class, () -> broadcaster.getProgress("missing"));
+    }
+
+    private BroadcastProgress await(BroadcastProgress submitted) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        BroadcastProgress progress = submitted;
+        while (progress.getStatus() == BroadcastProgress.Status.QUEUED
+                || progress.getStatus() == BroadcastProgress.Status.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "Broadcast did not finish: " + progress.getSent() + " sent");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+            progress = broadcaster.getProgress(submitted.getId());
+        }
+        return progress;
+    }
+
+    private Student student(String email, String faculty, boolean active) {
+        Student student = new Student();
+        student.setEmail(email);
+        student.setFullName(email);
+        student.setFaculty(faculty);
+        student.setRole(UserRole.STUDENT);
+        student.setActive(active);
+        return student;
+    }
+
+    private Staff staff(String email, Department department) {
+        Staff staff = new Staff();
+        staff.setEmail(email);
+        staff.setFullName(email);
+        staff.setRole(UserRole.STAFF);
+        staff.setDepartment(department);
+        return userRepository.save(staff);
+    }
+
+    private TechnicianSupportStaff technician(String email, Department department) {
+        TechnicianSupportStaff technician = new TechnicianSupportStaff();
+        technician.setEmail(email);
+        technician.setFullName(email);
+        technician.setRole(UserRole.TECHNICIAN);
+        technician.setDepartment(department);
+        return userRepository.save(technician);
+    }
+}
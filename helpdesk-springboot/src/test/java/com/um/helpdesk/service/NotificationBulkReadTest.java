@@ -0,0 +1,131 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: marking an inbox read is one UPDATE whatever the backlog, and the range
+ * variant stops at the given notification id
+ */
+// No coalescing: its digest thread polls the database, which the statement counts would pick up
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                           "helpdesk.notifications.coalesce-window=PT0S"})
+@Import({NotificationServiceImpl.class, NotificationPipeline.class, EscalationScheduler.class,
+         NotificationRetryEngine.class, UnreadCountTracker.class, DeliveryStatisticsTracker.class,
+         NotificationStreamHub.class, NotificationBroadcaster.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Notification Bulk Read - Integration Tests")
+class NotificationBulkReadTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NotificationRetryEngine retryEngine;
+
+    private Student ali;
+    private Student mei;
+
+    @BeforeEach
+    void setUp() {
+        retryEngine.shutdown();    // nor its poll every second
+        ali = student("ali@siswa.um.edu.my", "Ali Student");
+        mei = student("mei@siswa.um.edu.my", "Mei Student");
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should mark a large unread backlog read in a single statement")
+    void testMarkAllAsRead() {
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            notifications.add(notification(ali, i % 10 == 0));
+        }
+        for (int i = 0; i < 20; i++) {
+            notifications.add(notification(mei, false));
+        }
+        notificationRepository.saveAll(notifications);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(900, notificationService.markAllAsRead(ali.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertEquals(0, notificationRepository.countByRecipientAndIsReadFalse(ali));
+        assertEquals(20, notificationRepository.countByRecipientAndIsReadFalse(mei));
+        List<Notification> inbox = notificationRepository.findByRecipient(ali);
+        assertTrue(inbox.stream().allMatch(n -> n.getStatus() == NotificationStatus.READ));
+        assertEquals(900, inbox.stream().filter(n -> n.getReadAt() != null).count());
+        assertEquals(0, notificationService.markAllAsRead(ali.getId()));
+    }
+
+    @Test
+    @DisplayName("Should mark read only up to the given notification id")
+    void testMarkAsReadUpTo() {
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            notifications.add(notification(ali, false));
+        }
+        notifications = notificationRepository.saveAll(notifications);
+        Long upToId = notifications.get(9).getId();
+
+        assertEquals(10, notificationService.markAsReadUpTo(ali.getId(), upToId));
+
+        for (Notification n : notificationRepository.findByRecipient(ali)) {
+            assertEquals(n.getId() <= upToId, n.isRead(), "Notification " + n.getId());
+        }
+        assertEquals(20, notificationService.markAllAsRead(ali.getId()));
+    }
+
+    private Student student(String email, String name) {
+        Student student = new Student();
+        student.setEmail(email);
+        student.setFullName(name);
+        return userRepository.save(student);
+    }
+
+    private Notification notification(User recipient, boolean read) {
+        Notification notification = new Notification();
+        notification.setRecipient(recipient);
+        notification.setTitle("Ticket update");
+        notification.setMessage("Your ticket was updated");
+        notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+        notification.setStatus(read ? NotificationStatus.READ : NotificationStatus.DELIVERED);
+        notification.setRead(read);
+        return notification;
+    }
+}
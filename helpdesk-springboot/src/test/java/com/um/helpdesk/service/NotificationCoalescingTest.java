@@ -0,0 +1,224 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: a burst of one type to one recipient goes out as the first notification plus
+ * one digest released when the window closes, while urgent and unrelated notifications pass through
+ */
+@DataJpaTest
+@Import({UnreadCountTracker.class, DeliveryStatisticsTracker.class, NotificationStreamHub.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Notification Coalescing - Integration Tests")
+class NotificationCoalescingTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(600);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UnreadCountTracker unreadCounts;
+
+    @Autowired
+    private DeliveryStatisticsTracker deliveryStatistics;
+
+    @Autowired
+    private NotificationStreamHub streams;
+
+    @Autowired
+    private DeliveryGateway gateway;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationPipeline pipeline;
+    private TechnicianSupportStaff technician;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new NotificationPipeline(notificationRepository, userRepository, unreadCounts, deliveryStatistics,
+            streams, gateway, transactionManager, 100, 50, Duration.ofMillis(200), WINDOW,
+            NotificationPipeline.SEND_LEASE, true);
+        technician = new TechnicianSupportStaff();
+        technician.setEmail("tech@um.edu.my");
+        technician.setFullName("Tech Support");
+        technician = userRepository.save(technician);
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+        unreadCounts.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.awaitIdle(TIMEOUT);
+        pipeline.shutdown();
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+        unreadCounts.reconcile();    // the tracker bean outlives each test
+    }
+
+    @Test
+    @DisplayName("Should send the first of a burst at once and the rest as one digest when the window closes")
+    void testBurstBecomesDigest() {
+        List<NotificationEvent> burst = new ArrayList<>();
+        for (long ticketId = 1; ticketId <= 5; ticketId++) {
+            burst.add(NotificationEvent.ticketAssigned(ticketId, technician.getId()));
+        }
+        save(burst);
+        // A later batch in the same window is appended to the held digest
+        save(List.of(NotificationEvent.ticketAssigned(6L, technician.getId()),
+            NotificationEvent.ticketAssigned(3L, technician.getId())));
+
+        assertEquals(2, notificationRepository.count());
+        assertEquals(2, unreadCounts.getUnreadCount(technician.getId()));
+        Notification held = digest();
+        assertEquals(NotificationStatus.PENDING, held.getStatus());
+        assertEquals(6, held.getDigestCount());
+        assertNotNull(held.getDigestUntil());
+
+        Notification released = awaitReleased();
+        assertEquals(NotificationStatus.DELIVERED, released.getStatus());
+        assertEquals("New Ticket Assigned (6 updates)", released.getTitle());
+        assertEquals("2,3,4,5,6", released.getRelatedTicketIds());    // ticket 3 listed once
+        assertTrue(released.getMessage().contains("#2, #3, #4, #5, #6"), released.getMessage());
+        assertEquals(0, unreadCounts.reconcile());
+
+        NotificationPipeline.Metrics metrics = pipeline.metrics();
+        assertEquals(6, metrics.getCoalesced());
+        assertEquals(1, metrics.getDigestsCreated());
+        assertEquals(1, metrics.getDigestsReleased());
+    }
+
+    @Test
+    @DisplayName("Should never hold urgent notifications, and keep separate windows per recipient and type")
+    void testUrgentAndDistinctKeysPassThrough() {
+        save(List.of(NotificationEvent.reminder(1L, technician.getId()),
+            NotificationEvent.reminder(2L, technician.getId()),
+            NotificationEvent.reminder(3L, technician.getId()),
+            NotificationEvent.ticketSubmitted(4L, student.getId()),
+            NotificationEvent.ticketSubmitted(5L, student.getId()),
+            NotificationEvent.ticketAssigned(6L, technician.getId()),
+            NotificationEvent.ticketStatusChanged(6L, technician.getId(), "OPEN", "IN_PROGRESS"),
+            NotificationEvent.ticketStatusChanged(4L, student.getId(), "OPEN", "IN_PROGRESS")));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+
+        assertEquals(8, notificationRepository.count());
+        notificationRepository.findAll().forEach(n -> {
+            assertEquals(NotificationStatus.DELIVERED, n.getStatus());
+            assertNull(n.getDigestUntil());
+        });
+        assertEquals(0, pipeline.metrics().getCoalesced());
+        assertEquals(3, pipeline.metrics().getCoalescingWindows());
+    }
+
+    @Test
+    @DisplayName("Should send every overdue reminder at once, however many arrive inside one window")
+    void testRemindersNeverCoalesced() {
+        save(List.of(NotificationEvent.reminder(1L, technician.getId()),
+            NotificationEvent.reminder(2L, technician.getId())));
+        save(List.of(NotificationEvent.reminder(3L, technician.getId())));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+
+        List<Notification> reminders = notificationRepository.findAll();
+        assertEquals(3, reminders.size());
+        reminders.forEach(n -> {
+            assertEquals(NotificationType.REMINDER, n.getType());
+            assertEquals(NotificationStatus.DELIVERED, n.getStatus());
+            assertNull(n.getDigestUntil());
+            assertEquals(0, n.getDigestCount());
+        });
+        assertEquals(3, unreadCounts.getUnreadCount(technician.getId()));
+        assertEquals(0, pipeline.metrics().getCoalesced());
+        assertEquals(0, pipeline.metrics().getCoalescingWindows());
+    }
+
+    @Test
+    @DisplayName("Should open a new window once the previous one has closed")
+    void testNewWindowAfterExpiry() {
+        save(List.of(NotificationEvent.ticketAssigned(1L, technician.getId()),
+            NotificationEvent.ticketAssigned(2L, technician.getId())));
+        awaitReleased();
+        assertEquals(0, pipeline.metrics().getCoalescingWindows());
+
+        save(List.of(NotificationEvent.ticketAssigned(3L, technician.getId())));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+        assertEquals(3, notificationRepository.count());
+        assertEquals(1, pipeline.metrics().getDigestsCreated());
+        assertEquals(3, notificationRepository.countUnreadByRecipientId(technician.getId()));
+    }
+
+    @Test
+    @DisplayName("Should not keep a window opened by a batch that rolled back")
+    void testRolledBackBatchOpensNoWindow() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            pipeline.saveAndDeliver(List.of(NotificationEvent.ticketAssigned(1L, technician.getId()),
+                NotificationEvent.ticketAssigned(2L, technician.getId())));
+            status.setRollbackOnly();
+        });
+        assertEquals(0, pipeline.metrics().getCoalescingWindows());
+
+        // Goes out at once rather than into a digest that was never committed
+        save(List.of(NotificationEvent.ticketAssigned(3L, technician.getId())));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+        List<Notification> saved = notificationRepository.findAll();
+        assertEquals(1, saved.size());
+        assertEquals(NotificationStatus.DELIVERED, saved.get(0).getStatus());
+        assertNull(saved.get(0).getDigestUntil());
+        assertEquals(1, pipeline.metrics().getCoalescingWindows());
+    }
+
+    private void save(List<NotificationEvent> events) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> pipeline.saveAndDeliver(events));
+    }
+
+    private Notification digest() {
+        return notificationRepository.findAll().stream()
+            .filter(n -> NotificationCoalescer.DIGEST_EVENT_TYPE.equals(n.getEventType()))
+            .findFirst().orElseThrow();
+    }
+
+    private Notification awaitReleased() {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (digest().getStatus() != NotificationStatus.DELIVERED) {
+            assertTrue(System.nanoTime() < deadline, "Digest was not released");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+        // The window has closed by now; the next release pass drops it
+        pipeline.releaseDueDigests();
+        return digest();
+    }
+}
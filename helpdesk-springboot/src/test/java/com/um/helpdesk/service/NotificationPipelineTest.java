@@ -0,0 +1,319 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.ChannelPolicy;
+import com.um.helpdesk.delivery.DeliveryAdapter;
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.delivery.DeliveryMessage;
+import com.um.helpdesk.delivery.WeightedPriorityQueue;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: notifications are saved in JDBC batches and delivered per channel off the
+ * caller's thread, higher priorities first, and a full queue pushes back on publishers
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({NotificationPipeline.class, UnreadCountTracker.class, DeliveryStatisticsTracker.class,
+         NotificationStreamHub.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Notification Pipeline - Integration Tests")
+class NotificationPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationPipeline pipeline;
+
+    @Autowired
+    private UnreadCountTracker unreadCounts;
+
+    @Autowired
+    private DeliveryStatisticsTracker deliveryStatistics;
+
+    @Autowired
+    private NotificationStreamHub streams;
+
+    @Autowired
+    private DeliveryGateway gateway;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<NotificationPipeline> ownPipelines = new ArrayList<>();
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.awaitIdle(TIMEOUT);
+        ownPipelines.forEach(NotificationPipeline::shutdown);
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should insert queued notifications in batches and mark each batch delivered at once")
+    void testBatchedInsertAndDelivery() {
+        NotificationPipeline queued = stoppedPipeline(1000, 50, Duration.ofMillis(50));
+        for (long ticketId = 1; ticketId <= 119; ticketId++) {
+            queued.publish(NotificationEvent.ticketSubmitted(ticketId, student.getId()));
+        }
+        assertThrows(RuntimeException.class,
+            () -> queued.publish(NotificationEvent.ticketSubmitted(120L, 999_999L)));    // unknown recipient
+        Student gone = new Student();
+        gone.setEmail("gone@siswa.um.edu.my");
+        gone.setFullName("Gone Student");
+        gone = userRepository.save(gone);
+        queued.publish(NotificationEvent.ticketSubmitted(120L, gone.getId()));
+        userRepository.delete(gone);    // removed while the event was queued
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        queued.start();
+        assertTrue(queued.awaitIdle(TIMEOUT));
+
+        NotificationPipeline.Metrics metrics = queued.metrics();
+        assertEquals(120, metrics.getPublished());
+        assertEquals(119, metrics.getPersisted());
+        assertEquals(1, metrics.getDropped());
+        assertEquals(3, metrics.getPersistBatches());    // 50 + 50 + 20
+        assertEquals(119, metrics.getDelivered().get(DeliveryChannel.IN_APP));
+
+        assertEquals(119, statistics.getEntityInsertCount());
+        // Per batch: recipients, ids, the batched INSERT and one UPDATE; was three round trips per notification
+        assertTrue(statistics.getPrepareStatementCount() <= 15,
+            "Prepared " + statistics.getPrepareStatementCount() + " statements");
+
+        List<Notification> saved = notificationRepository.findAll();
+        assertEquals(119, saved.size());
+        saved.forEach(n -> {
+            assertEquals(NotificationStatus.DELIVERED, n.getStatus());
+            assertEquals("Delivered", n.getDeliveryStatus());
+            assertNotNull(n.getDeliveredAt());
+            assertEquals(NotificationType.TICKET_SUBMITTED, n.getType());
+        });
+    }
+
+    @Test
+    @DisplayName("Should block publishers on a full queue, then reject and count the overflow")
+    void testBackpressure() {
+        NotificationPipeline queued = stoppedPipeline(10, 5, Duration.ofMillis(20));
+        for (long ticketId = 1; ticketId <= 12; ticketId++) {
+            queued.publish(NotificationEvent.reminder(ticketId, student.getId()));
+        }
+
+        NotificationPipeline.Metrics full = queued.metrics();
+        assertEquals(10, full.getQueueDepth());
+        assertEquals(10, full.getQueueHighWaterMark());
+        assertEquals(10, full.getPublished());
+        assertEquals(2, full.getRejected());
+        assertTrue(full.getPublishWaitMillis() >= 30, "Waited " + full.getPublishWaitMillis() + " ms");
+
+        queued.start();
+        assertTrue(queued.awaitIdle(TIMEOUT));
+        assertEquals(0, queued.metrics().getQueueDepth());
+        assertEquals(10, queued.metrics().getPersisted());
+        assertEquals(10, notificationRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should save and deliver urgent escalations ahead of a backlog of low-priority announcements")
+    void testUrgentOvertakesBacklog() {
+        NotificationPipeline queued = stoppedPipeline(1000, 50, Duration.ofMillis(50));
+        for (long i = 1; i <= 300; i++) {
+            queued.publish(new NotificationEvent(student.getId(), i, NotificationType.GENERAL, NotificationPriority.LOW,
+                DeliveryChannel.IN_APP, "ANNOUNCEMENT", "Welcome", "Welcome to the helpdesk", 0));
+        }
+        for (long ticketId = 1; ticketId <= 10; ticketId++) {
+            queued.publish(NotificationEvent.escalation(ticketId, student.getId(), 1));
+        }
+
+        queued.start();
+        assertTrue(queued.awaitIdle(TIMEOUT));
+
+        // All ten went into the first batch of 50, though they were published last
+        List<Notification> saved = new ArrayList<>(notificationRepository.findAll());
+        assertEquals(310, saved.size());
+        saved.sort(Comparator.comparing(Notification::getId));
+        assertEquals(10, saved.subList(0, 50).stream().filter(n -> n.getType() == NotificationType.ESCALATION).count());
+        assertTrue(saved.stream().allMatch(n -> n.getStatus() == NotificationStatus.DELIVERED));
+
+        Map<NotificationPriority, WeightedPriorityQueue.LevelMetrics> byPriority = queued.metrics().getQueueByPriority();
+        assertEquals(10, byPriority.get(NotificationPriority.URGENT).getDequeued());
+        assertEquals(300, byPriority.get(NotificationPriority.LOW).getDequeued());
+        assertEquals(0, byPriority.get(NotificationPriority.LOW).getDepth());
+        assertTrue(byPriority.get(NotificationPriority.URGENT).getWaitMaxMillis()
+            < byPriority.get(NotificationPriority.LOW).getWaitMaxMillis());
+    }
+
+    @Test
+    @DisplayName("Should lease rows before an external send, so one whose outcome was not written back is sent again")
+    void testFailedWriteBackIsRetried() throws Exception {
+        List<Long> sent = new CopyOnWriteArrayList<>();
+        AtomicBoolean databaseDown = new AtomicBoolean();
+        DeliveryAdapter email = new DeliveryAdapter() {
+            @Override
+            public DeliveryChannel getChannel() {
+                return DeliveryChannel.EMAIL;
+            }
+
+            @Override
+            public void send(DeliveryMessage message, Duration timeout) {
+                sent.add(message.getNotificationId());
+                databaseDown.set(sent.size() == 1);    // while the first send is out
+            }
+        };
+        DeliveryGateway emailGateway = new DeliveryGateway(List.of(email), ChannelPolicy::defaults, userRepository);
+        // Commits fail, and are rolled back, while the database is down
+        PlatformTransactionManager flaky = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                if (databaseDown.get()) {
+                    transactionManager.rollback(status);
+                    throw new TransactionSystemException("Database unavailable");
+                }
+                transactionManager.commit(status);
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        NotificationPipeline external = new NotificationPipeline(notificationRepository, userRepository, unreadCounts,
+            deliveryStatistics, streams, emailGateway, flaky, 100, 50, Duration.ofMillis(200), Duration.ZERO,
+            Duration.ofMillis(500), true);
+        ownPipelines.add(external);
+        try {
+            external.publish(new NotificationEvent(student.getId(), 1L, NotificationType.TICKET_SUBMITTED,
+                NotificationPriority.NORMAL, DeliveryChannel.EMAIL, "TICKET_SUBMITTED", "Ticket submitted",
+                "Your ticket was submitted", 0));
+            assertTrue(external.awaitIdle(TIMEOUT));
+
+            // Sent, but the write-back was lost: the row is still leased to the retry engine
+            assertEquals(1, sent.size());
+            Notification leased = notificationRepository.findAll().get(0);
+            assertEquals(NotificationStatus.QUEUED_FOR_RETRY, leased.getStatus());
+            assertEquals("Sending", leased.getDeliveryStatus());
+            assertEquals(0, leased.getRetryCount());
+
+            NotificationRetryEngine engine = new NotificationRetryEngine(notificationRepository, deliveryStatistics,
+                transactionManager, NotificationRetryEngine.through(emailGateway, NotificationRetryEngine.CLAIM_LEASE),
+                NotificationRetryEngine.BATCH_SIZE, NotificationRetryEngine.CLAIM_LEASE, NotificationRetryEngine.POLL_INTERVAL, false);
+            assertEquals(0, engine.retryDue());    // still within the lease
+            Thread.sleep(600);
+            assertEquals(1, engine.retryDue());
+            assertTrue(engine.awaitIdle(TIMEOUT));
+
+            assertEquals(List.of(leased.getId(), leased.getId()), sent);
+            assertEquals(NotificationStatus.SENT, notificationRepository.findAll().get(0).getStatus());
+        } finally {
+            emailGateway.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should record sends apart from failures, truncating reasons longer than their column")
+    void testLongFailureReasonKeepsSends() throws Exception {
+        String reply = "550 5.1.1 " + "mailbox unavailable ".repeat(40);
+        DeliveryAdapter email = new DeliveryAdapter() {
+            @Override
+            public DeliveryChannel getChannel() {
+                return DeliveryChannel.EMAIL;
+            }
+
+            @Override
+            public void send(DeliveryMessage message, Duration timeout) throws IOException {
+                if (message.getNotificationId() % 2 == 0) {
+                    throw new IOException(reply);
+                }
+            }
+        };
+        DeliveryGateway emailGateway = new DeliveryGateway(List.of(email), ChannelPolicy::defaults, userRepository);
+        NotificationPipeline external = new NotificationPipeline(notificationRepository, userRepository, unreadCounts,
+            deliveryStatistics, streams, emailGateway, transactionManager, 100, 50, Duration.ofMillis(200),
+            Duration.ZERO, NotificationPipeline.SEND_LEASE, true);
+        ownPipelines.add(external);
+        try {
+            for (long ticketId = 1; ticketId <= 4; ticketId++) {
+                external.publish(new NotificationEvent(student.getId(), ticketId, NotificationType.TICKET_SUBMITTED,
+                    NotificationPriority.NORMAL, DeliveryChannel.EMAIL, "TICKET_SUBMITTED", "Ticket submitted",
+                    "Your ticket was submitted", 0));
+            }
+            assertTrue(external.awaitIdle(TIMEOUT));
+
+            List<Notification> saved = notificationRepository.findAll();
+            assertEquals(4, saved.size());
+            saved.forEach(n -> {
+                if (n.getId() % 2 == 0) {
+                    assertEquals(NotificationStatus.QUEUED_FOR_RETRY, n.getStatus());
+                    assertEquals(1, n.getRetryCount());
+                    assertEquals(reply.substring(0, Notification.FAILURE_REASON_LENGTH), n.getFailureReason());
+                } else {
+                    assertEquals(NotificationStatus.SENT, n.getStatus());
+                }
+            });
+            assertEquals(2, external.metrics().getDelivered().get(DeliveryChannel.EMAIL));
+            assertEquals(2, external.metrics().getFailed().get(DeliveryChannel.EMAIL));
+        } finally {
+            emailGateway.shutdown();
+        }
+    }
+
+    private NotificationPipeline stoppedPipeline(int capacity, int batchSize, Duration publishTimeout) {
+        NotificationPipeline created = new NotificationPipeline(notificationRepository, userRepository,
+            unreadCounts, deliveryStatistics, streams, gateway, transactionManager, capacity, batchSize, publishTimeout,
+            Duration.ZERO, NotificationPipeline.SEND_LEASE, false);
+        ownPipelines.add(created);
+        return created;
+    }
+}
@@ -0,0 +1,300 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: due retries are claimed in batches, failures back off per channel until
+ * each row's maxRetries, and concurrent engines claim disjoint rows without waiting on each other
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Notification Retry Engine - Integration Tests")
+class NotificationRetryEngineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Set<DeliveryChannel> CHANNELS = EnumSet.allOf(DeliveryChannel.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private DeliveryStatisticsTracker deliveryStatistics;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        deliveryStatistics = new DeliveryStatisticsTracker(notificationRepository, Duration.ofMinutes(5), false);
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should double the backoff window per failure up to the channel cap, with jitter")
+    void testBackoff() {
+        assertEquals(Duration.ofSeconds(30), RetryBackoff.window(DeliveryChannel.EMAIL, 1));
+        assertEquals(Duration.ofSeconds(60), RetryBackoff.window(DeliveryChannel.EMAIL, 2));
+        assertEquals(Duration.ofSeconds(120), RetryBackoff.window(DeliveryChannel.EMAIL, 3));
+        assertEquals(Duration.ofHours(1), RetryBackoff.window(DeliveryChannel.EMAIL, 20));
+        assertEquals(Duration.ofMinutes(5), RetryBackoff.window(DeliveryChannel.IN_APP, 100));
+        assertTrue(RetryBackoff.window(DeliveryChannel.IN_APP, 1)
+            .compareTo(RetryBackoff.window(DeliveryChannel.SMS, 1)) < 0);
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<LocalDateTime> distinct = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            LocalDateTime next = RetryBackoff.nextAttemptAt(DeliveryChannel.EMAIL, 3, now);
+            assertFalse(next.isBefore(now.plusSeconds(60)));
+            assertFalse(next.isAfter(now.plusSeconds(120)));
+            distinct.add(next);
+        }
+        assertTrue(distinct.size() > 1, "Retries of one batch should not all land at the same instant");
+    }
+
+    @Test
+    @DisplayName("Should retry due rows in batches, back off a failing channel and give up at maxRetries")
+    void testBatchedRetries() {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            notifications.add(queued(i % 2 == 0 ? DeliveryChannel.EMAIL : DeliveryChannel.SMS, 0, 3, past));
+        }
+        notifications.add(queued(DeliveryChannel.SMS, 1, 2, past));       // last attempt left
+        notifications.add(queued(DeliveryChannel.EMAIL, 5, 5, past));     // already out of retries
+        Notification notYetDue = queued(DeliveryChannel.EMAIL, 0, 3, LocalDateTime.now().plusHours(1));
+        notifications.add(notYetDue);
+        notificationRepository.saveAll(notifications);
+        deliveryStatistics.reconcile();
+
+        NotificationRetryEngine engine = engine((channel, batch) -> {
+            if (channel == DeliveryChannel.SMS) throw new RuntimeException("SMS gateway unavailable");
+        }, Duration.ofMinutes(1));
+        assertEquals(62, engine.metrics().getDue());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(50, engine.retryDue());
+        assertTrue(engine.awaitIdle(TIMEOUT));
+        assertEquals(12, engine.retryDue());
+        assertTrue(engine.awaitIdle(TIMEOUT));
+        assertEquals(0, engine.retryDue());
+        // Per batch: due ids, claim, batched lease UPDATE, one UPDATE per delivered channel, reload and batched UPDATE of failures
+        assertTrue(statistics.getPrepareStatementCount() <= 20,
+            "Prepared " + statistics.getPrepareStatementCount() + " statements");
+
+        Map<NotificationStatus, Long> byStatus = notificationRepository.findAll().stream()
+            .collect(Collectors.groupingBy(Notification::getStatus, Collectors.counting()));
+        assertEquals(30, byStatus.get(NotificationStatus.SENT));
+        assertEquals(31, byStatus.get(NotificationStatus.QUEUED_FOR_RETRY));    // 30 SMS plus the one not yet due
+        assertEquals(2, byStatus.get(NotificationStatus.PERMANENTLY_FAILED));
+        // Every claim and write-back was counted as it committed
+        assertEquals(30, deliveryStatistics.getCounts().get(NotificationStatus.SENT));
+        assertEquals(0, deliveryStatistics.reconcile());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Notification n : notificationRepository.findAll()) {
+            if (n.getStatus() == NotificationStatus.QUEUED_FOR_RETRY && n.getDeliveryChannel() == DeliveryChannel.SMS) {
+                assertEquals(1, n.getRetryCount());
+                assertEquals("SMS gateway unavailable", n.getFailureReason());
+                // SMS second window is 60 s, landing in its upper half
+                assertTrue(n.getNextAttemptAt().isAfter(now.plusSeconds(20)));
+                assertTrue(n.getNextAttemptAt().isBefore(now.plusSeconds(61)));
+            }
+            if (n.getStatus() == NotificationStatus.PERMANENTLY_FAILED) {
+                assertNull(n.getNextAttemptAt());
+            }
+        }
+        assertEquals(0, notificationRepository.findById(notYetDue.getId()).orElseThrow().getRetryCount());
+
+        NotificationRetryEngine.Metrics metrics = engine.metrics();
+        assertEquals(0, metrics.getDue());
+        assertEquals(62, metrics.getClaimed());
+        assertEquals(30, metrics.getSucceeded());
+        assertEquals(30, metrics.getRescheduled());
+        assertEquals(2, metrics.getPermanentlyFailed());
+        assertEquals(2, metrics.getBatches());
+        assertEquals(30, metrics.getSucceededByChannel().get(DeliveryChannel.EMAIL));
+        assertEquals(31, metrics.getFailedByChannel().get(DeliveryChannel.SMS));
+    }
+
+    @Test
+    @DisplayName("Should let a second engine claim other rows while the first holds its batch")
+    void testConcurrentClaimsSkipLockedRows() throws Exception {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            notifications.add(queued(DeliveryChannel.EMAIL, 0, 3, past.plusNanos(i * 1_000_000L)));
+        }
+        notificationRepository.saveAll(notifications);
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Another node's claim transaction, still open on the ten oldest rows
+            Future<Set<Long>> first = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                Set<Long> ids = notificationRepository.claimDueRetries(
+                    notificationRepository.findDueRetryIds(LocalDateTime.now(), CHANNELS, Limit.of(10)), LocalDateTime.now()).stream()
+                    .map(Notification::getId).collect(Collectors.toSet());
+                held.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ids;
+            }));
+            assertTrue(held.await(10, TimeUnit.SECONDS));
+
+            Set<Long> delivered = ConcurrentHashMap.newKeySet();
+            NotificationRetryEngine engine = engine((channel, batch) ->
+                batch.forEach(n -> delivered.add(n.getId())), Duration.ofMinutes(1));
+            long start = System.nanoTime();
+            assertEquals(10, engine.retryDue());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0,
+                "Claim waited on locked rows");
+            assertTrue(engine.awaitIdle(TIMEOUT));
+            release.countDown();
+
+            Set<Long> heldIds = first.get(10, TimeUnit.SECONDS);
+            assertEquals(10, heldIds.size());
+            assertEquals(10, delivered.size());
+            assertTrue(Collections.disjoint(heldIds, delivered));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand a batch whose write-back never happened to the next claim once the lease expires")
+    void testLeaseExpiry() throws InterruptedException {
+        notificationRepository.save(queued(DeliveryChannel.EMAIL, 0, 3, LocalDateTime.now().minusMinutes(1)));
+
+        // A node that claimed the row with a short lease and died before writing back
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            notificationRepository.claimDueRetries(
+                    notificationRepository.findDueRetryIds(LocalDateTime.now(), CHANNELS, Limit.of(10)), LocalDateTime.now())
+                .forEach(n -> n.setNextAttemptAt(LocalDateTime.now().plusNanos(200_000_000))));
+
+        NotificationRetryEngine engine = engine((channel, batch) -> { }, Duration.ofMinutes(1));
+        assertEquals(0, engine.retryDue());
+
+        Thread.sleep(300);
+        assertEquals(1, engine.retryDue());
+        assertTrue(engine.awaitIdle(TIMEOUT));
+        assertEquals(NotificationStatus.SENT, notificationRepository.findAll().get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should keep retrying other channels while one channel's share is still being sent")
+    void testSlowChannelDoesNotStallOthers() throws Exception {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            notifications.add(queued(i % 2 == 0 ? DeliveryChannel.EMAIL : DeliveryChannel.SMS, 0, 3, past));
+        }
+        notificationRepository.saveAll(notifications);
+
+        CountDownLatch smsGatewayBack = new CountDownLatch(1);
+        List<Long> smsAttempts = Collections.synchronizedList(new ArrayList<>());
+        NotificationRetryEngine engine = engine((channel, batch) -> {
+            if (channel == DeliveryChannel.SMS) {
+                batch.forEach(n -> smsAttempts.add(n.getId()));
+                try {
+                    smsGatewayBack.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, Duration.ofMinutes(1));
+        try {
+            assertEquals(10, engine.retryDue());
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (count(DeliveryChannel.EMAIL, NotificationStatus.SENT) < 5 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(5, count(DeliveryChannel.EMAIL, NotificationStatus.SENT));
+            assertEquals(0, count(DeliveryChannel.SMS, NotificationStatus.SENT));
+
+            // SMS is still busy with its share: only the new email rows are claimed
+            notificationRepository.saveAll(List.of(queued(DeliveryChannel.EMAIL, 0, 3, past),
+                queued(DeliveryChannel.SMS, 0, 3, past)));
+            assertEquals(1, engine.retryDue());
+
+            smsGatewayBack.countDown();
+            assertTrue(engine.awaitIdle(TIMEOUT));
+            assertEquals(1, engine.retryDue());
+            assertTrue(engine.awaitIdle(TIMEOUT));
+            assertEquals(6, count(DeliveryChannel.SMS, NotificationStatus.SENT));
+            assertEquals(6, smsAttempts.size());
+            assertEquals(6, new HashSet<>(smsAttempts).size(), "An SMS row was attempted twice");
+        } finally {
+            smsGatewayBack.countDown();
+            engine.shutdown();
+        }
+    }
+
+    private long count(DeliveryChannel channel, NotificationStatus status) {
+        return notificationRepository.findAll().stream()
+            .filter(n -> n.getDeliveryChannel() == channel && n.getStatus() == status).count();
+    }
+
+    private Notification queued(DeliveryChannel channel, int retryCount, int maxRetries, LocalDateTime nextAttemptAt) {
+        Notification notification = new Notification();
+        notification.setRecipient(student);
+        notification.setTitle("Ticket update");
+        notification.setMessage("Your ticket was updated");
+        notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+        notification.setDeliveryChannel(channel);
+        notification.setStatus(NotificationStatus.QUEUED_FOR_RETRY);
+        notification.setRetryCount(retryCount);
+        notification.setMaxRetries(maxRetries);
+        notification.setNextAttemptAt(nextAttemptAt);
+        return notification;
+    }
+
+    private NotificationRetryEngine engine(NotificationRetryEngine.DeliveryAttempt attempt, Duration lease) {
+        return new NotificationRetryEngine(notificationRepository, deliveryStatistics, transactionManager, attempt,
+            NotificationRetryEngine.BATCH_SIZE, lease, NotificationRetryEngine.POLL_INTERVAL, false);
+    }
+}
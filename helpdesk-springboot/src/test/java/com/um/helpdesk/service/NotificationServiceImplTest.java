@@ -13,12 +13,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,6 +36,27 @@ class NotificationServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private NotificationPipeline pipeline;
+
+    @Mock
+    private EscalationScheduler escalationScheduler;
+
+    @Mock
+    private NotificationRetryEngine retryEngine;
+
+    @Mock
+    private UnreadCountTracker unreadCounts;
+
+    @Mock
+    private DeliveryStatisticsTracker deliveryStatistics;
+
+    @Mock
+    private NotificationStreamHub streams;
+
+    @Mock
+    private NotificationBroadcaster broadcaster;
+
     @InjectMocks
     private NotificationServiceImpl notificationService;
 
@@ -94,17 +116,32 @@ class NotificationServiceImplTest {
         assertEquals(NotificationStatus.READ, mockNotification.getStatus());
         assertNotNull(mockNotification.getReadAt());
         verify(notificationRepository).save(mockNotification);
+        verify(unreadCounts).adjust(2L, -1);
+    }
+
+    @Test
+    @DisplayName("F1: Should mark all notifications read with one bulk update")
+    void testMarkAllAsRead() {
+        when(notificationRepository.markAllRead(eq(2L), any(LocalDateTime.class))).thenReturn(7);
+        when(notificationRepository.markReadUpTo(eq(2L), eq(40L), any(LocalDateTime.class))).thenReturn(3);
+
+        assertEquals(7, notificationService.markAllAsRead(2L));
+        assertEquals(3, notificationService.markAsReadUpTo(2L, 40L));
+        verify(unreadCounts).adjust(2L, -7);
+        verify(unreadCounts).adjust(2L, -3);
+        verify(notificationRepository, never()).save(any(Notification.class));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     @DisplayName("F1: Should get unread count for user")
     void testGetUnreadCount() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(studentUser));
-        when(notificationRepository.countByRecipientAndIsReadFalse(studentUser)).thenReturn(5L);
+        when(unreadCounts.getUnreadCount(2L)).thenReturn(5L);
 
         long count = notificationService.getUnreadCount(2L);
 
         assertEquals(5L, count);
+        verifyNoInteractions(userRepository);
     }
 
     // =================================================================
@@ -114,43 +151,21 @@ class NotificationServiceImplTest {
     @Test
     @DisplayName("F2: Should trigger notification when Ticket is Submitted")
     void testSendTicketSubmittedNotification() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(studentUser));
-        when(notificationRepository.findById(any())).thenReturn(Optional.of(mockNotification)); // Stub for
-                                                                                                // sendNotification
-                                                                                                // retrieval
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> {
-            Notification n = (Notification) i.getArguments()[0];
-            n.setId(100L); // Simulate DB ID generation
-            return n;
-        });
-
         notificationService.sendTicketSubmittedNotification(999L, 2L);
 
-        // Verification
-        // 1. Should save the new notification
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
-        // 2. Should attempt to persist it (create) and then update it (send)
+        // Queued on the pipeline; nothing is read or written on the caller's thread
+        verify(pipeline).publish(argThat(e -> e.getType() == NotificationType.TICKET_SUBMITTED &&
+                e.getRecipientId().equals(2L) && e.getTicketId().equals(999L)));
+        verifyNoInteractions(notificationRepository, userRepository);
     }
 
     @Test
     @DisplayName("F2: Should trigger notification when Ticket is Assigned")
     void testSendTicketAssignedNotification() {
-        User technician = new TechnicianSupportStaff();
-        technician.setId(3L);
-
-        when(userRepository.findById(3L)).thenReturn(Optional.of(technician));
-        when(notificationRepository.findById(any())).thenReturn(Optional.of(mockNotification));
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> {
-            Notification n = (Notification) i.getArguments()[0];
-            n.setId(101L);
-            return n;
-        });
-
         notificationService.sendTicketAssignedNotification(555L, 3L);
 
-        verify(notificationRepository, atLeastOnce())
-                .save(argThat(n -> n.getType() == NotificationType.TICKET_ASSIGNED &&
-                        n.getPriority() == NotificationPriority.HIGH));
+        verify(pipeline).publish(argThat(e -> e.getType() == NotificationType.TICKET_ASSIGNED &&
+                e.getPriority() == NotificationPriority.HIGH && e.getRecipientId().equals(3L)));
     }
 
     // =================================================================
@@ -160,38 +175,19 @@ class NotificationServiceImplTest {
     @Test
     @DisplayName("F3: Should send Urgent Reminder Notification")
     void testSendReminderNotification() {
-        User technician = new TechnicianSupportStaff();
-        technician.setId(3L);
-
-        when(userRepository.findById(3L)).thenReturn(Optional.of(technician));
-        when(notificationRepository.findById(any())).thenReturn(Optional.of(mockNotification));
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> {
-            Notification n = (Notification) i.getArguments()[0];
-            n.setId(102L);
-            return n;
-        });
-
         notificationService.sendReminderNotification(123L, 3L);
 
-        verify(notificationRepository, atLeastOnce()).save(argThat(n -> n.getTitle().contains("Reminder") &&
-                n.getPriority() == NotificationPriority.URGENT));
+        verify(pipeline).publish(argThat(e -> e.getTitle().contains("Reminder") &&
+                e.getPriority() == NotificationPriority.URGENT && e.getEscalationLevel() == 1));
     }
 
     @Test
     @DisplayName("F3: Should send Escalation Notification to Supervisor")
     void testSendEscalationNotification() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(adminUser));
-        when(notificationRepository.findById(any())).thenReturn(Optional.of(mockNotification));
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> {
-            Notification n = (Notification) i.getArguments()[0];
-            n.setId(103L);
-            return n;
-        });
-
         notificationService.sendEscalationNotification(123L, 1L, 2); // Level 2 Escalation
 
-        verify(notificationRepository, atLeastOnce()).save(argThat(n -> n.getType() == NotificationType.ESCALATION &&
-                n.getMessage().contains("Supervisor level")));
+        verify(pipeline).publish(argThat(e -> e.getType() == NotificationType.ESCALATION &&
+                e.getMessage().contains("Supervisor level") && e.getEscalationLevel() == 2));
     }
 
     // =================================================================
@@ -201,19 +197,17 @@ class NotificationServiceImplTest {
     @Test
     @DisplayName("F4: Should calculate delivery statistics correctly")
     void testGetDeliveryStatistics() {
-        // Arrange: Create a list of notifications with different statuses
-        Notification n1 = new Notification();
-        n1.setStatus(NotificationStatus.DELIVERED);
-        Notification n2 = new Notification();
-        n2.setStatus(NotificationStatus.READ);
-        Notification n3 = new Notification();
-        n3.setStatus(NotificationStatus.FAILED);
-        Notification n4 = new Notification();
-        n4.setStatus(NotificationStatus.SENT);
-
-        List<Notification> list = Arrays.asList(n1, n2, n3, n4);
-
-        when(notificationRepository.findAll()).thenReturn(list);
+        // Arrange: Counts per status, as the tracker keeps them
+        Map<NotificationStatus, Long> counts = new EnumMap<>(NotificationStatus.class);
+        for (NotificationStatus status : NotificationStatus.values()) {
+            counts.put(status, 0L);
+        }
+        counts.put(NotificationStatus.DELIVERED, 1L);
+        counts.put(NotificationStatus.READ, 1L);
+        counts.put(NotificationStatus.FAILED, 1L);
+        counts.put(NotificationStatus.SENT, 1L);
+
+        when(deliveryStatistics.getCounts()).thenReturn(counts);
 
         // Act
         String stats = notificationService.getDeliveryStatistics();
@@ -224,5 +218,6 @@ class NotificationServiceImplTest {
         assertTrue(stats.contains("Delivered: 1"));
         assertTrue(stats.contains("Read: 1"));
         assertTrue(stats.contains("Failed: 1"));
+        verify(notificationRepository, never()).findAll();
     }
 }
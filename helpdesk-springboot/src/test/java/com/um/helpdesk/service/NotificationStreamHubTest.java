@@ -0,0 +1,326 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.dto.NotificationStreamEvent;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: open streams receive notifications as the pipeline saves and delivers them,
+ * a reconnect with Last-Event-ID is replayed what it missed, and dead streams are dropped
+ */
+@DataJpaTest
+@Import({NotificationPipeline.class, UnreadCountTracker.class, DeliveryStatisticsTracker.class,
+         NotificationStreamHub.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Notification Stream Hub - Integration Tests")
+class NotificationStreamHubTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UnreadCountTracker unreadCounts;
+
+    @Autowired
+    private DeliveryStatisticsTracker deliveryStatistics;
+
+    @Autowired
+    private DeliveryGateway gateway;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationStreamHub hub;
+    private NotificationPipeline pipeline;
+    private Student ali;
+    private Student mei;
+
+    @BeforeEach
+    void setUp() {
+        hub = new NotificationStreamHub(notificationRepository, RecordingEmitter::new, Duration.ofMinutes(5),
+            Duration.ofMillis(200));
+        pipeline = new NotificationPipeline(notificationRepository, userRepository, unreadCounts, deliveryStatistics,
+            hub, gateway, transactionManager, 100, 50, Duration.ofMillis(200), Duration.ZERO,
+            NotificationPipeline.SEND_LEASE, false);
+        ali = student("ali@siswa.um.edu.my", "Ali Student");
+        mei = student("mei@siswa.um.edu.my", "Mei Student");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.awaitIdle(TIMEOUT);
+        pipeline.shutdown();
+        hub.shutdown();
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should push created and delivered events to the recipient's open streams only")
+    void testLiveEvents() throws Exception {
+        RecordingEmitter aliStream = (RecordingEmitter) hub.subscribe(ali.getId(), null);
+        RecordingEmitter meiStream = (RecordingEmitter) hub.subscribe(mei.getId(), null);
+
+        List<Notification> saved = new TransactionTemplate(transactionManager).execute(status ->
+            pipeline.saveAndDeliver(List.of(NotificationEvent.ticketSubmitted(1L, ali.getId()),
+                NotificationEvent.ticketSubmitted(2L, ali.getId()), NotificationEvent.ticketSubmitted(3L, mei.getId()))));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+
+        aliStream.await(4);
+        meiStream.await(2);
+        Long first = saved.get(0).getId();
+        Long second = saved.get(1).getId();
+        assertEquals(List.of("created#" + first, "created#" + second), aliStream.events("created"));
+        assertEquals(List.of("delivered", "delivered"), aliStream.events("delivered"));
+        assertTrue(aliStream.events.stream().filter(e -> e.contains("event:delivered"))
+            .allMatch(e -> e.contains("status=DELIVERED")));
+        assertEquals(List.of("created#" + saved.get(2).getId()), meiStream.events("created"));
+
+        // A rolled-back insert is never announced
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            pipeline.saveAndDeliver(List.of(NotificationEvent.ticketSubmitted(4L, ali.getId())));
+            status.setRollbackOnly();
+        });
+        Thread.sleep(100);
+        assertEquals(2, aliStream.events("created").size());
+        assertEquals(2, hub.metrics().getOpenStreams());
+        assertEquals(6, hub.metrics().getEventsSent());
+    }
+
+    @Test
+    @DisplayName("Should replay what a reconnecting stream missed after its Last-Event-ID")
+    void testReplayAfterLastEventId() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(10);
+        List<Notification> inbox = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            inbox.add(notification(ali, start.plusMinutes(i)));
+        }
+        inbox = notificationRepository.saveAll(inbox);
+        notificationRepository.save(notification(mei, start.plusMinutes(3)));
+
+        RecordingEmitter resumed = (RecordingEmitter) hub.subscribe(ali.getId(), cursor(inbox.get(1)));
+        assertEquals(List.of("created#" + inbox.get(2).getId(), "created#" + inbox.get(3).getId(),
+            "created#" + inbox.get(4).getId()), resumed.events("created"));
+        assertTrue(resumed.events.stream().filter(e -> e.contains("event:created"))
+            .allMatch(e -> e.contains("id:" + start.toLocalDate())), "Event ids should be createdAt cursors");
+
+        RecordingEmitter upToDate = (RecordingEmitter) hub.subscribe(ali.getId(), cursor(inbox.get(4)));
+        assertTrue(upToDate.events("created").isEmpty());
+        assertEquals(3, hub.metrics().getReplayed());
+
+        // Built before the last one the client saw but committed after it: inside the overlap, so replayed
+        Notification late = notificationRepository.save(notification(ali, start.plusMinutes(4).minusSeconds(5)));
+        RecordingEmitter afterLateCommit = (RecordingEmitter) hub.subscribe(ali.getId(), cursor(inbox.get(4)));
+        assertEquals(List.of("created#" + late.getId()), afterLateCommit.events("created"));
+
+        // A bare id from before cursors resumes from that notification
+        RecordingEmitter legacy = (RecordingEmitter) hub.subscribe(ali.getId(), String.valueOf(inbox.get(4).getId()));
+        assertEquals(List.of("created#" + late.getId()), legacy.events("created"));
+    }
+
+    @Test
+    @DisplayName("Should tell a client that missed more than the replay limit to resync")
+    void testResyncBeyondReplayLimit() {
+        List<Notification> inbox = new ArrayList<>();
+        for (int i = 0; i < NotificationStreamHub.REPLAY_LIMIT + 5; i++) {
+            inbox.add(notification(ali));
+        }
+        notificationRepository.saveAll(inbox);
+
+        RecordingEmitter stream = (RecordingEmitter) hub.subscribe(ali.getId(),
+            LocalDateTime.now().minusDays(1) + "_0");
+
+        assertTrue(stream.events("created").isEmpty());
+        assertEquals(List.of("resync"), stream.events("resync"));
+        assertEquals(1, hub.metrics().getResyncs());
+        assertEquals(0, hub.metrics().getReplayed());
+    }
+
+    @Test
+    @DisplayName("Should drop a stream whose writes fail and keep serving the others")
+    void testDeadStreamRemoved() throws Exception {
+        RecordingEmitter healthy = (RecordingEmitter) hub.subscribe(ali.getId(), null);
+        RecordingEmitter dead = (RecordingEmitter) hub.subscribe(ali.getId(), null);
+        RecordingEmitter idle = (RecordingEmitter) hub.subscribe(mei.getId(), null);
+        dead.broken = true;
+        idle.broken = true;
+
+        hub.created(List.of(notificationRepository.save(notification(ali))));
+        healthy.await(1);
+        assertEquals(2, hub.metrics().getOpenStreams());
+
+        // Idle streams are found by the heartbeat
+        hub.sendHeartbeat();
+        awaitOpenStreams(1);
+        NotificationStreamHub.Metrics metrics = hub.metrics();
+        assertEquals(1, metrics.getOpenStreams());
+        assertEquals(1, metrics.getRecipients());
+        assertEquals(2, metrics.getSendFailures());
+        assertEquals(2, metrics.getClosed());
+    }
+
+    @Test
+    @DisplayName("Should serve other streams while one client blocks, and close it once it stalls or falls behind")
+    void testSlowClientIsolated() throws Exception {
+        RecordingEmitter slow = (RecordingEmitter) hub.subscribe(ali.getId(), null);
+        RecordingEmitter fast = (RecordingEmitter) hub.subscribe(ali.getId(), null);
+        RecordingEmitter other = (RecordingEmitter) hub.subscribe(mei.getId(), null);
+        slow.blocked = new CountDownLatch(1);
+
+        hub.created(List.of(notificationRepository.save(notification(ali))));
+        hub.created(List.of(notificationRepository.save(notification(mei))));
+        fast.await(1);
+        other.await(1);
+        assertTrue(slow.events("created").isEmpty());
+
+        // Its write has been blocked past the send timeout: the heartbeat completes it
+        Thread.sleep(300);
+        hub.sendHeartbeat();
+        awaitOpenStreams(2);
+        assertEquals(1, hub.metrics().getStalled());
+        slow.blocked.countDown();
+
+        // A client that stops reading is completed once its queue is full, however many events follow
+        other.blocked = new CountDownLatch(1);
+        List<Notification> burst = new ArrayList<>();
+        for (int i = 0; i < NotificationStreamHub.STREAM_QUEUE_CAPACITY + 2; i++) {
+            burst.add(notification(mei));
+        }
+        burst = notificationRepository.saveAll(burst);
+        hub.created(burst.subList(0, 1));
+        other.awaitBlocked();
+        hub.created(burst.subList(1, burst.size()));
+        assertEquals(1, hub.metrics().getOverflowed());
+        assertEquals(1, hub.metrics().getOpenStreams());
+        other.blocked.countDown();
+
+        hub.created(List.of(notificationRepository.save(notification(ali))));
+        fast.await(2);
+    }
+
+    private void awaitOpenStreams(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (hub.metrics().getOpenStreams() != count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + count + " open streams");
+            Thread.sleep(5);
+        }
+    }
+
+    private Student student(String email, String name) {
+        Student student = new Student();
+        student.setEmail(email);
+        student.setFullName(name);
+        return userRepository.save(student);
+    }
+
+    private static String cursor(Notification notification) {
+        return NotificationStreamHub.cursor(NotificationStreamEvent.of(notification));
+    }
+
+    private Notification notification(User recipient, LocalDateTime createdAt) {
+        Notification notification = notification(recipient);
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+
+    private Notification notification(User recipient) {
+        Notification notification = new Notification();
+        notification.setRecipient(recipient);
+        notification.setTitle("Ticket update");
+        notification.setMessage("Your ticket was updated");
+        notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+        notification.setStatus(NotificationStatus.DELIVERED);
+        return notification;
+    }
+
+    // Records each event as the text it would write to the response
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile boolean broken;
+        private volatile CountDownLatch blocked;    // a client that stopped reading
+        private volatile boolean blocking;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            CountDownLatch latch = blocked;
+            if (latch != null) {
+                blocking = true;
+                try {
+                    latch.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                blocking = false;
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                text.append(part.getData());
+            }
+            events.add(text.toString());
+        }
+
+        // "name#notificationId" for events with a cursor id, "name" otherwise
+        private List<String> events(String name) {
+            List<String> named = new ArrayList<>();
+            for (String event : events) {
+                if (event.contains("event:" + name + "\n")) {
+                    int id = event.indexOf("id:");
+                    named.add(id < 0 ? name
+                        : name + "#" + event.substring(event.lastIndexOf('_', event.indexOf('\n', id)) + 1,
+                            event.indexOf('\n', id)));
+                }
+            }
+            return named;
+        }
+
+        private void awaitBlocked() throws InterruptedException {
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (!blocking) {
+                assertTrue(System.nanoTime() < deadline, "Timed out waiting for a blocked write");
+                Thread.sleep(5);
+            }
+        }
+
+        private void await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (events.stream().filter(e -> e.contains("event:")).count() < count) {
+                assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + count + " events: " + events);
+                Thread.sleep(5);
+            }
+        }
+    }
+}
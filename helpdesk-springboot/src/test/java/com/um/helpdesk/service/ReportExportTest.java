@@ -0,0 +1,125 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.SavedReportRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: report export streams only the rows its report type selects
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ReportingServiceImpl.class, SlaTracker.class, DepartmentCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Streaming Report Export - Integration Tests")
+class ReportExportTest {
+
+    private static final int TICKETS = 2_500;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SavedReportRepository reportRepository;
+
+    @Autowired
+    private ReportingService reportingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Path> files = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Student student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+
+        TicketStatus[] statuses = {TicketStatus.OPEN, TicketStatus.IN_PROGRESS, TicketStatus.RESOLVED, TicketStatus.CLOSED};
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < TICKETS; i++) {
+            Ticket ticket = new Ticket("Ticket, \"" + i + "\"", "Description " + i, student);
+            ticket.setStatus(statuses[i % statuses.length]);
+            tickets.add(ticket);
+        }
+        ticketRepository.saveAll(tickets);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        reportRepository.deleteAll();
+        ticketRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should export only the report type's tickets, in id order, with CSV escaping")
+    void testCsvExportIsFilteredInQuery() throws IOException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        SavedReportArchive report = reportingService.generateReport("Performance", "CSV");
+        List<String> lines = read(report);
+
+        // Only CLOSED/RESOLVED rows were loaded, not the whole table
+        assertEquals(TICKETS / 2, statistics.getEntityLoadCount());
+        assertTrue(lines.contains("Total Records: " + TICKETS / 2));
+        List<String> rows = lines.subList(lines.indexOf("ID,Title,Priority,Status,Submitted Date,Resolved Date") + 1,
+                                          lines.size());
+        assertEquals(TICKETS / 2, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.contains(",RESOLVED,") || row.contains(",CLOSED,")));
+        assertTrue(rows.get(0).contains(",\"Ticket, \"\"2\"\"\","), rows.get(0));
+
+        long previousId = 0;
+        for (String row : rows) {
+            long id = Long.parseLong(row.substring(0, row.indexOf(',')));
+            assertTrue(id > previousId);
+            previousId = id;
+        }
+        assertNotNull(report.getId());
+    }
+
+    @Test
+    @DisplayName("Should write the status summary before the detail rows in text format")
+    void testTextExportSummary() throws IOException {
+        List<String> lines = read(reportingService.generateReport("OpenTickets", "Text"));
+
+        assertTrue(lines.contains("OPEN: " + TICKETS / 4));
+        assertFalse(lines.stream().anyMatch(line -> line.startsWith("CLOSED:")));
+        assertEquals(TICKETS / 4, lines.stream().filter(line -> line.endsWith("- OPEN (MEDIUM)")).count());
+    }
+
+    private List<String> read(SavedReportArchive report) throws IOException {
+        Path file = Path.of(report.getFilePath());
+        files.add(file);
+        return Files.readAllLines(file);
+    }
+}
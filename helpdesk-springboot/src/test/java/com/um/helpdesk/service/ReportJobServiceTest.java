@@ -0,0 +1,224 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.ReportJobStatus;
+import com.um.helpdesk.entity.SavedReportArchive;
+import com.um.helpdesk.repository.SavedReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration test: report jobs are queued, limited per type, coalesced and cancellable.
+ * The export itself is stubbed so each job runs until the test releases it.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Report Job Queue - Integration Tests")
+class ReportJobServiceTest {
+
+    @Autowired
+    private SavedReportRepository reportRepository;
+
+    private final Map<String, CountDownLatch> gates = new ConcurrentHashMap<>();
+    private ReportJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        ReportingService exporter = mock(ReportingService.class);
+        // Writes 10 rows, then waits for the test to open the gate for its report type
+        when(exporter.runReport(any(), any())).thenAnswer(invocation -> {
+            SavedReportArchive report = invocation.getArgument(0);
+            ReportProgress progress = invocation.getArgument(1);
+            progress.started(20);
+            for (int row = 1; row <= 10; row++) {
+                progress.rowsWritten(row);
+            }
+            CountDownLatch gate = gates.computeIfAbsent(report.getReportType(), t -> new CountDownLatch(1));
+            while (!gate.await(10, TimeUnit.MILLISECONDS)) {
+                if (progress.isCancelled()) {
+                    throw new CancellationException("Report cancelled after 10 rows");
+                }
+            }
+            report.setStatus(ReportJobStatus.DONE);
+            report.setRowCount(20L);
+            report.setProgress(100);
+            return reportRepository.save(report);
+        });
+        jobService = new ReportJobService(exporter, reportRepository, 2, 1, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gates.values().forEach(CountDownLatch::countDown);
+        jobService.shutdown();
+        reportRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should return a queued job immediately and report progress while it runs")
+    void testSubmitAndPoll() {
+        SavedReportArchive job = jobService.submit("Performance", "CSV");
+
+        assertNotNull(job.getId());
+        assertEquals(ReportJobStatus.QUEUED, job.getStatus());
+
+        SavedReportArchive running = awaitStatus(job.getId(), ReportJobStatus.RUNNING);
+        awaitCondition(() -> jobService.getJob(job.getId()).getRowCount() == 10L);
+        assertEquals(50, jobService.getJob(job.getId()).getProgress());
+        assertEquals(ReportJobStatus.RUNNING, running.getStatus());
+
+        release("Performance");
+        SavedReportArchive done = awaitStatus(job.getId(), ReportJobStatus.DONE);
+        assertEquals(20L, done.getRowCount());
+        assertEquals(100, done.getProgress());
+    }
+
+    @Test
+    @DisplayName("Should run one job per report type at a time while other types proceed")
+    void testPerTypeConcurrencyLimit() {
+        SavedReportArchive first = jobService.submit("Performance", "CSV");
+        SavedReportArchive second = jobService.submit("Performance", "Text");
+        SavedReportArchive other = jobService.submit("OpenTickets", "CSV");
+
+        awaitStatus(first.getId(), ReportJobStatus.RUNNING);
+        awaitStatus(other.getId(), ReportJobStatus.RUNNING);
+        assertEquals(ReportJobStatus.QUEUED, jobService.getJob(second.getId()).getStatus());
+
+        release("OpenTickets");
+        awaitStatus(other.getId(), ReportJobStatus.DONE);
+        assertEquals(ReportJobStatus.QUEUED, jobService.getJob(second.getId()).getStatus());
+
+        release("Performance");
+        awaitStatus(first.getId(), ReportJobStatus.DONE);
+        awaitStatus(second.getId(), ReportJobStatus.DONE);
+    }
+
+    @Test
+    @DisplayName("Should coalesce duplicate submissions of the same type and format")
+    void testDuplicateSubmissionsAreCoalesced() {
+        SavedReportArchive first = jobService.submit("Performance", "CSV");
+        SavedReportArchive duplicate = jobService.submit("performance", "csv");
+        SavedReportArchive differentFormat = jobService.submit("Performance", "Text");
+
+        assertEquals(first.getId(), duplicate.getId());
+        assertNotEquals(first.getId(), differentFormat.getId());
+
+        release("Performance");
+        awaitStatus(first.getId(), ReportJobStatus.DONE);
+        // Still inside the window: the finished job is returned instead of a new export
+        assertEquals(first.getId(), jobService.submit("Performance", "CSV").getId());
+        assertEquals(2, reportRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should cancel queued and running jobs, and not coalesce onto a cancelled job")
+    void testCancel() {
+        SavedReportArchive running = jobService.submit("Performance", "CSV");
+        SavedReportArchive queued = jobService.submit("Performance", "Text");
+        awaitStatus(running.getId(), ReportJobStatus.RUNNING);
+        // RUNNING is reported from dispatch; wait until the export itself is under way
+        awaitCondition(() -> jobService.getJob(running.getId()).getRowCount() == 10L);
+
+        assertEquals(ReportJobStatus.CANCELLED, jobService.cancel(queued.getId()).getStatus());
+        jobService.cancel(running.getId());
+        SavedReportArchive cancelled = awaitStatus(running.getId(), ReportJobStatus.CANCELLED);
+        assertEquals("Report cancelled after 10 rows", cancelled.getFailureReason());
+
+        SavedReportArchive resubmitted = jobService.submit("Performance", "CSV");
+        assertNotEquals(running.getId(), resubmitted.getId());
+        release("Performance");
+        awaitStatus(resubmitted.getId(), ReportJobStatus.DONE);
+    }
+
+    @Test
+    @DisplayName("Should refuse submissions with a retry hint once the queue is full")
+    void testQueueFull() {
+        // One Performance job runs at a time, so the rest wait
+        for (int i = 0; i <= ReportJobService.MAX_QUEUED_JOBS; i++) {
+            jobService.submit("Performance", "F" + i);
+        }
+
+        ReportQueueFullException e = assertThrows(ReportQueueFullException.class,
+            () -> jobService.submit("Performance", "Overflow"));
+        assertEquals(ReportJobService.QUEUE_FULL_RETRY_AFTER, e.getRetryAfter());
+        assertEquals(ReportJobService.MAX_QUEUED_JOBS + 1, reportRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should fail jobs a previous run left unfinished, but not live or finished ones")
+    void testInterruptedJobsFailedAtStartup() {
+        SavedReportArchive queued = reportRepository.save(record("Performance", ReportJobStatus.QUEUED));
+        SavedReportArchive running = reportRepository.save(record("OpenTickets", ReportJobStatus.RUNNING));
+        SavedReportArchive done = reportRepository.save(record("Performance", ReportJobStatus.DONE));
+        SavedReportArchive live = jobService.submit("Workload", "CSV");
+        awaitStatus(live.getId(), ReportJobStatus.RUNNING);
+
+        jobService.failInterruptedJobs();
+
+        for (SavedReportArchive stale : new SavedReportArchive[] {queued, running}) {
+            SavedReportArchive failed = jobService.getJob(stale.getId());
+            assertEquals(ReportJobStatus.FAILED, failed.getStatus());
+            assertEquals(ReportJobService.INTERRUPTED_REASON, failed.getFailureReason());
+        }
+        assertEquals(ReportJobStatus.DONE, jobService.getJob(done.getId()).getStatus());
+        release("Workload");
+        awaitStatus(live.getId(), ReportJobStatus.DONE);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown job ids")
+    void testUnknownJob() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> jobService.getJob(999_999L));
+        assertTrue(e.getMessage().contains("not found"));
+    }
+
+    private static SavedReportArchive record(String reportType, ReportJobStatus status) {
+        SavedReportArchive report = new SavedReportArchive();
+        report.setReportName(reportType + "_" + System.nanoTime());
+        report.setReportType(reportType);
+        report.setFileFormat("CSV");
+        report.setStatus(status);
+        return report;
+    }
+
+    private void release(String reportType) {
+        gates.computeIfAbsent(reportType, t -> new CountDownLatch(1)).countDown();
+    }
+
+    private SavedReportArchive awaitStatus(Long id, ReportJobStatus status) {
+        awaitCondition(() -> jobService.getJob(id).getStatus() == status);
+        return jobService.getJob(id);
+    }
+
+    private void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for report job");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+}
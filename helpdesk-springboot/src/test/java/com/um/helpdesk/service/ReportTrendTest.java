@@ -0,0 +1,213 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.Department;
+import com.um.helpdesk.entity.Student;
+import com.um.helpdesk.entity.Ticket;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: trend buckets are counted by GROUP BY queries bounded to the horizon,
+ * closed buckets are not counted again until the open one closes, and forecasts are built on them
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ReportingServiceImpl.class, SlaTracker.class, DepartmentCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)    // fresh trend cache per test
+@DisplayName("Ticket Trend Forecast - Integration Tests")
+class ReportTrendTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private ReportingService reportingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should bucket submissions into calendar weeks and ignore history outside the horizon")
+    void testWeeklyBuckets() {
+        LocalDateTime monday = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS)
+            .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        submit(monday.minusWeeks(10), 7);                       // outside the horizon
+        submit(monday.minusWeeks(3), 1);
+        submit(monday.minusWeeks(2).plusDays(2).plusHours(9), 2);
+        submit(monday.minusWeeks(1).plusDays(6).plusHours(23), 3);
+        submit(monday, 4);
+
+        Map<String, Integer> trends = reportingService.getTicketTrendForecast();
+
+        assertEquals(List.of("3 Weeks Ago", "2 Weeks Ago", "Last Week", "Current Week", "Next Week (Forecast)"),
+                     new ArrayList<>(trends.keySet()));
+        assertEquals(1, trends.get("3 Weeks Ago"));
+        assertEquals(2, trends.get("2 Weeks Ago"));
+        assertEquals(3, trends.get("Last Week"));
+        assertEquals(4, trends.get("Current Week"));
+        assertEquals(5, trends.get("Next Week (Forecast)"));
+    }
+
+    @Test
+    @DisplayName("Should support hourly buckets over a custom horizon")
+    void testHourlyBuckets() {
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        submit(hour.minusHours(2).plusMinutes(59), 2);
+        submit(hour.minusHours(1), 4);
+        submit(hour, 6);
+
+        Map<String, Integer> trends = reportingService.getTicketTrendForecast(3, ChronoUnit.HOURS);
+
+        assertEquals(2, trends.get("2 Hours Ago"));
+        assertEquals(4, trends.get("Last Hour"));
+        assertEquals(6, trends.get("Current Hour"));
+        assertEquals(8, trends.get("Next Hour (Forecast)"));
+    }
+
+    @Test
+    @DisplayName("Should reuse closed buckets and count only the open bucket on later calls")
+    void testClosedBucketsAreCached() {
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        submit(today.minusDays(1), 3);
+        submit(today, 1);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        assertEquals(1, reportingService.getTicketTrendForecast(5, ChronoUnit.DAYS).get("Current Day"));
+        assertEquals(2, statistics.getPrepareStatementCount());    // GROUP BY + open-bucket count
+
+        submit(today, 2);
+        statistics.clear();
+        Map<String, Integer> trends = reportingService.getTicketTrendForecast(5, ChronoUnit.DAYS);
+        assertEquals(1, statistics.getPrepareStatementCount());    // open-bucket count only
+        assertEquals(3, trends.get("Last Day"));
+        assertEquals(3, trends.get("Current Day"));
+    }
+
+    @Test
+    @DisplayName("Should keep one history per granularity and serve shorter horizons from its tail")
+    void testOneCachedHistoryPerGranularity() {
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        submit(today.minusDays(3), 1);
+        submit(today.minusDays(1), 3);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        reportingService.getTicketTrendForecast(5, ChronoUnit.DAYS);
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        Map<String, Integer> trends = reportingService.getTicketTrendForecast(3, ChronoUnit.DAYS);
+        assertEquals(1, statistics.getPrepareStatementCount());    // tail of the 4-bucket history
+        assertEquals(List.of("2 Days Ago", "Last Day", "Current Day", "Next Day (Forecast)"),
+                     new ArrayList<>(trends.keySet()));
+        assertEquals(0, trends.get("2 Days Ago"));
+        assertEquals(3, trends.get("Last Day"));
+
+        statistics.clear();
+        reportingService.getTicketTrendForecast(8, ChronoUnit.DAYS);
+        assertEquals(2, statistics.getPrepareStatementCount());    // longer horizon replaces the entry
+        statistics.clear();
+        assertEquals(1, reportingService.getTicketTrendForecast(5, ChronoUnit.DAYS).get("3 Days Ago"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should backtest every model and forecast overall and per department")
+    void testForecastPerDepartment() {
+        Department it = departmentRepository.save(new Department("Information Technology", "IT"));
+        Department finance = departmentRepository.save(new Department("Finance", "FINANCE"));
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        // Four weeks of a weekday-heavy pattern for IT, a flat 2 per day for Finance
+        int[] week = {8, 9, 10, 9, 8, 2, 1};
+        for (int day = 28; day >= 1; day--) {
+            LocalDateTime date = today.minusDays(day);
+            submit(date.plusHours(9), week[date.getDayOfWeek().ordinal()], it);
+            submit(date.plusHours(14), 2, finance);
+        }
+        submit(today, 50, it);    // the open day is not part of the history
+
+        Map<String, Object> forecast = reportingService.getTicketForecast(28, ChronoUnit.DAYS, 7, true);
+
+        assertEquals("DAYS", forecast.get("Granularity"));
+        assertEquals(7, ((List<?>) forecast.get("Forecast")).size());
+        Map<?, ?> models = (Map<?, ?>) forecast.get("Models");
+        assertEquals(List.of("Linear Regression", "Moving-Window Regression (14)", "Exponential Smoothing",
+                             "Holt-Winters (7)"), new ArrayList<>(models.keySet()));
+        assertNotEquals("n/a", ((Map<?, ?>) models.get("Holt-Winters (7)")).get("MAPE (%)"));
+
+        Map<?, ?> departments = (Map<?, ?>) forecast.get("By Department");
+        assertEquals(List.of("Finance", "Information Technology"), new ArrayList<>(departments.keySet()));
+        Map<?, ?> financeForecast = (Map<?, ?>) departments.get("Finance");
+        assertEquals(List.of(2L, 2L, 2L, 2L, 2L, 2L, 2L), financeForecast.get("Forecast"));
+        // Holt-Winters tracks the weekday pattern exactly once it has two weeks of history
+        Map<?, ?> itForecast = (Map<?, ?>) departments.get("Information Technology");
+        assertEquals("Holt-Winters (7)", itForecast.get("Best Model"));
+        List<?> itDays = (List<?>) itForecast.get("Forecast");
+        for (int h = 0; h < 7; h++) {
+            assertEquals((long) week[today.plusDays(h).getDayOfWeek().ordinal()], itDays.get(h), "day +" + h);
+        }
+    }
+
+    private void submit(LocalDateTime submittedAt, int count) {
+        submit(submittedAt, count, null);
+    }
+
+    private void submit(LocalDateTime submittedAt, int count, Department department) {
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = new Ticket("Ticket " + i, "Description", student);
+            ticket.setSubmittedAt(submittedAt);
+            ticket.setAssignedDepartment(department);
+            tickets.add(ticket);
+        }
+        ticketRepository.saveAll(tickets);
+    }
+}
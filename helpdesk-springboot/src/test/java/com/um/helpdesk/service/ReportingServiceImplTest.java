@@ -2,16 +2,24 @@ package com.um.helpdesk.service;
 
 import com.um.helpdesk.entity.*;
 import com.um.helpdesk.repository.SavedReportRepository;
+import com.um.helpdesk.repository.SubmissionCount;
 import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.TicketSlaRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.File;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -19,6 +27,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +39,9 @@ class ReportingServiceImplTest {
     @Mock
     private SavedReportRepository reportRepository;
 
+    @Mock
+    private DepartmentCache departmentCache;
+
     @InjectMocks
     private ReportingServiceImpl reportingService;
 
@@ -39,6 +51,8 @@ class ReportingServiceImplTest {
     void setUp() {
         // Initialize common mock data
         mockTickets = new ArrayList<>();
+        ReflectionTestUtils.setField(reportingService, "slaTracker",
+            new SlaTracker(ticketRepository, mock(PlatformTransactionManager.class)));
     }
 
     // =================================================================
@@ -48,7 +62,8 @@ class ReportingServiceImplTest {
     @Test
     void testGenerateReport_SaveAndReturn() {
         // Arrange
-        when(ticketRepository.findAll()).thenReturn(mockTickets);
+        when(ticketRepository.countByStatusIn(anyCollection())).thenReturn(List.of());
+        when(ticketRepository.streamByStatusIn(anyCollection())).thenReturn(mockTickets.stream());
         when(reportRepository.save(any(SavedReportArchive.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // Act
@@ -90,7 +105,8 @@ class ReportingServiceImplTest {
     @Test
     void testGenerateReport_CreatesPhysicalFile() {
         // Arrange
-        when(ticketRepository.findAll()).thenReturn(mockTickets);
+        when(ticketRepository.countByStatusIn(anyCollection())).thenReturn(List.of());
+        when(ticketRepository.streamByStatusIn(anyCollection())).thenReturn(mockTickets.stream());
         when(reportRepository.save(any(SavedReportArchive.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // Act
@@ -120,10 +136,13 @@ class ReportingServiceImplTest {
         // 2. Failure: Urgent ticket submitted 30 hours ago (SLA 24h) -> BREACH
         Ticket breach = createMockTicket(TicketPriority.URGENT, TicketStatus.OPEN, now.minusHours(30));
 
+        healthy.setId(1L);
+        breach.setId(2L);
         mockTickets.add(healthy);
         mockTickets.add(breach);
 
-        when(ticketRepository.findAll()).thenReturn(mockTickets);
+        // The SLA tracker loads its counters from one pass over the tickets
+        when(ticketRepository.streamSlaRows()).thenReturn(mockTickets.stream().map(this::slaRow));
 
         // Act
         Map<String, Object> analysis = reportingService.getFailureRateAnalysis();
@@ -133,6 +152,17 @@ class ReportingServiceImplTest {
         assertEquals(1L, analysis.get("Overdue Tickets")); // 1 Breach
         assertEquals("50.00", analysis.get("Failure Rate (%)")); // 1 out of 2 = 50%
         assertEquals("CRITICAL", analysis.get("System Health")); // > 25% is usually Critical
+
+        Map<?, ?> urgent = (Map<?, ?>) ((Map<?, ?>) analysis.get("By Priority")).get("URGENT");
+        assertEquals(2L, urgent.get("Evaluated"));
+        assertEquals(1L, urgent.get("Breached"));
+        Map<?, ?> unassigned = (Map<?, ?>) ((Map<?, ?>) analysis.get("By Department")).get("Unassigned");
+        assertEquals("50.00", unassigned.get("Failure Rate (%)"));
+
+        // Counters are reused: a second call does not scan the tickets again
+        reportingService.getFailureRateAnalysis();
+        verify(ticketRepository, times(1)).streamSlaRows();
+        verify(ticketRepository, never()).findAll();
     }
 
     // =================================================================
@@ -141,27 +171,19 @@ class ReportingServiceImplTest {
 
     @Test
     void testGetTicketTrendForecast_RisingTrend() {
-        // Arrange: Simulate a rising trend (1 -> 2 -> 3 -> 4)
-        LocalDateTime now = LocalDateTime.now();
-
-        // Week -3: 1 Ticket
-        mockTickets.add(createMockTicket(TicketPriority.LOW, TicketStatus.CLOSED, now.minusWeeks(3)));
-
-        // Week -2: 2 Tickets
-        mockTickets.add(createMockTicket(TicketPriority.LOW, TicketStatus.CLOSED, now.minusWeeks(2)));
-        mockTickets.add(createMockTicket(TicketPriority.LOW, TicketStatus.CLOSED, now.minusWeeks(2)));
-
-        // Week -1: 3 Tickets
-        mockTickets.add(createMockTicket(TicketPriority.LOW, TicketStatus.CLOSED, now.minusWeeks(1)));
-        mockTickets.add(createMockTicket(TicketPriority.LOW, TicketStatus.CLOSED, now.minusWeeks(1)));
-        mockTickets.add(createMockTicket(TicketPriority.LOW, TicketStatus.CLOSED, now.minusWeeks(1)));
+        // Arrange: Simulate a rising trend (1 -> 2 -> 3 -> 4), weeks starting on Monday
+        LocalDate thisMonday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
 
-        // Current Week: 4 Tickets
-        for(int i=0; i<4; i++) {
-            mockTickets.add(createMockTicket(TicketPriority.LOW, TicketStatus.OPEN, now.minusHours(1)));
-        }
+        // Closed weeks come from the per-day GROUP BY: 1, 2 and 3 tickets
+        List<SubmissionCount> perDay = List.of(
+            submissions(thisMonday.minusWeeks(3), 1),
+            submissions(thisMonday.minusWeeks(2), 1),
+            submissions(thisMonday.minusWeeks(2).plusDays(3), 1),
+            submissions(thisMonday.minusWeeks(1).plusDays(6), 3));
+        when(ticketRepository.countSubmittedPerDay(any(), any())).thenReturn(perDay);
 
-        when(ticketRepository.findAll()).thenReturn(mockTickets);
+        // Current Week: 4 Tickets, counted live
+        when(ticketRepository.countBySubmittedAtGreaterThanEqual(any())).thenReturn(4L);
 
         // Act
         Map<String, Integer> trends = reportingService.getTicketTrendForecast();
@@ -176,9 +198,40 @@ class ReportingServiceImplTest {
 
         // Allow slight tolerance in regression depending on exact math impl, but perfect linear is exact
         assertEquals(5, trends.get("Next Week (Forecast)"));
+
+        // Closed weeks are cached until the week ends; only the current week is counted again
+        reportingService.getTicketTrendForecast();
+        verify(ticketRepository, times(1)).countSubmittedPerDay(thisMonday.minusWeeks(3).atStartOfDay(),
+                                                                 thisMonday.atStartOfDay());
+        verify(ticketRepository, times(2)).countBySubmittedAtGreaterThanEqual(thisMonday.atStartOfDay());
+        verify(ticketRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetTicketTrendForecast_RejectsUnsupportedHorizon() {
+        assertThrows(RuntimeException.class, () -> reportingService.getTicketTrendForecast(4, ChronoUnit.MONTHS));
+        assertThrows(RuntimeException.class, () -> reportingService.getTicketTrendForecast(1, ChronoUnit.DAYS));
     }
 
     // --- HELPER METHOD ---
+    private SubmissionCount submissions(LocalDate day, long count) {
+        return new SubmissionCount() {
+            public LocalDate getDay() { return day; }
+            public int getHour() { return 0; }
+            public long getCount() { return count; }
+        };
+    }
+
+    private TicketSlaRow slaRow(Ticket t) {
+        return new TicketSlaRow() {
+            public Long getId() { return t.getId(); }
+            public TicketPriority getPriority() { return t.getPriority(); }
+            public Long getDepartmentId() { return null; }
+            public LocalDateTime getSubmittedAt() { return t.getSubmittedAt(); }
+            public LocalDateTime getResolvedAt() { return t.getResolvedAt(); }
+        };
+    }
+
     private Ticket createMockTicket(TicketPriority priority, TicketStatus status, LocalDateTime submittedAt) {
         Ticket t = new Ticket();
         t.setId((long) (Math.random() * 1000));
@@ -0,0 +1,194 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: SLA counters built from one pass over the tickets and kept live by ticket
+ * operations, matching a full recount of the table
+ */
+@DataJpaTest
+@Import({TicketServiceImpl.class, DepartmentCache.class, TechnicianWorkloadTracker.class,
+         SlaTracker.class, EscalationScheduler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("SLA Tracker - Integration Tests")
+class SlaTrackerTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private SlaTracker slaTracker;
+
+    private Department it;
+    private Department facilities;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        it = departmentRepository.save(new Department("Information Technology", "IT"));
+        facilities = departmentRepository.save(new Department("Facilities Management", "FACILITIES"));
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should rebuild per-priority and per-department counters from the tickets")
+    void testRebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        save(TicketPriority.URGENT, it, now.minusHours(30), null);                      // open, breached
+        save(TicketPriority.URGENT, it, now.minusHours(2), null);                       // open, within SLA
+        save(TicketPriority.HIGH, facilities, now.minusHours(60), now.minusHours(1));   // resolved late
+        save(TicketPriority.HIGH, facilities, now.minusHours(60), now.minusHours(20));  // resolved in time
+        save(TicketPriority.LOW, null, now.minusDays(10), null);                        // open, breached
+
+        slaTracker.rebuild();
+        SlaTracker.Snapshot sla = slaTracker.snapshot();
+
+        assertEquals(5, sla.getTotal().getEvaluated());
+        assertEquals(3, sla.getTotal().getBreached());
+        assertCounts(sla.getByPriority().get(TicketPriority.URGENT), 2, 1);
+        assertCounts(sla.getByPriority().get(TicketPriority.HIGH), 2, 1);
+        assertCounts(sla.getByPriority().get(TicketPriority.LOW), 1, 1);
+        assertCounts(sla.getByDepartment().get(it.getId()), 2, 1);
+        assertCounts(sla.getByDepartment().get(facilities.getId()), 2, 1);
+        assertCounts(sla.getByDepartment().get(null), 1, 1);
+        assertMatchesFullRecount(sla);
+    }
+
+    @Test
+    @DisplayName("Should follow creates, resolutions, transfers and deletes")
+    void testCountersFollowTicketOperations() {
+        slaTracker.rebuild();
+        LocalDateTime now = LocalDateTime.now();
+
+        Ticket overdue = ticketService.createTicket(ticket(TicketPriority.MEDIUM, it, now.minusHours(80)));
+        Ticket fresh = ticketService.createTicket(ticket(TicketPriority.MEDIUM, it, now.minusHours(1)));
+        assertCounts(slaTracker.snapshot().getByDepartment().get(it.getId()), 2, 1);
+
+        // Resolving inside the SLA keeps the ticket evaluated but never breached
+        Ticket resolved = ticketService.getTicketById(fresh.getId());
+        resolved.setStatus(TicketStatus.RESOLVED);
+        resolved.setResolvedAt(now);
+        ticketService.updateTicket(fresh.getId(), resolved);
+        assertCounts(slaTracker.snapshot().getTotal(), 2, 1);
+
+        // Raising the priority of an open ticket moves it to the new bucket and deadline
+        Ticket escalated = ticketService.getTicketById(overdue.getId());
+        escalated.setPriority(TicketPriority.URGENT);
+        ticketService.updateTicket(overdue.getId(), escalated);
+        assertCounts(slaTracker.snapshot().getByPriority().get(TicketPriority.MEDIUM), 1, 0);
+        assertCounts(slaTracker.snapshot().getByPriority().get(TicketPriority.URGENT), 1, 1);
+
+        ticketService.transferTicketToDepartment(overdue.getId(), facilities.getId(), "Wrong department");
+        SlaTracker.Snapshot sla = slaTracker.snapshot();
+        assertCounts(sla.getByDepartment().get(it.getId()), 1, 0);
+        assertCounts(sla.getByDepartment().get(facilities.getId()), 1, 1);
+        assertMatchesFullRecount(sla);
+
+        ticketService.deleteTicket(overdue.getId());
+        assertCounts(slaTracker.snapshot().getTotal(), 1, 0);
+        assertMatchesFullRecount(slaTracker.snapshot());
+    }
+
+    @Test
+    @DisplayName("Should flip an open ticket to breached once its deadline passes")
+    void testOpenTicketBreachesAtDeadline() {
+        slaTracker.rebuild();
+        // URGENT: breached after 25 whole hours; this one gets there in 300 ms
+        LocalDateTime submittedAt = LocalDateTime.now().minusHours(25).plus(Duration.ofMillis(300));
+        ticketService.createTicket(ticket(TicketPriority.URGENT, it, submittedAt));
+
+        assertCounts(slaTracker.snapshot().getTotal(), 1, 0);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (slaTracker.snapshot().getTotal().getBreached() == 0) {
+            assertTrue(System.nanoTime() < deadline, "Ticket never flipped to breached");
+            sleep(20);
+        }
+        assertCounts(slaTracker.snapshot().getByPriority().get(TicketPriority.URGENT), 1, 1);
+        assertMatchesFullRecount(slaTracker.snapshot());
+    }
+
+    // The original full-scan rule: more whole hours than the SLA limit between submission and
+    // resolution (or now)
+    private void assertMatchesFullRecount(SlaTracker.Snapshot sla) {
+        LocalDateTime now = LocalDateTime.now();
+        long evaluated = 0;
+        long breached = 0;
+        for (Ticket t : ticketRepository.findAll()) {
+            LocalDateTime end = t.getResolvedAt() != null ? t.getResolvedAt() : now;
+            evaluated++;
+            if (Duration.between(t.getSubmittedAt(), end).toHours() > SlaTracker.slaLimitHours(t.getPriority())) {
+                breached++;
+            }
+        }
+        assertCounts(sla.getTotal(), evaluated, breached);
+    }
+
+    private void assertCounts(SlaTracker.Counts counts, long evaluated, long breached) {
+        assertNotNull(counts);
+        assertEquals(evaluated, counts.getEvaluated(), "evaluated");
+        assertEquals(breached, counts.getBreached(), "breached");
+    }
+
+    private Ticket save(TicketPriority priority, Department department, LocalDateTime submittedAt,
+                        LocalDateTime resolvedAt) {
+        Ticket ticket = ticket(priority, department, submittedAt);
+        ticket.setResolvedAt(resolvedAt);
+        ticket.setStatus(resolvedAt != null ? TicketStatus.RESOLVED : TicketStatus.OPEN);
+        return ticketRepository.save(ticket);
+    }
+
+    private Ticket ticket(TicketPriority priority, Department department, LocalDateTime submittedAt) {
+        Ticket ticket = new Ticket("SLA ticket", "Description", student);
+        ticket.setPriority(priority);
+        ticket.setAssignedDepartment(department);
+        ticket.setSubmittedAt(submittedAt);
+        return ticket;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: workload table built from the GROUP BY query and kept live by ticket operations
+ */
+@DataJpaTest
+@Import({TicketServiceImpl.class, DepartmentCache.class, TechnicianWorkloadTracker.class,
+         SlaTracker.class, EscalationScheduler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Technician Workload Tracker - Integration Tests")
+class TechnicianWorkloadTrackerTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TechnicianWorkloadTracker workloadTracker;
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should count only active tickets and follow claims and resolutions")
+    void testWorkloadFollowsTicketOperations() {
+        Department it = departmentRepository.save(new Department("Information Technology", "IT"));
+        TechnicianSupportStaff bob = technician("bob@um.edu.my", "Bob Lee", it);
+        TechnicianSupportStaff siti = technician("siti@um.edu.my", "Siti Aminah", it);
+        Student student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+
+        ticket("Printer jam", student, bob, TicketStatus.ASSIGNED);
+        ticket("Old login issue", student, bob, TicketStatus.RESOLVED);
+        Ticket open = ticket("Cannot connect to wifi", student, null, TicketStatus.OPEN);
+        open.setAssignedDepartment(it);
+        ticketRepository.save(open);
+
+        workloadTracker.rebuild();
+        assertEquals(1, workloadTracker.getWorkload(bob.getId()));
+        assertEquals(0, workloadTracker.getWorkload(siti.getId()));
+        assertEquals(siti.getId(), workloadTracker.findLeastBusy(it.getId()));
+
+        ticketService.claimTicket(open.getId(), siti.getId());
+        assertEquals(1, workloadTracker.getWorkload(siti.getId()));
+        assertEquals(bob.getId(), workloadTracker.findLeastBusy(it.getId()));
+
+        Ticket resolved = ticketService.getTicketById(open.getId());
+        resolved.setStatus(TicketStatus.RESOLVED);
+        ticketService.updateTicket(open.getId(), resolved);
+        assertEquals(0, workloadTracker.getWorkload(siti.getId()));
+        assertEquals(siti.getId(), workloadTracker.findLeastBusy(it.getId()));
+    }
+
+    private TechnicianSupportStaff technician(String email, String name, Department department) {
+        TechnicianSupportStaff technician = new TechnicianSupportStaff();
+        technician.setEmail(email);
+        technician.setFullName(name);
+        technician.setDepartment(department);
+        return userRepository.save(technician);
+    }
+
+    private Ticket ticket(String title, User submittedBy, TechnicianSupportStaff assignee, TicketStatus status) {
+        Ticket ticket = new Ticket(title, title, submittedBy);
+        ticket.setAssignedTo(assignee);
+        ticket.setStatus(status);
+        return ticketRepository.save(ticket);
+    }
+}
@@ -0,0 +1,117 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.dto.TicketIntakeRequest;
+import com.um.helpdesk.dto.TicketIntakeResult;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TicketEventRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: bulk intake routes, balances and batch-inserts a whole chunk
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({TicketServiceImpl.class, DepartmentCache.class, DepartmentCacheInvalidator.class,
+         TechnicianWorkloadTracker.class, SlaTracker.class, EscalationScheduler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Bulk Ticket Intake - Integration Tests")
+class TicketBatchIntakeTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketEventRepository ticketEventRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TechnicianWorkloadTracker workloadTracker;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        ticketEventRepository.deleteAllInBatch();
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should spread a batch evenly over the department and insert it in JDBC batches")
+    void testBatchIsBalancedAndBatched() {
+        Department it = departmentRepository.save(new Department("Information Technology", "IT"));
+        departmentRepository.save(new Department("Facilities Management", "FACILITIES"));
+        TechnicianSupportStaff bob = technician("bob@um.edu.my", "Bob Lee", it);
+        TechnicianSupportStaff siti = technician("siti@um.edu.my", "Siti Aminah", it);
+        Student student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+        workloadTracker.rebuild();
+
+        List<TicketIntakeRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            requests.add(new TicketIntakeRequest("WiFi outage " + i, "Cannot connect to the network", "Network", student.getId()));
+        }
+        requests.add(new TicketIntakeRequest(null, "No title", null, student.getId()));
+        requests.add(new TicketIntakeRequest("Ghost", "Unknown submitter", null, 999_999L));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<TicketIntakeResult> results = ticketService.createTicketBatch(requests, 100);
+
+        assertEquals(42, results.size());
+        assertEquals(100, results.get(0).getIndex());
+        assertTrue(results.subList(0, 40).stream().allMatch(TicketIntakeResult::isCreated));
+        assertEquals("IT", results.get(0).getDepartmentCode());
+        assertFalse(results.get(40).isCreated());
+        assertEquals("Title is required", results.get(40).getError());
+        assertFalse(results.get(41).isCreated());
+
+        assertEquals(20, ticketRepository.countActiveTicketsByTechnician(bob.getId()));
+        assertEquals(20, ticketRepository.countActiveTicketsByTechnician(siti.getId()));
+        assertEquals(20, workloadTracker.getWorkload(bob.getId()));
+
+        // 40 tickets plus their submitted/assigned outbox rows, but only a handful of JDBC statements/round trips
+        assertEquals(40, statistics.getEntityStatistics(Ticket.class.getName()).getInsertCount());
+        assertEquals(80, ticketEventRepository.count());
+        assertTrue(statistics.getPrepareStatementCount() < 15,
+            "Expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    private TechnicianSupportStaff technician(String email, String name, Department department) {
+        TechnicianSupportStaff technician = new TechnicianSupportStaff();
+        technician.setEmail(email);
+        technician.setFullName(name);
+        technician.setDepartment(department);
+        return userRepository.save(technician);
+    }
+}
@@ -0,0 +1,184 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.TicketEventRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration test: ticket changes write outbox rows in their own transaction, and the relay
+ * turns them into notifications exactly once even when a batch is replayed or fails
+ */
+@DataJpaTest
+@Import({TicketServiceImpl.class, NotificationServiceImpl.class, NotificationPipeline.class,
+         DepartmentCache.class, TechnicianWorkloadTracker.class, SlaTracker.class, EscalationScheduler.class,
+         NotificationRetryEngine.class, UnreadCountTracker.class, DeliveryStatisticsTracker.class,
+         NotificationStreamHub.class, NotificationBroadcaster.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Ticket Event Relay - Integration Tests")
+class TicketEventRelayTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private TicketEventRepository ticketEventRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationPipeline pipeline;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        ticketEventRepository.deleteAllInBatch();
+        student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.awaitIdle(TIMEOUT);
+        ticketEventRepository.deleteAllInBatch();
+        notificationRepository.deleteAllInBatch();
+        ticketRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should write outbox rows only when the ticket transaction commits")
+    void testOutboxWrittenWithTicket() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ticketService.createTicket(new Ticket("Rolled back", "Description", student));
+            status.setRollbackOnly();
+        });
+        assertEquals(0, ticketEventRepository.count());
+
+        Ticket ticket = ticketService.createTicket(new Ticket("Projector broken", "Description", student));
+
+        List<TicketEvent> pending = ticketEventRepository.findAll();
+        assertEquals(1, pending.size());
+        assertEquals(TicketEventType.SUBMITTED, pending.get(0).getEventType());
+        assertEquals(ticket.getId(), pending.get(0).getTicketId());
+        assertEquals(student.getId(), pending.get(0).getRecipientId());
+        assertEquals(0, notificationRepository.count());    // nothing until the relay runs
+    }
+
+    @Test
+    @DisplayName("Should relay pending events into notifications and empty the outbox")
+    void testRelayBatch() {
+        Ticket ticket = ticketService.createTicket(new Ticket("Projector broken", "Description", student));
+        ticket.setStatus(TicketStatus.RESOLVED);
+        ticketService.updateTicket(ticket.getId(), ticket);
+        assertEquals(2, ticketEventRepository.count());
+
+        TicketEventRelay relay = relay(notificationService);
+        assertEquals(2, relay.relayBatch());
+        assertEquals(0, relay.relayBatch());
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+
+        assertEquals(0, ticketEventRepository.count());
+        List<Notification> notifications = notificationRepository.findAll();
+        assertEquals(2, notifications.size());
+        assertTrue(notifications.stream().anyMatch(n -> n.getType() == NotificationType.TICKET_SUBMITTED));
+        assertTrue(notifications.stream().anyMatch(n -> n.getType() == NotificationType.TICKET_RESOLVED));
+        notifications.forEach(n -> {
+            assertEquals(ticket.getId(), n.getRelatedTicketId());
+            assertNotNull(n.getIdempotencyKey());
+            assertEquals(NotificationStatus.DELIVERED, n.getStatus());
+        });
+
+        TicketEventRelay.Metrics metrics = relay.metrics();
+        assertEquals(2, metrics.getRelayed());
+        assertEquals(2, metrics.getNotificationsCreated());
+        assertEquals(1, metrics.getBatches());
+        assertEquals(2, metrics.getLastBatchSize());
+        assertEquals(0, metrics.getPending());
+    }
+
+    @Test
+    @DisplayName("Should not duplicate notifications when a relayed batch is replayed")
+    void testReplayIsIdempotent() {
+        ticketService.createTicket(new Ticket("Projector broken", "Description", student));
+        List<NotificationEvent> events = new ArrayList<>();
+        ticketEventRepository.findAll().forEach(e -> events.add(TicketEventRelay.toNotificationEvent(e)));
+
+        TicketEventRelay relay = relay(notificationService);
+        assertEquals(1, relay.relayBatch());
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+        assertEquals(1, notificationRepository.count());
+
+        // Same rows again, as after a commit the relay never saw acknowledged
+        int created = new TransactionTemplate(transactionManager)
+            .execute(status -> notificationService.recordEvents(events));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+
+        assertEquals(0, created);
+        assertEquals(1, notificationRepository.count());
+        assertEquals(1, pipeline.metrics().getDuplicates());
+    }
+
+    @Test
+    @DisplayName("Should leave a failed batch in the outbox for the next poll")
+    void testFailedBatchStaysPending() {
+        ticketService.createTicket(new Ticket("Projector broken", "Description", student));
+        NotificationService failing = mock(NotificationService.class);
+        when(failing.recordEvents(anyList())).thenThrow(new RuntimeException("Database unavailable"));
+
+        TicketEventRelay failingRelay = relay(failing);
+        assertThrows(RuntimeException.class, failingRelay::relayBatch);
+        assertEquals(1, failingRelay.metrics().getFailedBatches());
+        assertEquals(1, failingRelay.metrics().getPending());
+
+        assertEquals(1, relay(notificationService).relayBatch());
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+        assertEquals(0, ticketEventRepository.count());
+        assertEquals(1, notificationRepository.count());
+    }
+
+    private TicketEventRelay relay(NotificationService service) {
+        return new TicketEventRelay(ticketEventRepository, service, transactionManager,
+            TicketEventRelay.BATCH_SIZE, TicketEventRelay.POLL_INTERVAL, false);
+    }
+}
@@ -0,0 +1,159 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.dto.CursorPage;
+import com.um.helpdesk.dto.TicketSummary;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TicketRepository;
+import com.um.helpdesk.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: walking keyset pages returns every ticket exactly once, in order
+ */
+@DataJpaTest
+@Import({TicketServiceImpl.class, DepartmentCache.class, TechnicianWorkloadTracker.class,
+         SlaTracker.class, EscalationScheduler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Ticket Keyset Pagination - Integration Tests")
+class TicketPaginationTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    private Department it;
+    private List<Ticket> saved;
+
+    @BeforeEach
+    void setUp() {
+        it = departmentRepository.save(new Department("Information Technology", "IT"));
+        Student student = new Student();
+        student.setEmail("ali@siswa.um.edu.my");
+        student.setFullName("Ali Student");
+        student = userRepository.save(student);
+
+        // Many tickets share a timestamp so the id tie-breaker is exercised
+        LocalDateTime base = LocalDateTime.of(2025, 1, 6, 9, 0);
+        TicketPriority[] priorities = TicketPriority.values();
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            Ticket ticket = new Ticket("Ticket " + i, "Description " + i, student);
+            ticket.setPriority(priorities[i % priorities.length]);
+            ticket.setStatus(i % 5 == 0 ? TicketStatus.CLOSED : TicketStatus.OPEN);
+            ticket.setAssignedDepartment(it);
+            ticket.setCreatedAt(base.plusMinutes(i / 4));
+            tickets.add(ticket);
+        }
+        saved = ticketRepository.saveAll(tickets);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should page through all tickets by (createdAt, id)")
+    void testPagesByCreatedAt() {
+        List<Long> expected = saved.stream()
+            .sorted(Comparator.comparing(Ticket::getCreatedAt).thenComparing(Ticket::getId))
+            .map(Ticket::getId)
+            .collect(Collectors.toList());
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Ticket> page = ticketService.getTicketsPage(cursor, 5);
+            assertTrue(page.getSize() <= 5);
+            page.getItems().forEach(t -> seen.add(t.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("Should page the unassigned queue by priority, then age")
+    void testPagesUnassignedQueueByPriority() {
+        List<Long> expected = saved.stream()
+            .filter(t -> t.getStatus() == TicketStatus.OPEN)
+            .sorted(Comparator.comparing(Ticket::getPriority).reversed()
+                .thenComparing(Ticket::getCreatedAt)
+                .thenComparing(Ticket::getId))
+            .map(Ticket::getId)
+            .collect(Collectors.toList());
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Ticket> page = ticketService.getUnassignedTicketsForDepartmentPage(it.getId(), cursor, 4);
+            page.getItems().forEach(t -> seen.add(t.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+        assertEquals(TicketPriority.URGENT, ticketRepository.findById(seen.get(0)).orElseThrow().getPriority());
+    }
+
+    @Test
+    @DisplayName("Should return summary rows in the same pages as full tickets")
+    void testSummaryPagesMatchFullPages() {
+        String fullCursor = null;
+        String summaryCursor = null;
+        do {
+            CursorPage<Ticket> full = ticketService.getUnassignedTicketsForDepartmentPage(it.getId(), fullCursor, 6);
+            CursorPage<TicketSummary> summary =
+                ticketService.getUnassignedTicketSummariesForDepartmentPage(it.getId(), summaryCursor, 6);
+
+            assertEquals(full.getItems().stream().map(Ticket::getId).collect(Collectors.toList()),
+                summary.getItems().stream().map(TicketSummary::id).collect(Collectors.toList()));
+            summary.getItems().forEach(row -> {
+                assertEquals("IT", row.departmentCode());
+                assertNull(row.assigneeName());
+            });
+
+            fullCursor = full.getNextCursor();
+            summaryCursor = summary.getNextCursor();
+            assertEquals(fullCursor, summaryCursor);
+        } while (fullCursor != null);
+
+        CursorPage<TicketSummary> closed = ticketService.getTicketSummariesByStatusPage(TicketStatus.CLOSED, null, 50);
+        assertEquals(5, closed.getSize());
+        assertNull(closed.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors and out-of-range page sizes")
+    void testRejectsBadInput() {
+        assertThrows(RuntimeException.class, () -> ticketService.getTicketsPage("not-a-cursor", 10));
+        assertThrows(RuntimeException.class, () -> ticketService.getTicketsPage(null, 0));
+        assertThrows(RuntimeException.class, () -> ticketService.getTicketsPage(null, 10_000));
+    }
+}
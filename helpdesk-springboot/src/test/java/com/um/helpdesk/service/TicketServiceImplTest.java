@@ -2,14 +2,16 @@ package com.um.helpdesk.service;
 
 import com.um.helpdesk.entity.*;
 import com.um.helpdesk.repository.DepartmentRepository;
+import com.um.helpdesk.repository.TechnicianWorkload;
+import com.um.helpdesk.repository.TicketEventRepository;
 import com.um.helpdesk.repository.TicketRepository;
 import com.um.helpdesk.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -38,7 +40,9 @@ class TicketServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private TicketEventRepository ticketEventRepository;
+
     private TicketServiceImpl ticketService;
 
     private Department itDepartment;
@@ -53,6 +57,10 @@ class TicketServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ticketService = new TicketServiceImpl(ticketRepository, userRepository,
+            new DepartmentCache(departmentRepository), new TechnicianWorkloadTracker(ticketRepository),
+            new SlaTracker(ticketRepository, mock(PlatformTransactionManager.class)), mock(EscalationScheduler.class),
+            ticketEventRepository);
 
         // Create test departments
         itDepartment = new Department("Information Technology", "IT");
@@ -164,9 +172,11 @@ class TicketServiceImplTest {
         // Arrange
         when(ticketRepository.findById(1L)).thenReturn(Optional.of(wifiTicket));
         when(departmentRepository.findAll()).thenReturn(Arrays.asList(itDepartment, facilitiesDepartment));
-        when(userRepository.findAll()).thenReturn(Arrays.asList(technicianBob, technicianSiti, technicianKumar));
-        when(ticketRepository.countActiveTicketsByTechnician(1L)).thenReturn(2L);
-        when(ticketRepository.countActiveTicketsByTechnician(2L)).thenReturn(1L);  // Siti has less workload
+        when(ticketRepository.findTechnicianWorkloads()).thenReturn(Arrays.asList(
+            workload(technicianBob, 2),
+            workload(technicianSiti, 1),  // Siti has less workload
+            workload(technicianKumar, 0)));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(technicianSiti));
         when(ticketRepository.save(any(Ticket.class))).thenReturn(wifiTicket);
 
         // Act
@@ -219,6 +229,8 @@ class TicketServiceImplTest {
         assertEquals(TicketStatus.ASSIGNED, result.getStatus());
         assertNotNull(result.getAssignedAt());
         verify(ticketRepository).save(wifiTicket);
+        verify(ticketEventRepository).save(argThat(e -> e.getEventType() == TicketEventType.ASSIGNED
+            && e.getRecipientId().equals(technicianBob.getId())));
     }
 
     @Test
@@ -464,6 +476,7 @@ class TicketServiceImplTest {
         assertEquals(TicketStatus.OPEN, result.getStatus());
         assertNotNull(result.getSubmittedAt());
         verify(ticketRepository).save(wifiTicket);
+        verify(ticketEventRepository).save(argThat(e -> e.getEventType() == TicketEventType.SUBMITTED));
     }
 
     @Test
@@ -513,9 +526,10 @@ class TicketServiceImplTest {
     @DisplayName("Should find least busy technician")
     void testFindLeastBusyTechnician() {
         // Arrange
-        when(userRepository.findAll()).thenReturn(Arrays.asList(technicianBob, technicianSiti));
-        when(ticketRepository.countActiveTicketsByTechnician(1L)).thenReturn(5L);
-        when(ticketRepository.countActiveTicketsByTechnician(2L)).thenReturn(2L);  // Siti has less
+        when(ticketRepository.findTechnicianWorkloads()).thenReturn(Arrays.asList(
+            workload(technicianBob, 5),
+            workload(technicianSiti, 2)));  // Siti has less
+        when(userRepository.findById(2L)).thenReturn(Optional.of(technicianSiti));
 
         // Act
         TechnicianSupportStaff result = ticketService.findLeastBusyTechnician(1L);
@@ -523,6 +537,42 @@ class TicketServiceImplTest {
         // Assert
         assertNotNull(result);
         assertEquals(technicianSiti, result, "Should return technician with least workload");
+        verify(userRepository, never()).findAll();
+        verify(ticketRepository, never()).countActiveTicketsByTechnician(any());
+    }
+
+    @Test
+    @DisplayName("Should pick a different technician once claims shift the workload")
+    void testFindLeastBusyTechnicianFollowsClaims() {
+        // Arrange
+        when(ticketRepository.findTechnicianWorkloads()).thenReturn(Arrays.asList(
+            workload(technicianBob, 1),
+            workload(technicianSiti, 0)));
+        when(ticketRepository.findById(1L)).thenReturn(Optional.of(wifiTicket));
+        when(ticketRepository.findById(2L)).thenReturn(Optional.of(acTicket));
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(technicianBob));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(technicianSiti));
+        wifiTicket.setAssignedDepartment(itDepartment);
+        acTicket.setAssignedDepartment(itDepartment);
+
+        // Act
+        assertEquals(technicianSiti, ticketService.findLeastBusyTechnician(1L));
+        ticketService.claimTicket(1L, 2L);
+        ticketService.claimTicket(2L, 2L);
+
+        // Assert: Siti now carries 2 tickets, Bob still 1
+        assertEquals(technicianBob, ticketService.findLeastBusyTechnician(1L));
+        verify(ticketRepository, times(1)).findTechnicianWorkloads();
+    }
+
+    private static TechnicianWorkload workload(TechnicianSupportStaff technician, long activeTickets) {
+        return new TechnicianWorkload() {
+            public Long getTechnicianId() { return technician.getId(); }
+            public Long getDepartmentId() { return technician.getDepartment().getId(); }
+            public boolean isActive() { return technician.isActive(); }
+            public long getActiveTickets() { return activeTickets; }
+        };
     }
 
     @Test
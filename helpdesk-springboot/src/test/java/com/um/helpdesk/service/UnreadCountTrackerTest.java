@@ -0,0 +1,225 @@
+package com.um.helpdesk.service;
+
+import com.um.helpdesk.delivery.DeliveryGateway;
+import com.um.helpdesk.entity.*;
+import com.um.helpdesk.repository.NotificationRepository;
+import com.um.helpdesk.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: unread badges are served from memory once seeded, follow creates, reads and
+ * deletes after commit, and reconciliation repairs counts changed behind the services' back
+ */
+// No coalescing: its digest thread polls the database, which the statement counts would pick up
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                           "helpdesk.notifications.coalesce-window=PT0S"})
+@Import({NotificationServiceImpl.class, NotificationPipeline.class, EscalationScheduler.class,
+         NotificationRetryEngine.class, UnreadCountTracker.class, DeliveryStatisticsTracker.class,
+         NotificationStreamHub.class, NotificationBroadcaster.class, DeliveryGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Unread Count Tracker - Integration Tests")
+class UnreadCountTrackerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationPipeline pipeline;
+
+    @Autowired
+    private UnreadCountTracker unreadCounts;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NotificationRetryEngine retryEngine;
+
+    private Student ali;
+    private Student mei;
+
+    @BeforeEach
+    void setUp() {
+        retryEngine.shutdown();    // nor its poll every second
+        ali = student("ali@siswa.um.edu.my", "Ali Student");
+        mei = student("mei@siswa.um.edu.my", "Mei Student");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.awaitIdle(TIMEOUT);
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+        unreadCounts.reconcile();    // the tracker bean outlives each test
+    }
+
+    @Test
+    @DisplayName("Should serve unread counts from memory once seeded, without a user lookup")
+    void testServedFromMemory() {
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            notifications.add(notification(i < 20 ? ali : mei, i % 5 == 0));
+        }
+        notificationRepository.saveAll(notifications);
+
+        // Not yet seeded: one COUNT by recipient id, no user lookup
+        UnreadCountTracker cold = new UnreadCountTracker(notificationRepository, Duration.ofMinutes(5), false);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(16, cold.getUnreadCount(ali.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        cold.reconcile();
+        statistics.clear();
+        assertEquals(16, cold.getUnreadCount(ali.getId()));
+        assertEquals(8, cold.getUnreadCount(mei.getId()));
+        assertEquals(0, cold.getUnreadCount(999_999L));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        UnreadCountTracker.Metrics metrics = cold.metrics();
+        assertTrue(metrics.isLoaded());
+        assertEquals(2, metrics.getRecipients());
+        assertEquals(3, metrics.getServedFromMemory());
+        assertEquals(1, metrics.getServedFromDatabase());
+    }
+
+    @Test
+    @DisplayName("Should follow creates, reads and deletes made through the services")
+    void testFollowsServiceChanges() {
+        unreadCounts.reconcile();
+        assertEquals(0, notificationService.getUnreadCount(ali.getId()));
+
+        Notification first = notificationService.createNotification(notification(ali, false));
+        Notification second = notificationService.createNotification(notification(ali, false));
+        notificationService.createNotification(notification(ali, false));
+        assertEquals(3, notificationService.getUnreadCount(ali.getId()));
+
+        notificationService.markAsRead(first.getId());
+        notificationService.markAsRead(first.getId());    // already read: no change
+        assertEquals(2, notificationService.getUnreadCount(ali.getId()));
+
+        notificationService.deleteNotification(second.getId());
+        assertEquals(1, notificationService.getUnreadCount(ali.getId()));
+
+        // Pipeline inserts count once their batch commits
+        pipeline.saveAndDeliver(List.of(
+            NotificationEvent.ticketSubmitted(1L, ali.getId()), NotificationEvent.ticketSubmitted(2L, mei.getId())));
+        assertTrue(pipeline.awaitIdle(TIMEOUT));
+        assertEquals(2, notificationService.getUnreadCount(ali.getId()));
+        assertEquals(1, notificationService.getUnreadCount(mei.getId()));
+
+        assertEquals(2, notificationService.markAllAsRead(ali.getId()));
+        assertEquals(0, notificationService.getUnreadCount(ali.getId()));
+
+        // A rolled-back create leaves the count alone
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationService.createNotification(notification(mei, false));
+            status.setRollbackOnly();
+        });
+        assertEquals(1, notificationService.getUnreadCount(mei.getId()));
+
+        assertEquals(0, unreadCounts.reconcile());    // nothing drifted
+    }
+
+    @Test
+    @DisplayName("Should repair counts changed outside the services on reconciliation")
+    void testReconcileRepairsDrift() {
+        unreadCounts.reconcile();
+        for (int i = 0; i < 5; i++) {
+            notificationService.createNotification(notification(ali, false));
+        }
+        // Written straight to the repository, bypassing the tracker
+        notificationRepository.save(notification(mei, false));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            notificationRepository.markReadUpTo(ali.getId(), Long.MAX_VALUE, LocalDateTime.now()));
+        assertEquals(5, notificationService.getUnreadCount(ali.getId()));
+        assertEquals(0, notificationService.getUnreadCount(mei.getId()));
+
+        long correctedBefore = unreadCounts.metrics().getCorrected();
+        assertEquals(2, unreadCounts.reconcile());
+        assertEquals(0, notificationService.getUnreadCount(ali.getId()));
+        assertEquals(1, notificationService.getUnreadCount(mei.getId()));
+        assertEquals(correctedBefore + 2, unreadCounts.metrics().getCorrected());
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent updates to one recipient's counter")
+    void testConcurrentAdjustments() throws Exception {
+        UnreadCountTracker tracker = new UnreadCountTracker(notificationRepository, Duration.ofMinutes(5), false);
+        tracker.reconcile();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        tracker.adjust(ali.getId(), +1);
+                        if (i % 2 == 0) {
+                            tracker.adjust(ali.getId(), -1);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(40_000, tracker.getUnreadCount(ali.getId()));
+    }
+
+    private Student student(String email, String name) {
+        Student student = new Student();
+        student.setEmail(email);
+        student.setFullName(name);
+        return userRepository.save(student);
+    }
+
+    private Notification notification(User recipient, boolean read) {
+        Notification notification = new Notification();
+        notification.setRecipient(recipient);
+        notification.setTitle("Ticket update");
+        notification.setMessage("Your ticket was updated");
+        notification.setType(NotificationType.TICKET_STATUS_CHANGED);
+        notification.setStatus(read ? NotificationStatus.READ : NotificationStatus.DELIVERED);
+        notification.setRead(read);
+        return notification;
+    }
+}